@@ -0,0 +1,99 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * AgentTimeQueueBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.function.Supplier;
+
+import org.matsim.core.config.groups.QSimConfigGroup.AgentTimeQueue;
+import org.matsim.core.utils.collections.CalendarQueue;
+
+/**
+ * Compares the data structures available for {@link AgentTimeQueue} with the access pattern of the activity
+ * engine: all activities are added before the simulation starts, then the simulation advances second by second,
+ * removes all activities that end, and adds the follow-up activity of some agents, i.e. after a trip of a few
+ * minutes. The {@link PriorityBlockingQueue} is what the activity engine uses, the {@link PriorityQueue} what
+ * the teleportation engine uses.
+ * <p>
+ * Usage: <code>AgentTimeQueueBenchmark [numberOfActivities] [runs]</code>
+ */
+public class AgentTimeQueueBenchmark {
+
+	private static final int END_TIME = 30 * 3600;
+
+	private record Entry(double time, int id) {
+	}
+
+	public static void main(String[] args) {
+		int numberOfActivities = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+		// activity ends on whole seconds, concentrated around the morning and the afternoon peak
+		Random random = new Random(4711);
+		double[] times = new double[numberOfActivities];
+		for (int i = 0; i < numberOfActivities; i++) {
+			double peak = random.nextBoolean() ? 8 * 3600 : 17 * 3600;
+			times[i] = Math.max(0, Math.min(END_TIME - 1, Math.rint(peak + random.nextGaussian() * 2 * 3600)));
+		}
+
+		Comparator<Entry> tieBreaker = (e0, e1) -> Integer.compare(e1.id, e0.id);
+		Comparator<Entry> comparator = Comparator.comparingDouble(Entry::time).thenComparing(tieBreaker);
+		for (int run = 0; run < runs; run++) {
+			System.out.println("run " + run);
+			measure("priorityBlockingQueue", times, () -> new PriorityBlockingQueue<>(500, comparator));
+			measure("priorityQueue", times, () -> new PriorityQueue<>(30, comparator));
+			measure(AgentTimeQueue.calendarQueue.toString(), times, () -> new CalendarQueue<>(Entry::time, tieBreaker));
+		}
+	}
+
+	private static void measure(String name, double[] times, Supplier<Queue<Entry>> factory) {
+		System.gc();
+		Queue<Entry> queue = factory.get();
+		long start = System.nanoTime();
+		for (int i = 0; i < times.length; i++) {
+			queue.add(new Entry(times[i], i));
+		}
+		double fill = (System.nanoTime() - start) / 1e9;
+
+		start = System.nanoTime();
+		long checksum = 0;
+		int handled = 0;
+		for (int now = 0; now < END_TIME; now++) {
+			while (!queue.isEmpty() && queue.peek().time <= now) {
+				Entry e = queue.poll();
+				checksum = checksum * 31 + e.id;
+				handled++;
+				if (e.id % 4 == 0 && now + 600 < END_TIME) {
+					// a trip of 1 to 10 minutes, followed by another activity
+					queue.add(new Entry(now + 60 + (e.id % 541), e.id + 1));
+				}
+			}
+		}
+		double simulate = (System.nanoTime() - start) / 1e9;
+		System.out.printf("  %-22s fill: %6.2fs   simulate: %6.2fs   activities: %d   checksum: %d%n",
+				name, fill, simulate, handled, checksum);
+	}
+
+}
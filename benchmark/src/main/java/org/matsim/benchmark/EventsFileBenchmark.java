@@ -0,0 +1,110 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.algorithms.EventWriter;
+import org.matsim.core.events.algorithms.EventWriterBinary;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Compares writing and reading events as gzipped XML and in the binary format, and replaying the binary
+ * events with several handler groups.
+ * <p>
+ * Usage: <code>EventsFileBenchmark [outputDirectory] [numberOfEvents]</code>
+ */
+public class EventsFileBenchmark {
+
+	public static void main(String[] args) {
+		String directory = args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir");
+		int numberOfEvents = args.length > 1 ? Integer.parseInt(args[1]) : 3_000_000;
+
+		String xmlFile = new File(directory, "benchmark_events.xml.gz").getPath();
+		String binaryFile = new File(directory, "benchmark_events.bin").getPath();
+
+		long start = System.nanoTime();
+		writeEvents(new EventWriterXML(xmlFile), numberOfEvents);
+		System.out.printf("write xml:    %.2fs%n", (System.nanoTime() - start) / 1e9);
+		start = System.nanoTime();
+		writeEvents(new EventWriterBinary(binaryFile), numberOfEvents);
+		System.out.printf("write binary: %.2fs%n", (System.nanoTime() - start) / 1e9);
+
+		for (int run = 0; run < 2; run++) {
+			for (String file : new String[] { xmlFile, binaryFile }) {
+				EventsManager events = EventsUtils.createEventsManager();
+				long[] count = new long[1];
+				events.addHandler((BasicEventHandler) event -> count[0]++);
+				start = System.nanoTime();
+				events.initProcessing();
+				new MatsimEventsReader(events).readFile(file);
+				events.finishProcessing();
+				double seconds = (System.nanoTime() - start) / 1e9;
+				System.out.printf("read %-40s size=%dMB events=%d time=%.2fs throughput=%.0f events/s%n",
+						new File(file).getName(), new File(file).length() >> 20, count[0], seconds, count[0] / seconds);
+			}
+		}
+
+		// replay with several handlers that do some work, distributed to handler groups
+		for (int groups : new int[] { 1, 2, 4 }) {
+			EventHandler[] handlers = new EventHandler[4];
+			for (int i = 0; i < handlers.length; i++) {
+				Map<String, Integer> counts = new HashMap<>();
+				handlers[i] = (BasicEventHandler) event -> counts.merge(event.getAttributes().get("link"), 1, Integer::sum);
+			}
+			double eventsPerSecond = EventsUtils.readEvents(binaryFile, groups, handlers);
+			System.out.printf("replay binary with %d handler groups: throughput=%.0f events/s%n", groups, eventsPerSecond);
+		}
+	}
+
+	private static void writeEvents(EventWriter writer, int numberOfEvents) {
+		BasicEventHandler handler = (BasicEventHandler) writer;
+		for (int i = 0; i < numberOfEvents; i += 3) {
+			double time = 6 * 3600 + i / 100;
+			Id<Person> personId = Id.create(i % 100_000, Person.class);
+			Id<Vehicle> vehicleId = Id.create(i % 100_000, Vehicle.class);
+			Id<Link> linkId = Id.create(i % 20_000, Link.class);
+			Event[] events = {
+					new PersonDepartureEvent(time, personId, linkId, "car", "car"),
+					new LinkEnterEvent(time, vehicleId, linkId),
+					new LinkLeaveEvent(time, vehicleId, linkId) };
+			for (Event event : events) {
+				handler.handleEvent(event);
+			}
+		}
+		writer.closeFile();
+	}
+
+}
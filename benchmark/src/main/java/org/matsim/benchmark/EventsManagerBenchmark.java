@@ -0,0 +1,123 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Measures the throughput of the parallel events managers: events are created in the main thread as the mobsim
+ * would do it, with a call to {@link EventsManager#afterSimStep(double)} after every time step, and consumed by a
+ * number of cheap handlers.
+ * <p>
+ * Usage: <code>EventsManagerBenchmark [numberOfThreads] [eventsPerStep] [steps] [handlers]</code>
+ */
+public class EventsManagerBenchmark {
+
+	private enum Mode { parallel, simStepParallel, ringBuffer }
+
+	public static void main(String[] args) {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		int eventsPerStep = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		int steps = args.length > 2 ? Integer.parseInt(args[2]) : 3600;
+		int handlers = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+		LinkEnterEvent[] enterEvents = new LinkEnterEvent[eventsPerStep];
+		LinkLeaveEvent[] leaveEvents = new LinkLeaveEvent[eventsPerStep];
+		for (int i = 0; i < eventsPerStep; i++) {
+			Id<Link> linkId = Id.createLinkId(i % 1000);
+			Id<Vehicle> vehicleId = Id.createVehicleId(i);
+			enterEvents[i] = new LinkEnterEvent(0, vehicleId, linkId);
+			leaveEvents[i] = new LinkLeaveEvent(0, vehicleId, linkId);
+		}
+
+		for (int run = 0; run < 2; run++) {
+			// first round is warm-up
+			for (Mode mode : Mode.values()) {
+				EventsManager events = createEventsManager(mode, threads);
+				CountingHandler[] counters = new CountingHandler[handlers];
+				for (int h = 0; h < handlers; h++) {
+					counters[h] = new CountingHandler();
+					events.addHandler(counters[h]);
+				}
+
+				long start = System.nanoTime();
+				events.initProcessing();
+				for (int step = 0; step < steps; step++) {
+					for (int i = 0; i < eventsPerStep; i++) {
+						events.processEvent(new LinkEnterEvent(step, enterEvents[i].getVehicleId(), enterEvents[i].getLinkId()));
+						events.processEvent(new LinkLeaveEvent(step, leaveEvents[i].getVehicleId(), leaveEvents[i].getLinkId()));
+					}
+					events.afterSimStep(step);
+				}
+				events.finishProcessing();
+				long duration = System.nanoTime() - start;
+
+				long expected = 2L * eventsPerStep * steps;
+				for (CountingHandler counter : counters) {
+					if (counter.count != expected) {
+						throw new RuntimeException(mode + ": handler received " + counter.count + " events instead of " + expected);
+					}
+				}
+				if (run > 0) {
+					System.out.printf("%-16s threads=%d handlers=%d events=%d time=%.2fs throughput=%.0f events/s%n",
+							mode, threads, handlers, expected, duration / 1e9, expected / (duration / 1e9));
+				}
+			}
+		}
+	}
+
+	private static EventsManager createEventsManager(Mode mode, int threads) {
+		Config config = ConfigUtils.createConfig();
+		config.eventsManager().setNumberOfThreads(threads);
+		config.eventsManager().setSynchronizeOnSimSteps(mode != Mode.parallel);
+		config.eventsManager().setUseRingBuffer(mode == Mode.ringBuffer);
+		return EventsUtils.createEventsManager(config);
+	}
+
+	private static class CountingHandler implements LinkEnterEventHandler, LinkLeaveEventHandler {
+		private long count = 0;
+
+		@Override
+		public void handleEvent(LinkEnterEvent event) {
+			this.count++;
+		}
+
+		@Override
+		public void handleEvent(LinkLeaveEvent event) {
+			this.count++;
+		}
+
+		@Override
+		public void reset(int iteration) {
+			this.count = 0;
+		}
+	}
+
+}
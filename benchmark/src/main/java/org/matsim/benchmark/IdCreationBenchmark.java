@@ -0,0 +1,103 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Person;
+
+/**
+ * Measures the throughput of {@link Id#create(String, Class)} with several threads: first when all threads
+ * create the same new ids concurrently (as the parallel population readers do), then when they only look up
+ * existing ids, once from Strings and once from UTF-8 bytes.
+ * <p>
+ * Usage: <code>IdCreationBenchmark [numberOfThreads] [numberOfIds] [runs]</code>
+ */
+public class IdCreationBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int numberOfIds = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+		int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int run = 0; run < runs; run++) {
+			String[] keys = new String[numberOfIds];
+			byte[][] bytes = new byte[numberOfIds][];
+			for (int i = 0; i < numberOfIds; i++) {
+				keys[i] = "run" + run + "_person" + i;
+				bytes[i] = keys[i].getBytes(StandardCharsets.UTF_8);
+			}
+
+			double create = measure(executor, threads, t -> {
+				// every thread starts at a different position, so new ids are created concurrently by all threads
+				long sum = 0;
+				for (int i = 0; i < numberOfIds; i++) {
+					sum += Id.create(keys[(i + t * (numberOfIds / threads)) % numberOfIds], Person.class).index();
+				}
+				return sum;
+			});
+			double lookup = measure(executor, threads, t -> {
+				long sum = 0;
+				for (int i = 0; i < numberOfIds; i++) {
+					sum += Id.create(keys[(i + t * (numberOfIds / threads)) % numberOfIds], Person.class).index();
+				}
+				return sum;
+			});
+			double lookupBytes = measure(executor, threads, t -> {
+				long sum = 0;
+				for (int i = 0; i < numberOfIds; i++) {
+					byte[] key = bytes[(i + t * (numberOfIds / threads)) % numberOfIds];
+					sum += Id.createFromBytes(key, 0, key.length, Person.class).index();
+				}
+				return sum;
+			});
+			double total = (double) numberOfIds * threads;
+			System.out.printf("run %d, %d threads: create %.1f M ops/s, lookup %.1f M ops/s, lookup from bytes %.1f M ops/s%n",
+					run, threads, total / create / 1e6, total / lookup / 1e6, total / lookupBytes / 1e6);
+		}
+		executor.shutdown();
+	}
+
+	private interface Task {
+		long run(int thread);
+	}
+
+	private static double measure(ExecutorService executor, int threads, Task task) throws Exception {
+		List<Callable<Long>> callables = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			int thread = t;
+			callables.add(() -> task.run(thread));
+		}
+		long start = System.nanoTime();
+		for (Future<Long> f : executor.invokeAll(callables)) {
+			f.get();
+		}
+		return (System.nanoTime() - start) / 1e9;
+	}
+
+}
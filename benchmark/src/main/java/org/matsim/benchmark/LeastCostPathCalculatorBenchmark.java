@@ -0,0 +1,177 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.Random;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.speedy.SpeedyALTFactory;
+import org.matsim.core.router.speedy.SpeedyCHFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Compares the query throughput of {@link org.matsim.core.router.speedy.SpeedyALT} and
+ * {@link org.matsim.core.router.speedy.SpeedyCH} on a network with time-dependent travel times. Grid networks
+ * are the worst case for contraction hierarchies, as they have no hierarchy at all; use a real network to get
+ * meaningful results.
+ * <p>
+ * Usage: <code>LeastCostPathCalculatorBenchmark [networkFile|gridSize] [numberOfQueries]</code>
+ */
+public class LeastCostPathCalculatorBenchmark {
+
+	public static void main(String[] args) {
+		String networkArg = args.length > 0 ? args[0] : "300";
+		int numberOfQueries = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+
+		Random random = new Random(4711);
+		Network network;
+		if (networkArg.matches("\\d+")) {
+			network = createGrid(Integer.parseInt(networkArg), random);
+		} else {
+			network = NetworkUtils.readNetwork(networkArg);
+		}
+		PeakTravelTime travelTime = new PeakTravelTime(random);
+		Node[] nodes = network.getNodes().values().toArray(new Node[0]);
+		Node[] from = new Node[numberOfQueries];
+		Node[] to = new Node[numberOfQueries];
+		double[] times = new double[numberOfQueries];
+		for (int i = 0; i < numberOfQueries; i++) {
+			from[i] = nodes[random.nextInt(nodes.length)];
+			to[i] = nodes[random.nextInt(nodes.length)];
+			times[i] = 6 * 3600 + random.nextInt(4 * 3600);
+		}
+		System.out.printf("network: %d nodes, %d links%n", network.getNodes().size(), network.getLinks().size());
+
+		double[] altCosts = run("SpeedyALT", new SpeedyALTFactory(), network, travelTime, from, to, times);
+		double[] chCosts = run("SpeedyCH", new SpeedyCHFactory(), network, travelTime, from, to, times);
+		int different = 0;
+		for (int i = 0; i < numberOfQueries; i++) {
+			if (!(Math.abs(altCosts[i] - chCosts[i]) <= 1e-6) && !(Double.isNaN(altCosts[i]) && Double.isNaN(chCosts[i]))) {
+				different++;
+			}
+		}
+		System.out.printf("queries with different costs: %d%n", different);
+	}
+
+	private static double[] run(String name, LeastCostPathCalculatorFactory factory, Network network, PeakTravelTime travelTime, Node[] from, Node[] to, double[] times) {
+		long start = System.nanoTime();
+		LeastCostPathCalculator router = factory.createPathCalculator(network, travelTime, travelTime);
+		System.out.printf("%s: preprocessing %.2fs%n", name, (System.nanoTime() - start) / 1e9);
+
+		double[] costs = new double[from.length];
+		for (int run = 0; run < 3; run++) {
+			if (run > 0) {
+				// as in a new iteration, with new travel disutilities
+				start = System.nanoTime();
+				travelTime = new PeakTravelTime(travelTime);
+				router = factory.createPathCalculator(network, travelTime, travelTime);
+				System.out.printf("%s: new travel disutility %.3fs%n", name, (System.nanoTime() - start) / 1e9);
+			}
+			start = System.nanoTime();
+			for (int i = 0; i < from.length; i++) {
+				Path path = router.calcLeastCostPath(from[i], to[i], times[i], null, null);
+				costs[i] = path == null ? Double.NaN : path.travelCost;
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("%s run %d: %.0f queries/s%n", name, run, from.length / seconds);
+		}
+		return costs;
+	}
+
+	private static Network createGrid(int size, Random random) {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 200 + random.nextInt(100), y * 200 + random.nextInt(100)));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y], random);
+					addLink(network, nodes[x + 1][y], nodes[x][y], random);
+				}
+				if (y + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x][y + 1], random);
+					addLink(network, nodes[x][y + 1], nodes[x][y], random);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLink(Network network, Node from, Node to, Random random) {
+		Link link = network.getFactory().createLink(Id.createLinkId(from.getId() + "-" + to.getId()), from, to);
+		link.setLength(NetworkUtils.getEuclideanDistance(from.getCoord(), to.getCoord()));
+		// some links are faster roads
+		link.setFreespeed(random.nextInt(10) == 0 ? 22.2 : 13.9);
+		link.setCapacity(1000);
+		link.setNumberOfLanes(1);
+		network.addLink(link);
+	}
+
+	/**
+	 * Travel times are up to 3 times higher during the peak hours, by a random factor per link.
+	 */
+	private static class PeakTravelTime implements TravelTime, TravelDisutility {
+		private final double[] peakFactors;
+
+		PeakTravelTime(Random random) {
+			this.peakFactors = new double[Id.getNumberOfIds(Link.class)];
+			for (int i = 0; i < this.peakFactors.length; i++) {
+				this.peakFactors[i] = 1 + 2 * random.nextDouble();
+			}
+		}
+
+		PeakTravelTime(PeakTravelTime other) {
+			this.peakFactors = other.peakFactors;
+		}
+
+		@Override
+		public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+			double freespeedTime = link.getLength() / link.getFreespeed();
+			boolean peak = time >= 7 * 3600 && time < 9 * 3600;
+			return peak ? freespeedTime * this.peakFactors[link.getId().index()] : freespeedTime;
+		}
+
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			return getLinkTravelTime(link, time, person, vehicle);
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return link.getLength() / link.getFreespeed();
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.Random;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.ScoringConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.speedy.LeastCostPathTree;
+import org.matsim.core.router.speedy.ManyToManyLeastCostPathTree;
+import org.matsim.core.router.speedy.SpeedyGraph;
+import org.matsim.core.router.speedy.SpeedyGraphBuilder;
+
+/**
+ * Compares {@link ManyToManyLeastCostPathTree} with calling {@link LeastCostPathTree#calculate} in a loop,
+ * for a typical use case like a DRT insertion search where the destinations are a small part of the network.
+ * <p>
+ * Usage: <code>ManyToManyRoutingBenchmark networkFile [origins] [destinations] [numberOfThreads]</code>
+ */
+public class ManyToManyRoutingBenchmark {
+
+	public static void main(String[] args) {
+		Network network = NetworkUtils.readNetwork(args[0]);
+		int originCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+		int destinationCount = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+		int numberOfThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		Random random = new Random(4711);
+		Node[] nodes = network.getNodes().values().toArray(new Node[0]);
+		// DRT-like: destinations are close to each other, origins are spread over the whole network
+		Node center = nodes[random.nextInt(nodes.length)];
+		Node[] nearby = network.getNodes().values().stream()
+			.sorted((a, b) -> Double.compare(NetworkUtils.getEuclideanDistance(a.getCoord(), center.getCoord()), NetworkUtils.getEuclideanDistance(b.getCoord(), center.getCoord())))
+			.limit(nodes.length / 10)
+			.toArray(Node[]::new);
+		int[] fromNodes = new int[originCount];
+		double[] departureTimes = new double[originCount];
+		for (int i = 0; i < originCount; i++) {
+			fromNodes[i] = nodes[random.nextInt(nodes.length)].getId().index();
+			departureTimes[i] = 8 * 3600;
+		}
+		int[] toNodes = new int[destinationCount];
+		for (int i = 0; i < destinationCount; i++) {
+			toNodes[i] = nearby[random.nextInt(nearby.length)].getId().index();
+		}
+
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		FreespeedTravelTimeAndDisutility travelCosts = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		System.out.printf("network: %d nodes, %d links; %d x %d%n", network.getNodes().size(), network.getLinks().size(), originCount, destinationCount);
+
+		LeastCostPathTree tree = new LeastCostPathTree(graph, travelCosts, travelCosts);
+		ManyToManyLeastCostPathTree singleThreaded = new ManyToManyLeastCostPathTree(graph, travelCosts, travelCosts, 1);
+		ManyToManyLeastCostPathTree multiThreaded = new ManyToManyLeastCostPathTree(graph, travelCosts, travelCosts, numberOfThreads);
+		for (int run = 0; run < 5; run++) {
+			long start = System.nanoTime();
+			double[] costs = new double[originCount * destinationCount];
+			for (int o = 0; o < originCount; o++) {
+				tree.calculate(fromNodes[o], departureTimes[o], null, null);
+				for (int d = 0; d < destinationCount; d++) {
+					costs[o * destinationCount + d] = tree.getCost(toNodes[d]);
+				}
+			}
+			double loopSeconds = (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			ManyToManyLeastCostPathTree.Result result1 = singleThreaded.calculate(fromNodes, departureTimes, toNodes, null, null);
+			double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			ManyToManyLeastCostPathTree.Result resultN = multiThreaded.calculate(fromNodes, departureTimes, toNodes, null, null);
+			double multiSeconds = (System.nanoTime() - start) / 1e9;
+
+			for (int i = 0; i < costs.length; i++) {
+				if (costs[i] != result1.travelCosts[i] || costs[i] != resultN.travelCosts[i]) {
+					throw new IllegalStateException("different costs at index " + i);
+				}
+			}
+			System.out.printf("run %d: loop %.3fs, many-to-many 1 thread %.3fs, %d threads %.3fs%n", run, loopSeconds, singleSeconds, numberOfThreads, multiSeconds);
+		}
+	}
+
+}
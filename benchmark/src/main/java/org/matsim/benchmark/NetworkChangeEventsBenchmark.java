@@ -0,0 +1,191 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * NetworkChangeEventsBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.network.NetworkChangeEvent;
+import org.matsim.core.network.NetworkChangeEvent.ChangeType;
+import org.matsim.core.network.NetworkChangeEvent.ChangeValue;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+
+/**
+ * Measures the time-variant links with many network change events (e.g. weather and incidents): the time and memory
+ * to load the change events into the network, and the throughput of attribute lookups, once with increasing times
+ * per link like in the mobsim, and once with random times and several threads like in the routers.
+ * <p>
+ * Usage: <code>NetworkChangeEventsBenchmark [gridSize] [numberOfChangeEvents] [numberOfQueries] [threads] [runs]</code>, e.g.
+ * <code>NetworkChangeEventsBenchmark 100 5000000 10000000 4 3</code>.
+ */
+public class NetworkChangeEventsBenchmark {
+
+	private static final double END_TIME = 30 * 3600;
+
+	public static void main(String[] args) {
+		int gridSize = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		int numberOfChangeEvents = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+		int numberOfQueries = args.length > 2 ? Integer.parseInt(args[2]) : 10_000_000;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+		int runs = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+
+		Config config = ConfigUtils.createConfig();
+		config.network().setTimeVariantNetwork(true);
+		Network network = ScenarioUtils.createScenario(config).getNetwork();
+		createGrid(network, gridSize);
+		Link[] links = network.getLinks().values().toArray(new Link[0]);
+
+		Random random = new Random(4711);
+		Link[] queryLinks = new Link[numberOfQueries];
+		double[] queryTimes = new double[numberOfQueries];
+		for (int i = 0; i < numberOfQueries; i++) {
+			queryLinks[i] = links[random.nextInt(links.length)];
+			queryTimes[i] = random.nextDouble() * END_TIME;
+		}
+
+		for (int run = 0; run < runs; run++) {
+			NetworkUtils.setNetworkChangeEvents(network, new ArrayList<>()); // so that the events of the last run are not measured
+			List<NetworkChangeEvent> changeEvents = createChangeEvents(links, numberOfChangeEvents, new Random(run));
+
+			long memory = usedMemory();
+			long start = System.nanoTime();
+			NetworkUtils.setNetworkChangeEvents(network, changeEvents);
+			double load = (System.nanoTime() - start) / 1e9;
+			start = System.nanoTime();
+			for (Link link : links) {
+				link.getFreespeed(0);
+				link.getFlowCapacityPerSec(0);
+				link.getNumberOfLanes(0);
+			}
+			double recalc = (System.nanoTime() - start) / 1e9;
+			long timelineMemory = usedMemory() - memory;
+
+			// like the mobsim: every link is asked in every time step
+			int steps = Math.max(1, numberOfQueries / links.length);
+			double sum = 0;
+			start = System.nanoTime();
+			for (int step = 0; step < steps; step++) {
+				double time = step * END_TIME / steps;
+				for (Link link : links) {
+					sum += link.getFreespeed(time) + link.getFlowCapacityPerSec(time);
+				}
+			}
+			double increasing = (System.nanoTime() - start) / 1e9;
+
+			// like the routers: random links and times
+			start = System.nanoTime();
+			for (int i = 0; i < numberOfQueries; i++) {
+				sum += queryLinks[i].getFreespeed(queryTimes[i]);
+			}
+			double randomSingle = (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			sum += IntStream.range(0, threads).parallel().mapToDouble(t -> {
+				double s = 0;
+				for (int i = t; i < numberOfQueries; i += threads) {
+					s += queryLinks[i].getFreespeed(queryTimes[i]);
+				}
+				return s;
+			}).sum();
+			double randomParallel = (System.nanoTime() - start) / 1e9;
+
+			System.out.printf("run %d, %d links, %d change events: load %.2fs, recalc %.2fs, %d MB%n",
+					run, links.length, numberOfChangeEvents, load, recalc, timelineMemory >> 20);
+			// the checksum is printed so that the lookups cannot be optimized away
+			System.out.printf("  lookups: increasing times %.2f M/s, random times %.2f M/s, random times with %d threads %.2f M/s (checksum %.0f)%n",
+					2.0 * steps * links.length / increasing / 1e6, numberOfQueries / randomSingle / 1e6,
+					threads, numberOfQueries / randomParallel / 1e6, sum);
+		}
+	}
+
+	/**
+	 * Mostly short incidents on one link that reduce the capacity and are lifted again, and some weather changes of
+	 * the freespeed on many links.
+	 */
+	private static List<NetworkChangeEvent> createChangeEvents(Link[] links, int numberOfChangeEvents, Random random) {
+		List<NetworkChangeEvent> changeEvents = new ArrayList<>(numberOfChangeEvents);
+		while (changeEvents.size() < numberOfChangeEvents) {
+			double time = Math.floor(random.nextDouble() * END_TIME);
+			if (random.nextDouble() < 0.9) {
+				Link link = links[random.nextInt(links.length)];
+				NetworkChangeEvent incident = new NetworkChangeEvent(time);
+				incident.addLink(link);
+				incident.setFlowCapacityChange(new ChangeValue(ChangeType.FACTOR, 0.5));
+				changeEvents.add(incident);
+				NetworkChangeEvent cleared = new NetworkChangeEvent(time + 600 + random.nextInt(3600));
+				cleared.addLink(link);
+				cleared.setFlowCapacityChange(new ChangeValue(ChangeType.FACTOR, 2.0));
+				changeEvents.add(cleared);
+			} else {
+				NetworkChangeEvent weather = new NetworkChangeEvent(time);
+				int first = random.nextInt(links.length);
+				for (int i = 0; i < 20; i++) {
+					weather.addLink(links[(first + i) % links.length]);
+				}
+				weather.setFreespeedChange(new ChangeValue(ChangeType.FACTOR, 0.8 + 0.4 * random.nextDouble()));
+				changeEvents.add(weather);
+			}
+		}
+		return changeEvents;
+	}
+
+	private static void createGrid(Network network, int gridSize) {
+		Node[][] nodes = new Node[gridSize][gridSize];
+		for (int i = 0; i < gridSize; i++) {
+			for (int j = 0; j < gridSize; j++) {
+				nodes[i][j] = NetworkUtils.createAndAddNode(network, Id.createNodeId(i + "_" + j), new Coord(i * 200.0, j * 200.0));
+			}
+		}
+		for (int i = 0; i < gridSize; i++) {
+			for (int j = 0; j < gridSize; j++) {
+				if (i + 1 < gridSize) {
+					addLink(network, nodes[i][j], nodes[i + 1][j]);
+					addLink(network, nodes[i + 1][j], nodes[i][j]);
+				}
+				if (j + 1 < gridSize) {
+					addLink(network, nodes[i][j], nodes[i][j + 1]);
+					addLink(network, nodes[i][j + 1], nodes[i][j]);
+				}
+			}
+		}
+	}
+
+	private static void addLink(Network network, Node from, Node to) {
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(from.getId() + "-" + to.getId()), from, to, 200.0, 13.9, 600.0, 1.0);
+	}
+
+	private static long usedMemory() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
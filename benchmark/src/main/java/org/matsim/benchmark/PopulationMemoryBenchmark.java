@@ -0,0 +1,100 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.Controler;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.replanning.strategies.DefaultPlanStrategiesModule;
+import org.matsim.core.config.groups.ReplanningConfigGroup.StrategySettings;
+import org.matsim.core.scenario.ScenarioUtils;
+
+/**
+ * Runs a scenario with several plans per agent and reports the used heap after each iteration and the iteration
+ * times, with or without compacting the unselected plans (plans.compactingUnselectedPlans). Run it once for each
+ * setting in a separate JVM to get comparable numbers.
+ * <p>
+ * Usage: <code>PopulationMemoryBenchmark configFile iterations compactingUnselectedPlans</code>
+ */
+public class PopulationMemoryBenchmark {
+
+	public static void main(String[] args) {
+		Config config = ConfigUtils.loadConfig(args[0]);
+		int iterations = Integer.parseInt(args[1]);
+		boolean compacting = Boolean.parseBoolean(args[2]);
+
+		config.plans().setCompactingUnselectedPlans(compacting);
+		config.controller().setOutputDirectory(System.getProperty("java.io.tmpdir") + "/population-memory-benchmark");
+		config.controller().setOverwriteFileSetting(OutputDirectoryHierarchy.OverwriteFileSetting.deleteDirectoryIfExists);
+		config.controller().setLastIteration(iterations);
+		config.controller().setWriteEventsInterval(0);
+		config.controller().setWritePlansInterval(0);
+		config.controller().setCreateGraphsInterval(0);
+		config.controller().setDumpDataAtEnd(false);
+		config.replanning().setMaxAgentPlanMemorySize(5);
+		config.replanning().clearStrategySettings();
+		addStrategy(config, DefaultPlanStrategiesModule.DefaultSelector.ChangeExpBeta, 0.7);
+		addStrategy(config, DefaultPlanStrategiesModule.DefaultStrategy.ReRoute, 0.15);
+		addStrategy(config, DefaultPlanStrategiesModule.DefaultStrategy.TimeAllocationMutator, 0.15);
+
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		Controler controler = new Controler(scenario);
+		controler.addOverridingModule(new AbstractModule() {
+			@Override
+			public void install() {
+				addControlerListenerBinding().toInstance(new MemoryListener());
+			}
+		});
+		controler.run();
+	}
+
+	private static void addStrategy(Config config, String name, double weight) {
+		StrategySettings settings = new StrategySettings();
+		settings.setStrategyName(name);
+		settings.setWeight(weight);
+		config.replanning().addStrategySettings(settings);
+	}
+
+	private static class MemoryListener implements IterationStartsListener, IterationEndsListener {
+		private long start;
+
+		@Override
+		public void notifyIterationStarts(IterationStartsEvent event) {
+			this.start = System.nanoTime();
+		}
+
+		@Override
+		public void notifyIterationEnds(IterationEndsEvent event) {
+			double seconds = (System.nanoTime() - this.start) / 1e9;
+			System.gc();
+			Runtime runtime = Runtime.getRuntime();
+			long used = runtime.totalMemory() - runtime.freeMemory();
+			System.out.printf("BENCHMARK iteration %d: %.2fs, used heap %d MB%n", event.getIteration(), seconds, used / 1024 / 1024);
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.io.File;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.population.io.PopulationReader;
+import org.matsim.core.population.io.PopulationWriter;
+import org.matsim.core.population.io.PopulationWriterBinary;
+import org.matsim.core.scenario.ScenarioUtils;
+
+/**
+ * Compares reading a population_v6 file with SAX (matsim.useParallelIO=false) and with the chunked reader,
+ * and reading the same population from a binary population file.
+ * The given population is first converted to a temporary population_v6 and a binary file.
+ * <p>
+ * Usage: <code>PopulationReadingBenchmark populationFile [numberOfThreads] [runs]</code>
+ */
+public class PopulationReadingBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int numberOfThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+		File file = File.createTempFile("population", ".xml.gz");
+		file.deleteOnExit();
+		Scenario original = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		new PopulationReader(original).readFile(args[0]);
+		new PopulationWriter(original.getPopulation()).writeV6(file.getAbsolutePath());
+		File binaryFile = File.createTempFile("population", ".bin");
+		binaryFile.deleteOnExit();
+		new PopulationWriterBinary(original.getPopulation()).write(binaryFile.getAbsolutePath());
+		System.out.printf("%d persons, %d bytes compressed, %d bytes binary%n", original.getPopulation().getPersons().size(), file.length(), binaryFile.length());
+
+		for (int run = 0; run < runs; run++) {
+			double saxSeconds = read(file, numberOfThreads, false);
+			double chunkedSeconds = read(file, numberOfThreads, true);
+			double binarySeconds = read(binaryFile, numberOfThreads, true);
+			System.out.printf("run %d: SAX %.3fs, chunked with %d threads %.3fs, binary %.3fs%n", run, saxSeconds, numberOfThreads, chunkedSeconds, binarySeconds);
+		}
+	}
+
+	private static double read(File file, int numberOfThreads, boolean parallel) {
+		System.setProperty("matsim.useParallelIO", Boolean.toString(parallel));
+		Config config = ConfigUtils.createConfig();
+		config.global().setNumberOfThreads(numberOfThreads);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		long start = System.nanoTime();
+		new PopulationReader(scenario).readFile(file.getAbsolutePath());
+		return (System.nanoTime() - start) / 1e9;
+	}
+
+}
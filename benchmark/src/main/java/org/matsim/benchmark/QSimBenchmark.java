@@ -0,0 +1,149 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QSimBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.NetworkFactory;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QNetsimEngineI;
+import org.matsim.core.scenario.ScenarioUtils;
+
+/**
+ * Measures the wall time and the heap allocation of the QSim on a congested grid network: many agents
+ * drive between random links of a grid with little capacity, so most links have full buffers and long
+ * queues for a long time. The allocation is the one of all threads, so it includes the events processing.
+ * Besides the whole mobsim, the time spent in the <code>doSimStep</code> of the links (their queues, buffers
+ * and holes) is reported on its own, as measured by the QNetsimEngine with {@link QSim#analyzeRunTimes}.
+ * <p>
+ * Usage: <code>QSimBenchmark [gridSize] [numberOfAgents] [trafficDynamics] [runs] [usingCompiledNodes]</code>, e.g.
+ * <code>QSimBenchmark 40 100000 kinematicWaves 3 false</code>.
+ */
+public class QSimBenchmark {
+
+	public static void main(String[] args) {
+		int gridSize = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+		int numberOfAgents = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+		QSimConfigGroup.TrafficDynamics trafficDynamics = args.length > 2 ? QSimConfigGroup.TrafficDynamics.valueOf(args[2]) : QSimConfigGroup.TrafficDynamics.kinematicWaves;
+		int runs = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+		boolean usingCompiledNodes = args.length > 4 && Boolean.parseBoolean(args[4]);
+
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setTrafficDynamics(trafficDynamics);
+		config.qsim().setEndTime(30 * 3600);
+		config.qsim().setNumberOfThreads(1);
+		config.qsim().setStuckTime(3600);
+		config.qsim().setUsingCompiledNodes(usingCompiledNodes);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		createGrid(scenario.getNetwork(), gridSize);
+		createPopulation(scenario, numberOfAgents);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		QSim.analyzeRunTimes = true;
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		for (int run = 0; run < runs; run++) {
+			EventsManager events = EventsUtils.createEventsManager(config);
+			QSim qsim = new QSimBuilder(config).useDefaults().build(scenario, events);
+			long allocated = threads.getTotalThreadAllocatedBytes();
+			long start = System.nanoTime();
+			qsim.run();
+			double seconds = (System.nanoTime() - start) / 1e9;
+			allocated = threads.getTotalThreadAllocatedBytes() - allocated;
+			double linkSeconds = qsim.getChildInjector().getInstance(QNetsimEngineI.class).getMoveLinksTime() / 1e9;
+			System.out.printf("run %d, %s, %s nodes, %d links, %d agents: time=%.2fs links=%.2fs allocated=%d MB (%.0f MB/s)%n", run, trafficDynamics,
+					usingCompiledNodes ? "compiled" : "default", scenario.getNetwork().getLinks().size(), numberOfAgents, seconds,
+					linkSeconds, allocated >> 20, (allocated >> 20) / seconds);
+		}
+	}
+
+	private static void createGrid(Network network, int gridSize) {
+		NetworkFactory factory = network.getFactory();
+		Node[][] nodes = new Node[gridSize][gridSize];
+		for (int i = 0; i < gridSize; i++) {
+			for (int j = 0; j < gridSize; j++) {
+				nodes[i][j] = factory.createNode(Id.createNodeId(i + "_" + j), new Coord(i * 200.0, j * 200.0));
+				network.addNode(nodes[i][j]);
+			}
+		}
+		for (int i = 0; i < gridSize; i++) {
+			for (int j = 0; j < gridSize; j++) {
+				if (i + 1 < gridSize) {
+					addLink(network, nodes[i][j], nodes[i + 1][j]);
+					addLink(network, nodes[i + 1][j], nodes[i][j]);
+				}
+				if (j + 1 < gridSize) {
+					addLink(network, nodes[i][j], nodes[i][j + 1]);
+					addLink(network, nodes[i][j + 1], nodes[i][j]);
+				}
+			}
+		}
+	}
+
+	private static void addLink(Network network, Node from, Node to) {
+		Link link = network.getFactory().createLink(Id.createLinkId(from.getId() + "-" + to.getId()), from, to);
+		link.setLength(200.0);
+		link.setFreespeed(13.9);
+		link.setCapacity(600.0);
+		link.setNumberOfLanes(1.0);
+		network.addLink(link);
+	}
+
+	private static void createPopulation(Scenario scenario, int numberOfAgents) {
+		Random random = new Random(4711);
+		List<Link> links = new ArrayList<>(scenario.getNetwork().getLinks().values());
+		Population population = scenario.getPopulation();
+		PopulationFactory factory = population.getFactory();
+		for (int i = 0; i < numberOfAgents; i++) {
+			Person person = factory.createPerson(Id.createPersonId(i));
+			Plan plan = factory.createPlan();
+			Activity home = factory.createActivityFromLinkId("home", links.get(random.nextInt(links.size())).getId());
+			home.setEndTime(7 * 3600 + random.nextInt(3600));
+			plan.addActivity(home);
+			plan.addLeg(factory.createLeg(TransportMode.car));
+			plan.addActivity(factory.createActivityFromLinkId("work", links.get(random.nextInt(links.size())).getId()));
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+	}
+
+}
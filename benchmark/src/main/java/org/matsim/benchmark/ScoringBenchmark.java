@@ -0,0 +1,96 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ScoringBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.scoring.EventsToScore;
+import org.matsim.core.scoring.functions.CharyparNagelScoringFunctionFactory;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+
+/**
+ * Measures the throughput of the scoring with a varying number of scoring threads. The events of a recorded
+ * events file are read into memory first, so only the scoring is measured when they are replayed.
+ * <p>
+ * Usage: <code>ScoringBenchmark [configFile eventsFile] [runs]</code>. Without arguments, the equil scenario
+ * with 2000 persons and its events are used.
+ */
+public class ScoringBenchmark {
+
+	public static void main(String[] args) {
+		Config config;
+		String eventsFile;
+		if (args.length >= 2) {
+			config = ConfigUtils.loadConfig(args[0]);
+			eventsFile = args[1];
+		} else {
+			config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+			config.plans().setInputFile("plans2000.xml.gz");
+			eventsFile = IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "output_events.xml.gz").toString();
+		}
+		int runs = args.length == 1 ? Integer.parseInt(args[0]) : args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+
+		List<Event> recorded = new ArrayList<>();
+		EventsManager reader = EventsUtils.createEventsManager();
+		reader.addHandler((BasicEventHandler) recorded::add);
+		reader.initProcessing();
+		new MatsimEventsReader(reader).readFile(eventsFile);
+		reader.finishProcessing();
+		System.out.printf("%d events, %d persons%n", recorded.size(), scenario.getPopulation().getPersons().size());
+
+		for (int run = 0; run < runs; run++) {
+			for (int threads : new int[] { 1, 2, 4 }) {
+				config.scoring().setNumberOfThreads(threads);
+				EventsManager events = EventsUtils.createEventsManager();
+				EventsToScore scoring = EventsToScore.createWithoutScoreUpdating(scenario, new CharyparNagelScoringFunctionFactory(scenario), events);
+				long start = System.nanoTime();
+				scoring.beginIteration(run, false);
+				events.initProcessing();
+				for (Event event : recorded) {
+					events.processEvent(event);
+				}
+				events.finishProcessing();
+				scoring.finish();
+				double seconds = (System.nanoTime() - start) / 1e9;
+				double sum = 0;
+				for (Person person : scenario.getPopulation().getPersons().values()) {
+					sum += scoring.getAgentScore(person.getId());
+				}
+				System.out.printf("run %d, %d threads: time=%.3fs throughput=%.0f events/s scoreSum=%.6f%n",
+						run, threads, seconds, recorded.size() / seconds, sum);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpatialIndexBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.core.utils.collections.PackedKdTree;
+import org.matsim.core.utils.collections.QuadTree;
+import org.matsim.core.utils.collections.QuadTrees;
+
+/**
+ * Compares {@link QuadTree} and {@link PackedKdTree}: the time and memory to build them from random
+ * coordinates, and the throughput of closest-object and disk queries. For the {@link PackedKdTree},
+ * the parallel batch query of the closest objects is measured as well.
+ * <p>
+ * Usage: <code>SpatialIndexBenchmark [numberOfObjects] [numberOfQueries] [runs]</code>
+ */
+public class SpatialIndexBenchmark {
+
+	private static final double SIZE = 100_000;
+
+	/** sum of the query results, printed so that the queries cannot be optimized away */
+	private static long checksum = 0;
+
+	public static void main(String[] args) {
+		int numberOfObjects = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int numberOfQueries = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+		int runs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+		Random random = new Random(4711);
+		List<Coord> coords = new ArrayList<>(numberOfObjects);
+		for (int i = 0; i < numberOfObjects; i++) {
+			coords.add(new Coord(random.nextDouble() * SIZE, random.nextDouble() * SIZE));
+		}
+		double[] x = new double[numberOfQueries];
+		double[] y = new double[numberOfQueries];
+		for (int i = 0; i < numberOfQueries; i++) {
+			x[i] = random.nextDouble() * SIZE;
+			y[i] = random.nextDouble() * SIZE;
+		}
+
+		for (int run = 0; run < runs; run++) {
+			long memory = usedMemory();
+			long start = System.nanoTime();
+			QuadTree<Coord> quadTree = QuadTrees.createQuadTree(coords, c -> c, 0);
+			double quadTreeBuild = (System.nanoTime() - start) / 1e9;
+			long quadTreeMemory = usedMemory() - memory;
+
+			memory = usedMemory();
+			start = System.nanoTime();
+			PackedKdTree<Coord> kdTree = QuadTrees.createPackedKdTree(coords, c -> c);
+			double kdTreeBuild = (System.nanoTime() - start) / 1e9;
+			long kdTreeMemory = usedMemory() - memory;
+
+			double quadTreeClosest = measure(numberOfQueries, i -> quadTree.getClosest(x[i], y[i]).hashCode());
+			double kdTreeClosest = measure(numberOfQueries, i -> kdTree.getClosest(x[i], y[i]).hashCode());
+			double quadTreeDisk = measure(numberOfQueries / 10, i -> quadTree.getDisk(x[i], y[i], 500).size());
+			double kdTreeDisk = measure(numberOfQueries / 10, i -> kdTree.getDisk(x[i], y[i], 500).size());
+			start = System.nanoTime();
+			List<Coord> closest = kdTree.getClosest(x, y);
+			double kdTreeBatch = (System.nanoTime() - start) / 1e9;
+
+			System.out.printf("run %d, %d objects: build QuadTree %.2fs %d MB, PackedKdTree %.2fs %d MB%n",
+					run, numberOfObjects, quadTreeBuild, quadTreeMemory >> 20, kdTreeBuild, kdTreeMemory >> 20);
+			System.out.printf("  closest: QuadTree %.2f M/s, PackedKdTree %.2f M/s, PackedKdTree batch %.2f M/s%n",
+					numberOfQueries / quadTreeClosest / 1e6, numberOfQueries / kdTreeClosest / 1e6, numberOfQueries / kdTreeBatch / 1e6);
+			System.out.printf("  disk:    QuadTree %.0f /s, PackedKdTree %.0f /s%n",
+					numberOfQueries / 10 / quadTreeDisk, numberOfQueries / 10 / kdTreeDisk);
+			checksum += closest.get(closest.size() - 1).hashCode();
+			System.out.printf("  checksum %d%n", checksum);
+		}
+	}
+
+	private static double measure(int count, IntUnaryOperator query) {
+		long sum = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			sum += query.applyAsInt(i);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		checksum += sum;
+		return seconds;
+	}
+
+	private static long usedMemory() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
@@ -0,0 +1,66 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.ScoringConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.speedy.SpeedyALTFactory;
+import org.matsim.core.utils.io.IOUtils;
+
+/**
+ * Measures the time until the first route can be calculated with {@link org.matsim.core.router.speedy.SpeedyALT},
+ * i.e. the time needed to prepare the landmarks, with different numbers of threads and with the landmarks cache.
+ * <p>
+ * Usage: <code>SpeedyALTStartupBenchmark networkFile [numberOfThreads]</code>
+ */
+public class SpeedyALTStartupBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		Network network = NetworkUtils.readNetwork(args[0]);
+		int numberOfThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		System.out.printf("network: %d nodes, %d links%n", network.getNodes().size(), network.getLinks().size());
+
+		Path cacheDirectory = Files.createTempDirectory("landmarks");
+		try {
+			run("1 thread, no cache", new SpeedyALTFactory(null, 1), network);
+			run(numberOfThreads + " threads, no cache", new SpeedyALTFactory(null, numberOfThreads), network);
+			run(numberOfThreads + " threads, empty cache", new SpeedyALTFactory(cacheDirectory.toString(), numberOfThreads), network);
+			run("filled cache", new SpeedyALTFactory(cacheDirectory.toString(), numberOfThreads), network);
+		} finally {
+			IOUtils.deleteDirectoryRecursively(cacheDirectory);
+		}
+	}
+
+	private static void run(String name, SpeedyALTFactory factory, Network network) {
+		FreespeedTravelTimeAndDisutility travelCosts = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		Node node = network.getNodes().values().iterator().next();
+		long start = System.nanoTime();
+		factory.createPathCalculator(network, travelCosts, travelCosts).calcLeastCostPath(node, node, 0, null, null);
+		System.out.printf("%s: %.3fs%n", name, (System.nanoTime() - start) / 1e9);
+	}
+
+}
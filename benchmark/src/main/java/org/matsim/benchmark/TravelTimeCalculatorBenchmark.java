@@ -0,0 +1,175 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.NetworkFactory;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.LinkToLinkTravelTime;
+import org.matsim.core.trafficmonitoring.TravelTimeCalculator;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Measures the event handling throughput, the memory usage and the query throughput of the
+ * {@link TravelTimeCalculator} with link-to-link travel times on a grid network.
+ * <p>
+ * Usage: <code>TravelTimeCalculatorBenchmark [gridSize] [numberOfVehicles] [linksPerVehicle]</code>
+ */
+public class TravelTimeCalculatorBenchmark {
+
+	public static void main(String[] args) {
+		int gridSize = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int numberOfVehicles = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+		int linksPerVehicle = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+		Network network = createGrid(gridSize);
+		Event[] events = createEvents(network, numberOfVehicles, linksPerVehicle, new Random(4711));
+		System.out.printf("network: %d links, %d events%n", network.getLinks().size(), events.length);
+
+		Link[] links = network.getLinks().values().toArray(new Link[0]);
+		for (int run = 0; run < 3; run++) {
+			long usedBefore = usedMemory();
+			TravelTimeCalculator.Builder builder = new TravelTimeCalculator.Builder(network);
+			builder.setCalculateLinkToLinkTravelTimes(true);
+			TravelTimeCalculator calculator = builder.build();
+			EventsManager eventsManager = EventsUtils.createEventsManager();
+			eventsManager.addHandler(calculator);
+
+			long start = System.nanoTime();
+			for (Event event : events) {
+				eventsManager.processEvent(event);
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			long usedAfter = usedMemory();
+
+			LinkToLinkTravelTime travelTimes = calculator.getLinkToLinkTravelTimes();
+			start = System.nanoTime();
+			double sum = 0;
+			int queries = 0;
+			for (int t = 0; t < 10; t++) {
+				for (Link link : links) {
+					for (Link toLink : link.getToNode().getOutLinks().values()) {
+						sum += travelTimes.getLinkToLinkTravelTime(link, toLink, 6 * 3600 + t * 900, null, null);
+						queries++;
+					}
+				}
+			}
+			double querySeconds = (System.nanoTime() - start) / 1e9;
+
+			System.out.printf("run %d: handleEvent %.0f events/s, memory %dMB, queries %.0f/s (checksum %.0f)%n",
+					run, events.length / seconds, (usedAfter - usedBefore) >> 20, queries / querySeconds, sum);
+			calculator.reset(1);
+		}
+	}
+
+	private static long usedMemory() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static Network createGrid(int size) {
+		Network network = NetworkUtils.createNetwork();
+		NetworkFactory factory = network.getFactory();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = factory.createNode(Id.createNodeId(x + "_" + y), new Coord(x * 200, y * 200));
+				network.addNode(nodes[x][y]);
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y]);
+					addLink(network, nodes[x + 1][y], nodes[x][y]);
+				}
+				if (y + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x][y + 1]);
+					addLink(network, nodes[x][y + 1], nodes[x][y]);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLink(Network network, Node from, Node to) {
+		Link link = network.getFactory().createLink(Id.createLinkId(from.getId() + "-" + to.getId()), from, to);
+		link.setLength(200);
+		link.setFreespeed(13.9);
+		link.setCapacity(1000);
+		link.setNumberOfLanes(1);
+		network.addLink(link);
+	}
+
+	/**
+	 * Every vehicle does a random walk through the network, the events are sorted by time.
+	 */
+	private static Event[] createEvents(Network network, int numberOfVehicles, int linksPerVehicle, Random random) {
+		Link[] links = network.getLinks().values().toArray(new Link[0]);
+		int steps = linksPerVehicle + 2;
+		List<List<Event>> eventsPerStep = new ArrayList<>();
+		for (int s = 0; s < steps; s++) {
+			eventsPerStep.add(new ArrayList<>());
+		}
+		int eventCount = 0;
+		for (int v = 0; v < numberOfVehicles; v++) {
+			Id<Vehicle> vehicleId = Id.createVehicleId(v);
+			Link link = links[random.nextInt(links.length)];
+			eventsPerStep.get(0).add(new VehicleEntersTrafficEvent(6 * 3600, null, link.getId(), vehicleId, "car", 1.0));
+			for (int s = 1; s <= linksPerVehicle; s++) {
+				double time = 6 * 3600 + s * 15 + random.nextInt(10);
+				List<Link> outLinks = new ArrayList<>(link.getToNode().getOutLinks().values());
+				Link next = outLinks.get(random.nextInt(outLinks.size()));
+				eventsPerStep.get(s).add(new LinkLeaveEvent(time, vehicleId, link.getId()));
+				eventsPerStep.get(s).add(new LinkEnterEvent(time, vehicleId, next.getId()));
+				link = next;
+			}
+			eventsPerStep.get(steps - 1).add(new VehicleLeavesTrafficEvent(6 * 3600 + steps * 15, null, link.getId(), vehicleId, "car", 1.0));
+			eventCount += 2 * linksPerVehicle + 2;
+		}
+		Event[] events = new Event[eventCount];
+		int i = 0;
+		for (List<Event> step : eventsPerStep) {
+			for (Event event : step) {
+				events[i++] = event;
+			}
+		}
+		return events;
+	}
+
+}
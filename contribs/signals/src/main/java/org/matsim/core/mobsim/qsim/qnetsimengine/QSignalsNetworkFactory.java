@@ -49,6 +49,7 @@ public final class QSignalsNetworkFactory implements QNetworkFactory{
 	private final EventsManager events;
 	private NetsimEngineContext context;
 	private NetsimInternalInterface netsimEngine ;
+	private NetsimEventHandlers netsimEventHandlers = null;
 	
 	@Inject QSignalsNetworkFactory(Scenario scenario, EventsManager events) {
 		this.scenario = scenario;
@@ -67,6 +68,16 @@ public final class QSignalsNetworkFactory implements QNetworkFactory{
 		}
 	}
 	
+	@Inject(optional = true) void setNetsimEventHandlers( NetsimEventHandlers netsimEventHandlers ) {
+		this.netsimEventHandlers = netsimEventHandlers;
+		// the delegates are not created by injection, see above
+		if (delegate instanceof QLanesNetworkFactory lanesNetworkFactory) {
+			lanesNetworkFactory.setNetsimEventHandlers( netsimEventHandlers );
+		} else if (delegate instanceof DefaultQNetworkFactory defaultNetworkFactory) {
+			defaultNetworkFactory.setNetsimEventHandlers( netsimEventHandlers );
+		}
+	}
+	
 	@Override
 	public void initializeFactory( AgentCounter agentCounter, MobsimTimer mobsimTimer, NetsimInternalInterface simEngine1 ) {
 		SnapshotLinkWidthCalculator linkWidthCalculator = new SnapshotLinkWidthCalculator();
@@ -76,7 +87,7 @@ public final class QSignalsNetworkFactory implements QNetworkFactory{
 		AbstractAgentSnapshotInfoBuilder agentSnapshotInfoBuilder = AbstractQNetsimEngine.createAgentSnapshotInfoBuilder( scenario, linkWidthCalculator );
 		
 		this.netsimEngine = simEngine1;
-		this.context = new NetsimEngineContext( events, scenario.getNetwork().getEffectiveCellSize(), agentCounter, agentSnapshotInfoBuilder, 
+		this.context = new NetsimEngineContext( NetsimEventHandlers.wrap( netsimEventHandlers, events ), scenario.getNetwork().getEffectiveCellSize(), agentCounter, agentSnapshotInfoBuilder, 
 				scenario.getConfig().qsim(), mobsimTimer, linkWidthCalculator );
 		
 		delegate.initializeFactory(agentCounter, mobsimTimer, simEngine1);
@@ -26,9 +26,8 @@ import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.vehicles.Vehicle;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -43,8 +42,7 @@ import java.util.concurrent.ConcurrentMap;
  */
 public abstract class Id<T> implements Comparable<Id<T>> {
 
-	private final static ConcurrentMap<Class<?>, ConcurrentMap<String, Id<?>>> cacheId = new ConcurrentHashMap<>();
-	private final static ConcurrentMap<Class<?>, List<Id<?>>> cacheIndex = new ConcurrentHashMap<>();
+	private final static ConcurrentMap<Class<?>, IdTable> tablesByType = new ConcurrentHashMap<>();
 
 	/** Resets all internal caches used by this class.
 	 * <em>This method must only be called from JUnit-Tests.</em>
@@ -61,8 +59,7 @@ public abstract class Id<T> implements Comparable<Id<T>> {
 		if (!fromJUnit) {
 			throw new RuntimeException("This method can only be called from JUnit-Tests, but not in normal code!");
 		}
-		cacheId.clear();
-		cacheIndex.clear();
+		tablesByType.clear();
 	}
 
 	public static <T> Id<T> create(final long key, final Class<T> type) {
@@ -81,47 +78,37 @@ public abstract class Id<T> implements Comparable<Id<T>> {
 	 */
 	public static <T> Id<T> create(final String key, final Class<T> type) {
 		Gbl.assertNotNull(key);
+		return (Id<T>) getTable(type).create(key);
+	}
 
-		ConcurrentMap<String, Id<?>> mapId = cacheId.computeIfAbsent(type, k -> new ConcurrentHashMap<>(1000));
+	/**
+	 * Same as {@link #create(String, Class)}, but with the key given as UTF-8 encoded bytes, e.g. directly
+	 * from the buffer of a parser.
+	 */
+	public static <T> Id<T> createFromBytes(final byte[] utf8, final int offset, final int length, final Class<T> type) {
+		return create(new String(utf8, offset, length, StandardCharsets.UTF_8), type);
+	}
 
-		Id<?> id = mapId.get(key);
-		if (id == null) {
-			//Double-Checked Locking works: mapId is concurrent and IdImpl is immutable
-			synchronized (mapId) {
-				id = mapId.get(key);
-				if (id == null) {
-					// cannot use cacheIndex.computeIfAbsent():
-					// split into cacheIndex.get() and put() so that mapIndex.add() "happens-before" mapIndex.get()
-					// alternatives:
-					// (1) synchronise mapIndex.get() calls (on mapIndex)
-					// (2) use cacheIndex.compute() instead of get() and put() ==> less readable code...
-					List<Id<?>> mapIndex = mapId.isEmpty() ? new ArrayList<>(1000) : cacheIndex.get(type);
-					int index = mapIndex.size();
-					id = new IdImpl<T>(key, index);
-					mapIndex.add(id);
-					cacheIndex.put(type, mapIndex);
-					mapId.put(key, id);
-				}
-			}
-		}
-		return (Id<T>)id;
+	private static IdTable getTable(final Class<?> type) {
+		IdTable table = tablesByType.get(type);
+		return table != null ? table : tablesByType.computeIfAbsent(type, k -> new IdTable());
 	}
 
 	public abstract int index();
 
 	public static <T> Id<T> get(int index, final Class<T> type) {
-		List<Id<?>> mapIndex = cacheIndex.get(type);
-		return mapIndex == null ? null : (Id<T>)mapIndex.get(index);
+		IdTable table = tablesByType.get(type);
+		return table == null ? null : (Id<T>) table.get(index);
 	}
 
 	public static <T> Id<T> get(String id, final Class<T> type) {
-		Map<String, Id<?>> mapId = cacheId.get(type);
-		return mapId == null ? null : (Id<T>)mapId.get(id);
+		IdTable table = tablesByType.get(type);
+		return table == null ? null : (Id<T>) table.get(id);
 	}
 
 	public static <T> int getNumberOfIds(final Class<T> type) {
-		Map<String, Id<?>> mapId = cacheId.get(type);
-		return mapId == null ? 0 : mapId.size();
+		IdTable table = tablesByType.get(type);
+		return table == null ? 0 : table.size;
 	}
 
 	/**
@@ -182,6 +169,59 @@ public abstract class Id<T> implements Comparable<Id<T>> {
 		}
 	}
 
+	/**
+	 * All ids of one type, in a map by their key and in an array by their index.
+	 * <p>
+	 * Lookups by key or index take no lock, only the creation of a new id synchronizes on the table. The array is
+	 * replaced by a larger copy when growing, and an id is only put into the map after it is in the array, so whoever
+	 * finds an id can also get it by its index.
+	 */
+	private static final class IdTable {
+
+		private final ConcurrentMap<String, Id<?>> byKey = new ConcurrentHashMap<>(1000);
+		private volatile Id<?>[] byIndex = new Id<?>[512];
+		private volatile int size = 0;
+
+		Id<?> create(String key) {
+			Id<?> id = this.byKey.get(key);
+			if (id == null) {
+				synchronized (this) {
+					id = this.byKey.get(key);
+					if (id == null) {
+						id = add(key);
+					}
+				}
+			}
+			return id;
+		}
+
+		Id<?> get(String key) {
+			return this.byKey.get(key);
+		}
+
+		Id<?> get(int index) {
+			// reading size first makes sure the id at this index is visible
+			if (index >= this.size) {
+				throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
+			}
+			return this.byIndex[index];
+		}
+
+		private Id<?> add(String key) {
+			int index = this.size;
+			Id<?> id = new IdImpl<>(key, index);
+			Id<?>[] byIndex = this.byIndex;
+			if (index == byIndex.length) {
+				byIndex = Arrays.copyOf(byIndex, byIndex.length * 2);
+			}
+			byIndex[index] = id;
+			this.byIndex = byIndex;
+			this.size = index + 1;
+			this.byKey.put(key, id);
+			return id;
+		}
+	}
+
 	public static <T> String writeId( Id<T> id ) {
 		if ( id==null ) {
 			return "null" ;
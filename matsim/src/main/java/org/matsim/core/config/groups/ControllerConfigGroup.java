@@ -23,11 +23,16 @@ package org.matsim.core.config.groups;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigGroup;
 import org.matsim.core.config.ReflectiveConfigGroup;
 import org.matsim.core.controler.OutputDirectoryHierarchy.OverwriteFileSetting;
 import org.matsim.core.utils.io.IOUtils;
 import org.matsim.core.utils.misc.StringUtils;
 
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
 
@@ -38,7 +43,9 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 
 	public enum EventTypeToCreateScoringFunctions {IterationStarts, BeforeMobsim}
 
-	public enum EventsFileFormat {xml, pb, json}
+	public enum EventsFileFormat {xml, pb, json, binary}
+
+	public enum PlansFileFormat {xml, binary}
 
 	public enum CompressionType {
 		none(""),
@@ -67,10 +74,13 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 	private static final String RUNID = "runId";
 	private static final String LINKTOLINK_ROUTING_ENABLED = "enableLinkToLinkRouting";
 	/*package*/ static final String EVENTS_FILE_FORMAT = "eventsFileFormat";
+	private static final String PLANS_FILE_FORMAT = "plansFileFormat";
 	private static final String SNAPSHOT_FORMAT = "snapshotFormat";
 	private static final String WRITE_EVENTS_INTERVAL = "writeEventsInterval";
 	private static final String WRITE_PLANS_INTERVAL = "writePlansInterval";
 	private static final String WRITE_TRIPS_INTERVAL = "writeTripsInterval";
+	private static final String WRITE_CHECKPOINT_INTERVAL = "writeCheckpointInterval";
+	private static final String RESUME_FROM_CHECKPOINT = "resumeFromCheckpoint";
 	private static final String OVERWRITE_FILE = "overwriteFiles";
 	private static final String CREATE_GRAPHS = "createGraphs";
 	private static final String CREATE_GRAPHS_INTERVAL = "createGraphsInterval";
@@ -97,10 +107,13 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 	private String runId = null;
 
 	private Set<EventsFileFormat> eventsFileFormats = Collections.unmodifiableSet(EnumSet.of(EventsFileFormat.xml));
+	private Set<PlansFileFormat> plansFileFormats = Collections.unmodifiableSet(EnumSet.of(PlansFileFormat.xml));
 
 	private int writeEventsInterval= 50;
 	private int writePlansInterval= 50;
 	private int writeTripsInterval = 50;
+	private int writeCheckpointInterval = 0;
+	private String resumeFromCheckpoint = null;
 	private String mobsim = MobsimType.qsim.toString();
 	private int writeSnapshotsInterval = 1;
 	private int createGraphsInterval = 1;
@@ -124,12 +137,21 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 		map.put(RUNID, "An identifier for the current run which is used as prefix for output files and mentioned in output xml files etc.");
 		map.put(EVENTS_FILE_FORMAT, "Default="+EventsFileFormat.xml+"; Specifies the file format for writing events. Currently supported: " + Arrays.toString(EventsFileFormat.values()) + IOUtils.NATIVE_NEWLINE+ "\t\t" +
 				"Multiple values can be specified separated by commas (',').");
+		map.put(PLANS_FILE_FORMAT, "Default="+PlansFileFormat.xml+"; Specifies the file format for writing plans. Currently supported: " + Arrays.toString(PlansFileFormat.values()) + IOUtils.NATIVE_NEWLINE+ "\t\t" +
+				"Multiple values can be specified separated by commas (','). Binary plans files (*.bin) are smaller and faster to read, e.g. to continue a run, " +
+				"and can be used as input plans file.");
 		map.put(WRITE_EVENTS_INTERVAL, "iterationNumber % writeEventsInterval == 0 defines in which iterations events are written " +
 				"to a file. `0' disables events writing completely.");
 		map.put(WRITE_TRIPS_INTERVAL, "iterationNumber % writeEventsInterval == 0 defines in which iterations trips CSV are written " +
                 "to a file. `0' disables trips writing completely.");
 		map.put(WRITE_PLANS_INTERVAL, "iterationNumber % writePlansInterval == 0 defines (hopefully) in which iterations plans are " +
                 "written to a file. `0' disables plans writing completely.  Some plans in early iterations are always written");
+		map.put(WRITE_CHECKPOINT_INTERVAL, "iterationNumber % writeCheckpointInterval == 0 defines in which iterations a checkpoint is written at the end of the " +
+				"iteration, from which the run can be continued later on. `0' (the default) disables checkpoints.");
+		map.put(RESUME_FROM_CHECKPOINT, "A checkpoint file (ITERS/it.N/N.checkpoint.bin) written by an earlier run of the same scenario. If set, the run " +
+				"continues with iteration N+1, using the plans, travel times, strategy weights and any other state stored in the checkpoint. With " +
+				OVERWRITE_FILE + "=" + OverwriteFileSetting.deleteDirectoryIfExists + ", the checkpoint must not be inside the output directory, as " +
+				"that directory is deleted before the checkpoint is read.");
 		map.put(LINKTOLINK_ROUTING_ENABLED, "Default=false. If enabled, the router takes travel times needed for turning moves into account."
 		        + " Can only be used with Dijkstra routing. Cannot be used when TravelTimeCalculator.separateModes is enabled.");
 		map.put(FIRST_ITERATION, "Default=0. First Iteration of a simulation.");
@@ -284,6 +306,38 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 	public void setEventsFileFormats(final Set<EventsFileFormat> eventsFileFormats) {
 		this.eventsFileFormats = Collections.unmodifiableSet(EnumSet.copyOf(eventsFileFormats));
 	}
+
+	@StringGetter( PLANS_FILE_FORMAT )
+	private String getPlansFileFormatAsString() {
+		StringBuilder str = new StringBuilder();
+		for (PlansFileFormat format : this.plansFileFormats) {
+			if (str.length() > 0) {
+				str.append(',');
+			}
+			str.append(format.toString());
+		}
+		return str.toString();
+	}
+
+	@StringSetter( PLANS_FILE_FORMAT )
+	private void setPlansFileFormats( final String value ) {
+		Set<PlansFileFormat> formats = EnumSet.noneOf(PlansFileFormat.class);
+		for (String part : StringUtils.explode(value, ',')) {
+			String trimmed = part.trim();
+			if (trimmed.length() > 0) {
+				formats.add(PlansFileFormat.valueOf(trimmed));
+			}
+		}
+		this.plansFileFormats = Collections.unmodifiableSet(formats);
+	}
+
+	public Set<PlansFileFormat> getPlansFileFormats() {
+		return this.plansFileFormats;
+	}
+
+	public void setPlansFileFormats(final Set<PlansFileFormat> plansFileFormats) {
+		this.plansFileFormats = Collections.unmodifiableSet(EnumSet.copyOf(plansFileFormats));
+	}
 	// ---
 	public enum SnapshotFormat { transims, googleearth, otfvis, positionevents }
 	private Set<SnapshotFormat> snapshotFormat = Collections.emptySet();
@@ -353,6 +407,26 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 		this.writePlansInterval = writePlansInterval;
 	}
 
+	@StringGetter( WRITE_CHECKPOINT_INTERVAL )
+	public int getWriteCheckpointInterval() {
+		return this.writeCheckpointInterval;
+	}
+
+	@StringSetter( WRITE_CHECKPOINT_INTERVAL )
+	public void setWriteCheckpointInterval(final int writeCheckpointInterval) {
+		this.writeCheckpointInterval = writeCheckpointInterval;
+	}
+
+	@StringGetter( RESUME_FROM_CHECKPOINT )
+	public String getResumeFromCheckpoint() {
+		return this.resumeFromCheckpoint;
+	}
+
+	@StringSetter( RESUME_FROM_CHECKPOINT )
+	public void setResumeFromCheckpoint(final String resumeFromCheckpoint) {
+		this.resumeFromCheckpoint = resumeFromCheckpoint;
+	}
+
 	@StringGetter( WRITE_SNAPSHOTS_INTERVAL )
 	public int getWriteSnapshotsInterval() {
 		return writeSnapshotsInterval;
@@ -469,5 +543,22 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 		if(config.controller().getMemoryObserverInterval() < 0) {
 			log.warn("Memory observer interval is negative. Simulation will most likely crash.");
 		}
+		if ( this.resumeFromCheckpoint != null && this.overwriteFileSetting == OverwriteFileSetting.deleteDirectoryIfExists ) {
+			// the output directory is deleted before the checkpoint is read, so better fail before anything is deleted
+			URL checkpoint = ConfigGroup.getInputFileURL(config.getContext(), this.resumeFromCheckpoint);
+			if ( "file".equals(checkpoint.getProtocol()) ) {
+				Path checkpointPath;
+				try {
+					checkpointPath = Paths.get(checkpoint.toURI()).toAbsolutePath().normalize();
+				} catch (URISyntaxException e) {
+					throw new RuntimeException(e);
+				}
+				if ( checkpointPath.startsWith(Paths.get(this.outputDirectory).toAbsolutePath().normalize()) ) {
+					throw new RuntimeException("The checkpoint " + checkpointPath + " to resume from is inside the output directory " + this.outputDirectory
+							+ ", which would be deleted before the checkpoint is read (" + OVERWRITE_FILE + "=" + OverwriteFileSetting.deleteDirectoryIfExists
+							+ "). Use another output directory, or copy the checkpoint elsewhere.");
+				}
+			}
+		}
 	}
 }
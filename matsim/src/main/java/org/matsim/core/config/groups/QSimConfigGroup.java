@@ -215,6 +215,20 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 				+ "flows are updated only if an agent wants to enter the link or an agent is added to buffer. "
 				+ "Default is true.");
 		map.put(USE_LANES, "Set this parameter to true if lanes should be used, false if not.");
+		map.put(NETSIM_SCHEDULING, "Only relevant if " + NUMBER_OF_THREADS + " > 1. " + NetsimScheduling.staticPartitions + ": every thread moves a fixed "
+				+ "share of the nodes and links (default). " + NetsimScheduling.workStealing + ": nodes and links are split into many small work units "
+				+ "which idle threads steal from busy ones; the units are rebalanced between iterations based on the measured run times.");
+		map.put(AGENT_TIME_QUEUE, "Data structure for the agents waiting for the end of their activity or their teleportation arrival. "
+				+ AgentTimeQueue.priorityQueue + ": a binary heap (default). " + AgentTimeQueue.calendarQueue + ": agents are put into "
+				+ "buckets per simulated second, which makes adding and removing agents independent of the number of waiting agents. "
+				+ "Both return the agents in the same order.");
+		map.put(SKIP_IDLE_TIME_STEPS, "If true, the qsim asks its engines for the next time they have something to do, e.g. the next activity end "
+				+ "or teleportation arrival, and jumps directly to it instead of executing every time step. This only happens if all engines "
+				+ "support it; otherwise, every time step is executed as before. Before and after sim step listeners are only notified in the "
+				+ "executed time steps, unless they request their own wakeup times. The events are the same as without skipping. Default is false.");
+		map.put(USING_COMPILED_NODES, "If true, the nodes of the qsim network work on arrays of their in- and out-links that are compiled "
+				+ "once before the simulation, instead of looking up the links and asking the turn acceptance logic for every vehicle. "
+				+ "Vehicles are moved over the nodes exactly as without it. Default is false.");
 		{
 			StringBuilder stb = new StringBuilder();
 			for (VehiclesSource src : VehiclesSource.values()) {
@@ -590,6 +604,66 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		this.useLanes = useLanes;
 	}
 
+	// ---
+	private static final String NETSIM_SCHEDULING = "netsimScheduling";
+
+	public enum NetsimScheduling {staticPartitions, workStealing}
+	private NetsimScheduling netsimScheduling = NetsimScheduling.staticPartitions;
+
+	@StringGetter(NETSIM_SCHEDULING)
+	public NetsimScheduling getNetsimScheduling() {
+		return this.netsimScheduling;
+	}
+
+	@StringSetter(NETSIM_SCHEDULING)
+	public void setNetsimScheduling(final NetsimScheduling netsimScheduling) {
+		this.netsimScheduling = netsimScheduling;
+	}
+
+	// ---
+	private static final String AGENT_TIME_QUEUE = "agentTimeQueue";
+
+	public enum AgentTimeQueue {priorityQueue, calendarQueue}
+	private AgentTimeQueue agentTimeQueue = AgentTimeQueue.priorityQueue;
+
+	@StringGetter(AGENT_TIME_QUEUE)
+	public AgentTimeQueue getAgentTimeQueue() {
+		return this.agentTimeQueue;
+	}
+
+	@StringSetter(AGENT_TIME_QUEUE)
+	public void setAgentTimeQueue(final AgentTimeQueue agentTimeQueue) {
+		this.agentTimeQueue = agentTimeQueue;
+	}
+
+	// ---
+	private static final String SKIP_IDLE_TIME_STEPS = "skipIdleTimeSteps";
+	private boolean skipIdleTimeSteps = false;
+
+	@StringGetter(SKIP_IDLE_TIME_STEPS)
+	public boolean isSkippingIdleTimeSteps() {
+		return this.skipIdleTimeSteps;
+	}
+
+	@StringSetter(SKIP_IDLE_TIME_STEPS)
+	public void setSkippingIdleTimeSteps(final boolean skipIdleTimeSteps) {
+		this.skipIdleTimeSteps = skipIdleTimeSteps;
+	}
+
+	// ---
+	private static final String USING_COMPILED_NODES = "usingCompiledNodes";
+	private boolean usingCompiledNodes = false;
+
+	@StringGetter(USING_COMPILED_NODES)
+	public boolean isUsingCompiledNodes() {
+		return this.usingCompiledNodes;
+	}
+
+	@StringSetter(USING_COMPILED_NODES)
+	public void setUsingCompiledNodes(final boolean usingCompiledNodes) {
+		this.usingCompiledNodes = usingCompiledNodes;
+	}
+
 	// ---
 	private static final String SEEP_MODE = "seepMode";
 
@@ -292,6 +292,15 @@ public final class ReplanningConfigGroup extends ConfigGroup {
 		map.put(ReflectiveDelegate.EXTERNAL_EXE_TMP_FILE_ROOT_DIR, "root directory for temporary files generated by the external executable. Provided as a service; "
 				+ "I don't think this is used by MATSim.") ;
 		map.put(ReflectiveDelegate.EXTERNAL_EXE_TIME_OUT, "time out value (in seconds) after which matsim will consider the external strategy as failed") ;
+		map.put(ReflectiveDelegate.WORK_STEALING, "If true, multi-threaded strategy modules that support it (e.g. TimeAllocationMutator, SubtourModeChoice, "
+				+ "ChangeSingleTripMode) handle the plans in small tasks with work stealing, and every person gets its own random seed. Their results then do "
+				+ "not depend on the number of threads, but differ from the default (false), where the plans are distributed round-robin to the threads. "
+				+ "All other modules, e.g. ReRoute, handle their plans round-robin as with false; the ReRoute modules of one iteration then reuse each "
+				+ "other's trip routers. The results stay reproducible.") ;
+		map.put(ReflectiveDelegate.FUSE_STRATEGY_MODULES, "If true, the modules of a strategy are not applied one after the other to all plans, but every plan is handed "
+				+ "through all modules at once, and all strategies are handled in one pass over the plans. Only strategies whose modules all declare that "
+				+ "fusing does not change their results (e.g. ReRoute, TimeAllocationMutator, SubtourModeChoice, ChangeSingleTripMode) and use the same "
+				+ "number of threads are fused, all other strategies are applied as if this was false. The results are the same as with false.") ;
 		return map ;
 	}
 
@@ -404,6 +413,22 @@ public final class ReplanningConfigGroup extends ConfigGroup {
 		delegate.setFractionOfIterationsToDisableInnovation(fraction);
 	}
 
+	public boolean isWorkStealing() {
+		return delegate.isWorkStealing();
+	}
+
+	public void setWorkStealing(boolean workStealing) {
+		delegate.setWorkStealing(workStealing);
+	}
+
+	public boolean isFuseStrategyModules() {
+		return delegate.isFuseStrategyModules();
+	}
+
+	public void setFuseStrategyModules(boolean fuseStrategyModules) {
+		delegate.setFuseStrategyModules(fuseStrategyModules);
+	}
+
 	@Override
 	public final Map<String, String> getParams() {
 		return delegate.getParams();
@@ -416,6 +441,8 @@ public final class ReplanningConfigGroup extends ConfigGroup {
 		 static final String EXTERNAL_EXE_TIME_OUT = "ExternalExeTimeOut";
 		 static final String ITERATION_FRACTION_TO_DISABLE_INNOVATION = "fractionOfIterationsToDisableInnovation" ;
 		 static final String PLAN_SELECTOR_FOR_REMOVAL = "planSelectorForRemoval" ;
+		 static final String WORK_STEALING = "workStealing" ;
+		 static final String FUSE_STRATEGY_MODULES = "fuseStrategyModules" ;
 
 		private int maxAgentPlanMemorySize = 5;
 		private String externalExeConfigTemplate = null;
@@ -427,6 +454,9 @@ public final class ReplanningConfigGroup extends ConfigGroup {
 		//---
 		private double fraction = Double.POSITIVE_INFINITY ;
 		//---
+		private boolean workStealing = false ;
+		private boolean fuseStrategyModules = false ;
+		//---
 
 		public ReflectiveDelegate() {
 			super( ReplanningConfigGroup.GROUP_NAME );
@@ -492,6 +522,26 @@ public final class ReplanningConfigGroup extends ConfigGroup {
 		public void setFractionOfIterationsToDisableInnovation(double fraction) {
 			this.fraction = fraction;
 		}
+
+		@StringGetter( WORK_STEALING )
+		public boolean isWorkStealing() {
+			return workStealing;
+		}
+
+		@StringSetter( WORK_STEALING )
+		public void setWorkStealing(boolean workStealing) {
+			this.workStealing = workStealing;
+		}
+
+		@StringGetter( FUSE_STRATEGY_MODULES )
+		public boolean isFuseStrategyModules() {
+			return fuseStrategyModules;
+		}
+
+		@StringSetter( FUSE_STRATEGY_MODULES )
+		public void setFuseStrategyModules(boolean fuseStrategyModules) {
+			this.fuseStrategyModules = fuseStrategyModules;
+		}
 	}
 }
 
@@ -94,6 +94,31 @@ public final class RoutingConfigGroup extends ConfigGroup {
 	private static final String ACCESSEGRESSTYPE_CMT = "Defines how access and egress to main mode is simulated. Either of [none, accessEgressModeToLink, walkConstantTimeToLink, accessEgressModeToLinkPlusTimeConstant], Current default=none which means no access or egress trips are simulated.";
 	private AccessEgressType accessEgressType = AccessEgressType.none;
 
+	private static final String LANDMARKS_CACHE_DIRECTORY = "landmarksCacheDirectory";
+	private static final String LANDMARKS_CACHE_DIRECTORY_CMT = "Directory where the preprocessed landmark data of the SpeedyALT router is cached between runs. " +
+																		"The cache files are keyed by the network and the minimum travel disutilities, so a cached file is only used if nothing relevant has changed. " +
+																		"Default is null, which disables the cache.";
+	private String landmarksCacheDirectory = null;
+
+	private static final String ROUTE_CACHE_SIZE = "routeCacheSize";
+	private static final String ROUTE_CACHE_SIZE_CMT = "Maximum number of routes of a network mode that every replanning thread keeps for repeated requests of the same " +
+																"person with the same origin, destination and departure time bin. Cached routes are discarded at the iteration boundaries, " +
+																"when the travel times are reset and after the mobsim. " +
+																"Default is 0, which disables the cache.";
+	private int routeCacheSize = 0;
+
+	private static final String ROUTE_CACHE_SHARED_ACROSS_PERSONS = "routeCacheSharedAcrossPersons";
+	private static final String ROUTE_CACHE_SHARED_ACROSS_PERSONS_CMT = "If true, a cached route is also re-used for other persons. Only set this if the travel " +
+																"disutility does not depend on the person, i.e. without routing randomness, person- or subpopulation-specific scoring " +
+																"parameters and person-dependent tolls. As every replanning thread has its own cache and the persons are distributed " +
+																"dynamically over the threads, it then depends on the scheduling which of several equally good routes a person gets. " +
+																"Default is false.";
+	private boolean routeCacheSharedAcrossPersons = false;
+
+	private static final String ROUTE_CACHE_TIME_BIN_SIZE = "routeCacheTimeBinSize";
+	private static final String ROUTE_CACHE_TIME_BIN_SIZE_CMT = "Size of the departure time bins of the route cache, in seconds.";
+	private double routeCacheTimeBinSize = 900.0;
+
 	// ---
 	private static final String RANDOMNESS = "routingRandomness" ;
 	private double routingRandomness = 3. ;
@@ -520,6 +545,18 @@ public final class RoutingConfigGroup extends ConfigGroup {
 		else if (ACCESSEGRESSTYPE.equals( key ) ) {
 			this.setAccessEgressType(AccessEgressType.valueOf(value));
 		}
+		else if (LANDMARKS_CACHE_DIRECTORY.equals( key ) ) {
+			this.setLandmarksCacheDirectory(value);
+		}
+		else if (ROUTE_CACHE_SIZE.equals( key ) ) {
+			this.setRouteCacheSize(Integer.parseInt(value));
+		}
+		else if (ROUTE_CACHE_TIME_BIN_SIZE.equals( key ) ) {
+			this.setRouteCacheTimeBinSize(Double.parseDouble(value));
+		}
+		else if (ROUTE_CACHE_SHARED_ACROSS_PERSONS.equals( key ) ) {
+			this.setRouteCacheSharedAcrossPersons(Boolean.parseBoolean(value));
+		}
 		else {
 			throw new IllegalArgumentException(key);
 		}
@@ -532,6 +569,10 @@ public final class RoutingConfigGroup extends ConfigGroup {
 		map.put(  CLEAR_MODE_ROUTING_PARAMS, Boolean.toString( this.clearingDefaultModeRoutingParams ) ) ;
 		map.put(  RANDOMNESS, Double.toString( this.routingRandomness ) ) ;
 		map.put(  ACCESSEGRESSTYPE, getAccessEgressType().toString()) ;
+		map.put(  LANDMARKS_CACHE_DIRECTORY, Objects.toString( this.landmarksCacheDirectory ) ) ;
+		map.put(  ROUTE_CACHE_SIZE, Integer.toString( this.routeCacheSize ) ) ;
+		map.put(  ROUTE_CACHE_TIME_BIN_SIZE, Double.toString( this.routeCacheTimeBinSize ) ) ;
+		map.put(  ROUTE_CACHE_SHARED_ACROSS_PERSONS, Boolean.toString( this.routeCacheSharedAcrossPersons ) ) ;
 		return map;
 	}
 
@@ -547,6 +588,10 @@ public final class RoutingConfigGroup extends ConfigGroup {
 	          		+ "Technically the width parameter of a log-normal distribution. 3.0 seems to be a good value. " ) ;
 		map.put( CLEAR_MODE_ROUTING_PARAMS, CLEAR_MODE_ROUTING_PARAMS_CMT ) ;
 		map.put(ACCESSEGRESSTYPE, ACCESSEGRESSTYPE_CMT);
+		map.put(LANDMARKS_CACHE_DIRECTORY, LANDMARKS_CACHE_DIRECTORY_CMT);
+		map.put(ROUTE_CACHE_SIZE, ROUTE_CACHE_SIZE_CMT);
+		map.put(ROUTE_CACHE_TIME_BIN_SIZE, ROUTE_CACHE_TIME_BIN_SIZE_CMT);
+		map.put(ROUTE_CACHE_SHARED_ACROSS_PERSONS, ROUTE_CACHE_SHARED_ACROSS_PERSONS_CMT);
 		return map;
 	}
 
@@ -641,6 +686,50 @@ public final class RoutingConfigGroup extends ConfigGroup {
 		this.accessEgressType = accessEgressType;
 	}
 
+	@StringGetter(LANDMARKS_CACHE_DIRECTORY)
+	public String getLandmarksCacheDirectory() {
+		return this.landmarksCacheDirectory;
+	}
+
+	@StringSetter(LANDMARKS_CACHE_DIRECTORY)
+	public void setLandmarksCacheDirectory(String landmarksCacheDirectory) {
+		testForLocked();
+		this.landmarksCacheDirectory = landmarksCacheDirectory;
+	}
+
+	@StringGetter(ROUTE_CACHE_SIZE)
+	public int getRouteCacheSize() {
+		return this.routeCacheSize;
+	}
+
+	@StringSetter(ROUTE_CACHE_SIZE)
+	public void setRouteCacheSize(int routeCacheSize) {
+		testForLocked();
+		this.routeCacheSize = routeCacheSize;
+	}
+
+	@StringGetter(ROUTE_CACHE_TIME_BIN_SIZE)
+	public double getRouteCacheTimeBinSize() {
+		return this.routeCacheTimeBinSize;
+	}
+
+	@StringSetter(ROUTE_CACHE_TIME_BIN_SIZE)
+	public void setRouteCacheTimeBinSize(double routeCacheTimeBinSize) {
+		testForLocked();
+		this.routeCacheTimeBinSize = routeCacheTimeBinSize;
+	}
+
+	@StringGetter(ROUTE_CACHE_SHARED_ACROSS_PERSONS)
+	public boolean isRouteCacheSharedAcrossPersons() {
+		return this.routeCacheSharedAcrossPersons;
+	}
+
+	@StringSetter(ROUTE_CACHE_SHARED_ACROSS_PERSONS)
+	public void setRouteCacheSharedAcrossPersons(boolean routeCacheSharedAcrossPersons) {
+		testForLocked();
+		this.routeCacheSharedAcrossPersons = routeCacheSharedAcrossPersons;
+	}
+
 	@StringGetter(RANDOMNESS)
 	public double getRoutingRandomness() {
 		return routingRandomness;
@@ -73,6 +73,7 @@ public final class ScoringConfigGroup extends ConfigGroup {
 	private static final String WAITING_PT = "waitingPt";
 
 	private static final String WRITE_EXPERIENCED_PLANS = "writeExperiencedPlans";
+	private static final String NUMBER_OF_THREADS = "numberOfThreads";
 
 	private static final String MARGINAL_UTL_OF_MONEY = "marginalUtilityOfMoney";
 
@@ -417,6 +418,10 @@ public final class ScoringConfigGroup extends ConfigGroup {
 				"[utils/unit_of_money] conversion of money (e.g. toll, distance cost) into utils. Normall positive (i.e. toll/cost/fare are processed as negative amounts of money).");
 		map.put(WRITE_EXPERIENCED_PLANS,
 				"write a plans file in each iteration directory which contains what each agent actually did, and the score it received.");
+		map.put(NUMBER_OF_THREADS,
+				"number of threads calling the scoring functions. With 1 (default), they are called from the events handling thread. With more, " +
+				"the persons are partitioned over this many threads, the scores remain the same. The scoring functions can then only be looked up " +
+				"after scoring, not while the events are handled.");
 
 		return map;
 	}
@@ -783,6 +788,14 @@ public final class ScoringConfigGroup extends ConfigGroup {
 		delegate.setWriteExperiencedPlans(writeExperiencedPlans);
 	}
 
+	public int getNumberOfThreads() {
+		return delegate.getNumberOfThreads();
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		delegate.setNumberOfThreads(numberOfThreads);
+	}
+
 	public double getMarginalUtlOfWaiting_utils_hr() {
 		if (getScoringParameters(null) != null)
 			return getScoringParameters(null).getMarginalUtlOfWaiting_utils_hr();
@@ -1581,6 +1594,8 @@ public final class ScoringConfigGroup extends ConfigGroup {
 
 		private boolean writeExperiencedPlans = false;
 
+		private int numberOfThreads = 1;
+
 		private Double fractionOfIterationsToStartScoreMSA = null;
 
 		private boolean usingOldScoringBelowZeroUtilityDuration = false;
@@ -1659,5 +1674,16 @@ public final class ScoringConfigGroup extends ConfigGroup {
 			this.writeExperiencedPlans = writeExperiencedPlans;
 		}
 
+		@StringGetter(NUMBER_OF_THREADS)
+		public int getNumberOfThreads() {
+			return numberOfThreads;
+		}
+
+		@StringSetter(NUMBER_OF_THREADS)
+		public void setNumberOfThreads(int numberOfThreads) {
+			testForLocked();
+			this.numberOfThreads = numberOfThreads;
+		}
+
 	}
 }
@@ -50,6 +50,7 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private static final String ANALYZEDMODES = "analyzedModes";
 	private static final String FILTERMODES = "filterModes";
 	private static final String SEPARATEMODES = "separateModes";
+	private static final String FEED_FROM_NETSIM = "feedFromNetsim";
 
 	private String travelTimeAggregator = "optimistic";
 	private String travelTimeGetter = "average";
@@ -62,6 +63,7 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private Set<String> analyzedModes = new LinkedHashSet<>(  ) ;
 	private boolean filterModes = false;
 	private boolean separateModes = true;
+	private boolean feedFromNetsim = false;
 
 	public TravelTimeCalculatorConfigGroup() {
 		super(GROUPNAME);
@@ -83,6 +85,10 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 							 "respected by the travel time collector. 'car' is default which includes also buses from the pt simulation module.");
 		map.put(FILTERMODES, "(only for backwards compatiblity; only used if " + SEPARATEMODES + "==false)  Only modes included in analyzedModes are included." ) ;
 		map.put(SEPARATEMODES, "(only for backwards compatibility) If false, link travel times are measured and aggregated over all vehicles using the link." ) ;
+		map.put(FEED_FROM_NETSIM, "If true, the travel time calculator receives the link events directly from the threads of the QNetsimEngine " +
+				"instead of from the events manager. The results are the same, but the events manager has less work. Requires an events manager " +
+				"that processes all events of a time step before the next time step starts (which is the default); with other events managers, " +
+				"the events are taken from the events manager as if this was false." ) ;
 		return map;
 	}
 
@@ -196,4 +202,15 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 		this.separateModes = separateModes;
 	}
 
+	// ---
+	@StringGetter(FEED_FROM_NETSIM)
+	public boolean isFeedFromNetsim() {
+		return this.feedFromNetsim;
+	}
+
+	@StringSetter(FEED_FROM_NETSIM)
+	public void setFeedFromNetsim(boolean feedFromNetsim) {
+		this.feedFromNetsim = feedFromNetsim;
+	}
+
 }
@@ -80,8 +80,9 @@ import java.io.UncheckedIOException;
                 loadCoreListeners();
                 controlerListenerManagerImpl.fireControlerStartupEvent();
                 ControlerUtils.checkConfigConsistencyAndWriteToLog(config, "config dump before iterations start");
+                Integer checkpointIteration = restoreCheckpoint();
                 prepareForSim();
-                doIterations(config);
+                doIterations(config, checkpointIteration == null ? config.controller().getFirstIteration() : checkpointIteration + 1);
             }
 
             @Override
@@ -113,8 +114,23 @@ import java.io.UncheckedIOException;
 	protected abstract boolean mayTerminateAfterIteration(int iteration);
 	protected abstract boolean shouldTerminate(int iteration);
 
-    private void doIterations(Config config) throws MatsimRuntimeModifications.UnexpectedShutdownException {
-    	int iteration = config.controller().getFirstIteration();
+    /**
+     * Restores the state stored in a checkpoint, if the run should resume from one.
+     *
+     * @return the iteration in which the checkpoint was written, or <code>null</code> to start with the first iteration.
+     */
+    protected Integer restoreCheckpoint() {
+        return null;
+    }
+
+    /**
+     * Called at the end of every iteration, after the iteration ends listeners, to write a checkpoint if required.
+     */
+    protected void writeCheckpoint(int iteration) {
+    }
+
+    private void doIterations(Config config, int firstIteration) throws MatsimRuntimeModifications.UnexpectedShutdownException {
+    	int iteration = firstIteration;
 
     	// Special case if lastIteration == -1 -> Do not run any Mobsim
     	boolean doTerminate = config.controller().getLastIteration() < iteration;
@@ -172,6 +188,8 @@ import java.io.UncheckedIOException;
             }
         });
 
+        writeCheckpoint(iteration);
+
         this.getStopwatch().endIteration();
         try {
             this.getStopwatch().writeSeparatedFile(this.getControlerIO().getOutputFilename("stopwatch.csv"), config.global().getDefaultDelimiter());
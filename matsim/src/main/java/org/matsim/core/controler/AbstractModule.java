@@ -89,6 +89,7 @@ public abstract class AbstractModule implements Module {
 
 	private Multibinder<SnapshotWriter> snapshotWriterMultibinder;
 	private MapBinder<Class<?>, AttributeConverter<?>> attributeConverterMapBinder;
+	private MapBinder<String, Checkpointable> checkpointableMapBinder;
 	private Multibinder<AbstractQSimModule> qsimModulesMultibinder;
 
 	@Inject
@@ -130,6 +131,7 @@ public abstract class AbstractModule implements Module {
 						this.binder,
 						new TypeLiteral<Class<?>>(){},
 						new TypeLiteral<AttributeConverter<?>>() {} );
+		this.checkpointableMapBinder = MapBinder.newMapBinder(this.binder, String.class, Checkpointable.class);
 		this.qsimModulesMultibinder = Multibinder.newSetBinder(this.binder, AbstractQSimModule.class);
 		this.qsimOverridingModulesMultibinder = Multibinder.newSetBinder( this.binder, AbstractQSimModule.class, Names.named( "overridesFromAbstractModule" ) );
 	}
@@ -193,6 +195,14 @@ public abstract class AbstractModule implements Module {
 	protected final LinkedBindingBuilder<AttributeConverter<?>> addAttributeConverterBinding(final Class<?> clazz ) {
 		return attributeConverterMapBinder.addBinding( clazz );
 	}
+
+	/**
+	 * @see Checkpointable
+	 */
+	protected final LinkedBindingBuilder<Checkpointable> addCheckpointableBinding(final String name) {
+		return checkpointableMapBinder.addBinding(name);
+	}
+
 	/**
 	 * @deprecated better use {@link #addTravelDisutilityFactoryBinding(String)}.
 	 */
@@ -0,0 +1,56 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * Checkpointable.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A component whose state must be stored in a checkpoint, so that a run continued from this checkpoint
+ * (see {@link org.matsim.core.config.groups.ControllerConfigGroup#getResumeFromCheckpoint()}) yields the same
+ * results as if it had never been interrupted.
+ * <p>
+ * Checkpoints are written after all listeners of an iteration have been called, and they are read after the
+ * startup listeners have been called, but before the first iteration is prepared. Register implementations
+ * with {@link AbstractModule#addCheckpointableBinding(String)}, the name must be unique and must not change
+ * between the run writing and the run reading the checkpoint.
+ * <p>
+ * The random numbers do not need to be stored, as {@link org.matsim.core.gbl.MatsimRandom} is re-seeded at the
+ * start of every iteration. Components keeping their own {@link java.util.Random} over several iterations
+ * must store its state themselves.
+ * <p>
+ * The core stores the population, the travel times, the strategy weights and, if enabled, the state of the
+ * {@link org.matsim.core.replanning.annealing.ReplanningAnnealer}. The state of analysis listeners such as the score
+ * or mode statistics is not stored, as it does not influence the iterations: their output files of a resumed run
+ * only contain the iterations after the checkpoint.
+ */
+public interface Checkpointable {
+
+	void writeCheckpoint(DataOutputStream out) throws IOException;
+
+	/**
+	 * Restores the state written by {@link #writeCheckpoint(DataOutputStream)}. The stream only contains the
+	 * data of this component.
+	 */
+	void readCheckpoint(DataInputStream in) throws IOException;
+
+}
@@ -0,0 +1,167 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * Checkpoints.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.analysis.IterationStopWatch;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigGroup;
+import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.utils.io.IOUtils;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+
+/**
+ * Writes and reads the checkpoints of a run, see {@link Checkpointable}.
+ * <p>
+ * File format, all numbers big-endian:
+ * <pre>
+ * MAGIC VERSION iteration randomSeed numberOfSections section*
+ * section: name(UTF) length bytes
+ * </pre>
+ * The sections are sorted by name.
+ */
+/* deliberately package */ final class Checkpoints {
+
+	private static final Logger log = LogManager.getLogger(Checkpoints.class);
+
+	static final int MAGIC = 0x4D434B50; // "MCKP"
+	static final int VERSION = 1;
+
+	private final Config config;
+	private final OutputDirectoryHierarchy controlerIO;
+	private final IterationStopWatch stopwatch;
+	private final Map<String, Provider<Checkpointable>> checkpointables;
+
+	@Inject
+	Checkpoints(Config config, OutputDirectoryHierarchy controlerIO, IterationStopWatch stopwatch, Map<String, Provider<Checkpointable>> checkpointables) {
+		this.config = config;
+		this.controlerIO = controlerIO;
+		this.stopwatch = stopwatch;
+		// the checkpointables are only instantiated when actually needed, not to change the order in which components are created
+		this.checkpointables = new TreeMap<>(checkpointables);
+	}
+
+	void writeIfRequired(int iteration) {
+		int interval = this.config.controller().getWriteCheckpointInterval();
+		if (interval <= 0 || iteration % interval != 0) {
+			return;
+		}
+		this.stopwatch.beginOperation("write checkpoint");
+		String filename = this.controlerIO.getIterationFilename(iteration, Controler.DefaultFiles.checkpoint, ControllerConfigGroup.CompressionType.none);
+		log.info("writing checkpoint to " + filename);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+			write(out, iteration);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not write checkpoint " + filename, e);
+		}
+		this.stopwatch.endOperation("write checkpoint");
+	}
+
+	/**
+	 * @return the iteration in which the checkpoint was written, or <code>null</code> if the run does not resume from a checkpoint.
+	 */
+	Integer restoreIfRequired() {
+		String filename = this.config.controller().getResumeFromCheckpoint();
+		if (filename == null) {
+			return null;
+		}
+		log.info("resuming from checkpoint " + filename);
+		try (InputStream is = IOUtils.getInputStream(ConfigGroup.getInputFileURL(this.config.getContext(), filename));
+				 DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+			return read(in);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read checkpoint " + filename, e);
+		}
+	}
+
+	void write(DataOutputStream out, int iteration) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(iteration);
+		out.writeLong(this.config.global().getRandomSeed());
+		out.writeInt(this.checkpointables.size());
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		for (Map.Entry<String, Provider<Checkpointable>> e : this.checkpointables.entrySet()) {
+			buffer.reset();
+			DataOutputStream sectionOut = new DataOutputStream(buffer);
+			e.getValue().get().writeCheckpoint(sectionOut);
+			sectionOut.flush();
+			out.writeUTF(e.getKey());
+			out.writeInt(buffer.size());
+			buffer.writeTo(out);
+		}
+	}
+
+	int read(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IllegalArgumentException("Not a MATSim checkpoint.");
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported checkpoint version " + version);
+		}
+		int iteration = in.readInt();
+		long randomSeed = in.readLong();
+		if (randomSeed != this.config.global().getRandomSeed()) {
+			log.warn("The checkpoint was written with random seed " + randomSeed + ", but this run uses " + this.config.global().getRandomSeed()
+					+ ". The results will differ from the original run.");
+		}
+		Set<String> restored = new HashSet<>();
+		int numberOfSections = in.readInt();
+		for (int i = 0; i < numberOfSections; i++) {
+			String name = in.readUTF();
+			byte[] data = new byte[in.readInt()];
+			in.readFully(data);
+			Provider<Checkpointable> checkpointable = this.checkpointables.get(name);
+			if (checkpointable == null) {
+				throw new IllegalStateException("The checkpoint contains data for " + name + ", but no such Checkpointable is bound.");
+			}
+			checkpointable.get().readCheckpoint(new DataInputStream(new ByteArrayInputStream(data)));
+			restored.add(name);
+		}
+		for (String name : this.checkpointables.keySet()) {
+			if (!restored.contains(name)) {
+				log.warn("The checkpoint contains no data for " + name + ", it starts in its initial state.");
+			}
+		}
+		log.info("restored state of iteration " + iteration + ", continuing with iteration " + (iteration + 1));
+		return iteration;
+	}
+
+}
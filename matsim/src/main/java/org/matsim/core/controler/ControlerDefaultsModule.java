@@ -34,7 +34,9 @@ import org.matsim.core.controler.events.StartupEvent;
 import org.matsim.core.controler.listener.StartupListener;
 import org.matsim.core.events.EventsManagerModule;
 import org.matsim.core.mobsim.DefaultMobsimModule;
+import org.matsim.core.population.UnselectedPlansCompactorModule;
 import org.matsim.core.population.VspPlansCleanerModule;
+import org.matsim.core.population.io.PopulationCheckpoint;
 import org.matsim.core.replanning.StrategyManagerModule;
 import org.matsim.core.replanning.annealing.ReplanningAnnealer;
 import org.matsim.core.replanning.inheritance.PlanInheritanceModule;
@@ -63,6 +65,7 @@ public final class ControlerDefaultsModule extends AbstractModule {
         install(new TimeInterpretationModule());
         if (getConfig().replanningAnnealer().isActivateAnnealingModule()) {
             addControlerListenerBinding().to(ReplanningAnnealer.class);
+            addCheckpointableBinding("replanningAnnealer").to(ReplanningAnnealer.class);
         }
 
         // I think that the ones coming here are all for analysis only, and thus not central to the iterations. kai, apr'18
@@ -75,9 +78,11 @@ public final class ControlerDefaultsModule extends AbstractModule {
         install(new ModeStatsModule());
         install(new CountsModule());
         install(new VspPlansCleanerModule());
+        install(new UnselectedPlansCompactorModule());
         install(new SnapshotWritersModule());
         install(new DependencyGraphModule());
         install(new PlanInheritanceModule());
+        addCheckpointableBinding("population").to(PopulationCheckpoint.class);
 
 		// Comment by Tarek Chouaki.
 		// To make sure the cache files used under ChartUtils are located in tmp folder in the output directory
@@ -50,6 +50,7 @@ class NewControler extends AbstractController implements ControlerI {
 	private final Set<ControlerListener> controlerListenersDeclaredByModules;
 	private final ControllerConfigGroup controllerConfigGroup;
 	private final OutputDirectoryHierarchy outputDirectoryHierarchy;
+	private final Checkpoints checkpoints;
 
 	@Inject
 	NewControler(Config config, ControlerListenerManagerImpl controlerListenerManager, MatsimServices matsimServices,
@@ -58,7 +59,7 @@ class NewControler extends AbstractController implements ControlerI {
 			 PlansScoring plansScoring, TerminationCriterion terminationCriterion, DumpDataAtEnd dumpDataAtEnd,
 			 Set<ControlerListener> controlerListenersDeclaredByModules, ControllerConfigGroup controllerConfigGroup,
 			 OutputDirectoryHierarchy outputDirectoryHierarchy
-			, PrepareForMobsim prepareForMobsim
+			, PrepareForMobsim prepareForMobsim, Checkpoints checkpoints
  ) {
 		super(controlerListenerManager, stopWatch, matsimServices);
 		this.config = config;
@@ -75,6 +76,7 @@ class NewControler extends AbstractController implements ControlerI {
 		this.controlerListenersDeclaredByModules = controlerListenersDeclaredByModules;
 		this.controllerConfigGroup = controllerConfigGroup;
 		this.outputDirectoryHierarchy = outputDirectoryHierarchy;
+		this.checkpoints = checkpoints;
 	}
 
 	@Override
@@ -114,6 +116,16 @@ class NewControler extends AbstractController implements ControlerI {
 		this.prepareForSim.run();
 	}
 
+	@Override
+	protected final Integer restoreCheckpoint() {
+		return this.checkpoints.restoreIfRequired();
+	}
+
+	@Override
+	protected final void writeCheckpoint(int iteration) {
+		this.checkpoints.writeIfRequired(iteration);
+	}
+
 	@Override
 	protected final void prepareForMobsim() {
 		this.prepareForMobsim.run() ;
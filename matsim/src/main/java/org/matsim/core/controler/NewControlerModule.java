@@ -42,6 +42,7 @@ public final class NewControlerModule extends AbstractModule {
 
 		bind(PrepareForSim.class).to(PrepareForSimImpl.class);
 		bind(PrepareForMobsim.class).to(PrepareForMobsimImpl.class);
+		bind(Checkpoints.class);
 
 		// Explicitly create the set binder so that it always available (even if empty)
 		Multibinder.newSetBinder(binder(), PersonPrepareForSimAlgorithm.class);
@@ -42,6 +42,7 @@ import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.network.algorithms.TransportModeNetworkFilter;
+import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.algorithms.ParallelPersonAlgorithmUtils;
 import org.matsim.core.population.algorithms.PersonPrepareForSim;
 import org.matsim.core.population.routes.NetworkRoute;
@@ -198,6 +199,10 @@ public final class PrepareForSimImpl implements PrepareForSim, PrepareForMobsim
 						carOnlyNetwork)
 		);
 
+		if (scenario.getConfig().plans().isCompactingUnselectedPlans()) {
+			log.info("compacted " + PopulationUtils.compactUnselectedPlans(population) + " unselected plans.");
+		}
+
 		if (scenario instanceof Lockable) {
 			((Lockable)scenario).setLocked();
 			// see comment in ScenarioImpl. kai, sep'14
@@ -26,9 +26,13 @@ import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.controler.events.*;
 import org.matsim.core.controler.listener.*;
+import org.matsim.core.events.EventsManagerModule;
+import org.matsim.core.events.EventsUtils;
 import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.ReplayEventsManager;
 
 import jakarta.inject.Inject;
+import java.util.Arrays;
 import java.util.Set;
 
 /**
@@ -65,6 +69,31 @@ public final class ReplayEvents {
                         }
                     }
                 });
+        return play(injector, eventsFilename);
+    }
+
+    /**
+     * Like {@link #run(Config, String, AbstractModule...)}, but the event handlers bound by the modules are
+     * distributed to <code>numberOfThreads</code> handler groups which process the events in parallel, while
+     * the events file is read by the calling thread, see {@link ReplayEventsManager}. Every handler sees all
+     * events in file order, but handlers that depend on each other's state while handling events must not
+     * be used.
+     */
+    public static Results run(final Config config, final String eventsFilename, final int numberOfThreads, final AbstractModule... modules) {
+        final com.google.inject.Injector injector = Injector.createInjector(
+                config,
+                new Module(),
+                AbstractModule.override(Arrays.asList(modules), new AbstractModule() {
+                    @Override
+                    public void install() {
+                        bindEventsManager().toInstance(EventsUtils.createReplayEventsManager(numberOfThreads));
+                        bind(EventsManagerModule.EventHandlerRegistrator.class).asEagerSingleton();
+                    }
+                }));
+        return play(injector, eventsFilename);
+    }
+
+    private static Results play(final com.google.inject.Injector injector, final String eventsFilename) {
         ReplayEvents instance = injector.getInstance(ReplayEvents.class);
         instance.playEventsFile(eventsFilename, 1, false);
 
@@ -95,7 +124,12 @@ public final class ReplayEvents {
                 ((BeforeMobsimListener) controlerListener).notifyBeforeMobsim(new BeforeMobsimEvent(null, iterationNumber, isLastIteration));
             }
         }
-        new MatsimEventsReader(eventsManager).readFile(eventsFilename);
+        eventsManager.initProcessing();
+        try {
+            new MatsimEventsReader(eventsManager).readFile(eventsFilename);
+        } finally {
+            eventsManager.finishProcessing();
+        }
         ((ControlerListenerManagerImpl) controlerListenerManager).fireControlerAfterMobsimEvent(iterationNumber, isLastIteration);
         for (ControlerListener controlerListener : controlerListenersDeclaredByModules) {
             if (controlerListener instanceof AfterMobsimListener) {
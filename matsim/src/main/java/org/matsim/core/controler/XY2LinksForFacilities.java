@@ -19,12 +19,20 @@
 
 package org.matsim.core.controler;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.utils.collections.PackedKdTree;
+import org.matsim.core.utils.collections.QuadTrees;
 import org.matsim.facilities.ActivityFacilities;
 import org.matsim.facilities.ActivityFacility;
 import org.matsim.facilities.ActivityFacilityImpl;
@@ -41,6 +49,7 @@ public class XY2LinksForFacilities {
 
         int coordNullWarn = 0;
         int linkNullWarn = 0;
+        List<ActivityFacility> withoutLink = new ArrayList<>();
 
         for (ActivityFacility activityFacility : facilities.getFacilities().values()) {
 
@@ -52,12 +61,7 @@ public class XY2LinksForFacilities {
                     LOGGER.warn(Gbl.ONLYONCE);
                     linkNullWarn++;
                 }
-                Link link = NetworkUtils.getNearestLink(network, activityFacility.getCoord());
-                if (link==null) {
-                    LOGGER.warn("No nearest link is found for coord "+activityFacility.getCoord());
-                } else{
-                    ((ActivityFacilityImpl)activityFacility).setLinkId(link.getId());
-                }
+                withoutLink.add(activityFacility);
 
             } else if (activityFacility.getCoord()==null){
                 if (coordNullWarn==0) {
@@ -67,5 +71,49 @@ public class XY2LinksForFacilities {
                 }
             }
         }
+        if (withoutLink.isEmpty()) {
+            return;
+        }
+        if (network.getNodes().isEmpty()) {
+            LOGGER.warn("The network has no nodes, so no links can be assigned to facilities.");
+            return;
+        }
+
+        // look up the nearest nodes of all facilities at once, in parallel
+        PackedKdTree<Node> nodes = QuadTrees.createPackedKdTree(network.getNodes().values());
+        Node[] nearestNodes = new Node[withoutLink.size()];
+        IntStream.range(0, nearestNodes.length).parallel().forEach(i -> nearestNodes[i] = getUniqueNearestNode(nodes, withoutLink.get(i).getCoord()));
+
+        for (int i = 0; i < nearestNodes.length; i++) {
+            ActivityFacility activityFacility = withoutLink.get(i);
+            Node nearestNode = nearestNodes[i];
+            if (nearestNode == null) {
+                // several nodes are equally near. Which one the network's QuadTree returns depends on its structure, so ask it.
+                nearestNode = NetworkUtils.getNearestNode(network, activityFacility.getCoord());
+            }
+            Link link = NetworkUtils.getNearestIncidentLink(nearestNode, activityFacility.getCoord());
+            if (link==null) {
+                LOGGER.warn("No nearest link is found for coord "+activityFacility.getCoord());
+            } else{
+                ((ActivityFacilityImpl)activityFacility).setLinkId(link.getId());
+            }
+        }
+    }
+
+    /**
+     * @return the node nearest to coord, or null if there are several nodes at the same, shortest distance
+     */
+    private static Node getUniqueNearestNode(PackedKdTree<Node> nodes, Coord coord) {
+        List<Node> nearest = nodes.getKNearest(coord.getX(), coord.getY(), 2);
+        if (nearest.size() == 2 && squaredDistance(nearest.get(0), coord) == squaredDistance(nearest.get(1), coord)) {
+            return null;
+        }
+        return nearest.get(0);
+    }
+
+    private static double squaredDistance(Node node, Coord coord) {
+        double dx = node.getCoord().getX() - coord.getX();
+        double dy = node.getCoord().getY() - coord.getY();
+        return dx * dx + dy * dy;
     }
 }
@@ -39,6 +39,7 @@ import org.matsim.core.controler.listener.ShutdownListener;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.network.io.NetworkChangeEventsWriter;
 import org.matsim.core.network.io.NetworkWriter;
+import org.matsim.core.population.io.PopulationWriterBinary;
 import org.matsim.core.utils.geometry.CoordinateTransformation;
 import org.matsim.core.utils.geometry.transformations.TransformationFactory;
 import org.matsim.core.utils.io.IOUtils;
@@ -156,6 +157,10 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 					case json:
 						file = Controler.DefaultFiles.eventsJson;
 						break;
+					case binary:
+						IOUtils.copyFile(this.controlerIO.getIterationFilename(iteration, Controler.DefaultFiles.eventsBinary, ControllerConfigGroup.CompressionType.none),
+								this.controlerIO.getOutputFilename(Controler.DefaultFiles.eventsBinary, ControllerConfigGroup.CompressionType.none));
+						continue;
 					default:
 						continue;
 				}
@@ -318,9 +323,20 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 	private void dumpPlans() {
 		// dump plans
 
-		final PopulationWriter writer = new PopulationWriter(this.population, this.network);
-		writer.putAttributeConverters(this.attributeConverters);
-		writer.write(this.controlerIO.getOutputFilename(Controler.DefaultFiles.population));
+		for (ControllerConfigGroup.PlansFileFormat format : this.controllerConfigGroup.getPlansFileFormats()) {
+			switch (format) {
+				case xml -> {
+					final PopulationWriter writer = new PopulationWriter(this.population, this.network);
+					writer.putAttributeConverters(this.attributeConverters);
+					writer.write(this.controlerIO.getOutputFilename(Controler.DefaultFiles.population));
+				}
+				case binary -> {
+					final PopulationWriterBinary writer = new PopulationWriterBinary(null, this.population, this.config.global().getNumberOfThreads());
+					writer.putAttributeConverters(this.attributeConverters);
+					writer.write(this.controlerIO.getOutputFilename(Controler.DefaultFiles.populationBinary, ControllerConfigGroup.CompressionType.none));
+				}
+			}
+		}
 	}
 
 }
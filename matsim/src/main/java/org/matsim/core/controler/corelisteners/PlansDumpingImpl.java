@@ -32,6 +32,7 @@ import org.matsim.core.controler.Controler;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
 import org.matsim.core.controler.events.BeforeMobsimEvent;
 import org.matsim.core.controler.listener.BeforeMobsimListener;
+import org.matsim.core.population.io.PopulationWriterBinary;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -78,18 +79,28 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 			final String inputCRS = config.plans().getInputCRS();
 			final String internalCRS = config.global().getCoordinateSystem();
 
-			if ( inputCRS == null ) {
-				new PopulationWriter(population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
-			}
-			else {
+			CoordinateTransformation transformation = null;
+			if ( inputCRS != null ) {
 				log.info( "re-projecting population from "+internalCRS+" back to "+inputCRS+" for export" );
 
-				final CoordinateTransformation transformation =
+				transformation =
 						TransformationFactory.getCoordinateTransformation(
 								internalCRS,
 								inputCRS );
+			}
 
-				new PopulationWriter(transformation, population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
+			for (ControllerConfigGroup.PlansFileFormat format : config.controller().getPlansFileFormats()) {
+				switch (format) {
+					case xml -> {
+						if ( transformation == null ) {
+							new PopulationWriter(population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
+						} else {
+							new PopulationWriter(transformation, population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
+						}
+					}
+					case binary -> new PopulationWriterBinary(transformation, population, config.global().getNumberOfThreads())
+							.write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.populationBinary, ControllerConfigGroup.CompressionType.none));
+				}
 			}
 			log.info("finished plans dump.");
 			stopwatch.endOperation("dump all plans");
@@ -0,0 +1,266 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventsReaderBinary.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.algorithms.EventWriterBinary;
+import org.xml.sax.helpers.AttributesImpl;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * Reads events written by {@link EventWriterBinary}. The chunks of the file are memory-mapped and decoded by
+ * several threads in parallel, but the events are passed to the events manager in the order of the file,
+ * from the calling thread.
+ * <p>
+ * Custom event mappers are called from the decoding threads and thus must be thread-safe.
+ */
+public final class EventsReaderBinary {
+
+	private final static Logger LOG = LogManager.getLogger(EventsReaderBinary.class);
+
+	private final EventsManager events;
+	private final int numberOfThreads;
+	private final Map<String, MatsimEventsReader.CustomEventMapper> customEventMappers = new HashMap<>();
+
+	public EventsReaderBinary(final EventsManager events) {
+		this(events, Math.min(8, Runtime.getRuntime().availableProcessors()));
+	}
+
+	public EventsReaderBinary(final EventsManager events, final int numberOfThreads) {
+		this.events = events;
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	public void addCustomEventMapper(String eventType, MatsimEventsReader.CustomEventMapper cem) {
+		this.customEventMappers.put(eventType, cem);
+	}
+
+	public void readFile(final String filename) throws UncheckedIOException {
+		LOG.info("starting to read binary events from " + filename);
+		ExecutorService executor = createExecutor();
+		try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(12);
+			readFully(channel, header, 0);
+			checkHeader(header.getInt(), header.getInt());
+
+			ArrayDeque<Future<Event[]>> pending = new ArrayDeque<>();
+			long position = 8;
+			long size = channel.size();
+			while (position < size) {
+				header.clear();
+				readFully(channel, header, position);
+				int compressedSize = header.getInt();
+				int uncompressedSize = header.getInt();
+				int numberOfEvents = header.getInt();
+				ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position + 12, compressedSize);
+				pending.add(executor.submit(() -> decodeChunk(Zstd.decompress(chunk, uncompressedSize), numberOfEvents)));
+				position += 12 + compressedSize;
+				if (pending.size() >= 2 * this.numberOfThreads) {
+					processChunk(pending.poll());
+				}
+			}
+			while (!pending.isEmpty()) {
+				processChunk(pending.poll());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Reads the events from a stream. The chunks are still decoded in parallel, but cannot be memory-mapped.
+	 */
+	public void parse(final InputStream stream) throws UncheckedIOException {
+		ExecutorService executor = createExecutor();
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+			checkHeader(in.readInt(), in.readInt());
+			ArrayDeque<Future<Event[]>> pending = new ArrayDeque<>();
+			while (true) {
+				int compressedSize;
+				try {
+					compressedSize = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				int uncompressedSize = in.readInt();
+				int numberOfEvents = in.readInt();
+				byte[] chunk = new byte[compressedSize];
+				in.readFully(chunk);
+				pending.add(executor.submit(() -> decodeChunk(ByteBuffer.wrap(Zstd.decompress(chunk, uncompressedSize)), numberOfEvents)));
+				if (pending.size() >= 2 * this.numberOfThreads) {
+					processChunk(pending.poll());
+				}
+			}
+			while (!pending.isEmpty()) {
+				processChunk(pending.poll());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private ExecutorService createExecutor() {
+		return Executors.newFixedThreadPool(this.numberOfThreads, r -> {
+			Thread thread = new Thread(r, "EventsReaderBinary");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private static void checkHeader(int magic, int version) {
+		if (magic != EventWriterBinary.MAGIC) {
+			throw new IllegalArgumentException("not a binary MATSim events file.");
+		}
+		if (version != EventWriterBinary.VERSION) {
+			throw new IllegalArgumentException("unsupported version of binary events file: " + version);
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("unexpected end of binary events file");
+			}
+		}
+		buffer.flip();
+	}
+
+	private void processChunk(Future<Event[]> chunk) {
+		Event[] events;
+		try {
+			events = chunk.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("could not decode binary events", e.getCause());
+		}
+		for (Event event : events) {
+			this.events.processEvent(event);
+		}
+	}
+
+	/**
+	 * Decodes one chunk, see {@link EventWriterBinary} for the layout.
+	 */
+	private Event[] decodeChunk(ByteBuffer content, int numberOfEvents) {
+		// codes 0 and 1 are used for missing attributes and null values
+		String[] dictionary = new String[content.getInt() + 2];
+		for (int i = 2; i < dictionary.length; i++) {
+			dictionary[i] = readString(content);
+		}
+
+		int numberOfTypes = content.getInt();
+		String[] typeNames = new String[numberOfTypes];
+		String[][] typeKeys = new String[numberOfTypes][];
+		int[][][] typeColumns = new int[numberOfTypes][][];
+		for (int t = 0; t < numberOfTypes; t++) {
+			typeNames[t] = readString(content);
+			int count = content.getInt();
+			typeKeys[t] = new String[content.getInt()];
+			for (int k = 0; k < typeKeys[t].length; k++) {
+				typeKeys[t][k] = readString(content);
+			}
+			typeColumns[t] = new int[typeKeys[t].length][count];
+		}
+
+		int[] eventTypes = new int[numberOfEvents];
+		for (int i = 0; i < numberOfEvents; i++) {
+			eventTypes[i] = readVarInt(content);
+		}
+		double[] times = new double[numberOfEvents];
+		for (int i = 0; i < numberOfEvents; i++) {
+			times[i] = content.getDouble();
+		}
+		for (int[][] columns : typeColumns) {
+			for (int[] column : columns) {
+				for (int i = 0; i < column.length; i++) {
+					column[i] = readVarInt(content);
+				}
+			}
+		}
+
+		Event[] events = new Event[numberOfEvents];
+		int[] positions = new int[numberOfTypes];
+		AttributesImpl atts = new AttributesImpl();
+		for (int i = 0; i < numberOfEvents; i++) {
+			int type = eventTypes[i];
+			int position = positions[type]++;
+			String[] keys = typeKeys[type];
+			int[][] columns = typeColumns[type];
+			atts.clear();
+			for (int k = 0; k < keys.length; k++) {
+				int code = columns[k][position];
+				if (code != 0) {
+					atts.addAttribute("", keys[k], keys[k], "CDATA", dictionary[code]);
+				}
+			}
+			events[i] = EventsReaderXMLv1.createEvent(times[i], typeNames[type], atts, this.customEventMappers);
+		}
+		return events;
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static int readVarInt(ByteBuffer buffer) {
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+}
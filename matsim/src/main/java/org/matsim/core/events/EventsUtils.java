@@ -26,6 +26,7 @@ import org.apache.logging.log4j.Logger;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.controler.Injector;
+import org.matsim.core.events.handler.EventHandler;
 import org.matsim.utils.eventsfilecomparison.*;
 
 import java.io.File;
@@ -59,15 +60,46 @@ public final class EventsUtils {
 		new MatsimEventsReader(events).readFile(filename);
 	}
 
+	/**
+	 * Creates an events manager for replaying events files, which processes the handlers in
+	 * <code>numberOfThreads</code> groups in parallel, see {@link ReplayEventsManager}.
+	 */
+	public static ReplayEventsManager createReplayEventsManager(int numberOfThreads) {
+		return new ReplayEventsManager(numberOfThreads);
+	}
+
+	/**
+	 * Reads the events file on the calling thread and passes the events in batches to the handlers, which are
+	 * distributed round-robin to <code>numberOfThreads</code> handler groups. Every group runs on its own
+	 * thread and sees all events in file order, see {@link ReplayEventsManager}.
+	 *
+	 * @return the throughput in events per second
+	 */
+	public static double readEvents(String filename, int numberOfThreads, EventHandler... handlers) {
+		ReplayEventsManager events = createReplayEventsManager(numberOfThreads);
+		for (EventHandler handler : handlers) {
+			events.addHandler(handler);
+		}
+		events.initProcessing();
+		try {
+			readEvents(events, filename);
+		} finally {
+			events.finishProcessing();
+		}
+		return events.getEventsPerSecond();
+	}
+
 
 	/**
-	 * The SimStepParallelEventsManagerImpl can handle events from multiple threads.
+	 * The SimStepParallelEventsManagerImpl and the RingBufferEventsManager can handle events from multiple threads.
 	 * The (Parallel)EventsMangerImpl cannot, therefore it has to be wrapped into a
 	 * SynchronizedEventsManagerImpl.
 	 */
 	public static EventsManager getParallelFeedableInstance(EventsManager events) {
 		if (events instanceof SimStepParallelEventsManagerImpl) {
 			return events;
+		} else if (events instanceof RingBufferEventsManager) {
+			return events;
 		} else if (events instanceof ParallelEventsManager) {
 			return events;
 		} else if (events instanceof SynchronizedEventsManagerImpl) {
@@ -77,6 +109,20 @@ public final class EventsUtils {
 		}
 	}
 
+	/**
+	 * @return false if the events manager may still process the events of a time step after the mobsim has moved on
+	 * to the next one, i.e. its handlers may see events of the mobsim late.
+	 */
+	public static boolean isSynchronizedOnSimSteps(EventsManager events) {
+		if (events instanceof ParallelEventsManagerImpl) {
+			return false;
+		} else if (events instanceof ParallelEventsManager parallelEventsManager) {
+			return parallelEventsManager.isSyncOnTimeSteps();
+		} else {
+			return true;
+		}
+	}
+
 	/**
 	 * Create and write fingerprint file for events.
 	 */
@@ -87,6 +87,10 @@ public final class ParallelEventsManager implements EventsManager {
 		this.uncaughtExceptionHandler = new ExceptionHandler();
 	}
 
+	/*package*/ boolean isSyncOnTimeSteps() {
+		return this.syncOnTimeSteps;
+	}
+
 	private void initialize() {
 		int numHandlers = oneThreadPerHandler ? this.eventsHandlers.size() : Math.min(this.numOfThreads, this.eventsHandlers.size());
 		this.distributor = new Distributor(new ArrayList<ProcessEventsRunnable>(), eventQueue);
@@ -0,0 +1,316 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ReplayEventsManager.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.handler.EventHandler;
+
+/**
+ * An EventsManager for replaying events files, e.g. for analysis. The thread that reads the events file only
+ * collects the events into batches; the event handlers are split into groups, and every group processes the
+ * batches on its own thread. Within a group, the events are processed in exactly the order in which they were
+ * passed to {@link #processEvent(Event)}, but there is no ordering between the groups. Thus, handlers that
+ * depend on each other must be added to the same group with {@link #addHandler(EventHandler, int)}.
+ * <p>
+ * Events created by a handler while processing an event are only passed to the handlers of the same group.
+ * <p>
+ * This events manager does not synchronize on time steps and should not be used in the mobsim. After
+ * {@link #finishProcessing()}, the number of processed events and the throughput are logged and available
+ * through {@link #getEventCount()} and {@link #getEventsPerSecond()}.
+ */
+public final class ReplayEventsManager implements EventsManager {
+
+	private final static Logger log = LogManager.getLogger(ReplayEventsManager.class);
+
+	public static final int DEFAULT_BATCH_SIZE = 4096;
+	private static final int QUEUE_CAPACITY = 32;
+	private static final Event[] END = new Event[0];
+
+	private final int batchSize;
+	private final EventsManagerImpl delegate = new EventsManagerImpl();
+	private final EventsManagerImpl[] groups;
+	private final BlockingQueue<Event[]>[] queues;
+	private GroupThread[] threads;
+
+	private Event[] batch;
+	private int batchCount = 0;
+	private long eventCount = 0;
+	private int handlerCount = 0;
+	private volatile boolean parallelMode = false;
+	private final AtomicReference<Throwable> hadException = new AtomicReference<>();
+
+	private long startTime;
+	private double eventsPerSecond = Double.NaN;
+
+	public ReplayEventsManager(int numberOfGroups) {
+		this(numberOfGroups, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @param numberOfGroups number of handler groups, each group is processed by its own thread
+	 * @param batchSize number of events that are passed to the handler groups at once
+	 */
+	@SuppressWarnings("unchecked")
+	public ReplayEventsManager(int numberOfGroups, int batchSize) {
+		if (numberOfGroups < 1) {
+			throw new IllegalArgumentException("number of handler groups must be at least 1, but is " + numberOfGroups);
+		}
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("batch size must be at least 1, but is " + batchSize);
+		}
+		this.batchSize = batchSize;
+		this.groups = new EventsManagerImpl[numberOfGroups];
+		this.queues = new BlockingQueue[numberOfGroups];
+		for (int i = 0; i < numberOfGroups; i++) {
+			this.groups[i] = new EventsManagerImpl();
+			this.queues[i] = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+		}
+		log.info("number of handler groups=" + numberOfGroups + ", batch size=" + batchSize);
+	}
+
+	public int getNumberOfGroups() {
+		return this.groups.length;
+	}
+
+	/**
+	 * Adds the handler to the next handler group (round-robin).
+	 */
+	@Override
+	public void addHandler(final EventHandler handler) {
+		addHandler(handler, this.handlerCount % this.groups.length);
+	}
+
+	/**
+	 * Adds the handler to the given handler group. Handlers in the same group are called from the same
+	 * thread and observe the events in the same order.
+	 */
+	public void addHandler(final EventHandler handler, final int group) {
+		this.delegate.addHandler(handler);
+		this.groups[group].addHandler(handler);
+		this.handlerCount++;
+	}
+
+	@Override
+	public void removeHandler(final EventHandler handler) {
+		this.delegate.removeHandler(handler);
+		for (EventsManager group : this.groups) {
+			group.removeHandler(handler);
+		}
+	}
+
+	@Override
+	public void resetHandlers(int iteration) {
+		this.delegate.resetHandlers(iteration);
+	}
+
+	@Override
+	public void processEvent(final Event event) {
+		if (Thread.currentThread() instanceof GroupThread thread && thread.owner() == this) {
+			thread.eventsManager.processEvent(event);
+			return;
+		}
+		if (!this.parallelMode) {
+			this.delegate.processEvent(event);
+			return;
+		}
+		this.batch[this.batchCount++] = event;
+		if (this.batchCount == this.batchSize) {
+			publishBatch();
+		}
+	}
+
+	@Override
+	public void processEvents(final EventArray events) {
+		for (int i = 0; i < events.size(); i++) {
+			processEvent(events.get(i));
+		}
+	}
+
+	@Override
+	public void initProcessing() {
+		this.delegate.initProcessing();
+		for (EventsManager group : this.groups) {
+			group.initProcessing();
+		}
+		this.hadException.set(null);
+		this.batch = new Event[this.batchSize];
+		this.batchCount = 0;
+		this.eventCount = 0;
+		this.eventsPerSecond = Double.NaN;
+
+		this.threads = new GroupThread[this.groups.length];
+		for (int i = 0; i < this.groups.length; i++) {
+			this.queues[i].clear();
+			GroupThread thread = new GroupThread(this.groups[i], this.queues[i]);
+			thread.setDaemon(true);
+			thread.setName(GroupThread.class.getSimpleName() + i);
+			this.threads[i] = thread;
+		}
+		this.parallelMode = true;
+		for (GroupThread thread : this.threads) {
+			thread.start();
+		}
+		this.startTime = System.nanoTime();
+	}
+
+	@Override
+	public void afterSimStep(double time) {
+		// nothing to do in this implementation
+	}
+
+	@Override
+	public void finishProcessing() {
+		if (!this.parallelMode) {
+			return;
+		}
+		try {
+			if (this.hadException.get() == null) {
+				if (this.batchCount > 0) {
+					publishBatch();
+				}
+				publish(END);
+			}
+		} catch (RuntimeException e) {
+			// the original exception is re-thrown below
+		}
+		this.parallelMode = false;
+		for (GroupThread thread : this.threads) {
+			if (this.hadException.get() != null) {
+				thread.interrupt();
+			}
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		this.batch = null;
+
+		this.delegate.finishProcessing();
+		for (EventsManager group : this.groups) {
+			group.finishProcessing();
+		}
+
+		if (this.hadException.get() != null) {
+			throw new RuntimeException("Exception while processing events. Cannot guarantee that all events have been fully processed.", this.hadException.get());
+		}
+
+		double seconds = (System.nanoTime() - this.startTime) / 1e9;
+		this.eventsPerSecond = this.eventCount / seconds;
+		log.info(String.format("processed %d events in %.2fs with %d handler groups (%.0f events/s)",
+				this.eventCount, seconds, this.groups.length, this.eventsPerSecond));
+	}
+
+	/**
+	 * @return the number of events passed to the handler groups between the last calls to
+	 * {@link #initProcessing()} and {@link #finishProcessing()}
+	 */
+	public long getEventCount() {
+		return this.eventCount;
+	}
+
+	/**
+	 * @return the throughput in events per second between the last calls to {@link #initProcessing()} and
+	 * {@link #finishProcessing()}, or NaN if processing has not finished yet
+	 */
+	public double getEventsPerSecond() {
+		return this.eventsPerSecond;
+	}
+
+	private void publishBatch() {
+		Event[] full = this.batch;
+		this.eventCount += this.batchCount;
+		if (this.batchCount < this.batchSize) {
+			full = Arrays.copyOf(full, this.batchCount);
+		}
+		publish(full);
+		// the groups still read the published batch, so we need a new one
+		this.batch = new Event[this.batchSize];
+		this.batchCount = 0;
+	}
+
+	/**
+	 * Passes the batch to every group. Blocks while a group's queue is full, i.e. the reading thread is slowed
+	 * down to the speed of the slowest group.
+	 */
+	private void publish(Event[] batch) {
+		try {
+			for (BlockingQueue<Event[]> queue : this.queues) {
+				while (!queue.offer(batch, 10, TimeUnit.MILLISECONDS)) {
+					checkException();
+				}
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+		checkException();
+	}
+
+	private void checkException() {
+		Throwable t = this.hadException.get();
+		if (t != null) {
+			throw new RuntimeException("Exception while processing events.", t);
+		}
+	}
+
+	private final class GroupThread extends Thread {
+
+		private final EventsManager eventsManager;
+		private final BlockingQueue<Event[]> queue;
+
+		GroupThread(EventsManager eventsManager, BlockingQueue<Event[]> queue) {
+			this.eventsManager = eventsManager;
+			this.queue = queue;
+		}
+
+		ReplayEventsManager owner() {
+			return ReplayEventsManager.this;
+		}
+
+		@Override
+		public void run() {
+			try {
+				Event[] events;
+				while ((events = this.queue.take()) != END) {
+					for (Event event : events) {
+						this.eventsManager.processEvent(event);
+					}
+				}
+			} catch (InterruptedException e) {
+				// only happens if another group failed
+			} catch (Throwable e) {
+				if (hadException.compareAndSet(null, e)) {
+					log.error("Thread " + getName() + " died with exception while handling events.", e);
+				}
+			}
+		}
+	}
+
+}
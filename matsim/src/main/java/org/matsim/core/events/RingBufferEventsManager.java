@@ -0,0 +1,396 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RingBufferEventsManager.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import jakarta.inject.Inject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.EventsManagerConfigGroup;
+import org.matsim.core.events.handler.EventHandler;
+
+/**
+ * An EventsManager that passes events to its handler threads through one preallocated ring buffer instead
+ * of a chain of linked queues. Every handler thread owns a sequence cursor and reads the events in exactly the
+ * order in which they were published, so all handlers observe the same (chronological) order of events as with
+ * {@link SimStepParallelEventsManagerImpl}. Publishing an event neither allocates nor takes a lock.
+ * <p>
+ * Like the {@link SimStepParallelEventsManagerImpl}, all events of a time step are processed before
+ * {@link #afterSimStep(double)} returns, including events that handlers create while processing events
+ * of that time step.
+ * <p>
+ * Events may be published from several threads at once (e.g. the QNetsimEngine runners). Handlers that create
+ * events themselves wait for slower handler threads if the ring buffer is full. They must not create more events
+ * within one time step than fit into the ring buffer, otherwise an exception is thrown since the handler thread
+ * would have to wait for itself, or for other handler threads that in turn wait for it.
+ */
+public final class RingBufferEventsManager implements EventsManager {
+
+	private final static Logger log = LogManager.getLogger(RingBufferEventsManager.class);
+
+	private static final int SPIN_TRIES = 100;
+	private static final int YIELD_TRIES = 100;
+
+	private final int numOfThreads;
+	private final int bufferSize;
+	private final int indexMask;
+
+	/** the events, slot {@code seq & indexMask} holds the event with sequence number {@code seq} */
+	private final Event[] entries;
+	/** for every slot, the sequence number of the event that was last published into it */
+	private final AtomicLongArray published;
+	/** the next sequence number to be claimed by a producer */
+	private final AtomicLong nextSequence = new AtomicLong(0);
+
+	private final EventsManagerImpl delegate = new EventsManagerImpl();
+	private final EventsManagerImpl[] eventsManagers;
+	private ConsumerThread[] consumers;
+
+	private volatile boolean parallelMode = false;
+	private int handlerCount = 0;
+	private final AtomicReference<Throwable> hadException = new AtomicReference<>();
+
+	@Inject
+	RingBufferEventsManager(EventsManagerConfigGroup config) {
+		this(config.getNumberOfThreads() != null ? config.getNumberOfThreads() : 1, config.getEventsQueueSize());
+	}
+
+	public RingBufferEventsManager(int numOfThreads) {
+		this(numOfThreads, 65536);
+	}
+
+	/**
+	 * @param numOfThreads number of event handling threads
+	 * @param bufferSize minimal capacity of the ring buffer, will be rounded up to the next power of two
+	 */
+	public RingBufferEventsManager(int numOfThreads, int bufferSize) {
+		if (numOfThreads < 1) {
+			throw new IllegalArgumentException("number of threads must be at least 1, but is " + numOfThreads);
+		}
+		this.numOfThreads = numOfThreads;
+		this.bufferSize = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+		this.indexMask = this.bufferSize - 1;
+		this.entries = new Event[this.bufferSize];
+		this.published = new AtomicLongArray(this.bufferSize);
+		for (int i = 0; i < this.bufferSize; i++) {
+			this.published.set(i, -1);
+		}
+		this.eventsManagers = new EventsManagerImpl[numOfThreads];
+		for (int i = 0; i < numOfThreads; i++) {
+			this.eventsManagers[i] = new EventsManagerImpl();
+		}
+		log.info("number of threads=" + numOfThreads + ", ring buffer size=" + this.bufferSize);
+	}
+
+	@Override
+	public void processEvent(final Event event) {
+		if (!this.parallelMode) {
+			this.delegate.processEvent(event);
+			return;
+		}
+		long seq = this.nextSequence.getAndIncrement();
+		long wrapPoint = seq - this.bufferSize;
+		if (wrapPoint >= 0) {
+			waitForConsumers(seq, wrapPoint);
+		}
+		this.entries[(int) seq & this.indexMask] = event;
+		this.published.set((int) seq & this.indexMask, seq);
+	}
+
+	@Override
+	public void processEvents(final EventArray events) {
+		for (int i = 0; i < events.size(); i++) {
+			processEvent(events.get(i));
+		}
+	}
+
+	@Override
+	public void addHandler(final EventHandler handler) {
+		this.delegate.addHandler(handler);
+		this.eventsManagers[this.handlerCount % this.numOfThreads].addHandler(handler);
+		this.handlerCount++;
+	}
+
+	@Override
+	public void removeHandler(final EventHandler handler) {
+		this.delegate.removeHandler(handler);
+		for (EventsManager eventsManager : this.eventsManagers) {
+			eventsManager.removeHandler(handler);
+		}
+	}
+
+	@Override
+	public void resetHandlers(int iteration) {
+		this.delegate.resetHandlers(iteration);
+	}
+
+	@Override
+	public void initProcessing() {
+		this.delegate.initProcessing();
+		for (EventsManager eventsManager : this.eventsManagers) {
+			eventsManager.initProcessing();
+		}
+
+		this.hadException.set(null);
+		long start = this.nextSequence.get() - 1;
+		this.consumers = new ConsumerThread[this.numOfThreads];
+		for (int i = 0; i < this.numOfThreads; i++) {
+			ConsumerThread consumer = new ConsumerThread(i, this.eventsManagers[i], start);
+			consumer.setDaemon(true);
+			consumer.setName(ConsumerThread.class.getSimpleName() + i);
+			this.consumers[i] = consumer;
+		}
+		this.parallelMode = true;
+		for (ConsumerThread consumer : this.consumers) {
+			consumer.start();
+		}
+	}
+
+	@Override
+	public void afterSimStep(double time) {
+		waitUntilAllEventsProcessed();
+	}
+
+	/*
+	 * Events created after this method has been called are processed directly by the delegate
+	 * in the calling thread.
+	 */
+	@Override
+	public synchronized void finishProcessing() {
+		try {
+			if (this.hadException.get() == null) {
+				waitUntilAllEventsProcessed();
+			}
+		} catch (RuntimeException e) {
+			// the original exception is re-thrown below
+		}
+		this.parallelMode = false;
+		for (ConsumerThread consumer : this.consumers) {
+			consumer.running = false;
+			LockSupport.unpark(consumer);
+		}
+		for (ConsumerThread consumer : this.consumers) {
+			try {
+				consumer.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		this.delegate.finishProcessing();
+		for (EventsManager eventsManager : this.eventsManagers) {
+			eventsManager.finishProcessing();
+		}
+
+		if (this.hadException.get() != null) {
+			throw new RuntimeException("Exception while processing events. Cannot guarantee that all events have been fully processed.", this.hadException.get());
+		}
+	}
+
+	/*package*/ int getBufferSize() {
+		return this.bufferSize;
+	}
+
+	/**
+	 * Blocks until every handler thread has processed all events published so far. Handlers may create further
+	 * events while we wait, thus we only return once no new sequence number has been claimed in the meantime.
+	 */
+	private void waitUntilAllEventsProcessed() {
+		long target;
+		do {
+			target = this.nextSequence.get() - 1;
+			int tries = 0;
+			while (minConsumerSequence() < target) {
+				checkException();
+				tries = idle(tries);
+			}
+		} while (this.nextSequence.get() - 1 != target);
+		checkException();
+	}
+
+	private void waitForConsumers(long seq, long wrapPoint) {
+		if (Thread.currentThread() instanceof ConsumerThread consumer && consumer.owner() == this) {
+			waitForConsumers(consumer, seq, wrapPoint);
+			return;
+		}
+		int tries = 0;
+		while (minConsumerSequence() < wrapPoint) {
+			checkException();
+			tries = idle(tries);
+		}
+	}
+
+	/**
+	 * A handler thread publishing an event waits like any other producer for the slower handler threads, unless it
+	 * would wait forever: for itself, or for handler threads that (indirectly) wait for it.
+	 */
+	private void waitForConsumers(ConsumerThread self, long seq, long wrapPoint) {
+		if (self.sequence.get() < wrapPoint) {
+			throw new RuntimeException("The events ring buffer is full, but the event was created by an event handler which would "
+					+ "have to wait for itself. Increase the eventsQueueSize in the eventsManager config group.");
+		}
+		self.publishing = seq;
+		try {
+			int tries = 0;
+			while (minConsumerSequence() < wrapPoint) {
+				checkException();
+				if (tries >= SPIN_TRIES + YIELD_TRIES && isDeadlocked(self)) {
+					throw new RuntimeException("The events ring buffer is full, but the event was created by an event handler which would "
+							+ "have to wait for other event handlers waiting for it. Increase the eventsQueueSize in the eventsManager config group.");
+				}
+				tries = idle(tries);
+			}
+		} finally {
+			self.publishing = -1;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the handler thread waits, directly or indirectly, for a cycle of handler threads that
+	 * all wait to publish an event. Waiting threads do not process events, so their sequences stay the same, and a
+	 * sequence number is only published once, so a thread that is seen waiting for the same sequence number before
+	 * and after reading all sequences has been waiting all the time in between.
+	 */
+	private boolean isDeadlocked(ConsumerThread self) {
+		int n = this.consumers.length;
+		long[] publishing = new long[n];
+		long[] sequences = new long[n];
+		for (int i = 0; i < n; i++) {
+			publishing[i] = this.consumers[i].publishing;
+			sequences[i] = this.consumers[i].sequence.get();
+		}
+		for (int i = 0; i < n; i++) {
+			if (this.consumers[i].publishing != publishing[i]) {
+				return false;
+			}
+		}
+		return reachesCycle(self.index, publishing, sequences, new byte[n]);
+	}
+
+	/** depth-first search through the waiting threads, <code>state</code> is 1 while a thread is on the path, 2 when done */
+	private boolean reachesCycle(int i, long[] publishing, long[] sequences, byte[] state) {
+		state[i] = 1;
+		long wrapPoint = publishing[i] - this.bufferSize;
+		for (int j = 0; j < publishing.length; j++) {
+			if (publishing[j] >= 0 && sequences[j] < wrapPoint) {
+				// thread i waits for thread j, which waits itself
+				if (state[j] == 1 || (state[j] == 0 && reachesCycle(j, publishing, sequences, state))) {
+					return true;
+				}
+			}
+		}
+		state[i] = 2;
+		return false;
+	}
+
+	private long minConsumerSequence() {
+		long min = Long.MAX_VALUE;
+		for (ConsumerThread consumer : this.consumers) {
+			min = Math.min(min, consumer.sequence.get());
+		}
+		return min;
+	}
+
+	private void checkException() {
+		Throwable t = this.hadException.get();
+		if (t != null) {
+			throw new RuntimeException("Exception while processing events.", t);
+		}
+	}
+
+	private static int idle(int tries) {
+		if (tries < SPIN_TRIES) {
+			Thread.onSpinWait();
+		} else if (tries < SPIN_TRIES + YIELD_TRIES) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(1000);
+		}
+		return tries + 1;
+	}
+
+	private final class ConsumerThread extends Thread {
+
+		private final int index;
+		private final EventsManager eventsManager;
+		/** the sequence number of the last event this thread has processed */
+		private final AtomicLong sequence;
+		/** the sequence number of the event this thread waits to publish, -1 if it does not wait */
+		private volatile long publishing = -1;
+		private volatile boolean running = true;
+		private double lastEventTime = Double.NEGATIVE_INFINITY;
+
+		ConsumerThread(int index, EventsManager eventsManager, long start) {
+			this.index = index;
+			this.eventsManager = eventsManager;
+			this.sequence = new AtomicLong(start);
+		}
+
+		RingBufferEventsManager owner() {
+			return RingBufferEventsManager.this;
+		}
+
+		@Override
+		public void run() {
+			try {
+				long next = this.sequence.get() + 1;
+				int tries = 0;
+				while (true) {
+					int index = (int) next & indexMask;
+					if (published.get(index) != next) {
+						if (!this.running) {
+							break;
+						}
+						tries = idle(tries);
+						continue;
+					}
+					tries = 0;
+					Event event = entries[index];
+
+					if (event.getTime() < this.lastEventTime) {
+						throw new RuntimeException("Events in the queue are not ordered chronologically. " +
+								"This should never happen. Is the RingBufferEventsManager registered " +
+								"as a MobsimAfterSimStepListener? LastEventTime = " + this.lastEventTime +
+								" currentEvent.time = " + event.getTime() + " currentEvent.type = " + event.getEventType() +
+								" full event: " + event.toString());
+					}
+					this.lastEventTime = event.getTime();
+
+					this.eventsManager.processEvent(event);
+					this.sequence.lazySet(next);
+					next++;
+				}
+			} catch (Throwable e) {
+				if (hadException.compareAndSet(null, e)) {
+					log.error("Thread " + getName() + " died with exception while handling events.", e);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,276 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventWriterBinary.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events.algorithms;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.events.handler.BasicEventHandler;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * Writes events in a binary, column-oriented format that can be read much faster than XML, see
+ * {@link org.matsim.core.events.EventsReaderBinary}.
+ * <p>
+ * The events are stored in independently compressed chunks, so that a reader can decode several chunks in
+ * parallel. Within a chunk, the attributes are stored per event type and attribute (one column each), and all
+ * attribute values (mostly ids and modes, which repeat a lot) are replaced by their index in a dictionary of
+ * the chunk. The file layout is:
+ * <pre>
+ * file:    MAGIC VERSION chunk*
+ * chunk:   compressedSize uncompressedSize numberOfEvents zstd(content)
+ * content: dictionary types eventTypeColumn timeColumn attributeColumns
+ * </pre>
+ * See {@link #writeChunk()} for the details of the content.
+ */
+public final class EventWriterBinary implements EventWriter, BasicEventHandler {
+
+	public static final int MAGIC = 0x4D455642; // "MEVB"
+	public static final int VERSION = 1;
+	public static final int DEFAULT_CHUNK_SIZE = 65536;
+	private static final int COMPRESSION_LEVEL = 3;
+
+	private final DataOutputStream out;
+	private final int chunkSize;
+
+	// the dictionary of the current chunk. code 0 is reserved for missing attributes, 1 for null values
+	private final Map<String, Integer> dictionary = new HashMap<>();
+	private final List<String> dictionaryValues = new ArrayList<>();
+	private final Map<String, TypeColumns> types = new LinkedHashMap<>();
+	private int[] eventTypes;
+	private double[] times;
+	private int eventCount = 0;
+
+	public EventWriterBinary(final String filename) {
+		this(createOutputStream(filename), DEFAULT_CHUNK_SIZE);
+	}
+
+	public EventWriterBinary(final OutputStream stream) {
+		this(stream, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param chunkSize number of events per chunk
+	 */
+	public EventWriterBinary(final OutputStream stream, final int chunkSize) {
+		this.out = new DataOutputStream(stream instanceof BufferedOutputStream ? stream : new BufferedOutputStream(stream, 1 << 16));
+		this.chunkSize = chunkSize;
+		this.eventTypes = new int[chunkSize];
+		this.times = new double[chunkSize];
+		try {
+			this.out.writeInt(MAGIC);
+			this.out.writeInt(VERSION);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static OutputStream createOutputStream(final String filename) {
+		// not using IOUtils, as the file must not be compressed as a whole to be memory-mapped
+		try {
+			return new BufferedOutputStream(new FileOutputStream(filename), 1 << 16);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void handleEvent(final Event event) {
+		TypeColumns type = this.types.computeIfAbsent(event.getEventType(), name -> new TypeColumns(name, this.types.size()));
+		for (Map.Entry<String, String> entry : event.getAttributes().entrySet()) {
+			String key = entry.getKey();
+			if (key.equals(Event.ATTRIBUTE_TIME) || key.equals(Event.ATTRIBUTE_TYPE)) {
+				continue;
+			}
+			type.column(key).set(type.count, code(entry.getValue()));
+		}
+		type.count++;
+		this.eventTypes[this.eventCount] = type.index;
+		this.times[this.eventCount] = event.getTime();
+		this.eventCount++;
+		if (this.eventCount == this.chunkSize) {
+			writeChunk();
+		}
+	}
+
+	private int code(String value) {
+		if (value == null) {
+			return 1;
+		}
+		Integer code = this.dictionary.get(value);
+		if (code == null) {
+			this.dictionaryValues.add(value);
+			code = this.dictionaryValues.size() + 1;
+			this.dictionary.put(value, code);
+		}
+		return code;
+	}
+
+	@Override
+	public void closeFile() {
+		if (this.eventCount > 0) {
+			writeChunk();
+		}
+		try {
+			this.out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void reset(final int iter) {
+	}
+
+	/**
+	 * Writes the current chunk. Its content is:
+	 * <ul>
+	 * <li>the dictionary: number of entries, then every entry as string</li>
+	 * <li>the event types: number of types, then for every type its name, number of events, number of
+	 * attributes and the attribute names</li>
+	 * <li>the type of every event (as varint index into the event types)</li>
+	 * <li>the time of every event (as double)</li>
+	 * <li>for every event type and attribute: the code of the value for every event of this type (as varint):
+	 * 0 if the event does not have this attribute, 1 for null and 2 + the index in the dictionary otherwise</li>
+	 * </ul>
+	 * Strings are written as their length followed by their UTF-8 bytes.
+	 */
+	private void writeChunk() {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(this.eventCount * 16);
+			DataOutputStream content = new DataOutputStream(bytes);
+
+			content.writeInt(this.dictionaryValues.size());
+			for (String value : this.dictionaryValues) {
+				writeString(content, value);
+			}
+
+			content.writeInt(this.types.size());
+			for (TypeColumns type : this.types.values()) {
+				writeString(content, type.name);
+				content.writeInt(type.count);
+				content.writeInt(type.keys.size());
+				for (String key : type.keys) {
+					writeString(content, key);
+				}
+			}
+
+			for (int i = 0; i < this.eventCount; i++) {
+				writeVarInt(content, this.eventTypes[i]);
+			}
+			for (int i = 0; i < this.eventCount; i++) {
+				content.writeDouble(this.times[i]);
+			}
+			for (TypeColumns type : this.types.values()) {
+				for (IntColumn column : type.columns) {
+					for (int i = 0; i < type.count; i++) {
+						writeVarInt(content, column.get(i));
+					}
+				}
+			}
+			content.flush();
+
+			byte[] uncompressed = bytes.toByteArray();
+			byte[] compressed = Zstd.compress(uncompressed, COMPRESSION_LEVEL);
+			this.out.writeInt(compressed.length);
+			this.out.writeInt(uncompressed.length);
+			this.out.writeInt(this.eventCount);
+			this.out.write(compressed);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		this.dictionary.clear();
+		this.dictionaryValues.clear();
+		this.types.clear();
+		this.eventCount = 0;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(utf8.length);
+		out.write(utf8);
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static final class TypeColumns {
+		private final String name;
+		private final int index;
+		private final List<String> keys = new ArrayList<>();
+		private final List<IntColumn> columns = new ArrayList<>();
+		private final Map<String, IntColumn> columnsByKey = new HashMap<>();
+		private int count = 0;
+
+		TypeColumns(String name, int index) {
+			this.name = name;
+			this.index = index;
+		}
+
+		IntColumn column(String key) {
+			IntColumn column = this.columnsByKey.get(key);
+			if (column == null) {
+				column = new IntColumn();
+				this.keys.add(key);
+				this.columns.add(column);
+				this.columnsByKey.put(key, column);
+			}
+			return column;
+		}
+	}
+
+	/** Values of one attribute; events that do not have the attribute get 0. */
+	private static final class IntColumn {
+		private int[] values = new int[64];
+
+		void set(int index, int value) {
+			if (index >= this.values.length) {
+				this.values = Arrays.copyOf(this.values, Math.max(index + 1, this.values.length * 2));
+			}
+			this.values[index] = value;
+		}
+
+		int get(int index) {
+			return index < this.values.length ? this.values[index] : 0;
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * HasNextWakeupTime.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.framework;
+
+/**
+ * Implemented by mobsim engines and sim step listeners that know when they have something to do next. If the
+ * QSim is configured to skip idle time steps, it jumps directly to the earliest such time instead of executing
+ * every time step in between.
+ * <ul>
+ * <li>A mobsim engine that does <em>not</em> implement this interface is assumed to have something to do in
+ * every time step, and no time steps are skipped.</li>
+ * <li>A before or after sim step listener that does <em>not</em> implement this interface is only notified in the
+ * time steps that are executed. A listener that needs to be notified in every time step opts in by implementing
+ * this interface and returning <code>now</code>.</li>
+ * </ul>
+ */
+public interface HasNextWakeupTime {
+
+	/**
+	 * Called after the time step <code>now</code> was completely executed.
+	 *
+	 * @return the earliest time after <code>now</code> at which this engine or listener has to be called,
+	 * assuming that nothing else happens in the mean time; {@link Double#POSITIVE_INFINITY} if there is
+	 * nothing to do anymore. Any time <code>&lt;= now</code> means the next time step.
+	 */
+	double getNextWakeupTime(double now);
+
+}
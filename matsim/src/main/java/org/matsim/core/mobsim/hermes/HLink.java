@@ -240,6 +240,33 @@ class HLink {
     	}
     }
 
+    // Upper bound for the number of agents at the head of the queue that leave the link in this timestep.
+    // Replays flow() on local copies of the flow state, so the link is not modified.
+    int maxLeavingAgents(int timestep) {
+    	float left = flowLeftInTimestep;
+    	int update = lastUpdate;
+    	int freeSlot = nextFreeFlowSlot;
+    	int count = 0;
+    	for (Agent agent : queue) {
+    		if (agent.linkFinishTime > timestep || timestep < freeSlot) {
+    			break;
+    		}
+    		float requestedFlow = agent.getFlowCapacityPCUE();
+    		if (update == timestep) {
+    			if (left < 0) {
+    				break;
+    			}
+    			left -= requestedFlow;
+    		} else {
+    			left = left + flowCapacityPerS - requestedFlow;
+    			update = timestep;
+    		}
+    		freeSlot = timestep + (int) Math.floor(requestedFlow / flowCapacityPerS);
+    		count++;
+    	}
+    	return count;
+    }
+
     public int velocity() {
         return this.velocity;
     }
@@ -72,7 +72,11 @@ final class Hermes implements Mobsim {
 			eventsManager.initProcessing();
 
 			time = System.currentTimeMillis();
-			realm.run();
+			if (scenarioImporter.linkPartition != null) {
+				new ParallelRealm(realm, scenarioImporter.linkPartition, scenario.getConfig().hermes().getNumberOfThreads()).run();
+			} else {
+				realm.run();
+			}
 			log.info(String.format(
 					"Hermes took %d ms", System.currentTimeMillis() - time));
 
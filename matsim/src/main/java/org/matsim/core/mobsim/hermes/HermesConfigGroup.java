@@ -58,6 +58,10 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
     private static final String STUCKTIMEPARAMDESC = "time in seconds.  Time after which the frontmost vehicle on a link is called `stuck' if it does not move."
             + " Set to Integer.MAX_VALUE to disable this behavior";
 
+    private static final String NUMBER_OF_THREADS = "numberOfThreads";
+    private static final String NUMBER_OF_THREADS_DESC = "Number of threads used to move the agents through the network. The network is split into one spatial partition"
+            + " per thread. The events are the same as with one thread.";
+
     private static final String MAINMODESPARAM = "mainMode";
     private static final String MAINMODESPARAMDESC = "[comma-separated list] Modes that are handled in the mobsim along links. By default: car";
     private Set<String> mainModes = Set.of(TransportMode.car);
@@ -77,6 +81,9 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
     @Positive
     private int stuckTime = 10;
 
+    @Positive
+    private int numberOfThreads = 1;
+
     public Set<String> getMainModes() {
         return mainModes;
     }
@@ -123,6 +130,16 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         this.stuckTime = stuckTime;
     }
 
+    @StringGetter(NUMBER_OF_THREADS)
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    @StringSetter(NUMBER_OF_THREADS)
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
     @StringSetter(FLOW_CAPACITY_FACTOR)
     public void setFlowCapacityFactor(double flowCapacityFactor) {
         this.flowCapacityFactor = flowCapacityFactor;
@@ -159,6 +176,7 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         comments.put(END_TIME, "Simulation End Time");
         comments.put(STUCKTIMEPARAM, STUCKTIMEPARAMDESC);
         comments.put(DETPT, DETPTDESC);
+        comments.put(NUMBER_OF_THREADS, NUMBER_OF_THREADS_DESC);
         return comments;
     }
 
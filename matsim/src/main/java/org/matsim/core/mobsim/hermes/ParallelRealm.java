@@ -0,0 +1,406 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+
+/**
+ * Runs a {@link Realm} with several threads. The network is split into spatial partitions, and every thread
+ * processes the delayed links of one partition and the agents that are about to enter one of its links.
+ * <p>
+ * Within a time step, the single-threaded realm processes the delayed agents and then the delayed links in a fixed
+ * order, and the outcome of an operation (e.g. whether an agent fits onto the next link) depends on the operations
+ * before it. To produce exactly the same events, every operation therefore declares the links it may touch: its own
+ * link and the next links of all agents that may leave it in this time step. Public transport operations all share one
+ * additional resource, as they modify the stops. An operation waits until the last earlier operation on each of its
+ * resources is done. Since most operations only touch links of their own partition, threads rarely have to wait
+ * for each other. This also takes care of agents crossing partition boundaries: the operation pushing an agent onto
+ * the link of another partition and the later operation on that link are ordered like in the single-threaded realm.
+ * <p>
+ * Delayed agents, delayed links and events are collected per thread and merged in the order of the operations at
+ * the end of the time step. Time steps with only few operations are processed by the single-threaded realm.
+ */
+class ParallelRealm {
+
+	private static final Logger log = LogManager.getLogger(ParallelRealm.class);
+
+	// Time steps with fewer operations per thread are not worth the synchronization. Not final so tests can set it.
+	static int minOpsPerThread = 64;
+
+	// Distance (in ints) between the progress counters of two threads, to avoid false sharing.
+	private static final int PADDING = 16;
+	private static final int SPIN_TRIES = 1000;
+
+	private final Realm realm;
+	private final HLink[] links;
+	private final int[] linkPartition;
+	private final int threads;
+	private final Realm[] workers;
+	private final RealmBuffer[] buffers;
+
+	// Operations of the current time step: first the delayed agents, then the delayed links.
+	private Agent[] opAgents = new Agent[1024];
+	private HLink[] opLinks = new HLink[1024];
+	private int numAgentOps;
+	private int numOps;
+	// thread executing an operation
+	private int[] owner = new int[1024];
+	// operations (on other threads) an operation has to wait for, stored from depStart[op] to depStart[op + 1]
+	private int[] depStart = new int[1025];
+	private int[] deps = new int[1024];
+	// operations of each thread, in increasing order
+	private final int[][] threadOps;
+	private final int[] threadOpCount;
+
+	// last operation of the current time step that used a resource (the links, followed by the pt stops)
+	private final int[] lastOp;
+	private final int[] lastOpStep;
+	private final int ptResource;
+	private int step = 0;
+
+	// index of the last operation each thread has finished, at position thread * PADDING
+	private final AtomicIntegerArray finished;
+	private final CyclicBarrier startBarrier;
+	private final CyclicBarrier endBarrier;
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private volatile boolean done = false;
+
+	ParallelRealm(Realm realm, int[] linkPartition, int threads) {
+		this.realm = realm;
+		this.links = realm.links();
+		this.linkPartition = linkPartition;
+		this.threads = threads;
+		this.workers = new Realm[threads];
+		this.buffers = new RealmBuffer[threads];
+		this.threadOps = new int[threads][1024];
+		this.threadOpCount = new int[threads];
+		for (int i = 0; i < threads; i++) {
+			this.buffers[i] = new RealmBuffer();
+			this.workers[i] = new Realm(realm, this.buffers[i]);
+		}
+		this.ptResource = this.links.length;
+		this.lastOp = new int[this.links.length + 1];
+		this.lastOpStep = new int[this.links.length + 1];
+		this.finished = new AtomicIntegerArray(threads * PADDING);
+		this.startBarrier = new CyclicBarrier(threads);
+		this.endBarrier = new CyclicBarrier(threads);
+	}
+
+	/**
+	 * Assigns the links to partitions by recursive coordinate bisection of their centers, so that every partition
+	 * gets about the same number of links and as few links as possible have a neighbor in another partition.
+	 *
+	 * @return for every link (indexed by {@link Id#index()}), the index of its partition
+	 */
+	static int[] partitionLinks(Network network, int numberOfPartitions) {
+		List<Link> links = new ArrayList<>(network.getLinks().values());
+		int[] partition = new int[Id.getNumberOfIds(Link.class)];
+		bisect(links.toArray(new Link[0]), 0, links.size(), 0, numberOfPartitions, partition);
+		return partition;
+	}
+
+	private static void bisect(Link[] links, int from, int to, int firstPartition, int numberOfPartitions, int[] partition) {
+		if (numberOfPartitions == 1) {
+			for (int i = from; i < to; i++) {
+				partition[links[i].getId().index()] = firstPartition;
+			}
+			return;
+		}
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = from; i < to; i++) {
+			double x = centerX(links[i]);
+			double y = centerY(links[i]);
+			minX = Math.min(minX, x);
+			maxX = Math.max(maxX, x);
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+		}
+		Comparator<Link> byCoordinate = maxX - minX >= maxY - minY
+				? Comparator.comparingDouble(ParallelRealm::centerX)
+				: Comparator.comparingDouble(ParallelRealm::centerY);
+		Arrays.sort(links, from, to, byCoordinate.thenComparingInt(link -> link.getId().index()));
+
+		int leftPartitions = numberOfPartitions / 2;
+		int split = from + (int) ((long) (to - from) * leftPartitions / numberOfPartitions);
+		bisect(links, from, split, firstPartition, leftPartitions, partition);
+		bisect(links, split, to, firstPartition + leftPartitions, numberOfPartitions - leftPartitions, partition);
+	}
+
+	private static double centerX(Link link) {
+		return (link.getFromNode().getCoord().getX() + link.getToNode().getCoord().getX()) / 2;
+	}
+
+	private static double centerY(Link link) {
+		return (link.getFromNode().getCoord().getY() + link.getToNode().getCoord().getY()) / 2;
+	}
+
+	public void run() throws Exception {
+		Thread[] pool = new Thread[threads - 1];
+		for (int i = 1; i < threads; i++) {
+			final int thread = i;
+			pool[i - 1] = new Thread(() -> work(thread), "HermesRealm-" + i);
+			pool[i - 1].setDaemon(true);
+			pool[i - 1].start();
+		}
+		try {
+			long parallelSteps = 0;
+			while (realm.secs() != HermesConfigGroup.SIM_STEPS) {
+				if (prepareTimeStep()) {
+					realm.startTimeStep();
+					startBarrier.await();
+					executeOps(0);
+					endBarrier.await();
+					Throwable t = failure.get();
+					if (t != null) {
+						throw new RuntimeException("Exception in Hermes realm thread", t);
+					}
+					mergeTimeStep();
+					parallelSteps++;
+				} else {
+					realm.processTimeStep();
+				}
+			}
+			log.info(String.format("Hermes processed %d of %d time steps with %d threads", parallelSteps, HermesConfigGroup.SIM_STEPS, threads));
+		} finally {
+			// all other threads wait at the start barrier at this point
+			done = true;
+			startBarrier.await();
+			for (Thread thread : pool) {
+				thread.join();
+			}
+		}
+	}
+
+	private void work(int thread) {
+		try {
+			while (true) {
+				startBarrier.await();
+				if (done) {
+					return;
+				}
+				executeOps(thread);
+				endBarrier.await();
+			}
+		} catch (InterruptedException | BrokenBarrierException e) {
+			failure.compareAndSet(null, e);
+		}
+	}
+
+	/**
+	 * Collects the operations of the current time step and the resources they use.
+	 *
+	 * @return false if the time step should be processed by the single-threaded realm
+	 */
+	private boolean prepareTimeStep() {
+		int secs = realm.secs();
+		ArrayDeque<Agent> agents = realm.delayedAgents().get(secs);
+		ArrayDeque<HLink> delayedLinks = realm.delayedLinks().get(secs);
+		int size = agents.size() + delayedLinks.size();
+		if (size < minOpsPerThread * threads) {
+			return false;
+		}
+		ensureCapacity(size);
+		step++;
+
+		// a link that was delayed twice in the same time step is processed twice, which is not covered by the
+		// resources declared below. This does not happen in practice, but would be handled by the single-threaded realm.
+		for (HLink link : delayedLinks) {
+			if (link.queue().peek() == null || lastOpStep[link.id()] == step) {
+				return false;
+			}
+			lastOpStep[link.id()] = step;
+		}
+		step++;
+
+		Arrays.fill(threadOpCount, 0);
+		numAgentOps = agents.size();
+		numOps = size;
+		int op = 0;
+		int depCount = 0;
+		for (Agent agent : agents) {
+			opAgents[op] = agent;
+			int thread = op % threads;
+			if (!agent.finished()) {
+				long planentry = agent.nextPlan();
+				int type = Agent.getPlanHeader(planentry);
+				if (type == Agent.LinkType) {
+					thread = linkPartition[Agent.getLinkPlanEntry(planentry)];
+				} else if (isPt(type)) {
+					thread = 0;
+				}
+			}
+			owner[op] = thread;
+			depStart[op] = depCount;
+			if (!agent.finished()) {
+				depCount = useResource(resourceOf(agent.nextPlan()), op, depCount);
+			}
+			addThreadOp(thread, op);
+			op++;
+		}
+		for (HLink link : delayedLinks) {
+			opLinks[op] = link;
+			int thread = linkPartition[link.id()];
+			owner[op] = thread;
+			depStart[op] = depCount;
+			depCount = useResource(link.id(), op, depCount);
+			int leaving = link.maxLeavingAgents(secs);
+			for (Agent agent : link.queue()) {
+				if (leaving-- == 0) {
+					break;
+				}
+				if (!agent.finished()) {
+					depCount = useResource(resourceOf(agent.nextPlan()), op, depCount);
+				}
+			}
+			addThreadOp(thread, op);
+			op++;
+		}
+		depStart[op] = depCount;
+
+		for (int i = 0; i < threads; i++) {
+			finished.set(i * PADDING, -1);
+			workers[i].setSecs(secs);
+		}
+		return true;
+	}
+
+	private static boolean isPt(int type) {
+		return type != Agent.LinkType && type != Agent.SleepForType && type != Agent.SleepUntilType;
+	}
+
+	// the resource used by processing the given plan entry, or -1
+	private int resourceOf(long planentry) {
+		int type = Agent.getPlanHeader(planentry);
+		if (type == Agent.LinkType) {
+			return Agent.getLinkPlanEntry(planentry);
+		}
+		return isPt(type) ? ptResource : -1;
+	}
+
+	private int useResource(int resource, int op, int depCount) {
+		if (resource < 0) {
+			return depCount;
+		}
+		if (lastOpStep[resource] == step) {
+			int previous = lastOp[resource];
+			if (owner[previous] != owner[op]) {
+				if (depCount == deps.length) {
+					deps = Arrays.copyOf(deps, depCount * 2);
+				}
+				deps[depCount++] = previous;
+			}
+		}
+		lastOpStep[resource] = step;
+		lastOp[resource] = op;
+		return depCount;
+	}
+
+	private void addThreadOp(int thread, int op) {
+		int count = threadOpCount[thread];
+		if (count == threadOps[thread].length) {
+			threadOps[thread] = Arrays.copyOf(threadOps[thread], count * 2);
+		}
+		threadOps[thread][count] = op;
+		threadOpCount[thread] = count + 1;
+	}
+
+	private void ensureCapacity(int size) {
+		if (opAgents.length < size) {
+			int capacity = Math.max(size, opAgents.length * 2);
+			opAgents = new Agent[capacity];
+			opLinks = new HLink[capacity];
+			owner = new int[capacity];
+			depStart = new int[capacity + 1];
+		}
+	}
+
+	private void executeOps(int thread) {
+		try {
+			Realm worker = workers[thread];
+			RealmBuffer buffer = buffers[thread];
+			int[] ops = threadOps[thread];
+			for (int i = 0; i < threadOpCount[thread]; i++) {
+				int op = ops[i];
+				for (int d = depStart[op]; d < depStart[op + 1]; d++) {
+					waitFor(deps[d]);
+				}
+				if (op < numAgentOps) {
+					worker.processAgentActivities(opAgents[op]);
+				} else {
+					worker.processLinks(opLinks[op]);
+				}
+				buffer.finishOp(op);
+				finished.set(thread * PADDING, op);
+			}
+		} catch (Throwable t) {
+			failure.compareAndSet(null, t);
+		}
+	}
+
+	private void waitFor(int op) {
+		int index = owner[op] * PADDING;
+		int tries = 0;
+		while (finished.get(index) < op) {
+			if (failure.get() != null) {
+				throw new RuntimeException("aborted because another thread failed");
+			}
+			if (tries++ < SPIN_TRIES) {
+				Thread.onSpinWait();
+			} else {
+				Thread.yield();
+			}
+		}
+	}
+
+	private void mergeTimeStep() {
+		int secs = realm.secs();
+		for (int op = 0; op < numOps; op++) {
+			if (op == numAgentOps) {
+				realm.addDeterministicPtEvents();
+			}
+			buffers[owner[op]].replay(op, realm);
+		}
+		if (numAgentOps == numOps) {
+			realm.addDeterministicPtEvents();
+		}
+		Arrays.fill(opAgents, 0, numAgentOps, null);
+		Arrays.fill(opLinks, numAgentOps, numOps, null);
+		for (RealmBuffer buffer : buffers) {
+			buffer.clear();
+		}
+		realm.delayedAgents().set(secs, null);
+		realm.delayedLinks().set(secs, null);
+		realm.finishTimeStep();
+	}
+}
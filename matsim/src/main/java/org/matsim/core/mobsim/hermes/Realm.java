@@ -61,6 +61,9 @@ class Realm {
     private final EventsManager eventsManager;
     // Current timestamp
     private int secs;
+    // Only set for realms that work for a ParallelRealm: delayed agents, delayed links and
+    // events are then collected in the buffer instead of being added to this realm.
+    private final RealmBuffer buffer;
     Logger log = LogManager.getLogger(Realm.class);
 
     public Realm(ScenarioImporter scenario, EventsManager eventsManager) {
@@ -74,6 +77,7 @@ class Realm {
         this.line_of_route = scenario.lineOfRoute;
         this.sortedEvents = new EventArray();
         this.eventsManager = eventsManager;
+        this.buffer = null;
 
         // the last position is to store events that will not happen...
         for (int i = 0; i <= HermesConfigGroup.SIM_STEPS + 1; i++) {
@@ -82,6 +86,20 @@ class Realm {
         }
     }
 
+    // Creates a realm that works on the links and agents of the given realm, but collects its output in the buffer.
+    Realm(Realm realm, RealmBuffer buffer) {
+        this.si = realm.si;
+        this.links = realm.links;
+        this.delayedLinksByWakeupTime = null;
+        this.delayedAgentsByWakeupTime = null;
+        this.agent_stops = realm.agent_stops;
+        this.route_stops_by_route_no = realm.route_stops_by_route_no;
+        this.line_of_route = realm.line_of_route;
+        this.sortedEvents = null;
+        this.eventsManager = realm.eventsManager;
+        this.buffer = buffer;
+    }
+
     public void log(int time, String s) {
         if (HermesConfigGroup.DEBUG_REALMS) {
             log.debug(String.format("Hermes [ time = %d ] %s", time, s));
@@ -90,13 +108,23 @@ class Realm {
 
     private void addDelayedAgent(Agent agent, int until) {
         if (HermesConfigGroup.DEBUG_REALMS) log(secs, String.format("agent %d delayed until %d", agent.id, until));
-        delayedAgentsByWakeupTime.get(Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(agent);
+        int slot = Math.min(until, HermesConfigGroup.SIM_STEPS + 1);
+        if (buffer != null) {
+            buffer.delayAgent(slot, agent);
+        } else {
+            delayedAgentsByWakeupTime.get(slot).add(agent);
+        }
     }
 
     private void addDelayedLink(HLink link, int until) {
         if (HermesConfigGroup.DEBUG_REALMS)
             log(secs, String.format("link %d delayed until %d size %d peek agent %d", link.id(), until, link.queue().size(), link.queue().peek().id));
-        delayedLinksByWakeupTime.get(Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(link);
+        int slot = Math.min(until, HermesConfigGroup.SIM_STEPS + 1);
+        if (buffer != null) {
+            buffer.delayLink(slot, link);
+        } else {
+            delayedLinksByWakeupTime.get(slot).add(link);
+        }
     }
 
     private void advanceAgentandSetEventTime(Agent agent) {
@@ -316,47 +344,61 @@ class Realm {
     }
 
     public void run() throws Exception {
+        while (secs != HermesConfigGroup.SIM_STEPS) {
+            processTimeStep();
+        }
+    }
+
+    void processTimeStep() {
         int routed = 0;
         Agent agent;
         HLink link;
 
-        while (secs != HermesConfigGroup.SIM_STEPS) {
-            if (secs % 3600 == 0) {
-                log.info("Hermes running at " + Time.writeTime(secs));
+        startTimeStep();
+        while ((agent = delayedAgentsByWakeupTime.get(secs).poll()) != null) {
+            if (HermesConfigGroup.DEBUG_REALMS) {
+                log(secs, String.format("Processing agent %d", agent.id));
             }
-            while ((agent = delayedAgentsByWakeupTime.get(secs).poll()) != null) {
-                if (HermesConfigGroup.DEBUG_REALMS) {
-                    log(secs, String.format("Processing agent %d", agent.id));
-                }
-                routed += processAgentActivities(agent);
+            routed += processAgentActivities(agent);
 
-            }
-            delayedAgentsByWakeupTime.set(secs, null);
-            if (si.isDeterministicPt()) {
-                for (Event e : si.getDeterministicPtEvents().get(secs)) {
-                    sortedEvents.add(e);
-                }
-                si.getDeterministicPtEvents().get(secs).clear();
-            }
+        }
+        delayedAgentsByWakeupTime.set(secs, null);
+        addDeterministicPtEvents();
 
-            while ((link = delayedLinksByWakeupTime.get(secs).poll()) != null) {
-                if (HermesConfigGroup.DEBUG_REALMS) {
-                    log(secs, String.format("Processing link %d", link.id()));
-                }
-                routed += processLinks(link);
+        while ((link = delayedLinksByWakeupTime.get(secs).poll()) != null) {
+            if (HermesConfigGroup.DEBUG_REALMS) {
+                log(secs, String.format("Processing link %d", link.id()));
             }
-            delayedLinksByWakeupTime.set(secs, null);
-            if (HermesConfigGroup.DEBUG_REALMS && routed > 0) {
-                log(secs, String.format("Processed %d agents", routed));
-            }
-            if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0 && sortedEvents.size() > 0) {
-                eventsManager.processEvents(sortedEvents);
-                sortedEvents = new EventArray();
+            routed += processLinks(link);
+        }
+        delayedLinksByWakeupTime.set(secs, null);
+        if (HermesConfigGroup.DEBUG_REALMS && routed > 0) {
+            log(secs, String.format("Processed %d agents", routed));
+        }
+        finishTimeStep();
+    }
+
+    void startTimeStep() {
+        if (secs % 3600 == 0) {
+            log.info("Hermes running at " + Time.writeTime(secs));
+        }
+    }
+
+    void addDeterministicPtEvents() {
+        if (si.isDeterministicPt()) {
+            for (Event e : si.getDeterministicPtEvents().get(secs)) {
+                sortedEvents.add(e);
             }
+            si.getDeterministicPtEvents().get(secs).clear();
+        }
+    }
 
-            routed = 0;
-            secs += 1;
+    void finishTimeStep() {
+        if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0 && sortedEvents.size() > 0) {
+            eventsManager.processEvents(sortedEvents);
+            sortedEvents = new EventArray();
         }
+        secs += 1;
     }
 
     public void setEventTime(Agent agent, int agentId, int time, boolean lastEvent) {
@@ -368,7 +410,7 @@ class Realm {
                 agentEvents.get(agent.eventsIndex).setTime(time);
                 if (HermesConfigGroup.DEBUG_REALMS)
                     log(secs, String.format("agent %d setEventTime (eventsIndex=%d) %s", agent.id, agent.eventsIndex, agentEvents.get(agent.eventsIndex).toString()));
-                sortedEvents.add(agentEvents.get(agent.eventsIndex));
+                addEvent(agentEvents.get(agent.eventsIndex));
             }
 
             // Fix delay for PT events.
@@ -380,7 +422,11 @@ class Realm {
             }
             // This removes actend that is not issued by QSim.
             else if (lastEvent && event instanceof ActivityEndEvent) {
-                sortedEvents.removeLast();
+                if (buffer != null) {
+                    buffer.removeLastEvent();
+                } else {
+                    sortedEvents.removeLast();
+                }
             }
         }
     }
@@ -406,6 +452,26 @@ class Realm {
         return this.delayedAgentsByWakeupTime;
     }
 
+    void addEvent(Event event) {
+        if (buffer != null) {
+            buffer.addEvent(event);
+        } else {
+            sortedEvents.add(event);
+        }
+    }
+
+    int secs() {
+        return this.secs;
+    }
+
+    void setSecs(int secs) {
+        this.secs = secs;
+    }
+
+    HLink[] links() {
+        return this.links;
+    }
+
     EventArray getSortedEvents() {
         return this.sortedEvents;
     }
@@ -0,0 +1,125 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.Arrays;
+
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.events.EventArray;
+
+/**
+ * Collects the effects of the operations one thread of a {@link ParallelRealm} executes in a time step: delayed
+ * agents, delayed links and events. Effects are recorded per operation, so that they can be replayed in the
+ * order in which the single-threaded {@link Realm} would have produced them.
+ */
+class RealmBuffer {
+
+	// delayed agents and the timestep they are delayed until
+	private Agent[] agents = new Agent[256];
+	private int[] agentSlots = new int[256];
+	private int agentCount = 0;
+	// delayed links and the timestep they are delayed until
+	private HLink[] links = new HLink[256];
+	private int[] linkSlots = new int[256];
+	private int linkCount = 0;
+	private final EventArray events = new EventArray();
+
+	// for every finished operation: its global index and the end of its effects in the arrays above
+	private int[] ops = new int[256];
+	private int[] agentEnds = new int[256];
+	private int[] linkEnds = new int[256];
+	private int[] eventEnds = new int[256];
+	private int opCount = 0;
+
+	// replay position
+	private int nextOp = 0;
+
+	void delayAgent(int slot, Agent agent) {
+		if (agentCount == agents.length) {
+			agents = Arrays.copyOf(agents, agentCount * 2);
+			agentSlots = Arrays.copyOf(agentSlots, agentCount * 2);
+		}
+		agents[agentCount] = agent;
+		agentSlots[agentCount] = slot;
+		agentCount++;
+	}
+
+	void delayLink(int slot, HLink link) {
+		if (linkCount == links.length) {
+			links = Arrays.copyOf(links, linkCount * 2);
+			linkSlots = Arrays.copyOf(linkSlots, linkCount * 2);
+		}
+		links[linkCount] = link;
+		linkSlots[linkCount] = slot;
+		linkCount++;
+	}
+
+	void addEvent(Event event) {
+		events.add(event);
+	}
+
+	void removeLastEvent() {
+		events.removeLast();
+	}
+
+	void finishOp(int op) {
+		if (opCount == ops.length) {
+			int size = opCount * 2;
+			ops = Arrays.copyOf(ops, size);
+			agentEnds = Arrays.copyOf(agentEnds, size);
+			linkEnds = Arrays.copyOf(linkEnds, size);
+			eventEnds = Arrays.copyOf(eventEnds, size);
+		}
+		ops[opCount] = op;
+		agentEnds[opCount] = agentCount;
+		linkEnds[opCount] = linkCount;
+		eventEnds[opCount] = events.size();
+		opCount++;
+	}
+
+	/**
+	 * Applies the effects of the given operation to the realm. Operations must be replayed in increasing order.
+	 */
+	void replay(int op, Realm realm) {
+		assert ops[nextOp] == op;
+		int agentStart = nextOp == 0 ? 0 : agentEnds[nextOp - 1];
+		for (int i = agentStart; i < agentEnds[nextOp]; i++) {
+			realm.delayedAgents().get(agentSlots[i]).add(agents[i]);
+		}
+		int linkStart = nextOp == 0 ? 0 : linkEnds[nextOp - 1];
+		for (int i = linkStart; i < linkEnds[nextOp]; i++) {
+			realm.delayedLinks().get(linkSlots[i]).add(links[i]);
+		}
+		int eventStart = nextOp == 0 ? 0 : eventEnds[nextOp - 1];
+		for (int i = eventStart; i < eventEnds[nextOp]; i++) {
+			realm.addEvent(events.get(i));
+		}
+		nextOp++;
+	}
+
+	void clear() {
+		Arrays.fill(agents, 0, agentCount, null);
+		Arrays.fill(links, 0, linkCount, null);
+		events.clear();
+		agentCount = 0;
+		linkCount = 0;
+		opCount = 0;
+		nextOp = 0;
+	}
+}
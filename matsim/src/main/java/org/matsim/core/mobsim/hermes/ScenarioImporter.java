@@ -78,6 +78,8 @@ class ScenarioImporter {
 	protected HLink[] hermesLinks;
 
 	protected Realm realm;
+	// Partition of every link (indexed by link id) if the realm is run with several threads.
+	protected int[] linkPartition;
 	private final boolean deterministicPt;
 	// Agents waiting in pt stations. Should be used as follows:
 	// agent_stops.get(curr station id).get(line id) -> queue of agents
@@ -107,6 +109,10 @@ class ScenarioImporter {
 		this.eventsManager = eventsManager;
 		generateVehicleCategories();
 		generateLinks();
+		int realmThreads = scenario.getConfig().hermes().getNumberOfThreads();
+		if (realmThreads > 1) {
+			linkPartition = ParallelRealm.partitionLinks(scenario.getNetwork(), realmThreads);
+		}
 		generatePT();
 		generateAgents();
 
@@ -85,6 +85,15 @@ public class MessageQueue {
 		return m;
 	}
 
+	/**
+	 * @return the time stamp of the first message in the queue (possibly a killed one), or
+	 * <code>Double.POSITIVE_INFINITY</code> if the queue is empty
+	 */
+	public double getNextMessageArrivalTime() {
+		Message m = queue1.peek();
+		return m == null ? Double.POSITIVE_INFINITY : m.getMessageArrivalTime();
+	}
+
 	public boolean isEmpty() {
 		return queue1.size() == 0;
 	}
@@ -19,6 +19,7 @@
 
 package org.matsim.core.mobsim.qsim;
 
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Queue;
 import java.util.concurrent.PriorityBlockingQueue;
@@ -32,17 +33,26 @@ import org.matsim.api.core.v01.events.PersonStuckEvent;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.groups.QSimConfigGroup.AgentTimeQueue;
+import org.matsim.core.mobsim.framework.HasNextWakeupTime;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.framework.MobsimAgent.State;
+import org.matsim.core.utils.collections.CalendarQueue;
 
-class ActivityEngineDefaultImpl implements ActivityEngine {
+class ActivityEngineDefaultImpl implements ActivityEngine, HasNextWakeupTime {
 	private static final Logger log = LogManager.getLogger( ActivityEngineDefaultImpl.class ) ;
 
 	private final EventsManager eventsManager;
 
 	@Inject
-	ActivityEngineDefaultImpl( EventsManager eventsManager ) {
+	ActivityEngineDefaultImpl( EventsManager eventsManager, Config config ) {
+		this( eventsManager, config.qsim().getAgentTimeQueue() );
+	}
+
+	ActivityEngineDefaultImpl( EventsManager eventsManager, AgentTimeQueue agentTimeQueue ) {
 		this.eventsManager = eventsManager;
+		this.activityEndsList = createActivityEndsList( agentTimeQueue );
 	}
 
 //	public ActivityEngineDefaultImpl( EventsManager eventsManager, AgentCounter agentCounter ) {
@@ -73,22 +83,24 @@ class ActivityEngineDefaultImpl implements ActivityEngine {
 	 * This list needs to be a "blocking" queue since this is needed for
 	 * thread-safety in the parallel qsim. cdobler, oct'10
 	 */
-	private final Queue<AgentEntry> activityEndsList = new PriorityBlockingQueue<>(500, (e0, e1) -> {
-		int cmp = Double.compare(e0.activityEndTime, e1.activityEndTime);
-		if (cmp == 0) {
-			// Both depart at the same time -> let the one with the larger id be first (=smaller)
-			//
-			// yy We are not sure what the above comment line is supposed to say.  Presumably, it is supposed
-			// to say that the agent with the larger ID should be "smaller" one in the comparison.
-			// In practice, it seems
-			// that something like "emob_9" is before "emob_8", and something like "emob_10" before "emob_1".
-			// It is unclear why this convention is supposed to be helpful.
-			// kai & dominik, jul'12
-			//
-			return e1.agent.getId().compareTo(e0.agent.getId());
-		}
-		return cmp;
-	});
+	private final Queue<AgentEntry> activityEndsList;
+
+	private static Queue<AgentEntry> createActivityEndsList( AgentTimeQueue agentTimeQueue ) {
+		// Both depart at the same time -> let the one with the larger id be first (=smaller)
+		//
+		// yy We are not sure what the above comment line is supposed to say.  Presumably, it is supposed
+		// to say that the agent with the larger ID should be "smaller" one in the comparison.
+		// In practice, it seems
+		// that something like "emob_9" is before "emob_8", and something like "emob_10" before "emob_1".
+		// It is unclear why this convention is supposed to be helpful.
+		// kai & dominik, jul'12
+		//
+		Comparator<AgentEntry> tieBreaker = (e0, e1) -> e1.agent.getId().compareTo(e0.agent.getId());
+		return switch ( agentTimeQueue ) {
+			case priorityQueue -> new PriorityBlockingQueue<>(500, Comparator.comparingDouble((AgentEntry e) -> e.activityEndTime).thenComparing(tieBreaker));
+			case calendarQueue -> new CalendarQueue<>(e -> e.activityEndTime, tieBreaker); // thread-safe as well
+		};
+	}
 
 	// See handleActivity for the reason for this.
 	private boolean beforeFirstSimStep = true;
@@ -113,6 +125,12 @@ class ActivityEngineDefaultImpl implements ActivityEngine {
 		}
 	}
 
+	@Override
+	public double getNextWakeupTime(double now) {
+		AgentEntry entry = activityEndsList.peek();
+		return entry == null ? Double.POSITIVE_INFINITY : entry.activityEndTime;
+	}
+
 	@Override
 	public void afterSim() {
 		double now = this.internalInterface.getMobsim().getSimTimer().getTimeOfDay();
@@ -33,26 +33,35 @@ import org.matsim.api.core.v01.events.Event;
 import org.matsim.api.core.v01.population.Activity;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.groups.QSimConfigGroup.AgentTimeQueue;
+import org.matsim.core.mobsim.framework.HasNextWakeupTime;
 import org.matsim.api.core.v01.events.HasPersonId;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.framework.PlanAgent;
+import org.matsim.core.utils.collections.CalendarQueue;
 
-public final class ActivityEngineWithWakeup implements ActivityEngine {
+public final class ActivityEngineWithWakeup implements ActivityEngine, HasNextWakeupTime {
 	public static final String COMPONENT_NAME = "ActivityEngineWithWakeup";
 	private static final Logger log = LogManager.getLogger(ActivityEngineWithWakeup.class );
 	private final EventsManager eventsManager;
 	private final PreplanningEngine preplanningEngine;
-	private final ActivityEngine delegate;
+	private final ActivityEngineDefaultImpl delegate;
 
-	private final Queue<AgentEntry> wakeUpList = new PriorityBlockingQueue<>(500,
-			Comparator.comparingDouble((AgentEntry o) -> o.time).thenComparing(o -> o.agent.getId()));
+	private final Queue<AgentEntry> wakeUpList;
 	private InternalInterface internalInterface;
 
 	@Inject
-	ActivityEngineWithWakeup(EventsManager eventsManager, PreplanningEngine preplanningEngine) {
-		this.delegate = new ActivityEngineDefaultImpl(eventsManager);
+	ActivityEngineWithWakeup(EventsManager eventsManager, PreplanningEngine preplanningEngine, Config config) {
+		AgentTimeQueue agentTimeQueue = config.qsim().getAgentTimeQueue();
+		this.delegate = new ActivityEngineDefaultImpl(eventsManager, agentTimeQueue);
 		this.eventsManager = eventsManager;
 		this.preplanningEngine = preplanningEngine;
+		this.wakeUpList = switch (agentTimeQueue) {
+			case priorityQueue -> new PriorityBlockingQueue<>(500,
+					Comparator.comparingDouble((AgentEntry o) -> o.time).thenComparing(o -> o.agent.getId()));
+			case calendarQueue -> new CalendarQueue<>(o -> o.time, Comparator.comparing((AgentEntry o) -> o.agent.getId()));
+		};
 	}
 
 	@Override
@@ -71,6 +80,13 @@ public final class ActivityEngineWithWakeup implements ActivityEngine {
 		delegate.doSimStep(now);
 	}
 
+	@Override
+	public double getNextWakeupTime(double now) {
+		AgentEntry entry = wakeUpList.peek();
+		double wakeup = entry == null ? Double.POSITIVE_INFINITY : entry.time;
+		return Math.min(wakeup, delegate.getNextWakeupTime(now));
+	}
+
 	@Override
 	public void afterSim() {
 		delegate.afterSim();
@@ -39,9 +39,11 @@ import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
+import org.matsim.core.config.groups.QSimConfigGroup.AgentTimeQueue;
+import org.matsim.core.mobsim.framework.HasNextWakeupTime;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.network.NetworkUtils;
-import org.matsim.core.utils.collections.Tuple;
+import org.matsim.core.utils.collections.CalendarQueue;
 import org.matsim.facilities.Facility;
 import org.matsim.vis.snapshotwriters.AgentSnapshotInfo;
 import org.matsim.vis.snapshotwriters.TeleportationVisData;
@@ -50,24 +52,13 @@ import org.matsim.vis.snapshotwriters.TeleportationVisData;
  * Includes all agents that have transportation modes unknown to the
  * NetsimEngine (often all != "car") or have two activities on the same link
  */
-public final class DefaultTeleportationEngine implements TeleportationEngine {
+public final class DefaultTeleportationEngine implements TeleportationEngine, HasNextWakeupTime {
 	private static final Logger log = LogManager.getLogger( DefaultTeleportationEngine.class ) ;
 
-	private final Queue<Tuple<Double, MobsimAgent>> teleportationList = new PriorityQueue<>(
-			30, new Comparator<Tuple<Double, MobsimAgent>>() {
-
-		@Override
-		public int compare(Tuple<Double, MobsimAgent> o1, Tuple<Double, MobsimAgent> o2) {
-			int ret = o1.getFirst().compareTo(o2.getFirst()); // first compare time information
-			if (ret == 0) {
-				ret = o2.getSecond()
-						.getId()
-						.compareTo(o1.getSecond()
-								.getId()); // if they're equal, compare the Ids: the one with the larger Id should be first
-			}
-			return ret;
-		}
-	});
+	private record TeleportationEntry(double arrivalTime, MobsimAgent agent) {
+	}
+
+	private final Queue<TeleportationEntry> teleportationList;
 	private final LinkedHashMap<Id<Person>, TeleportationVisData> teleportationData = new LinkedHashMap<>();
 	private InternalInterface internalInterface;
 	private Scenario scenario;
@@ -84,6 +75,13 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 		this.scenario = scenario;
 		this.eventsManager = eventsManager;
 		this.withTravelTimeCheck = withTravelTimeCheck;
+		// first compare time information; if they're equal, compare the Ids: the one with the larger Id should be first
+		Comparator<TeleportationEntry> tieBreaker = (o1, o2) -> o2.agent.getId().compareTo(o1.agent.getId());
+		AgentTimeQueue agentTimeQueue = scenario.getConfig().qsim().getAgentTimeQueue();
+		this.teleportationList = switch (agentTimeQueue) {
+			case priorityQueue -> new PriorityQueue<>(30, Comparator.comparingDouble(TeleportationEntry::arrivalTime).thenComparing(tieBreaker));
+			case calendarQueue -> new CalendarQueue<>(TeleportationEntry::arrivalTime, tieBreaker);
+		};
 	}
 
 	@Override
@@ -103,7 +101,7 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 		}
 
 		double arrivalTime = now + travelTime ;
-		this.teleportationList.add(new Tuple<>(arrivalTime, agent));
+		this.teleportationList.add(new TeleportationEntry(arrivalTime, agent));
 
 		// === below here is only visualization, no dynamics ===
 		Id<Person> agentId = agent.getId();
@@ -132,12 +130,18 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 		handleTeleportationArrivals(time);
 	}
 
+	@Override
+	public double getNextWakeupTime(double now) {
+		TeleportationEntry entry = teleportationList.peek();
+		return entry == null ? Double.POSITIVE_INFINITY : entry.arrivalTime;
+	}
+
 	private void handleTeleportationArrivals(double now) {
 		while (!teleportationList.isEmpty()) {
-			Tuple<Double, MobsimAgent> entry = teleportationList.peek();
-			if (entry.getFirst() <= now) {
+			TeleportationEntry entry = teleportationList.peek();
+			if (entry.arrivalTime <= now) {
 				teleportationList.poll();
-				MobsimAgent personAgent = entry.getSecond();
+				MobsimAgent personAgent = entry.agent;
 				personAgent.notifyArrivalOnLinkByNonNetworkMode(personAgent.getDestinationLinkId());
 				double distance = personAgent.getExpectedTravelDistance();
 				this.eventsManager.processEvent(
@@ -158,8 +162,8 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 	@Override
 	public void afterSim() {
 		double now = internalInterface.getMobsim().getSimTimer().getTimeOfDay();
-		for (Tuple<Double, MobsimAgent> entry : teleportationList) {
-			MobsimAgent agent = entry.getSecond();
+		for (TeleportationEntry entry : teleportationList) {
+			MobsimAgent agent = entry.agent;
 			eventsManager.processEvent(new PersonStuckEvent(now, agent.getId(), agent.getDestinationLinkId(), agent.getMode()));
 		}
 		teleportationList.clear();
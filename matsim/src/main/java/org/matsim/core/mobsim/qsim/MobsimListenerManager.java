@@ -23,6 +23,7 @@ package org.matsim.core.mobsim.qsim;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.core.api.internal.MatsimManager;
+import org.matsim.core.mobsim.framework.HasNextWakeupTime;
 import org.matsim.core.mobsim.framework.Mobsim;
 import org.matsim.core.mobsim.framework.events.MobsimAfterSimStepEvent;
 import org.matsim.core.mobsim.framework.events.MobsimBeforeCleanupEvent;
@@ -100,6 +101,25 @@ class MobsimListenerManager implements MatsimManager {
         }
 	}
 
+	/**
+	 * @return the earliest wakeup time of the before and after sim step listeners that implement {@link HasNextWakeupTime};
+	 * the other ones are only notified in the time steps executed anyway.
+	 */
+	double getNextWakeupTime(double now) {
+		double wakeup = Double.POSITIVE_INFINITY;
+		for (MobsimBeforeSimStepListener listener : this.listenerList.getListeners(MobsimBeforeSimStepListener.class)) {
+			if (listener instanceof HasNextWakeupTime hasNextWakeupTime) {
+				wakeup = Math.min(wakeup, hasNextWakeupTime.getNextWakeupTime(now));
+			}
+		}
+		for (MobsimAfterSimStepListener listener : this.listenerList.getListeners(MobsimAfterSimStepListener.class)) {
+			if (listener instanceof HasNextWakeupTime hasNextWakeupTime) {
+				wakeup = Math.min(wakeup, hasNextWakeupTime.getNextWakeupTime(now));
+			}
+		}
+		return wakeup;
+	}
+
 	public void fireQueueSimulationBeforeSimStepEvent(double time) {
 		MobsimBeforeSimStepEvent<Mobsim> event = new MobsimBeforeSimStepEvent<>(sim, time);
 		MobsimBeforeSimStepListener[] listener = this.listenerList.getListeners(MobsimBeforeSimStepListener.class);
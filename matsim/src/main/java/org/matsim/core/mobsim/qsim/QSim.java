@@ -38,6 +38,7 @@ import org.matsim.core.config.groups.QSimConfigGroup.EndtimeInterpretation;
 import org.matsim.core.events.EventsUtils;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.mobsim.framework.AgentSource;
+import org.matsim.core.mobsim.framework.HasNextWakeupTime;
 import org.matsim.core.mobsim.framework.HasPerson;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.framework.MobsimTimer;
@@ -121,6 +122,8 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 
 	private final Date realWorldStarttime = new Date();
 	private double stopTime; // initialised in initSimTimer()
+	private long executedTimeSteps = 0;
+	private long skippedTimeSteps = 0;
 	private final MobsimListenerManager listenerManager;
 	private final Scenario scenario;
 	private final List<ActivityHandler> activityHandlers = new ArrayList<>();
@@ -364,6 +367,9 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 
 		if (gotException) throw new RuntimeException( "got exception while cleaning up the QSim. Please check the error messages above for details.");
 		events.finishProcessing();
+		if (this.scenario.getConfig().qsim().isSkippingIdleTimeSteps()) {
+			log.info("executed " + this.executedTimeSteps + " time steps, skipped " + this.skippedTimeSteps + " idle time steps.");
+		}
 		if (analyzeRunTimes) {
 			log.info("qsim internal cpu time (nanos): " + qSimInternalTime);
 			for (Entry<MobsimEngine, AtomicLong> entry : this.mobsimEngineRunTimes.entrySet()) {
@@ -386,6 +392,7 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		if (analyzeRunTimes) this.startClockTime = System.nanoTime();
 
 		final double now = this.getSimTimer().getTimeOfDay();
+		this.executedTimeSteps++;
 
 		this.listenerManager.fireQueueSimulationBeforeSimStepEvent(now);
 
@@ -434,6 +441,9 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 
 		if (doContinue) {
 			this.simTimer.incrementTime();
+			if (qsimConfigGroup.isSkippingIdleTimeSteps()) {
+				this.skipIdleTimeSteps(now, qsimConfigGroup);
+			}
 		}
 
 		if (analyzeRunTimes) this.qSimInternalTime += System.nanoTime() - this.startClockTime;
@@ -441,6 +451,35 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		return doContinue;
 	}
 
+	/**
+	 * Advances the sim timer over the following time steps in which neither an engine nor a listener has something to do.
+	 * The timer is incremented step by step, so that the times are exactly the same as when executing every time step.
+	 */
+	private void skipIdleTimeSteps(final double now, final QSimConfigGroup qsimConfigGroup) {
+		double wakeup = this.listenerManager.getNextWakeupTime(now);
+		for (MobsimEngine mobsimEngine : this.mobsimEngines) {
+			if (wakeup <= now) {
+				return;
+			}
+			if (!(mobsimEngine instanceof HasNextWakeupTime hasNextWakeupTime)) {
+				return; // we do not know when this engine needs to be called, so it needs every time step
+			}
+			wakeup = Math.min(wakeup, hasNextWakeupTime.getNextWakeupTime(now));
+		}
+
+		// stop at the time step that terminates the simulation, see doSimStep()
+		final boolean onlyUseEndtime = qsimConfigGroup.getSimEndtimeInterpretation() == EndtimeInterpretation.onlyUseEndtime;
+		final double endTime = onlyUseEndtime ? qsimConfigGroup.getEndTime().seconds() : this.stopTime;
+		if (Math.min(wakeup, endTime) >= Double.MAX_VALUE) {
+			return; // nothing left to wait for, but also no end time; keep stepping like without skipping
+		}
+		double time = this.simTimer.getTimeOfDay();
+		while (time < wakeup && (onlyUseEndtime ? time <= endTime : time < endTime)) {
+			time = this.simTimer.incrementTime();
+			this.skippedTimeSteps++;
+		}
+	}
+
 	public void insertAgentIntoMobsim(final MobsimAgent agent) {
 		if (this.agents.containsKey(agent.getId())) {
 			throw new RuntimeException("Agent with same Id (" + agent.getId().toString() + ") already in mobsim; aborting ... ") ;
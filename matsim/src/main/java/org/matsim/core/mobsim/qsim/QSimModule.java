@@ -34,9 +34,11 @@ import org.matsim.core.mobsim.qsim.changeeventsengine.NetworkChangeEventsModule;
 import org.matsim.core.mobsim.qsim.components.QSimComponentsModule;
 import org.matsim.core.mobsim.qsim.messagequeueengine.MessageQueueModule;
 import org.matsim.core.mobsim.qsim.pt.TransitEngineModule;
+import org.matsim.core.mobsim.qsim.qnetsimengine.NetsimLoadBalancer;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QNetsimEngineModule;
 
 import com.google.inject.Key;
+import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
 import com.google.inject.name.Names;
 
@@ -98,6 +100,9 @@ public final class QSimModule extends AbstractModule {
 		// Set<AbstractQSimModule>.  Don't know why this is needed.  kai, jun'23
 
 		bind(Mobsim.class).toProvider(QSimProvider.class);
+
+		bind(NetsimLoadBalancer.class).in(Singleton.class);
+		// (lives on the controler level so that the work-stealing netsim engine can rebalance its work units between iterations)
 	}
 
 	static public Collection<AbstractQSimModule> getDefaultQSimModules() {
@@ -25,8 +25,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
-import org.matsim.core.mobsim.jdeqsim.Message;
-import org.matsim.core.mobsim.jdeqsim.MessageQueue;
+import org.matsim.core.mobsim.framework.HasNextWakeupTime;
+import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
+import org.matsim.core.mobsim.framework.listeners.MobsimBeforeSimStepListener;
 import org.matsim.core.mobsim.qsim.InternalInterface;
 import org.matsim.core.mobsim.qsim.interfaces.NetsimLink;
 import org.matsim.core.mobsim.qsim.interfaces.TimeVariantLink;
@@ -34,43 +35,52 @@ import org.matsim.core.network.NetworkChangeEvent;
 import org.matsim.core.network.NetworkUtils;
 
 import jakarta.inject.Inject;
+import java.util.Arrays;
+import java.util.PriorityQueue;
 import java.util.Queue;
 
-class NetworkChangeEventsEngine implements NetworkChangeEventsEngineI {
+/**
+ * Applies the network change events to the links of the mobsim when their start time is reached. The change events
+ * of the network are sorted by start time once before the simulation and then walked through, so that millions of
+ * them neither need a message each nor a priority queue. Only the change events that are added during the
+ * simulation and start in the future are put into a (usually small) priority queue.
+ * <p>
+ * The change events are applied before the sim step, like messages of the message queue, so that the links have
+ * their new attributes when the vehicles are moved in the same time step.
+ */
+class NetworkChangeEventsEngine implements NetworkChangeEventsEngineI, MobsimBeforeSimStepListener, HasNextWakeupTime {
 	private static final Logger log = LogManager.getLogger( NetworkChangeEventsEngine.class ) ;
 
-	private final MessageQueue messageQueue;
 	private final Network network;
 	private InternalInterface internalInterface;
 
+	private NetworkChangeEvent[] changeEvents = new NetworkChangeEvent[0];
+	private int nextChangeEventIndex = 0;
+	private final Queue<NetworkChangeEvent> withinDayChangeEvents = new PriorityQueue<>(new NetworkChangeEvent.StartTimeComparator());
+
 	@Inject
-	NetworkChangeEventsEngine(Network network, MessageQueue messageQueue) {
+	NetworkChangeEventsEngine(Network network) {
 		this.network = network;
-		this.messageQueue = messageQueue;
 	}
 
 	@Override
 	public void onPrepareSim() {
 		Queue<NetworkChangeEvent> changeEvents = NetworkUtils.getNetworkChangeEvents(this.network);
-		for (final NetworkChangeEvent changeEvent : changeEvents) {
-			addNetworkChangeEventToMessageQ(changeEvent);
-		}
+		this.changeEvents = changeEvents.toArray(new NetworkChangeEvent[changeEvents.size()]);
+		Arrays.sort(this.changeEvents, new NetworkChangeEvent.StartTimeComparator());
+		this.nextChangeEventIndex = 0;
+		this.withinDayChangeEvents.clear();
 	}
 
-	private void addNetworkChangeEventToMessageQ(NetworkChangeEvent changeEvent) {
-		Message m = new Message() {
-			@Override
-			public void processEvent() {
-
-			}
-
-			@Override
-			public void handleMessage() {
-				applyTheChangeEvent(changeEvent);
-			}
-		};
-		m.setMessageArrivalTime(changeEvent.getStartTime());
-		this.messageQueue.putMessage(m);
+	@Override
+	public void notifyMobsimBeforeSimStep(MobsimBeforeSimStepEvent e) {
+		final double now = e.getSimulationTime();
+		while (this.nextChangeEventIndex < this.changeEvents.length && this.changeEvents[this.nextChangeEventIndex].getStartTime() <= now) {
+			applyTheChangeEvent(this.changeEvents[this.nextChangeEventIndex++]);
+		}
+		while (!this.withinDayChangeEvents.isEmpty() && this.withinDayChangeEvents.peek().getStartTime() <= now) {
+			applyTheChangeEvent(this.withinDayChangeEvents.poll());
+		}
 	}
 
 	private void applyTheChangeEvent(NetworkChangeEvent changeEvent) {
@@ -103,7 +113,7 @@ class NetworkChangeEventsEngine implements NetworkChangeEventsEngineI {
 		if ( event.getStartTime()<= this.internalInterface.getMobsim().getSimTimer().getTimeOfDay() ) {
 			this.applyTheChangeEvent(event);
 		} else {
-			this.addNetworkChangeEventToMessageQ(event);
+			this.withinDayChangeEvents.add(event);
 		}
 
 	}
@@ -123,4 +133,16 @@ class NetworkChangeEventsEngine implements NetworkChangeEventsEngineI {
 	public void doSimStep(double time) {
 
 	}
+
+	@Override
+	public double getNextWakeupTime(double now) {
+		double wakeup = Double.POSITIVE_INFINITY;
+		if (this.nextChangeEventIndex < this.changeEvents.length) {
+			wakeup = this.changeEvents[this.nextChangeEventIndex].getStartTime();
+		}
+		if (!this.withinDayChangeEvents.isEmpty()) {
+			wakeup = Math.min(wakeup, this.withinDayChangeEvents.peek().getStartTime());
+		}
+		return wakeup;
+	}
 }
@@ -65,6 +65,14 @@ public class SteppableScheduler extends Scheduler implements Steppable {
 		finished = true; // queue has run dry.
 	}
 
+	public double getNextMessageArrivalTime() {
+		double time = queue.getNextMessageArrivalTime();
+		if (lookahead != null) {
+			time = Math.min(time, lookahead.getMessageArrivalTime());
+		}
+		return time;
+	}
+
 	public boolean isFinished() {
 		return finished;
 	}
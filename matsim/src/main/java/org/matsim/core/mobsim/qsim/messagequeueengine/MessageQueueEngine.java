@@ -21,13 +21,14 @@
 
  package org.matsim.core.mobsim.qsim.messagequeueengine;
 
+import org.matsim.core.mobsim.framework.HasNextWakeupTime;
 import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
 import org.matsim.core.mobsim.framework.listeners.MobsimBeforeSimStepListener;
 import org.matsim.core.mobsim.qsim.jdeqsimengine.SteppableScheduler;
 
 import jakarta.inject.Inject;
 
-class MessageQueueEngine implements MobsimBeforeSimStepListener {
+class MessageQueueEngine implements MobsimBeforeSimStepListener, HasNextWakeupTime {
 
 	private final SteppableScheduler scheduler;
 
@@ -41,4 +42,9 @@ class MessageQueueEngine implements MobsimBeforeSimStepListener {
 		scheduler.doSimStep(e.getSimulationTime());
 	}
 
+	@Override
+	public double getNextWakeupTime(double now) {
+		return scheduler.getNextMessageArrivalTime();
+	}
+
 }
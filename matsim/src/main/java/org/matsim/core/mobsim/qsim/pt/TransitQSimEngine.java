@@ -34,6 +34,7 @@ import org.matsim.api.core.v01.events.PersonStuckEvent;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Leg;
 import org.matsim.core.mobsim.framework.AgentSource;
+import org.matsim.core.mobsim.framework.HasNextWakeupTime;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.qsim.HasAgentTracker;
 import org.matsim.core.mobsim.qsim.InternalInterface;
@@ -54,7 +55,7 @@ import jakarta.inject.Inject;
  * @author mrieser
  * @author mzilske
  */
-public class TransitQSimEngine implements DepartureHandler, MobsimEngine, AgentSource, HasAgentTracker {
+public class TransitQSimEngine implements DepartureHandler, MobsimEngine, AgentSource, HasAgentTracker, HasNextWakeupTime {
 
 
 	private Collection<MobsimAgent> ptDrivers;
@@ -215,6 +216,11 @@ public class TransitQSimEngine implements DepartureHandler, MobsimEngine, AgentS
 		// Nothing to do here.
 	}
 
+	@Override
+	public double getNextWakeupTime(double now) {
+		return Double.POSITIVE_INFINITY; // the drivers and the vehicles are moved by the other engines
+	}
+
 	@Override
 	public void insertAgentsIntoMobsim() {
 		ptDrivers = createVehiclesAndDriversWithUmlaeufe();
@@ -38,6 +38,7 @@ import org.matsim.core.config.groups.QSimConfigGroup.LinkDynamics;
 import org.matsim.core.config.groups.QSimConfigGroup.SnapshotStyle;
 import org.matsim.core.config.groups.QSimConfigGroup.VehicleBehavior;
 import org.matsim.core.gbl.Gbl;
+import org.matsim.core.mobsim.framework.HasNextWakeupTime;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.framework.MobsimDriverAgent;
 import org.matsim.core.mobsim.qsim.InternalInterface;
@@ -57,7 +58,7 @@ import org.matsim.vis.snapshotwriters.SnapshotLinkWidthCalculator;
  * @author dgrether
  * @author dstrippgen
  */
-abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> implements QNetsimEngineI {
+abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> implements QNetsimEngineI, HasNextWakeupTime {
 
 	private NetsimInternalInterface ii = new NetsimInternalInterface(){
 		@Override public QNetwork getNetsimNetwork() {
@@ -226,6 +227,20 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		this.printSimLog(time);
 	}
 
+	/**
+	 * Links and nodes are active as long as vehicles move on them or wait to enter them. If none is active, nothing happens
+	 * in the network until an agent departs, which is triggered by another engine.
+	 */
+	@Override
+	public final double getNextWakeupTime(final double now) {
+		for (A engine : this.engines) {
+			if (!engine.isIdle()) {
+				return now;
+			}
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
 
 	@Override
 	public final void setInternalInterface( InternalInterface internalInterface) {
@@ -349,6 +364,18 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		log.info("sum min run times: " + sumMin);
 		log.info("sum max run times: " + sumMax);
 		log.info("sum all run times / num threads: " + sum / this.numOfThreads);
+		log.info("sum link run times: " + getMoveLinksTime());
+	}
+
+	@Override
+	public final long getMoveLinksTime() {
+		long sum = 0;
+		if (this.engines != null) {
+			for (AbstractQNetsimEngineRunner runner : this.engines) {
+				sum += runner.moveLinksTime;
+			}
+		}
+		return sum;
 	}
 
 	@Override
@@ -390,7 +417,7 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 
 		int roundRobin = 0;
 		for (QNodeI node : qNetwork.getNetsimNodes().values()) {
-			int i = roundRobin % this.engines.size();
+			int i = getRunnerIndex(node, roundRobin);
 			if( node instanceof AbstractQNode){
 				((AbstractQNode) node).setNetElementActivationRegistry(this.engines.get(i));
 			}
@@ -429,6 +456,17 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 //		this.linksToActivateInitially.clear();
 	}
 
+	/**
+	 * Determines the {@link AbstractQNetsimEngineRunner} that moves the given node and its out-links. Called during
+	 * {@link #onPrepareSim()}, after {@link #initQSimEngineRunners()}. The default distributes the nodes round-robin.
+	 *
+	 * @param roundRobin the position of the node in the iteration order of the netsim nodes
+	 * @return an index into {@link #getQnetsimEngineRunner()}
+	 */
+	protected int getRunnerIndex(QNodeI node, int roundRobin) {
+		return roundRobin % this.engines.size();
+	}
+
 	private final void arrangeNextAgentState(MobsimAgent pp) {
 		internalInterface.arrangeNextAgentState(pp);
 	}
@@ -71,6 +71,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 	private boolean lockLinks = false;
 
 	/*package*/ long[] runTimes;
+	/*package*/ long moveLinksTime = 0;
 	private long startTime = 0;
 	{	
 		if (QSim.analyzeRunTimes) runTimes = new long[QNetsimEngineWithThreadpool.numObservedTimeSteps];
@@ -97,6 +98,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 	}
 	
 	protected final void moveLinks() {
+		long start = QSim.analyzeRunTimes ? System.nanoTime() : 0;
 		boolean remainsActive;
 		lockLinks = true;
 		QLinkI link;
@@ -109,6 +111,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 			if (!remainsActive) simLinks.remove();
 		}
 		lockLinks = false;
+		if (QSim.analyzeRunTimes) this.moveLinksTime += System.nanoTime() - start;
 	}
 
 	/*
@@ -138,6 +141,10 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		else throw new RuntimeException("Tried to activate a QNode at a time where this was not allowed. Aborting!");
 	}
 
+	/*package*/ final boolean isIdle() {
+		return this.linksList.isEmpty() && this.nodesQueue.isEmpty();
+	}
+
 	/*
 	 * Note that the size() method is O(n) for a ConcurrentLinkedQueue as used
 	 * for the nodesQueue. However, this method is only called once every simulated
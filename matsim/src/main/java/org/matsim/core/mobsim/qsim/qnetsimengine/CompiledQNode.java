@@ -0,0 +1,439 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CompiledQNode.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.config.groups.QSimConfigGroup.NodeTransition;
+import org.matsim.core.gbl.Gbl;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.framework.MobsimAgent;
+import org.matsim.core.mobsim.framework.PassengerAgent;
+import org.matsim.core.mobsim.qsim.interfaces.NetsimLink;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QNetsimEngineI.NetsimInternalInterface;
+import org.matsim.core.mobsim.qsim.qnetsimengine.TurnAcceptanceLogic.AcceptTurn;
+
+/**
+ * A variant of {@link QNodeImpl} that moves the vehicles in exactly the same way, but works on a representation of
+ * the node that is compiled once in {@link #init()}:
+ * <ul>
+ * <li>the in-links with their offering lanes, and the out-links with their ids, in flat arrays;</li>
+ * <li>the capacities and priorities of the in-links in <code>double[]</code>s, the capacities are read once per time step;</li>
+ * <li>a bitset with one bit per pair of in- and out-link, telling if the turn is accepted without asking the
+ * {@link TurnAcceptanceLogic}. This is the case for every turn to an out-link of this node if the
+ * {@link DefaultTurnAcceptanceLogic} is used, since that one only checks that the next link is connected. For all
+ * other turns, including all turns with other logics, the turn acceptance logic is asked for every vehicle as before.</li>
+ * </ul>
+ * Moving a vehicle over the node thus neither allocates iterators nor looks up the next link in the map of all links.
+ * The offering lanes of the links are read once, so this only works with links whose offering lanes do not change
+ * during the simulation, as is the case for {@link QLinkImpl} and {@link QLinkLanesImpl}.
+ *
+ * @see QSimConfigGroup#isUsingCompiledNodes()
+ */
+final class CompiledQNode extends AbstractQNode {
+	private static final Logger log = LogManager.getLogger(CompiledQNode.class);
+
+	public static class Builder {
+		private final NetsimInternalInterface netsimEngine;
+		private final NetsimEngineContext context;
+		private final QSimConfigGroup qsimConfig;
+		public Builder(NetsimInternalInterface netsimEngine, NetsimEngineContext context, QSimConfigGroup qsimConfig) {
+			this.netsimEngine = netsimEngine;
+			this.context = context;
+			this.qsimConfig = qsimConfig;
+		}
+		private TurnAcceptanceLogic turnAcceptanceLogic = new DefaultTurnAcceptanceLogic();
+		public final void setTurnAcceptanceLogic(TurnAcceptanceLogic turnAcceptanceLogic) {
+			this.turnAcceptanceLogic = turnAcceptanceLogic;
+		}
+		public CompiledQNode build(Node n) {
+			return new CompiledQNode(n, context, netsimEngine, turnAcceptanceLogic, qsimConfig);
+		}
+	}
+
+	private final Random random;
+	private final NetsimEngineContext context;
+	private final NetsimInternalInterface netsimEngine;
+
+	private final TurnAcceptanceLogic turnAcceptanceLogic;
+	private final NodeTransition nodeTransitionLogic;
+	private final boolean stopMoveNodeWhenSingleOutlinkFull;
+	private boolean atLeastOneOutgoingLaneIsJammed;
+
+	// compiled in init()
+	private QLinkI[] inLinks;
+	private QLaneI[][] offeringLanes;
+	private QLinkI[] outLinks;
+	private Id<Link>[] outLinkIds;
+	private long[] acceptedTurns;
+
+	private double[] inLinkCapacities;
+	private double[] inLinkPriorities;
+	/** corresponds to <code>QNodeImpl.tempLinks</code>; like there, it is not reset between time steps */
+	private boolean[] offering;
+
+	private static boolean capacityLeft(double x) {
+		return x > 1E-10;
+	}
+
+	private CompiledQNode(final Node n, NetsimEngineContext context, NetsimInternalInterface netsimEngine,
+			TurnAcceptanceLogic turnAcceptanceLogic, QSimConfigGroup qsimConfig) {
+		super(n);
+		this.netsimEngine = netsimEngine;
+		this.context = context;
+		this.turnAcceptanceLogic = turnAcceptanceLogic;
+		this.nodeTransitionLogic = qsimConfig.getNodeTransitionLogic();
+
+		switch (nodeTransitionLogic) {
+		case emptyBufferAfterBufferRandomDistribution_nodeBlockedWhenSingleOutlinkFull:
+		case moveVehByVehRandomDistribution_nodeBlockedWhenSingleOutlinkFull:
+		case moveVehByVehDeterministicPriorities_nodeBlockedWhenSingleOutlinkFull:
+			this.stopMoveNodeWhenSingleOutlinkFull = true;
+			break;
+		case emptyBufferAfterBufferRandomDistribution_dontBlockNode:
+		case moveVehByVehRandomDistribution_dontBlockNode:
+			this.stopMoveNodeWhenSingleOutlinkFull = false;
+			break;
+		default:
+			throw new UnsupportedOperationException("Node transition logic " + nodeTransitionLogic + " is not implemented.");
+		}
+
+		// same random number generator as QNodeImpl, so that the results are the same
+		if (this.context.qsimConfig.getNumberOfThreads() > 1) {
+			this.random = MatsimRandom.getLocalInstance();
+		} else {
+			this.random = MatsimRandom.getRandom();
+		}
+	}
+
+	/**
+	 * Compiles the node. Cannot be called in the constructor, as the links are created after the nodes.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void init() {
+		QNetwork network = this.netsimEngine.getNetsimNetwork();
+
+		// the order of the in-links has an influence on the results, so they are sorted like in QNodeImpl
+		this.inLinks = new QLinkI[this.node.getInLinks().size()];
+		int i = 0;
+		for (Link l : this.node.getInLinks().values()) {
+			this.inLinks[i++] = network.getNetsimLinks().get(l.getId());
+		}
+		Arrays.sort(this.inLinks, Comparator.comparing((NetsimLink link) -> link.getLink().getId()));
+		this.offeringLanes = new QLaneI[this.inLinks.length][];
+		for (i = 0; i < this.inLinks.length; i++) {
+			List<QLaneI> lanes = this.inLinks[i].getOfferingQLanes();
+			this.offeringLanes[i] = lanes.toArray(new QLaneI[lanes.size()]);
+		}
+
+		this.outLinks = new QLinkI[this.node.getOutLinks().size()];
+		this.outLinkIds = new Id[this.outLinks.length];
+		int j = 0;
+		for (Link l : this.node.getOutLinks().values()) {
+			this.outLinks[j] = network.getNetsimLinks().get(l.getId());
+			this.outLinkIds[j] = l.getId();
+			j++;
+		}
+
+		this.acceptedTurns = new long[(this.inLinks.length * this.outLinks.length + 63) / 64];
+		if (this.turnAcceptanceLogic instanceof DefaultTurnAcceptanceLogic) {
+			for (i = 0; i < this.inLinks.length; i++) {
+				for (j = 0; j < this.outLinks.length; j++) {
+					if (this.outLinks[j] != null && this.inLinks[i].getLink().getToNode() == this.outLinks[j].getLink().getFromNode()) {
+						int bit = i * this.outLinks.length + j;
+						this.acceptedTurns[bit >> 6] |= 1L << bit;
+					}
+				}
+			}
+		}
+
+		this.inLinkCapacities = new double[this.inLinks.length];
+		this.offering = new boolean[this.inLinks.length];
+	}
+
+	/**
+	 * Moves vehicles from the in-links' buffers to the out-links where possible, see {@link QNodeImpl#doSimStep(double)}.
+	 */
+	@Override
+	public boolean doSimStep(final double now) {
+		final QLinkI[] inLinks = this.inLinks;
+		final double[] capacities = this.inLinkCapacities;
+		final boolean[] offering = this.offering;
+
+		if (this.inLinkPriorities == null) {
+			// not in init(), since the capacities may be changed after the mobsim is created, see QNodeImpl
+			this.inLinkPriorities = new double[inLinks.length];
+			for (int i = 0; i < inLinks.length; i++) {
+				this.inLinkPriorities[i] = 1. / inLinks[i].getLink().getCapacity(now);
+			}
+		}
+
+		this.atLeastOneOutgoingLaneIsJammed = false;
+
+		double inLinksCapSum = 0.0;
+		for (int i = 0; i < inLinks.length; i++) {
+			QLinkI link = inLinks[i];
+			capacities[i] = link.getLink().getCapacity(now);
+			if (!link.isNotOfferingVehicle()) {
+				offering[i] = true;
+				inLinksCapSum += capacities[i];
+			}
+		}
+
+		if (!capacityLeft(inLinksCapSum)) {
+			this.setActive(false);
+			return false; // Nothing to do
+		}
+
+		switch (nodeTransitionLogic) {
+		case emptyBufferAfterBufferRandomDistribution_dontBlockNode:
+		case emptyBufferAfterBufferRandomDistribution_nodeBlockedWhenSingleOutlinkFull:
+			while (capacityLeft(inLinksCapSum)) {
+				int i = selectRandomInLink(inLinksCapSum);
+				if (i < 0) {
+					continue;
+				}
+				inLinksCapSum -= capacities[i];
+				offering[i] = false;
+				this.moveLink(i, now);
+				if (this.stopMoveNodeWhenSingleOutlinkFull && this.atLeastOneOutgoingLaneIsJammed) {
+					return true;
+				}
+			}
+			break;
+		case moveVehByVehRandomDistribution_dontBlockNode:
+		case moveVehByVehRandomDistribution_nodeBlockedWhenSingleOutlinkFull:
+			while (capacityLeft(inLinksCapSum)) {
+				int i = selectRandomInLink(inLinksCapSum);
+				if (i < 0) {
+					continue;
+				}
+				if (!moveFirstVehicleOnLink(i, now)) {
+					inLinksCapSum -= capacities[i];
+					offering[i] = false;
+				}
+				if (this.stopMoveNodeWhenSingleOutlinkFull && this.atLeastOneOutgoingLaneIsJammed) {
+					return true;
+				}
+			}
+			break;
+		case moveVehByVehDeterministicPriorities_nodeBlockedWhenSingleOutlinkFull:
+			final double[] priorities = this.inLinkPriorities;
+			double prioWithWhichTheLastVehWasSent = 0.;
+			while (capacityLeft(inLinksCapSum)) {
+				// compared as float and with the first link winning ties, see QNodeImpl
+				double minPrio = Float.MAX_VALUE;
+				int prioInLinkIndex = -1;
+				for (int i = 0; i < inLinks.length; i++) {
+					if (offering[i] && (float) priorities[i] < (float) minPrio) {
+						minPrio = priorities[i];
+						prioInLinkIndex = i;
+					}
+				}
+
+				if (!moveFirstVehicleOnLink(prioInLinkIndex, now)) {
+					inLinksCapSum -= capacities[prioInLinkIndex];
+					offering[prioInLinkIndex] = false;
+				} else {
+					prioWithWhichTheLastVehWasSent = minPrio;
+					priorities[prioInLinkIndex] += 1. / capacities[prioInLinkIndex];
+				}
+				if (this.atLeastOneOutgoingLaneIsJammed) {
+					updatePriorities(prioWithWhichTheLastVehWasSent, prioInLinkIndex);
+					return true;
+				}
+			}
+			updatePriorities(prioWithWhichTheLastVehWasSent, -1);
+			break;
+		default:
+			throw new UnsupportedOperationException("Node transition logic " + nodeTransitionLogic + " is not implemented.");
+		}
+
+		return true;
+	}
+
+	/**
+	 * Draws an in-link with a probability proportional to its capacity among the offering ones.
+	 *
+	 * @return the index of the in-link, or -1 if rounding errors let the random number exceed the capacities of all links,
+	 * in which case QNodeImpl draws again as well
+	 */
+	private int selectRandomInLink(double inLinksCapSum) {
+		double rndNum = this.random.nextDouble() * inLinksCapSum;
+		double selCap = 0.0;
+		for (int i = 0; i < this.inLinks.length; i++) {
+			if (this.offering[i]) {
+				selCap += this.inLinkCapacities[i];
+				if (selCap >= rndNum) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private void updatePriorities(double prioWithWhichTheLastVehWasSent, int linkIndexToBeExcluded) {
+		for (int i = 0; i < this.inLinkPriorities.length; i++) {
+			if (i != linkIndexToBeExcluded && !this.offering[i]) {
+				this.inLinkPriorities[i] = prioWithWhichTheLastVehWasSent + 1. / this.inLinkCapacities[i];
+			}
+			this.inLinkPriorities[i] -= prioWithWhichTheLastVehWasSent;
+		}
+	}
+
+	private boolean moveFirstVehicleOnLink(final int inLinkIndex, final double now) {
+		QLaneI[] lanes = this.offeringLanes[inLinkIndex];
+		if (lanes.length > 1) {
+			throw new RuntimeException("The qsim node transition parameter " + NodeTransition.moveVehByVehRandomDistribution_dontBlockNode + ", "
+					+ NodeTransition.moveVehByVehRandomDistribution_nodeBlockedWhenSingleOutlinkFull + " and "
+					+ NodeTransition.moveVehByVehDeterministicPriorities_nodeBlockedWhenSingleOutlinkFull
+					+ " are only implemented for the case without lanes. But link " + this.inLinks[inLinkIndex].getLink().getId()
+					+ " in your scenario has more than one lane. "
+					+ "Use the default node transiton " + NodeTransition.emptyBufferAfterBufferRandomDistribution_dontBlockNode
+					+ " or " + NodeTransition.emptyBufferAfterBufferRandomDistribution_nodeBlockedWhenSingleOutlinkFull
+					+ " or adapt the implementation such that it also works for lanes.");
+		}
+		for (QLaneI lane : lanes) {
+			if (!lane.isNotOfferingVehicle()) {
+				if (moveVehicleOverNode(lane.getFirstVehicle(), inLinkIndex, lane, now)) {
+					return true;
+				}
+				if (this.stopMoveNodeWhenSingleOutlinkFull && this.atLeastOneOutgoingLaneIsJammed) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void moveLink(final int inLinkIndex, final double now) {
+		for (QLaneI lane : this.offeringLanes[inLinkIndex]) {
+			while (!lane.isNotOfferingVehicle()) {
+				if (!moveVehicleOverNode(lane.getFirstVehicle(), inLinkIndex, lane, now)) {
+					if (this.stopMoveNodeWhenSingleOutlinkFull && this.atLeastOneOutgoingLaneIsJammed) {
+						return;
+					}
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the index of the out-link if the turn to it is accepted without asking the turn acceptance logic, -1 otherwise
+	 */
+	private int getAcceptedOutLinkIndex(final int inLinkIndex, final Id<Link> nextLinkId) {
+		for (int j = 0; j < this.outLinkIds.length; j++) {
+			if (this.outLinkIds[j] == nextLinkId) { // ids are unique objects
+				int bit = inLinkIndex * this.outLinks.length + j;
+				return (this.acceptedTurns[bit >> 6] & (1L << bit)) != 0 ? j : -1;
+			}
+		}
+		return -1;
+	}
+
+	private boolean moveVehicleOverNode(final QVehicle veh, final int inLinkIndex, final QLaneI fromLane, final double now) {
+		Id<Link> nextLinkId = veh.getDriver().chooseNextLinkId();
+		Link currentLink = this.inLinks[inLinkIndex].getLink();
+
+		QLinkI nextQueueLink;
+		int outLinkIndex = getAcceptedOutLinkIndex(inLinkIndex, nextLinkId);
+		if (outLinkIndex >= 0) {
+			nextQueueLink = this.outLinks[outLinkIndex];
+		} else {
+			AcceptTurn turn = this.turnAcceptanceLogic.isAcceptingTurn(currentLink, fromLane, nextLinkId, veh, this.netsimEngine.getNetsimNetwork(), now);
+			if (turn == AcceptTurn.ABORT) {
+				moveVehicleFromInlinkToAbort(veh, fromLane, now, currentLink.getId());
+				return true;
+			} else if (turn == AcceptTurn.WAIT) {
+				return false;
+			}
+			nextQueueLink = this.netsimEngine.getNetsimNetwork().getNetsimLinks().get(nextLinkId);
+		}
+
+		QLaneI nextQueueLane = nextQueueLink.getAcceptingQLane();
+		if (nextQueueLane.isAcceptingFromUpstream()) {
+			moveVehicleFromInlinkToOutlink(veh, currentLink.getId(), fromLane, nextLinkId, nextQueueLane);
+			return true;
+		}
+		// else, i.e. next link or lane is jammed
+		this.atLeastOneOutgoingLaneIsJammed = true;
+
+		if (vehicleIsStuck(fromLane, now)) {
+			if (this.context.qsimConfig.isRemoveStuckVehicles()) {
+				moveVehicleFromInlinkToAbort(veh, fromLane, now, currentLink.getId());
+				return false;
+			} else {
+				moveVehicleFromInlinkToOutlink(veh, currentLink.getId(), fromLane, nextLinkId, nextQueueLane);
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static int wrnCnt = 0;
+	private void moveVehicleFromInlinkToAbort(final QVehicle veh, final QLaneI fromLane, final double now, Id<Link> currentLinkId) {
+		fromLane.popFirstVehicle();
+		this.context.getEventsManager().processEvent(new LinkLeaveEvent(now, veh.getId(), currentLinkId));
+
+		for (PassengerAgent pp : veh.getPassengers()) {
+			if (pp instanceof MobsimAgent) {
+				((MobsimAgent) pp).setStateToAbort(now);
+				this.netsimEngine.arrangeNextAgentState((MobsimAgent) pp);
+			} else if (wrnCnt < 1) {
+				wrnCnt++;
+				log.warn("encountering PassengerAgent that cannot be cast into a MobsimAgent; cannot say if this is a problem");
+				log.warn(Gbl.ONLYONCE);
+			}
+		}
+
+		veh.getDriver().setStateToAbort(now);
+		this.netsimEngine.arrangeNextAgentState(veh.getDriver());
+	}
+
+	private void moveVehicleFromInlinkToOutlink(final QVehicle veh, Id<Link> currentLinkId, final QLaneI fromLane, Id<Link> nextLinkId, QLaneI nextQueueLane) {
+		double now = this.context.getSimTimer().getTimeOfDay();
+
+		fromLane.popFirstVehicle();
+		this.context.getEventsManager().processEvent(new LinkLeaveEvent(now, veh.getId(), currentLinkId));
+		veh.getDriver().notifyMoveOverNode(nextLinkId);
+		this.context.getEventsManager().processEvent(new LinkEnterEvent(now, veh.getId(), nextLinkId));
+		nextQueueLane.addFromUpstream(veh);
+	}
+
+	private boolean vehicleIsStuck(final QLaneI fromLaneBuffer, final double now) {
+		return (now - fromLaneBuffer.getLastMovementTimeOfFirstVehicle()) > this.context.qsimConfig.getStuckTime();
+	}
+
+}
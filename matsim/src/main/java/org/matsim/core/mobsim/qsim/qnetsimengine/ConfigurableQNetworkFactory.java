@@ -22,6 +22,8 @@ package org.matsim.core.mobsim.qsim.qnetsimengine;
 
 import java.util.Optional;
 
+import com.google.inject.Inject;
+
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
@@ -56,6 +58,7 @@ public final class ConfigurableQNetworkFactory implements QNetworkFactory {
 	private Optional<VehicleHandler> vehicleHandler = Optional.empty();
 	private Optional<FlowEfficiencyCalculator> flowEfficiencyCalculator = Optional.empty();
 	private Optional<VehicleQ.Factory<QVehicle>> vehicleQFactory = Optional.empty();
+	private NetsimEventHandlers netsimEventHandlers = null;
 
 	public ConfigurableQNetworkFactory(EventsManager events, Scenario scenario) {
 		this.events = events;
@@ -64,6 +67,10 @@ public final class ConfigurableQNetworkFactory implements QNetworkFactory {
 		this.qsimConfig = scenario.getConfig().qsim();
 	}
 
+	@Inject(optional = true) void setNetsimEventHandlers(NetsimEventHandlers netsimEventHandlers) {
+		this.netsimEventHandlers = netsimEventHandlers;
+	}
+
 	@Override
 	public void initializeFactory(AgentCounter agentCounter, MobsimTimer mobsimTimer, NetsimInternalInterface netsimEngine1) {
 		this.netsimEngine = netsimEngine1;
@@ -74,7 +81,7 @@ public final class ConfigurableQNetworkFactory implements QNetworkFactory {
 			linkWidthCalculator.setLaneWidth(network.getEffectiveLaneWidth());
 		}
 		AbstractAgentSnapshotInfoBuilder agentSnapshotInfoBuilder = QNetsimEngineWithThreadpool.createAgentSnapshotInfoBuilder(scenario, linkWidthCalculator);
-		context = new NetsimEngineContext(events, effectiveCellSize, agentCounter, agentSnapshotInfoBuilder, qsimConfig, mobsimTimer, linkWidthCalculator);
+		context = new NetsimEngineContext(NetsimEventHandlers.wrap(netsimEventHandlers, events), effectiveCellSize, agentCounter, agentSnapshotInfoBuilder, qsimConfig, mobsimTimer, linkWidthCalculator);
 	}
 	@Override
 	public QLinkI createNetsimLink( final Link link, final QNodeI toQueueNode ) {
@@ -98,6 +105,11 @@ public final class ConfigurableQNetworkFactory implements QNetworkFactory {
 
 	@Override
 	public QNodeI createNetsimNode( final Node node ) {
+		if (qsimConfig.isUsingCompiledNodes()) {
+			CompiledQNode.Builder builder = new CompiledQNode.Builder(netsimEngine, context, qsimConfig);
+			turnAcceptanceLogic.ifPresent(builder::setTurnAcceptanceLogic);
+			return builder.build(node);
+		}
 		QNodeImpl.Builder builder = new QNodeImpl.Builder(netsimEngine, context, qsimConfig);
 
 		turnAcceptanceLogic.ifPresent(builder::setTurnAcceptanceLogic);
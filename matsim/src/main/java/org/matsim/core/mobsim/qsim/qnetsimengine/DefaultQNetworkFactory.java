@@ -20,7 +20,7 @@
 package org.matsim.core.mobsim.qsim.qnetsimengine;
 
 
-import jakarta.inject.Inject;
+import com.google.inject.Inject;
 
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.network.Link;
@@ -71,12 +71,16 @@ public final class DefaultQNetworkFactory implements QNetworkFactory {
 	private QLinkImpl.Builder linkBuilder;
 	private QNodeImpl.Builder nodeBuilder;
 	@Inject private Set<LinkSpeedCalculator> calculators = Collections.emptySet();
+	private NetsimEventHandlers netsimEventHandlers = null;
 	private NetsimEngineContext context;
 	private NetsimInternalInterface netsimEngine1;
 	@Inject DefaultQNetworkFactory( EventsManager events, Scenario scenario ) {
 		this.events = events;
 		this.scenario = scenario;
 	}
+	@Inject(optional = true) void setNetsimEventHandlers( NetsimEventHandlers netsimEventHandlers ) {
+		this.netsimEventHandlers = netsimEventHandlers;
+	}
 	@Override public void initializeFactory( AgentCounter agentCounter, MobsimTimer mobsimTimer, NetsimInternalInterface netsimEngine1 ) {
 		double effectiveCellSize = scenario.getNetwork().getEffectiveCellSize() ;
 
@@ -87,7 +91,7 @@ public final class DefaultQNetworkFactory implements QNetworkFactory {
 		AbstractAgentSnapshotInfoBuilder agentSnapshotInfoBuilder = QNetsimEngineWithThreadpool.createAgentSnapshotInfoBuilder( scenario, linkWidthCalculator );
 
 		// (vis needs network and may need population attributes and config; in consequence, makes sense to have scenario here. kai, apr'16)
-		context = new NetsimEngineContext( events, effectiveCellSize, agentCounter, agentSnapshotInfoBuilder, scenario.getConfig().qsim(),
+		context = new NetsimEngineContext( NetsimEventHandlers.wrap( netsimEventHandlers, events ), effectiveCellSize, agentCounter, agentSnapshotInfoBuilder, scenario.getConfig().qsim(),
 				mobsimTimer, linkWidthCalculator );
 
 		Gbl.assertNotNull(context);
@@ -108,6 +112,9 @@ public final class DefaultQNetworkFactory implements QNetworkFactory {
 		return linkBuilder.build(link, toQueueNode) ;
 	}
 	@Override public QNodeI createNetsimNode( final Node node ) {
+		if ( scenario.getConfig().qsim().isUsingCompiledNodes() ) {
+			return new CompiledQNode.Builder( netsimEngine1, context, scenario.getConfig().qsim() ).build( node ) ;
+		}
 		this.nodeBuilder = new QNodeImpl.Builder( netsimEngine1, context, scenario.getConfig().qsim() ) ;
 		return nodeBuilder.build( node ) ;
 	}
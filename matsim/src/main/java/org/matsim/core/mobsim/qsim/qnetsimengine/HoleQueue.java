@@ -0,0 +1,142 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * HoleQueue.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The holes of a {@link QueueWithBuffer}, first-in-first-out. A hole only consists of the time it reaches the
+ * upstream end of the link and its size, so the holes are stored as two rings of doubles instead of
+ * {@link QueueWithBuffer.Hole} objects. The {@link java.util.Queue} methods, only used by the visualization,
+ * create the hole objects on demand.
+ */
+/* deliberately package */ final class HoleQueue extends AbstractQueue<QueueWithBuffer.Hole> {
+
+	private double[] exitTimes = new double[4];
+	private double[] sizes = new double[4];
+	private int head = 0;
+	private int size = 0;
+
+	void add(final double earliestLinkExitTime, final double sizeInEquivalents) {
+		if (this.size == this.exitTimes.length) {
+			grow();
+		}
+		int tail = (this.head + this.size) & (this.exitTimes.length - 1);
+		this.exitTimes[tail] = earliestLinkExitTime;
+		this.sizes[tail] = sizeInEquivalents;
+		this.size++;
+	}
+
+	/** @return the earliest link exit time of the first hole; the queue must not be empty */
+	double peekEarliestLinkExitTime() {
+		return this.exitTimes[this.head];
+	}
+
+	/** removes the first hole; the queue must not be empty */
+	double pollSizeInEquivalents() {
+		double sizeInEquivalents = this.sizes[this.head];
+		this.head = (this.head + 1) & (this.exitTimes.length - 1);
+		this.size--;
+		return sizeInEquivalents;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public void clear() {
+		this.head = 0;
+		this.size = 0;
+	}
+
+	@Override
+	public boolean offer(final QueueWithBuffer.Hole hole) {
+		add(hole.getEarliestLinkExitTime(), hole.getSizeInEquivalents());
+		return true;
+	}
+
+	@Override
+	public QueueWithBuffer.Hole peek() {
+		return this.size == 0 ? null : createHole(0);
+	}
+
+	@Override
+	public QueueWithBuffer.Hole poll() {
+		if (this.size == 0) {
+			return null;
+		}
+		QueueWithBuffer.Hole hole = createHole(0);
+		pollSizeInEquivalents();
+		return hole;
+	}
+
+	@Override
+	public Iterator<QueueWithBuffer.Hole> iterator() {
+		return new Iterator<>() {
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return this.next < HoleQueue.this.size;
+			}
+
+			@Override
+			public QueueWithBuffer.Hole next() {
+				if (this.next >= HoleQueue.this.size) {
+					throw new NoSuchElementException();
+				}
+				return createHole(this.next++);
+			}
+		};
+	}
+
+	private QueueWithBuffer.Hole createHole(final int i) {
+		int index = (this.head + i) & (this.exitTimes.length - 1);
+		QueueWithBuffer.Hole hole = new QueueWithBuffer.Hole();
+		hole.setEarliestLinkExitTime(this.exitTimes[index]);
+		hole.setSizeInEquivalents(this.sizes[index]);
+		return hole;
+	}
+
+	private void grow() {
+		// the length stays a power of two, so the index wraps around with a mask
+		double[] newExitTimes = new double[this.exitTimes.length * 2];
+		double[] newSizes = new double[newExitTimes.length];
+		for (int i = 0; i < this.size; i++) {
+			int index = (this.head + i) & (this.exitTimes.length - 1);
+			newExitTimes[i] = this.exitTimes[index];
+			newSizes[i] = this.sizes[index];
+		}
+		this.exitTimes = newExitTimes;
+		this.sizes = newSizes;
+		this.head = 0;
+	}
+
+}
@@ -0,0 +1,144 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * NetsimEventHandlers.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import jakarta.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.events.handler.EventHandler;
+
+/**
+ * Event handlers that are called directly from the threads of the QNetsimEngine with the events that are created by
+ * the nodes and links of the netsim (link enter/leave, vehicle enters/leaves traffic, vehicle aborts), before the
+ * events are passed to the events manager. This takes the events manager out of the hot path for handlers like the
+ * {@link org.matsim.core.trafficmonitoring.TravelTimeCalculator}.
+ * <p>
+ * The handlers are called concurrently from several threads. However, the QNetsimEngine handles every node and link
+ * by one thread at a time, and all events of one vehicle are created in the order in which they happen. Thus, data
+ * that belongs to one link or one vehicle does not need to be synchronized, as long as it is only updated by the
+ * events of that link (e.g. link leave events for the travel time of the link) or that vehicle.
+ * <p>
+ * The QNetworkFactory implementations pass the events manager of their netsim through {@link #wrap(EventsManager)}.
+ * As soon as this happened, {@link #isAttached()} returns true and the handlers must ignore these events when they
+ * receive them from the events manager as well.
+ * <p>
+ * This is only done if the events manager is synchronized on the sim steps. Otherwise, the events that the handlers
+ * still receive from the events manager (e.g. a VehicleArrivesAtFacilityEvent of a transit vehicle) may arrive
+ * after the netsim events that follow them, so all events are then left to the events manager.
+ */
+@Singleton
+public final class NetsimEventHandlers {
+	private static final Logger log = LogManager.getLogger(NetsimEventHandlers.class);
+
+	private final List<BasicEventHandler> handlers = new CopyOnWriteArrayList<>();
+	private volatile boolean attached = false;
+
+	public void addHandler(final BasicEventHandler handler) {
+		this.handlers.add(handler);
+	}
+
+	/**
+	 * @return true if a netsim passes its events to the handlers
+	 */
+	public boolean isAttached() {
+		return this.attached;
+	}
+
+	/**
+	 * @return an events manager that first passes every event to the handlers and then to the given events manager,
+	 * or the given events manager if there are no handlers or it is not synchronized on the sim steps
+	 */
+	EventsManager wrap(final EventsManager events) {
+		if (this.handlers.isEmpty()) {
+			return events;
+		}
+		if (!EventsUtils.isSynchronizedOnSimSteps(events)) {
+			log.warn("The events manager " + events.getClass().getSimpleName() + " is not synchronized on the sim steps, so the netsim " +
+					"events are passed to the handlers through the events manager. Set eventsManager.synchronizeOnSimSteps to true to " +
+					"pass them directly from the netsim.");
+			return events;
+		}
+		this.attached = true;
+		return new NetsimEventsManager(events, this.handlers.toArray(new BasicEventHandler[0]));
+	}
+
+	/*package*/ static EventsManager wrap(final NetsimEventHandlers netsimEventHandlers, final EventsManager events) {
+		return netsimEventHandlers == null ? events : netsimEventHandlers.wrap(events);
+	}
+
+	private static final class NetsimEventsManager implements EventsManager {
+
+		private final EventsManager delegate;
+		private final BasicEventHandler[] handlers;
+
+		NetsimEventsManager(EventsManager delegate, BasicEventHandler[] handlers) {
+			this.delegate = delegate;
+			this.handlers = handlers;
+		}
+
+		@Override
+		public void processEvent(Event event) {
+			for (BasicEventHandler handler : this.handlers) {
+				handler.handleEvent(event);
+			}
+			this.delegate.processEvent(event);
+		}
+
+		@Override
+		public void addHandler(EventHandler handler) {
+			this.delegate.addHandler(handler);
+		}
+
+		@Override
+		public void removeHandler(EventHandler handler) {
+			this.delegate.removeHandler(handler);
+		}
+
+		@Override
+		public void resetHandlers(int iteration) {
+			this.delegate.resetHandlers(iteration);
+		}
+
+		@Override
+		public void initProcessing() {
+			this.delegate.initProcessing();
+		}
+
+		@Override
+		public void afterSimStep(double time) {
+			this.delegate.afterSimStep(time);
+		}
+
+		@Override
+		public void finishProcessing() {
+			this.delegate.finishProcessing();
+		}
+	}
+
+}
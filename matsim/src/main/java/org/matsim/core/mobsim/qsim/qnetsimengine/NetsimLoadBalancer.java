@@ -0,0 +1,158 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * NetsimLoadBalancer.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Arrays;
+import java.util.List;
+
+import jakarta.inject.Inject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * Remembers how expensive it was to move the nodes (and their out-links) of the network in the previous
+ * mobsim run and uses this to partition the nodes into work units of similar cost for the next run.
+ * <p>
+ * The costs are only known per work unit (the accumulated run time of the unit), so they are distributed to the
+ * nodes of a unit proportional to the number of links a node is responsible for. Since the partitioning changes
+ * from run to run, expensive nodes that happened to be in the same unit are separated in the following run and
+ * the estimates become more precise over the iterations. Estimates are smoothed exponentially to avoid oscillations.
+ * <p>
+ * The partitioning only decides which thread moves which node; the movement of the vehicles does not depend on it
+ * (every node has its own random number generator), so the simulation stays deterministic.
+ * <p>
+ * One instance is meant to live as long as the controler, so that information is carried from one iteration to
+ * the next.
+ */
+public final class NetsimLoadBalancer {
+
+	private static final Logger log = LogManager.getLogger(NetsimLoadBalancer.class);
+
+	/** weight of the latest measurement when updating the cost estimates */
+	private static final double SMOOTHING = 0.5;
+
+	/** estimated cost per node, indexed by {@link Id#index()}, or <code>null</code> if nothing was measured yet */
+	private double[] nodeCosts = null;
+
+	@Inject
+	public NetsimLoadBalancer() {
+	}
+
+	/**
+	 * Partitions the nodes into the given number of work units.
+	 *
+	 * @return for every node (indexed by {@link Id#index()}), the index of its work unit
+	 */
+	synchronized int[] partition(List<QNodeI> nodes, int numberOfUnits) {
+		int[] partition = new int[Id.getNumberOfIds(Node.class)];
+		Arrays.fill(partition, -1);
+
+		if (this.nodeCosts == null) {
+			int roundRobin = 0;
+			for (QNodeI node : nodes) {
+				partition[node.getNode().getId().index()] = roundRobin % numberOfUnits;
+				roundRobin++;
+			}
+			return partition;
+		}
+
+		// longest processing time first: always assign the most expensive remaining node to the cheapest unit.
+		// ties are broken by the order of the nodes, so the result only depends on the estimates.
+		Integer[] order = new Integer[nodes.size()];
+		double[] costs = new double[nodes.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+			costs[i] = cost(nodes.get(i));
+		}
+		Arrays.sort(order, (a, b) -> {
+			int cmp = Double.compare(costs[b], costs[a]);
+			return cmp != 0 ? cmp : Integer.compare(a, b);
+		});
+
+		double[] load = new double[numberOfUnits];
+		int roundRobin = 0;
+		for (int i : order) {
+			int unit;
+			if (costs[i] > 0) {
+				unit = 0;
+				for (int u = 1; u < numberOfUnits; u++) {
+					if (load[u] < load[unit]) {
+						unit = u;
+					}
+				}
+				load[unit] += costs[i];
+			} else {
+				// never active so far: just spread them
+				unit = roundRobin++ % numberOfUnits;
+			}
+			partition[nodes.get(i).getNode().getId().index()] = unit;
+		}
+		return partition;
+	}
+
+	/**
+	 * Updates the cost estimates with the run times measured for the work units.
+	 *
+	 * @param partition the partition that was used, as returned by {@link #partition(List, int)}
+	 * @param unitTimes the accumulated run time (in nanoseconds) of each work unit
+	 */
+	synchronized void update(List<QNodeI> nodes, int[] partition, long[] unitTimes) {
+		int numberOfUnits = unitTimes.length;
+		double[] unitWeights = new double[numberOfUnits];
+		for (QNodeI node : nodes) {
+			unitWeights[partition[node.getNode().getId().index()]] += weight(node);
+		}
+
+		double[] newCosts = new double[Id.getNumberOfIds(Node.class)];
+		for (QNodeI node : nodes) {
+			int index = node.getNode().getId().index();
+			int unit = partition[index];
+			double measured = unitTimes[unit] * weight(node) / unitWeights[unit];
+			double previous = this.nodeCosts != null && index < this.nodeCosts.length ? this.nodeCosts[index] : measured;
+			newCosts[index] = SMOOTHING * measured + (1 - SMOOTHING) * previous;
+		}
+		this.nodeCosts = newCosts;
+
+		long min = Long.MAX_VALUE;
+		long max = 0;
+		long sum = 0;
+		for (long time : unitTimes) {
+			min = Math.min(min, time);
+			max = Math.max(max, time);
+			sum += time;
+		}
+		log.info(String.format("netsim work units: %d, run time per unit [ms]: min=%.1f avg=%.1f max=%.1f",
+				numberOfUnits, min / 1e6, sum / 1e6 / numberOfUnits, max / 1e6));
+	}
+
+	private double cost(QNodeI node) {
+		int index = node.getNode().getId().index();
+		return index < this.nodeCosts.length ? this.nodeCosts[index] : 0;
+	}
+
+	private static double weight(QNodeI node) {
+		return 1 + node.getNode().getOutLinks().size();
+	}
+
+}
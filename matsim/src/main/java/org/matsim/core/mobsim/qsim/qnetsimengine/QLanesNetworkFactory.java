@@ -53,6 +53,7 @@ public final class QLanesNetworkFactory implements QNetworkFactory {
 	private final Network network;
 	private final Scenario scenario;
 	private NetsimInternalInterface netsimEngine;
+	private NetsimEventHandlers netsimEventHandlers = null;
 	@Inject QLanesNetworkFactory( EventsManager events, Scenario scenario, DefaultQNetworkFactory delegate ) {
 		this.qsimConfig = scenario.getConfig().qsim();
 		this.events = events ;
@@ -63,6 +64,11 @@ public final class QLanesNetworkFactory implements QNetworkFactory {
 		this.delegate = delegate;
 	}
 
+	@com.google.inject.Inject(optional = true) void setNetsimEventHandlers( NetsimEventHandlers netsimEventHandlers ) {
+		this.netsimEventHandlers = netsimEventHandlers;
+		this.delegate.setNetsimEventHandlers( netsimEventHandlers );
+	}
+
 	@Override
 	public void initializeFactory( AgentCounter agentCounter, MobsimTimer mobsimTimer, NetsimInternalInterface netsimEngine1 ) {
 		this.netsimEngine = netsimEngine1 ;
@@ -73,7 +79,7 @@ public final class QLanesNetworkFactory implements QNetworkFactory {
 			linkWidthCalculator.setLaneWidth( network.getEffectiveLaneWidth() );
 		}
 		AbstractAgentSnapshotInfoBuilder agentSnapshotInfoBuilder = QNetsimEngineWithThreadpool.createAgentSnapshotInfoBuilder( scenario, linkWidthCalculator );
-		context = new NetsimEngineContext( events, effectiveCellSize, agentCounter, agentSnapshotInfoBuilder, qsimConfig, mobsimTimer, linkWidthCalculator );
+		context = new NetsimEngineContext( NetsimEventHandlers.wrap( netsimEventHandlers, events ), effectiveCellSize, agentCounter, agentSnapshotInfoBuilder, qsimConfig, mobsimTimer, linkWidthCalculator );
 		delegate.initializeFactory(agentCounter, mobsimTimer, netsimEngine1);
 	}
 
@@ -33,6 +33,14 @@ public interface QNetsimEngineI extends MobsimEngine, NetsimEngine {
 
 	void printEngineRunTimes();
 	
+	/**
+	 * @return the time spent in the doSimStep() of the links, summed over all threads, in nanoseconds. Only measured
+	 * with {@link org.matsim.core.mobsim.qsim.QSim#analyzeRunTimes}, otherwise 0.
+	 */
+	default long getMoveLinksTime() {
+		return 0;
+	}
+
 	NetsimInternalInterface getNetsimInternalInterface();
 
 }
\ No newline at end of file
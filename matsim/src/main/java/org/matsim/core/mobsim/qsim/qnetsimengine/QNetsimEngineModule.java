@@ -23,6 +23,7 @@
 
 import com.google.inject.Singleton;
 import com.google.inject.multibindings.Multibinder;
+import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.mobsim.qsim.AbstractQSimModule;
 import org.matsim.core.mobsim.qsim.qnetsimengine.linkspeedcalculator.LinkSpeedCalculator;
 
@@ -31,7 +32,12 @@ public final class QNetsimEngineModule extends AbstractQSimModule {
 	
 	@Override
 	protected void configureQSim() {
-		bind(QNetsimEngineI.class).to(QNetsimEngineWithThreadpool.class).in( Singleton.class );
+		if ( this.getConfig().qsim().getNumberOfThreads() > 1
+				&& this.getConfig().qsim().getNetsimScheduling() == QSimConfigGroup.NetsimScheduling.workStealing ) {
+			bind(QNetsimEngineI.class).to(QNetsimEngineWithWorkStealing.class).in( Singleton.class );
+		} else {
+			bind(QNetsimEngineI.class).to(QNetsimEngineWithThreadpool.class).in( Singleton.class );
+		}
 		bind(VehicularDepartureHandler.class).toProvider(QNetsimEngineDepartureHandlerProvider.class).in( Singleton.class );
 		// in the two lines above, I changed "asEagerSingleton" to "in( Singleton.class )", since forcing construction early often leads to problems.  kai, jun'23
 
@@ -0,0 +1,55 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetsimEngineRunnerForWorkStealing.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+/**
+ * A work unit of the {@link QNetsimEngineWithWorkStealing}. In contrast to the
+ * {@link QNetsimEngineRunnerForThreadpool}, it is not bound to a thread, but executed
+ * by whichever thread of the pool picks it up. It accumulates its run time, so that
+ * the work can be rebalanced for the next mobsim run.
+ */
+final class QNetsimEngineRunnerForWorkStealing extends AbstractQNetsimEngineRunner {
+
+	private long runTime = 0;
+
+	QNetsimEngineRunnerForWorkStealing() {
+	}
+
+	void run(boolean movingNodes) {
+		long start = System.nanoTime();
+		startMeasure();
+		if (movingNodes) {
+			moveNodes();
+		} else {
+			moveLinks();
+		}
+		endMeasure();
+		this.runTime += System.nanoTime() - start;
+	}
+
+	long getRunTime() {
+		return this.runTime;
+	}
+
+	@Override
+	public void afterSim() {
+	}
+}
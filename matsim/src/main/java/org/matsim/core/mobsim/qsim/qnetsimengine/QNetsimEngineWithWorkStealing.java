@@ -0,0 +1,142 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetsimEngineWithWorkStealing.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+import jakarta.inject.Inject;
+
+import org.matsim.core.mobsim.qsim.QSim;
+
+/**
+ * Coordinates the movement of vehicles on the links and the nodes, like the {@link QNetsimEngineWithThreadpool}.
+ * Instead of one partition per thread, the network is split into {@link #UNITS_PER_THREAD} times as many
+ * work units which are executed on a {@link ForkJoinPool}. Threads that are done with their units steal units
+ * from the busy ones, so a congested area no longer determines the duration of the whole time step.
+ * <p>
+ * After every mobsim run, the measured run times of the units are passed to the {@link NetsimLoadBalancer}, which
+ * repartitions the nodes for the next run.
+ */
+final class QNetsimEngineWithWorkStealing extends AbstractQNetsimEngine<QNetsimEngineRunnerForWorkStealing> {
+
+	static final int UNITS_PER_THREAD = 8;
+
+	private final NetsimLoadBalancer loadBalancer;
+	private final int numOfUnits;
+	private final List<QNodeI> nodes;
+	private int[] partition;
+	private QNetsimEngineRunnerForWorkStealing[] units;
+	private ForkJoinPool pool;
+
+	@Inject QNetsimEngineWithWorkStealing(final QSim sim, QNetworkFactory netsimNetworkFactory, NetsimLoadBalancer loadBalancer) {
+		super(sim, netsimNetworkFactory);
+		this.loadBalancer = loadBalancer;
+		this.numOfUnits = this.numOfThreads * UNITS_PER_THREAD;
+		this.nodes = new ArrayList<>(this.qNetwork.getNetsimNodes().values());
+	}
+
+	@Override
+	protected List<QNetsimEngineRunnerForWorkStealing> initQSimEngineRunners() {
+		this.partition = this.loadBalancer.partition(this.nodes, this.numOfUnits);
+		this.units = new QNetsimEngineRunnerForWorkStealing[this.numOfUnits];
+		List<QNetsimEngineRunnerForWorkStealing> engines = new ArrayList<>();
+		for (int i = 0; i < this.numOfUnits; i++) {
+			this.units[i] = new QNetsimEngineRunnerForWorkStealing();
+			engines.add(this.units[i]);
+		}
+		return engines;
+	}
+
+	@Override
+	protected int getRunnerIndex(QNodeI node, int roundRobin) {
+		return this.partition[node.getNode().getId().index()];
+	}
+
+	@Override
+	protected void initMultiThreading() {
+		this.pool = new ForkJoinPool(this.numOfThreads, new NamedThreadFactory(), null, false);
+	}
+
+	@Override
+	protected void run(double time) {
+		for (QNetsimEngineRunnerForWorkStealing unit : this.units) {
+			unit.setTime(time);
+		}
+		this.pool.invoke(new UnitsAction(this.units, 0, this.units.length, true));
+		this.pool.invoke(new UnitsAction(this.units, 0, this.units.length, false));
+	}
+
+	@Override
+	public void finishMultiThreading() {
+		this.pool.shutdown();
+
+		long[] unitTimes = new long[this.numOfUnits];
+		for (int i = 0; i < this.numOfUnits; i++) {
+			unitTimes[i] = this.units[i].getRunTime();
+		}
+		this.loadBalancer.update(this.nodes, this.partition, unitTimes);
+	}
+
+	/**
+	 * Moves the nodes or links of a range of units, splitting the range in halves until a single unit is left, so
+	 * that idle threads can steal the (larger) other halves.
+	 */
+	private static final class UnitsAction extends RecursiveAction {
+
+		private final QNetsimEngineRunnerForWorkStealing[] units;
+		private final int from;
+		private final int to;
+		private final boolean movingNodes;
+
+		UnitsAction(QNetsimEngineRunnerForWorkStealing[] units, int from, int to, boolean movingNodes) {
+			this.units = units;
+			this.from = from;
+			this.to = to;
+			this.movingNodes = movingNodes;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from == 1) {
+				this.units[this.from].run(this.movingNodes);
+			} else {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new UnitsAction(this.units, this.from, middle, this.movingNodes),
+						new UnitsAction(this.units, middle, this.to, this.movingNodes));
+			}
+		}
+	}
+
+	private static class NamedThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+		private int count = 0;
+
+		@Override
+		public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("QNetsimEngine_ForkJoinThread_" + count++);
+			return thread;
+		}
+	}
+}
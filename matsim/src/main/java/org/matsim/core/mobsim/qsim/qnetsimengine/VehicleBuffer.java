@@ -0,0 +1,101 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * VehicleBuffer.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Arrays;
+
+/**
+ * The buffer of a {@link QueueWithBuffer}: a first-in-first-out ring of vehicles, together with the flow
+ * capacity each of them consumed when it entered the buffer. Vehicles and their consumption are stored in
+ * two arrays, so adding a vehicle does not allocate anything once the arrays are large enough.
+ */
+/* deliberately package */ final class VehicleBuffer {
+
+	private QVehicle[] vehicles = new QVehicle[4];
+	private double[] flowConsumptions = new double[4];
+	private int head = 0;
+	private int size = 0;
+
+	void add(final QVehicle vehicle, final double flowConsumption) {
+		if (this.size == this.vehicles.length) {
+			grow();
+		}
+		int tail = (this.head + this.size) & (this.vehicles.length - 1);
+		this.vehicles[tail] = vehicle;
+		this.flowConsumptions[tail] = flowConsumption;
+		this.size++;
+	}
+
+	/** @return the first vehicle, or <code>null</code> if the buffer is empty */
+	QVehicle peek() {
+		return this.size == 0 ? null : this.vehicles[this.head];
+	}
+
+	/** @return the removed first vehicle, or <code>null</code> if the buffer is empty */
+	QVehicle poll() {
+		if (this.size == 0) {
+			return null;
+		}
+		QVehicle vehicle = this.vehicles[this.head];
+		this.vehicles[this.head] = null;
+		this.head = (this.head + 1) & (this.vehicles.length - 1);
+		this.size--;
+		return vehicle;
+	}
+
+	/** @return the i-th vehicle, counted from the first one */
+	QVehicle get(final int i) {
+		return this.vehicles[(this.head + i) & (this.vehicles.length - 1)];
+	}
+
+	/** @return the flow capacity consumption of the i-th vehicle, counted from the first one */
+	double getFlowConsumption(final int i) {
+		return this.flowConsumptions[(this.head + i) & (this.flowConsumptions.length - 1)];
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	void clear() {
+		Arrays.fill(this.vehicles, null);
+		this.head = 0;
+		this.size = 0;
+	}
+
+	private void grow() {
+		// the length stays a power of two, so the index wraps around with a mask
+		QVehicle[] newVehicles = new QVehicle[this.vehicles.length * 2];
+		double[] newFlowConsumptions = new double[newVehicles.length];
+		for (int i = 0; i < this.size; i++) {
+			newVehicles[i] = get(i);
+			newFlowConsumptions[i] = getFlowConsumption(i);
+		}
+		this.vehicles = newVehicles;
+		this.flowConsumptions = newFlowConsumptions;
+		this.head = 0;
+	}
+
+}
@@ -19,14 +19,14 @@
 package org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq;
 
 import java.util.AbstractQueue;
+import java.util.ArrayDeque;
 import java.util.Iterator;
-import java.util.LinkedList;
 
 import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicle;
 
 public final class FIFOVehicleQ extends AbstractQueue<QVehicle> implements VehicleQ<QVehicle>  {
 	
-	private final LinkedList<QVehicle> vehicleQueue = new LinkedList<>();
+	private final ArrayDeque<QVehicle> vehicleQueue = new ArrayDeque<>();
 
 	@Override
 	public boolean offer(QVehicle e) {
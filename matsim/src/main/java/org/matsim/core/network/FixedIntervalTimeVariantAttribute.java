@@ -20,7 +20,6 @@
 package org.matsim.core.network;
 
 import java.util.Arrays;
-import java.util.TreeMap;
 
 import org.matsim.core.network.NetworkChangeEvent.ChangeValue;
 import org.matsim.core.trafficmonitoring.TimeBinUtils;
@@ -36,11 +35,12 @@ final class FixedIntervalTimeVariantAttribute implements TimeVariantAttribute {
 	private final int timeSlice;
 	private final int numSlots;
 
-	private double baseValue;
-	private double[] values;
+	private volatile double baseValue;
+	/** <code>null</code> if there are no change events; replaced as a whole on recalc, so that lookups need no lock */
+	private volatile double[] values;
 
-	private int eventsCount = 0;
-	private int eventsCountWhenLastRecalc = -1;
+	private volatile int eventsCount = 0;
+	private volatile int eventsCountWhenLastRecalc = -1;
 
 	public FixedIntervalTimeVariantAttribute(int timeSlice, int maxTime) {
 		this.timeSlice = timeSlice;
@@ -54,26 +54,28 @@ final class FixedIntervalTimeVariantAttribute implements TimeVariantAttribute {
 
 	//TODO before calling this method we could convert changeEvents into a sequence of non-null changeValues
 	@Override
-	public void recalc(TreeMap<Double, NetworkChangeEvent> changeEvents, ChangeValueGetter valueGetter,
+	public void recalc(NetworkChangeEvent[] changeEvents, int changeEventsCount, ChangeValueGetter valueGetter,
 			double baseValue1) {
+		final int eventsCount = this.eventsCount;
 		this.baseValue = baseValue1;
 
 		if (eventsCount == 0) {
+			this.values = null;
+			eventsCountWhenLastRecalc = eventsCount;
 			return;
 		}
 
 		//To save memory, the array is constructed only if there is at least one ChangeEvent.
 		//This saves a lot of memory in cases when only one attribute is time variant, while
 		//the remaining two are invariant.
-		if (values == null) {
-			values = new double[numSlots];
-		}
+		double[] values = new double[numSlots];
 
 		int numEvent = 0;
 		int fromBin = 0;//inclusive
 		double currentValue = baseValue1;
 		if (changeEvents != null) {
-			for (NetworkChangeEvent event : changeEvents.values()) {
+			for (int i = 0; i < changeEventsCount; i++) {
+				NetworkChangeEvent event = changeEvents[i];
 				ChangeValue value = valueGetter.getChangeValue(event);
 				if (value != null) {
 					numEvent++;
@@ -101,21 +103,23 @@ final class FixedIntervalTimeVariantAttribute implements TimeVariantAttribute {
 			}
 		}
 		Arrays.fill(values, fromBin, values.length, currentValue);
-		eventsCountWhenLastRecalc = eventsCount;
 
-		if (numEvent != this.eventsCount) {
+		if (numEvent != eventsCount) {
 			throw new RuntimeException("Expected number of change events ("
-					+ (this.eventsCount)
+					+ (eventsCount)
 					+ ") differs from the number of events found ("
 					+ numEvent
 					+ ")!");
 		}
+		this.values = values;
+		eventsCountWhenLastRecalc = eventsCount;
 	}
 
 	@Override
 	public double getValue(final double time) {
 		Preconditions.checkArgument(!Double.isNaN(time), "NaN time is not supported");
-		if (eventsCount == 0) {
+		final double[] values = this.values;
+		if (values == null) {
 			return baseValue;
 		}
 
@@ -132,6 +136,5 @@ final class FixedIntervalTimeVariantAttribute implements TimeVariantAttribute {
 	public void clearEvents() {
 		eventsCount = 0;
 		eventsCountWhenLastRecalc = -1;
-		values = null;
 	}
 }
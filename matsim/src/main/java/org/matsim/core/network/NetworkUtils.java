@@ -451,7 +451,6 @@ public final class NetworkUtils {
 	 * @see NetworkUtils#getNearestLinkExactly(Network, Coord)
      */
     public static Link getNearestLink(Network network, final Coord coord) {
-        Link nearestLink = null;
         Node nearestNode = NetworkUtils.getNearestNode((network),coord);
         if ( nearestNode == null ) {
             log.warn("nearestNode not found. Will probably crash eventually.  Maybe network for requested mode does not exist (i.e. links not annotated accordingly)?  Maybe run NetworkCleaner?  " +
@@ -464,21 +463,33 @@ public final class NetworkUtils {
         }
 
         // now find nearest link from the nearest node
+        Link nearestLink = getNearestIncidentLink(nearestNode, coord);
+        if ( nearestLink == null ) {
+            log.warn(network + "[nearestLink not found.  Will probably crash eventually ...  Maybe run NetworkCleaner?]" ) ;
+        }
+        return nearestLink;
+    }
+
+    /**
+     * Finds the link closest to <code>coord</code> among the in- and out-links of <code>node</code>, as
+     * {@link #getNearestLink(Network, Coord)} does for the node nearest to the coordinate.
+     *
+     * @return the nearest incident link, or <code>null</code> if the node has no links
+     */
+    public static Link getNearestIncidentLink(Node node, final Coord coord) {
         // [balmermi] it checks now ALL incident links, not only the outgoing ones.
         // TODO [balmermi] Now it finds the first of the typically two nearest links (same nodes, other direction)
         // It would be nicer to find the nearest link on the "right" side of the coordinate.
         // (For Great Britain it would be the "left" side. Could be a global config param...)
+        Link nearestLink = null;
         double shortestDistance = Double.MAX_VALUE;
-        for (Link link : getIncidentLinks(nearestNode).values()) {
+        for (Link link : getIncidentLinks(node).values()) {
 		double dist = CoordUtils.distancePointLinesegment(link.getFromNode().getCoord(), link.getToNode().getCoord(), coord);
             if (dist < shortestDistance) {
                 shortestDistance = dist;
                 nearestLink = link;
             }
         }
-        if ( nearestLink == null ) {
-            log.warn(network + "[nearestLink not found.  Will probably crash eventually ...  Maybe run NetworkCleaner?]" ) ;
-        }
         return nearestLink;
     }
 
@@ -19,8 +19,6 @@
 
 package org.matsim.core.network;
 
-import java.util.TreeMap;
-
 import org.matsim.core.network.NetworkChangeEvent.ChangeValue;
 
 
@@ -51,6 +49,9 @@ public interface TimeVariantAttribute
 
 	/**
 	 * For base value, use {@link Double#NEGATIVE_INFINITY}. {@link Double#NaN} is not supported
+	 * <p>
+	 * This is called without holding a lock by several threads (e.g. the routers), so implementations must return
+	 * consistent values even while another thread is in {@link #recalc}.
 	 * @param time
 	 * @return
 	 */
@@ -58,7 +59,12 @@ public interface TimeVariantAttribute
 
 	boolean isRecalcRequired();
 
-	void recalc(TreeMap<Double, NetworkChangeEvent> changeEvents, ChangeValueGetter valueGetter, double baseValue);
+	/**
+	 * @param changeEvents the change events of the link, sorted by start time, or <code>null</code> if there are none.
+	 * Events with the same start time are applied in the order in which they were added to the link.
+	 * @param changeEventsCount the number of valid entries in <code>changeEvents</code>
+	 */
+	void recalc(NetworkChangeEvent[] changeEvents, int changeEventsCount, ChangeValueGetter valueGetter, double baseValue);
 
 	void incChangeEvents();
 
@@ -20,12 +20,19 @@
 
 package org.matsim.core.network;
 
-import java.util.TreeMap;
+import java.util.Arrays;
 
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.network.*;
 
 /**
+ * A link whose freespeed, flow capacity and number of lanes change over time according to {@link NetworkChangeEvent}s.
+ * <p>
+ * The change events of the link are kept in a plain array, which is only sorted by start time (and trimmed) when the
+ * attributes are recalculated, so that adding many events, e.g. all of a change events file, is cheap. The values
+ * over time are then looked up in the {@link TimeVariantAttribute}s without a lock, since the mobsim and the routers
+ * of several threads ask for them all the time.
+ *
  * @author laemmel
  * @author illenberger
  *
@@ -36,7 +43,11 @@ import org.matsim.api.core.v01.network.*;
 	// member variables
 	//////////////////////////////////////////////////////////////////////
 
-	private TreeMap<Double,NetworkChangeEvent> changeEvents;
+	private static final NetworkChangeEvent.StartTimeComparator START_TIME_COMPARATOR = new NetworkChangeEvent.StartTimeComparator();
+
+	private NetworkChangeEvent[] changeEvents;
+	private int changeEventsCount = 0;
+	private boolean changeEventsSorted = true;
 
 	private final TimeVariantAttribute variableFreespeed;
 	private final TimeVariantAttribute variableFlowCapacity;
@@ -84,10 +95,15 @@ import org.matsim.api.core.v01.network.*;
 	 * @param event a network change event.
 	 */
 	protected synchronized void applyEvent(final NetworkChangeEvent event) {
-		if(this.changeEvents == null)
-			this.changeEvents = new TreeMap<>();
-
-		this.changeEvents.put(event.getStartTime(), event);
+		if (this.changeEvents == null) {
+			this.changeEvents = new NetworkChangeEvent[4];
+		} else if (this.changeEventsCount == this.changeEvents.length) {
+			this.changeEvents = Arrays.copyOf(this.changeEvents, this.changeEventsCount + (this.changeEventsCount >> 1) + 1);
+		}
+		if (this.changeEventsCount > 0 && this.changeEvents[this.changeEventsCount - 1].getStartTime() > event.getStartTime()) {
+			this.changeEventsSorted = false;
+		}
+		this.changeEvents[this.changeEventsCount++] = event;
 
 		if (event.getFreespeedChange() != null) {
 			this.variableFreespeed.incChangeEvents();
@@ -107,8 +123,9 @@ import org.matsim.api.core.v01.network.*;
 	 * reset to their initial values.
 	 */
 	synchronized void clearEvents() {
-		if(this.changeEvents != null)
-			this.changeEvents.clear();
+		this.changeEvents = null;
+		this.changeEventsCount = 0;
+		this.changeEventsSorted = true;
 
 		variableFreespeed.clearEvents();
 		variableFlowCapacity.clearEvents();
@@ -121,10 +138,13 @@ import org.matsim.api.core.v01.network.*;
 	 * @return the freespeed at time <tt>time</tt>.
 	 */
 	@Override
-	public synchronized double getFreespeed(final double time) {
-
+	public double getFreespeed(final double time) {
 		if (variableFreespeed.isRecalcRequired()) {
-			recalcFreespeed();
+			synchronized (this) {
+				if (variableFreespeed.isRecalcRequired()) {
+					recalcFreespeed();
+				}
+			}
 		}
 
 		return variableFreespeed.getValue(time);
@@ -147,10 +167,13 @@ import org.matsim.api.core.v01.network.*;
 	 * @return the flow capacity at time <tt>time</tt>.
 	 */
 	@Override
-	public synchronized double getFlowCapacityPerSec(final double time) {
-
+	public double getFlowCapacityPerSec(final double time) {
 		if (variableFlowCapacity.isRecalcRequired()) {
-			recalcFlowCapacity();
+			synchronized (this) {
+				if (variableFlowCapacity.isRecalcRequired()) {
+					recalcFlowCapacity();
+				}
+			}
 		}
 
 		return variableFlowCapacity.getValue(time);
@@ -171,13 +194,13 @@ import org.matsim.api.core.v01.network.*;
 	 * @return the capacity per network's capperiod timestep
 	 */
 	@Override
-	public synchronized double getCapacity(final double time) {
+	public double getCapacity(final double time) {
 		return getFlowCapacityPerSec(time) * getCapacityPeriod();
 	}
 
 	private synchronized void recalcFlowCapacity() {
 		double baseFlowCapacityPerSec = this.getCapacity() / getCapacityPeriod();
-		variableFlowCapacity.recalc(changeEvents, TimeVariantAttribute.FLOW_CAPACITY_GETTER, baseFlowCapacityPerSec);
+		variableFlowCapacity.recalc(getSortedChangeEvents(), changeEventsCount, TimeVariantAttribute.FLOW_CAPACITY_GETTER, baseFlowCapacityPerSec);
 	}
 
 	// ---
@@ -193,9 +216,13 @@ import org.matsim.api.core.v01.network.*;
 	 * encode the (min) width of the link to calculate the flow capacity - [GL] 13may08
 	 */
 	@Override
-	public synchronized double getNumberOfLanes(final double time) {
+	public double getNumberOfLanes(final double time) {
 		if (variableLanes.isRecalcRequired()) {
-			recalcLanes();
+			synchronized (this) {
+				if (variableLanes.isRecalcRequired()) {
+					recalcLanes();
+				}
+			}
 		}
 
 		return variableLanes.getValue(time);
@@ -209,11 +236,29 @@ import org.matsim.api.core.v01.network.*;
 
 
 	private synchronized void recalcFreespeed() {
-		variableFreespeed.recalc(changeEvents, TimeVariantAttribute.FREESPEED_GETTER, this.getFreespeed() );
+		variableFreespeed.recalc(getSortedChangeEvents(), changeEventsCount, TimeVariantAttribute.FREESPEED_GETTER, this.getFreespeed() );
 	}
 
 	private synchronized void recalcLanes() {
-		variableLanes.recalc(changeEvents, TimeVariantAttribute.LANES_GETTER, this.getNumberOfLanes() );
+		variableLanes.recalc(getSortedChangeEvents(), changeEventsCount, TimeVariantAttribute.LANES_GETTER, this.getNumberOfLanes() );
+	}
+
+	/**
+	 * Sorts the change events by start time if events were added out of order, and trims the array, since usually all
+	 * events are added before the first recalculation. The sort is stable, so events with the same start time are
+	 * applied in the order in which they were added.
+	 */
+	private synchronized NetworkChangeEvent[] getSortedChangeEvents() {
+		if (this.changeEvents != null) {
+			if (!this.changeEventsSorted) {
+				Arrays.sort(this.changeEvents, 0, this.changeEventsCount, START_TIME_COMPARATOR);
+				this.changeEventsSorted = true;
+			}
+			if (this.changeEvents.length != this.changeEventsCount) {
+				this.changeEvents = Arrays.copyOf(this.changeEvents, this.changeEventsCount);
+			}
+		}
+		return this.changeEvents;
 	}
 }
 
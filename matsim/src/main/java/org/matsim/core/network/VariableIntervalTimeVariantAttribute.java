@@ -17,27 +17,44 @@
  *                                                                         *
  * *********************************************************************** */
 
-package org.matsim.core.network;
 
-import java.util.Arrays;
-import java.util.TreeMap;
+package org.matsim.core.network;
 
 import org.matsim.core.network.NetworkChangeEvent.ChangeValue;
 
 import com.google.common.base.Preconditions;
 
+/**
+ * Stores the values of the attribute as a timeline of two primitive arrays, the times at which the value changes
+ * and the values from these times on. Lookups search the timeline binary, but first try the entry of the previous
+ * lookup, since the mobsim asks for (nearly) increasing times, so that it usually finds the value in constant time.
+ * <p>
+ * The timeline is replaced as a whole on {@link #recalc}, so lookups need no lock.
+ */
 final class VariableIntervalTimeVariantAttribute
 implements TimeVariantAttribute
 {
-	private int aEvents = 1;
-	private double[] aValues;
-	private double[] aTimes;
+	private static final class Timeline {
+		private final double[] times;
+		private final double[] values;
+
+		private Timeline(double[] times, double[] values) {
+			this.times = times;
+			this.values = values;
+		}
+	}
+
+	private volatile int aEvents = 1;
+	private volatile Timeline timeline;
+	/** the index of the last lookup; may be read and written by several threads, so it is only a hint */
+	private int lastIndex = 0;
 
 
 	@Override
 	public boolean isRecalcRequired()
 	{
-		return (this.aTimes == null) || (this.aTimes.length != this.aEvents);
+		Timeline timeline = this.timeline;
+		return (timeline == null) || (timeline.times.length != this.aEvents);
 		// The first condition just says if there is no material, we don't need to do anything.
 		// yyyy The second condition is a bit weird.  It essentially checks if the cached data structure (aTimes) has
 		// as many entries as it should have (given by aEvents).  This does need, however, an honest calling of
@@ -51,36 +68,42 @@ implements TimeVariantAttribute
 
 
 	@Override
-	public void recalc(TreeMap<Double, NetworkChangeEvent> changeEvents,
+	public void recalc(NetworkChangeEvent[] changeEvents, int changeEventsCount,
 			ChangeValueGetter valueGetter, double baseValue)
 	{
-		this.aTimes = new double[this.aEvents];
-		this.aValues = new double[this.aEvents];
-		this.aTimes[0] = Double.NEGATIVE_INFINITY;
-		this.aValues[0] = baseValue;
+		final int aEvents = this.aEvents;
+		double[] aTimes = new double[aEvents];
+		double[] aValues = new double[aEvents];
+		aTimes[0] = Double.NEGATIVE_INFINITY;
+		aValues[0] = baseValue;
 
 		int numEvent = 0;
 		if (changeEvents != null) {
 			// go through all change events in chronological sequence:
-			for (NetworkChangeEvent event : changeEvents.values()) {
+			for (int i = 0; i < changeEventsCount; i++) {
+				NetworkChangeEvent event = changeEvents[i];
 				ChangeValue value = valueGetter.getChangeValue(event);
 				if (value != null) {
+					if (numEvent + 1 == aEvents) {
+						numEvent++; // too many events, reported below
+						continue;
+					}
 					switch( value.getType() ) {
 					case ABSOLUTE_IN_SI_UNITS:
 						// here, we just need to replace the value:
-						this.aValues[++numEvent] = value.getValue();
-						this.aTimes[numEvent] = event.getStartTime();
+						aValues[++numEvent] = value.getValue();
+						aTimes[numEvent] = event.getStartTime();
 						break;
 					case FACTOR: {
 						// there, the change event multiplies what we have so far:
-						double currentValue = this.aValues[numEvent];
-						this.aValues[++numEvent] = currentValue * value.getValue();
-						this.aTimes[numEvent] = event.getStartTime();
+						double currentValue = aValues[numEvent];
+						aValues[++numEvent] = currentValue * value.getValue();
+						aTimes[numEvent] = event.getStartTime();
 						break; }
 					case OFFSET_IN_SI_UNITS: {
-						double currentValue = this.aValues[numEvent];
-						this.aValues[++numEvent] = currentValue + value.getValue();
-						this.aTimes[numEvent] = event.getStartTime();
+						double currentValue = aValues[numEvent];
+						aValues[++numEvent] = currentValue + value.getValue();
+						aTimes[numEvent] = event.getStartTime();
 						break; }
 					default:
 						throw new RuntimeException( "unknown ChangeType" ) ;
@@ -89,10 +112,11 @@ implements TimeVariantAttribute
 			}
 		}
 
-		if (numEvent != this.aEvents - 1) {
-			throw new RuntimeException("Expected number of change events (" + (this.aEvents - 1)
+		if (numEvent != aEvents - 1) {
+			throw new RuntimeException("Expected number of change events (" + (aEvents - 1)
 					+ ") differs from the number of events found (" + numEvent + ")!");
 		}
+		this.timeline = new Timeline(aTimes, aValues);
 	}
 
 
@@ -100,10 +124,31 @@ implements TimeVariantAttribute
 	public double getValue(final double time)
 	{
 		Preconditions.checkArgument(!Double.isNaN(time), "NaN time is not supported");
-		// after we have put everything into an array by recalc, we just need a binary search:
-		int key = Arrays.binarySearch(this.aTimes, time);
-		key = key >= 0 ? key : -key - 2;
-		return this.aValues[key];
+		final Timeline timeline = this.timeline;
+		final double[] times = timeline.times;
+		if (times.length == 1) {
+			return timeline.values[0];
+		}
+
+		// the value is valid from times[index] (inclusive) to times[index + 1] (exclusive):
+		int index = this.lastIndex;
+		if (index < times.length && times[index] <= time && (index + 1 == times.length || time < times[index + 1])) {
+			return timeline.values[index];
+		}
+
+		// binary search for the last entry not after time; times[0] is -infinity, so there is always one:
+		int low = 0;
+		int high = times.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (times[mid] <= time) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		this.lastIndex = low;
+		return timeline.values[low];
 	}
 
 
@@ -117,8 +162,8 @@ implements TimeVariantAttribute
 	@Override
 	public void clearEvents()
 	{
-		aTimes = null;
-		aValues = null;
+		// the old timeline is kept for concurrent lookups until the next recalc, which is required unless it was
+		// the base value only anyway
 		aEvents = 1;
 	}
 }
@@ -0,0 +1,491 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteFactories;
+import org.matsim.core.utils.misc.OptionalTime;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Encodes the plan elements of a plan into a compact byte array, and decodes them again.
+ * <p>
+ * Ids are stored by their index, times as variable-length integers if they are full seconds,
+ * and strings (activity types, modes, attribute keys and values) by their index in a dictionary shared by all plans.
+ * Network routes are stored as list of link indices, similar to the
+ * {@link org.matsim.core.population.routes.heavycompressed.HeavyCompressedNetworkRoute}, all other routes by their
+ * route description.
+ * <p>
+ * Plan elements that cannot be restored exactly (custom implementations of activities, legs or routes, or attributes
+ * with types other than String, Double, Integer, Long and Boolean) are not encoded, see {@link #encode(List)}.
+ */
+/* package */ final class PlanElementsCodec {
+
+	private static final int ACTIVITY = 0;
+	private static final int INTERACTION_ACTIVITY = 1;
+	private static final int LEG = 2;
+
+	private static final int HAS_COORD = 1;
+	private static final int HAS_Z = 2;
+	private static final int HAS_LINK = 4;
+	private static final int HAS_FACILITY = 8;
+	private static final int HAS_ATTRIBUTES = 16;
+	private static final int HAS_ROUTING_MODE = 32;
+	private static final int HAS_NETWORK_ROUTE = 64;
+	private static final int HAS_OTHER_ROUTE = 128;
+
+	private static final int ATTR_STRING = 0;
+	private static final int ATTR_DOUBLE = 1;
+	private static final int ATTR_INTEGER = 2;
+	private static final int ATTR_LONG = 3;
+	private static final int ATTR_BOOLEAN = 4;
+
+	private static final StringDictionary DICTIONARY = new StringDictionary();
+
+	private final RouteFactories routeFactories;
+	private final Map<Class<?>, Boolean> supportedRouteClasses = new ConcurrentHashMap<>();
+
+	PlanElementsCodec(RouteFactories routeFactories) {
+		this.routeFactories = routeFactories;
+	}
+
+	/**
+	 * @return the encoded plan elements, or <code>null</code> if at least one of the plan elements cannot be encoded.
+	 */
+	byte[] encode(List<PlanElement> planElements) {
+		Output out = new Output();
+		out.writeVarInt(planElements.size());
+		for (PlanElement pe : planElements) {
+			if (pe instanceof ActivityImpl act) {
+				out.writeByte(ACTIVITY);
+				if (!writeActivity(out, act, true)) {
+					return null;
+				}
+			} else if (pe instanceof InteractionActivity act) {
+				out.writeByte(INTERACTION_ACTIVITY);
+				writeActivity(out, act, false);
+			} else if (pe instanceof LegImpl leg) {
+				out.writeByte(LEG);
+				if (!writeLeg(out, leg)) {
+					return null;
+				}
+			} else {
+				return null;
+			}
+		}
+		return out.toByteArray();
+	}
+
+	ArrayList<PlanElement> decode(byte[] data) {
+		Input in = new Input(data);
+		int count = in.readVarInt();
+		ArrayList<PlanElement> planElements = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int kind = in.readByte();
+			if (kind == LEG) {
+				planElements.add(readLeg(in));
+			} else {
+				planElements.add(readActivity(in, kind == ACTIVITY));
+			}
+		}
+		return planElements;
+	}
+
+	private static boolean writeActivity(Output out, Activity act, boolean withTimesAndAttributes) {
+		Coord coord = act.getCoord();
+		Attributes attributes = withTimesAndAttributes ? act.getAttributes() : null;
+		boolean hasAttributes = attributes != null && !attributes.isEmpty();
+		int flags = (coord == null ? 0 : HAS_COORD)
+			| (coord != null && coord.hasZ() ? HAS_Z : 0)
+			| (act.getLinkId() == null ? 0 : HAS_LINK)
+			| (act.getFacilityId() == null ? 0 : HAS_FACILITY)
+			| (hasAttributes ? HAS_ATTRIBUTES : 0);
+		out.writeVarInt(flags);
+		out.writeVarInt(DICTIONARY.index(act.getType()));
+		if (coord != null) {
+			out.writeDouble(coord.getX());
+			out.writeDouble(coord.getY());
+			if (coord.hasZ()) {
+				out.writeDouble(coord.getZ());
+			}
+		}
+		if (act.getLinkId() != null) {
+			out.writeVarInt(act.getLinkId().index());
+		}
+		if (act.getFacilityId() != null) {
+			out.writeVarInt(act.getFacilityId().index());
+		}
+		if (withTimesAndAttributes) {
+			out.writeTime(act.getStartTime());
+			out.writeTime(act.getEndTime());
+			out.writeTime(act.getMaximumDuration());
+			if (hasAttributes) {
+				return writeAttributes(out, attributes);
+			}
+		}
+		return true;
+	}
+
+	private static Activity readActivity(Input in, boolean withTimesAndAttributes) {
+		int flags = in.readVarInt();
+		String type = DICTIONARY.get(in.readVarInt());
+		Activity act = withTimesAndAttributes ? new ActivityImpl(type) : new InteractionActivity(type);
+		if ((flags & HAS_COORD) != 0) {
+			double x = in.readDouble();
+			double y = in.readDouble();
+			act.setCoord((flags & HAS_Z) != 0 ? new Coord(x, y, in.readDouble()) : new Coord(x, y));
+		}
+		if ((flags & HAS_LINK) != 0) {
+			act.setLinkId(Id.get(in.readVarInt(), Link.class));
+		}
+		if ((flags & HAS_FACILITY) != 0) {
+			act.setFacilityId(Id.get(in.readVarInt(), ActivityFacility.class));
+		}
+		if (withTimesAndAttributes) {
+			in.readTime().ifDefined(act::setStartTime);
+			in.readTime().ifDefined(act::setEndTime);
+			in.readTime().ifDefined(act::setMaximumDuration);
+			if ((flags & HAS_ATTRIBUTES) != 0) {
+				readAttributes(in, act.getAttributes());
+			}
+		}
+		return act;
+	}
+
+	private boolean writeLeg(Output out, LegImpl leg) {
+		Route route = leg.getRoute();
+		boolean isNetworkRoute = route instanceof NetworkRoute && isSupportedRoute(route, NetworkRoute.class);
+		if (route != null && !isNetworkRoute && !isSupportedRoute(route, this.routeFactories.getRouteClassForType(route.getRouteType()))) {
+			return false;
+		}
+		Attributes attributes = leg.getAttributes();
+		boolean hasAttributes = !attributes.isEmpty();
+		int flags = (leg.getRoutingMode() == null ? 0 : HAS_ROUTING_MODE)
+			| (route == null ? 0 : (isNetworkRoute ? HAS_NETWORK_ROUTE : HAS_OTHER_ROUTE))
+			| (hasAttributes ? HAS_ATTRIBUTES : 0);
+		out.writeVarInt(flags);
+		out.writeVarInt(DICTIONARY.index(leg.getMode()));
+		if (leg.getRoutingMode() != null) {
+			out.writeVarInt(DICTIONARY.index(leg.getRoutingMode()));
+		}
+		out.writeTime(leg.getDepartureTime());
+		out.writeTime(leg.getTravelTime());
+		if (route != null) {
+			out.writeVarInt(route.getStartLinkId() == null ? 0 : route.getStartLinkId().index() + 1);
+			out.writeVarInt(route.getEndLinkId() == null ? 0 : route.getEndLinkId().index() + 1);
+			out.writeTime(route.getTravelTime());
+			out.writeDouble(route.getDistance());
+			if (isNetworkRoute) {
+				NetworkRoute networkRoute = (NetworkRoute) route;
+				List<Id<Link>> linkIds = networkRoute.getLinkIds();
+				out.writeVarInt(linkIds.size());
+				for (Id<Link> linkId : linkIds) {
+					out.writeVarInt(linkId.index());
+				}
+				out.writeDouble(networkRoute.getTravelCost());
+				out.writeVarInt(networkRoute.getVehicleId() == null ? 0 : networkRoute.getVehicleId().index() + 1);
+			} else {
+				out.writeVarInt(DICTIONARY.index(route.getRouteType()));
+				out.writeString(route.getRouteDescription());
+			}
+		}
+		return !hasAttributes || writeAttributes(out, attributes);
+	}
+
+	private Leg readLeg(Input in) {
+		int flags = in.readVarInt();
+		LegImpl leg = new LegImpl(DICTIONARY.get(in.readVarInt()));
+		if ((flags & HAS_ROUTING_MODE) != 0) {
+			leg.setRoutingMode(DICTIONARY.get(in.readVarInt()));
+		}
+		in.readTime().ifDefined(leg::setDepartureTime);
+		in.readTime().ifDefined(leg::setTravelTime);
+		if ((flags & (HAS_NETWORK_ROUTE | HAS_OTHER_ROUTE)) != 0) {
+			int startLinkIndex = in.readVarInt();
+			int endLinkIndex = in.readVarInt();
+			Id<Link> startLinkId = startLinkIndex == 0 ? null : Id.get(startLinkIndex - 1, Link.class);
+			Id<Link> endLinkId = endLinkIndex == 0 ? null : Id.get(endLinkIndex - 1, Link.class);
+			OptionalTime travelTime = in.readTime();
+			double distance = in.readDouble();
+			Route route;
+			if ((flags & HAS_NETWORK_ROUTE) != 0) {
+				NetworkRoute networkRoute = this.routeFactories.createRoute(NetworkRoute.class, startLinkId, endLinkId);
+				int count = in.readVarInt();
+				List<Id<Link>> linkIds = new ArrayList<>(count);
+				for (int i = 0; i < count; i++) {
+					linkIds.add(Id.get(in.readVarInt(), Link.class));
+				}
+				networkRoute.setLinkIds(startLinkId, linkIds, endLinkId);
+				networkRoute.setTravelCost(in.readDouble());
+				int vehicleIndex = in.readVarInt();
+				if (vehicleIndex > 0) {
+					networkRoute.setVehicleId(Id.get(vehicleIndex - 1, Vehicle.class));
+				}
+				route = networkRoute;
+			} else {
+				String routeType = DICTIONARY.get(in.readVarInt());
+				route = this.routeFactories.createRoute(this.routeFactories.getRouteClassForType(routeType), startLinkId, endLinkId);
+				String description = in.readString();
+				if (description != null) {
+					route.setRouteDescription(description);
+				}
+			}
+			travelTime.ifDefinedOrElse(route::setTravelTime, route::setTravelTimeUndefined);
+			route.setDistance(distance);
+			leg.setRoute(route);
+		}
+		if ((flags & HAS_ATTRIBUTES) != 0) {
+			readAttributes(in, leg.getAttributes());
+		}
+		return leg;
+	}
+
+	/**
+	 * Only routes that the {@link RouteFactories} creates with the same implementation can be restored.
+	 */
+	private boolean isSupportedRoute(Route route, Class<? extends Route> routeClass) {
+		return this.supportedRouteClasses.computeIfAbsent(route.getClass(), c -> {
+			Route probe = this.routeFactories.createRoute(routeClass, route.getStartLinkId(), route.getEndLinkId());
+			return probe.getClass() == c && probe.getRouteType().equals(route.getRouteType());
+		});
+	}
+
+	private static boolean writeAttributes(Output out, Attributes attributes) {
+		out.writeVarInt(attributes.size());
+		for (Map.Entry<String, Object> e : attributes.getAsMap().entrySet()) {
+			out.writeVarInt(DICTIONARY.index(e.getKey()));
+			Object value = e.getValue();
+			if (value instanceof String s) {
+				out.writeByte(ATTR_STRING);
+				out.writeVarInt(DICTIONARY.index(s));
+			} else if (value instanceof Double d) {
+				out.writeByte(ATTR_DOUBLE);
+				out.writeDouble(d);
+			} else if (value instanceof Integer i) {
+				out.writeByte(ATTR_INTEGER);
+				out.writeVarLong(zigZag(i));
+			} else if (value instanceof Long l) {
+				out.writeByte(ATTR_LONG);
+				out.writeVarLong(zigZag(l));
+			} else if (value instanceof Boolean b) {
+				out.writeByte(ATTR_BOOLEAN);
+				out.writeByte(b ? 1 : 0);
+			} else {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void readAttributes(Input in, Attributes attributes) {
+		int count = in.readVarInt();
+		for (int i = 0; i < count; i++) {
+			String key = DICTIONARY.get(in.readVarInt());
+			Object value = switch (in.readByte()) {
+				case ATTR_STRING -> DICTIONARY.get(in.readVarInt());
+				case ATTR_DOUBLE -> in.readDouble();
+				case ATTR_INTEGER -> (int) unZigZag(in.readVarLong());
+				case ATTR_LONG -> unZigZag(in.readVarLong());
+				case ATTR_BOOLEAN -> in.readByte() != 0;
+				default -> throw new IllegalStateException("unknown attribute type");
+			};
+			attributes.putAttribute(key, value);
+		}
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static final class Output {
+		private byte[] buffer = new byte[256];
+		private int size = 0;
+
+		void writeByte(int b) {
+			if (this.size == this.buffer.length) {
+				this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+			}
+			this.buffer[this.size++] = (byte) b;
+		}
+
+		void writeVarInt(int value) {
+			writeVarLong(value & 0xFFFFFFFFL);
+		}
+
+		void writeVarLong(long value) {
+			while ((value & ~0x7FL) != 0) {
+				writeByte((int) ((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			writeByte((int) value);
+		}
+
+		void writeDouble(double value) {
+			long bits = Double.doubleToRawLongBits(value);
+			for (int i = 0; i < 8; i++) {
+				writeByte((int) (bits >>> (i * 8)));
+			}
+		}
+
+		/**
+		 * Times are mostly full seconds, so they are stored as variable-length integers where possible:
+		 * 0 = undefined, 1 = followed by a double, otherwise the zig-zag-encoded seconds + 2.
+		 */
+		void writeTime(OptionalTime time) {
+			if (time.isUndefined()) {
+				writeVarLong(0);
+				return;
+			}
+			double seconds = time.seconds();
+			long fullSeconds = (long) seconds;
+			if (fullSeconds == seconds && Math.abs(fullSeconds) < (1L << 60)) {
+				writeVarLong(zigZag(fullSeconds) + 2);
+			} else {
+				writeVarLong(1);
+				writeDouble(seconds);
+			}
+		}
+
+		/** Stores the length + 1, so 0 can be used for <code>null</code>. */
+		void writeString(String value) {
+			if (value == null) {
+				writeVarInt(0);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(bytes.length + 1);
+			for (byte b : bytes) {
+				writeByte(b);
+			}
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(this.buffer, this.size);
+		}
+	}
+
+	private static final class Input {
+		private final byte[] buffer;
+		private int pos = 0;
+
+		Input(byte[] buffer) {
+			this.buffer = buffer;
+		}
+
+		int readByte() {
+			return this.buffer[this.pos++] & 0xFF;
+		}
+
+		int readVarInt() {
+			return (int) readVarLong();
+		}
+
+		long readVarLong() {
+			long value = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = readByte();
+				value |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+
+		double readDouble() {
+			long bits = 0;
+			for (int i = 0; i < 8; i++) {
+				bits |= (long) readByte() << (i * 8);
+			}
+			return Double.longBitsToDouble(bits);
+		}
+
+		OptionalTime readTime() {
+			long value = readVarLong();
+			if (value == 0) {
+				return OptionalTime.undefined();
+			}
+			if (value == 1) {
+				return OptionalTime.defined(readDouble());
+			}
+			return OptionalTime.defined(unZigZag(value - 2));
+		}
+
+		String readString() {
+			int length = readVarInt() - 1;
+			if (length < 0) {
+				return null;
+			}
+			String value = new String(this.buffer, this.pos, length, StandardCharsets.UTF_8);
+			this.pos += length;
+			return value;
+		}
+	}
+
+	/**
+	 * Strings are added once and never removed, so the dictionary can be read without locking.
+	 */
+	private static final class StringDictionary {
+		private final Map<String, Integer> indices = new HashMap<>();
+		private volatile String[] strings = new String[1024];
+		private int size = 0;
+
+		synchronized int index(String value) {
+			Integer index = this.indices.get(value);
+			if (index != null) {
+				return index;
+			}
+			if (this.size == this.strings.length) {
+				this.strings = Arrays.copyOf(this.strings, this.size * 2);
+			}
+			String[] strings = this.strings;
+			strings[this.size] = value.intern();
+			this.strings = strings; // publish the new entry
+			this.indices.put(strings[this.size], this.size);
+			return this.size++;
+		}
+
+		String get(int index) {
+			return this.strings[index];
+		}
+	}
+
+}
@@ -44,6 +44,11 @@ import org.matsim.utils.objectattributes.attributable.AttributesImpl;
 
 	private ArrayList<PlanElement> actsLegs = new ArrayList<>();
 
+	// set instead of actsLegs while the plan is compacted, see compact()
+	private boolean compacted = false;
+	private byte[] compactedPlanElements = null;
+	private PlanElementsCodec codec = null;
+
 	private Double score = null;
 	private Person person = null;
 
@@ -166,17 +171,62 @@ import org.matsim.utils.objectattributes.attributable.AttributesImpl;
 
 	@Override
 	public final List<PlanElement> getPlanElements() {
-		return this.actsLegs;
+		return planElements();
 	}
 
 	@Override
 	public final void addLeg(final Leg leg) {
-		this.actsLegs.add(leg);
+		planElements().add(leg);
 	}
 
 	@Override
 	public final void addActivity(final Activity act) {
-		this.actsLegs.add(act);
+		planElements().add(act);
+	}
+
+	private ArrayList<PlanElement> planElements() {
+		return this.compacted ? materialize() : this.actsLegs;
+	}
+
+	private synchronized ArrayList<PlanElement> materialize() {
+		if (this.compacted) {
+			this.actsLegs = this.codec.decode(this.compactedPlanElements);
+			this.compactedPlanElements = null;
+			this.codec = null;
+			this.compacted = false;
+		}
+		return this.actsLegs;
+	}
+
+	/**
+	 * Replaces the plan element objects by a compact binary representation. The plan elements are restored
+	 * as soon as they are accessed again, so this should only be done for plans which are not in use, e.g.
+	 * the unselected plans during the mobsim.
+	 * <p></p>
+	 * The restored plan elements are new objects, equal to the old ones but not the same. References to the
+	 * old activities, legs or routes that are kept elsewhere (e.g. by listeners) no longer belong to the plan.
+	 * Like any other change of a plan, compacting it must happen before other threads access the plan, e.g.
+	 * before the mobsim or the replanning threads are started.
+	 *
+	 * @return <code>false</code> if the plan elements cannot be compacted, see {@link PlanElementsCodec#encode(List)}.
+	 */
+	/* package */ synchronized boolean compact(PlanElementsCodec codec) {
+		if (this.compacted) {
+			return true;
+		}
+		byte[] data = codec.encode(this.actsLegs);
+		if (data == null) {
+			return false;
+		}
+		this.compactedPlanElements = data;
+		this.codec = codec;
+		this.actsLegs = null;
+		this.compacted = true;
+		return true;
+	}
+
+	/* package */ boolean isCompacted() {
+		return this.compacted;
 	}
 
 	@Override
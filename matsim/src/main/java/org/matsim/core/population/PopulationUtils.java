@@ -1125,6 +1125,35 @@ public final class PopulationUtils {
 		reader.printPlansCount() ;
 	}
 
+	/**
+	 * Stores the plan elements of all unselected plans in a compact binary form, which typically needs only a
+	 * small fraction of the memory of the plan element objects. The plan elements are transparently restored when
+	 * they are accessed again, e.g. when the plan is selected in the replanning. The restored activities, legs and
+	 * routes are new objects, so references to the old ones kept elsewhere no longer belong to the plan.
+	 *
+	 * @return the number of plans that were compacted.
+	 */
+	public static int compactUnselectedPlans( Population population ) {
+		PlanElementsCodec codec = new PlanElementsCodec( population.getFactory().getRouteFactories() );
+		int count = 0;
+		for ( Person person : population.getPersons().values() ) {
+			Plan selectedPlan = person.getSelectedPlan();
+			for ( Plan plan : person.getPlans() ) {
+				if ( plan != selectedPlan && plan instanceof PlanImpl planImpl && !planImpl.isCompacted() && planImpl.compact( codec ) ) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return <code>true</code> if the plan elements of the plan are currently stored in compact form, see {@link #compactUnselectedPlans(Population)}.
+	 */
+	public static boolean isCompacted( Plan plan ) {
+		return plan instanceof PlanImpl planImpl && planImpl.isCompacted();
+	}
+
 	public static void writePopulation( Population population, String filename ) {
 		new PopulationWriter( population).write( filename );
 	}
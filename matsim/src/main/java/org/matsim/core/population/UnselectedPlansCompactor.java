@@ -0,0 +1,46 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.controler.events.BeforeMobsimEvent;
+import org.matsim.core.controler.listener.BeforeMobsimListener;
+
+import com.google.inject.Inject;
+
+/**
+ * Compacts the unselected plans before each mobsim, i.e. after the replanning, see
+ * {@link PopulationUtils#compactUnselectedPlans(Population)}.
+ */
+/* deliberately package */ class UnselectedPlansCompactor implements BeforeMobsimListener {
+
+	private static final Logger log = LogManager.getLogger(UnselectedPlansCompactor.class);
+
+	@Inject
+	private Population population;
+
+	@Override
+	public void notifyBeforeMobsim(BeforeMobsimEvent event) {
+		log.info("compacted " + PopulationUtils.compactUnselectedPlans(this.population) + " unselected plans.");
+	}
+
+}
@@ -32,6 +32,7 @@ import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.PlanElement;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.network.algorithms.TransportModeNetworkFilter;
+import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.routes.NetworkRoute;
 import org.matsim.core.population.routes.RouteUtils;
 import org.matsim.core.router.TripStructureUtils;
@@ -116,6 +117,10 @@ public final class PersonPrepareForSim extends AbstractPersonAlgorithm {
 
 		// make sure all the plans have valid act-locations and valid routes
 		for (Plan plan : person.getPlans()) {
+			if (plan != selectedPlan && PopulationUtils.isCompacted(plan)) {
+				// plans are only compacted after they were prepared, and cannot have changed since
+				continue;
+			}
 			boolean needsXY2Links = false;
 			boolean needsReRoute = false;
 			
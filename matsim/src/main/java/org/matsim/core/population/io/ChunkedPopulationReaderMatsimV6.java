@@ -0,0 +1,457 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ChunkedPopulationReaderMatsimV6.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.scenario.ProjectionUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.utils.objectattributes.AttributeConverter;
+import org.xml.sax.InputSource;
+
+/**
+ * Reads population_v6 files without parsing the persons with SAX. The calling thread only splits the
+ * (decompressed) data into chunks of complete <code>&lt;person&gt;</code> elements, which are then tokenized
+ * by {@link PopulationXmlScanner} and interpreted by {@link PopulationReaderMatsimV6} on multiple threads.
+ * The persons are added to the population in the order of the file.
+ * <p>
+ * Everything before the first person (the doctype, the population's attributes) is still parsed with SAX
+ * and validated against the DTD. The persons are not validated, but the reader fails on unknown elements.
+ * Person ids are created on the calling thread in the order of the file, so that their indices are the same
+ * as with the sequential reader.
+ */
+/* deliberately package */ final class ChunkedPopulationReaderMatsimV6 {
+
+	private static final Logger log = LogManager.getLogger(ChunkedPopulationReaderMatsimV6.class);
+
+	private static final String POPULATION_V6 = "population_v6.dtd";
+	private static final byte[] POPULATION_END = "</population>".getBytes(StandardCharsets.UTF_8);
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	private final String inputCRS;
+	private final String targetCRS;
+	private final Scenario scenario;
+	private final Map<Class<?>, AttributeConverter<?>> attributeConverters;
+	private final int numberOfThreads;
+
+	ChunkedPopulationReaderMatsimV6(String inputCRS, String targetCRS, Scenario scenario, Map<Class<?>, AttributeConverter<?>> attributeConverters, int numberOfThreads) {
+		this.inputCRS = inputCRS;
+		this.targetCRS = targetCRS;
+		this.scenario = scenario;
+		this.attributeConverters = attributeConverters;
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * @return <code>false</code> if the file is not in the population_v6 format, in which case nothing was read.
+	 */
+	boolean read(URL url) throws UncheckedIOException {
+		try (InputStream stream = IOUtils.getReadAheadInputStream(url)) {
+			return read(stream);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	boolean read(InputStream stream) throws IOException {
+		Splitter splitter = new Splitter(stream);
+		byte[] header = splitter.readHeader();
+		if (!isPopulationV6(header)) {
+			return false;
+		}
+		log.info("using chunked population_v6-reader with " + this.numberOfThreads + " threads.");
+
+		HeaderReader headerReader = new HeaderReader(this.inputCRS, this.targetCRS, this.scenario);
+		headerReader.putAttributeConverters(this.attributeConverters);
+		InputStream headerStream = new SequenceInputStream(new ByteArrayInputStream(header), new ByteArrayInputStream(POPULATION_END));
+		headerReader.parse(new InputSource(new InputStreamReader(headerStream, StandardCharsets.UTF_8)));
+
+		// the coordinates of the persons must be transformed in the same way as the header reader would have done it
+		String personsCRS = headerReader.fileCRS != null ? headerReader.fileCRS : this.inputCRS;
+		ConcurrentLinkedQueue<ChunkReader> readers = new ConcurrentLinkedQueue<>();
+		for (int i = 0; i < this.numberOfThreads; i++) {
+			ChunkReader reader = new ChunkReader(personsCRS, this.targetCRS, this.scenario);
+			reader.putAttributeConverters(this.attributeConverters);
+			readers.add(reader);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads, r -> {
+			Thread thread = new Thread(r, "ChunkedPopulationReader");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Deque<Future<List<Person>>> pending = new ArrayDeque<>();
+		try {
+			byte[] chunk;
+			while ((chunk = splitter.nextChunk()) != null) {
+				byte[] data = chunk;
+				pending.add(executor.submit(() -> {
+					ChunkReader reader = readers.poll();
+					try {
+						return reader.read(data);
+					} finally {
+						readers.add(reader);
+					}
+				}));
+				while (pending.size() > 2 * this.numberOfThreads) {
+					addPersons(pending.poll());
+				}
+			}
+			while (!pending.isEmpty()) {
+				addPersons(pending.poll());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return true;
+	}
+
+	private void addPersons(Future<List<Person>> future) {
+		List<Person> persons;
+		try {
+			persons = future.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new RuntimeException(e.getCause());
+		}
+		for (Person person : persons) {
+			this.scenario.getPopulation().addPerson(person);
+		}
+	}
+
+	private static boolean isPopulationV6(byte[] header) {
+		String text = new String(header, StandardCharsets.UTF_8);
+		int doctype = text.indexOf("<!DOCTYPE");
+		if (doctype < 0) {
+			return false;
+		}
+		int doctypeEnd = text.indexOf('>', doctype);
+		return text.substring(doctype, doctypeEnd < 0 ? text.length() : doctypeEnd).contains(POPULATION_V6);
+	}
+
+	/** Parses everything before the first person, and remembers the CRS given in the file. */
+	private static class HeaderReader extends PopulationReaderMatsimV6 {
+		String fileCRS = null;
+
+		HeaderReader(String inputCRS, String targetCRS, Scenario scenario) {
+			super(inputCRS, targetCRS, scenario);
+		}
+
+		@Override
+		public void endTag(String name, String content, Stack<String> context) {
+			if (ATTRIBUTES.equals(name) && POPULATION.equals(context.peek())) {
+				// the super class replaces it with the target CRS
+				this.fileCRS = ProjectionUtils.getCRS(this.plans);
+			}
+			super.endTag(name, content, context);
+		}
+	}
+
+	/** Parses a chunk of persons, but collects them instead of adding them to the population. */
+	private static class ChunkReader extends PopulationReaderMatsimV6 {
+		private final PopulationXmlScanner scanner = new PopulationXmlScanner(this, POPULATION);
+		private List<Person> persons;
+
+		ChunkReader(String inputCRS, String targetCRS, Scenario scenario) {
+			super(inputCRS, targetCRS, scenario);
+		}
+
+		List<Person> read(byte[] data) {
+			this.persons = new ArrayList<>();
+			this.scanner.scan(data, 0, data.length);
+			return this.persons;
+		}
+
+		@Override
+		public void endTag(String name, String content, Stack<String> context) {
+			if (PERSON.equals(name)) {
+				this.persons.add(this.currperson);
+				this.currperson = null;
+			} else {
+				super.endTag(name, content, context);
+			}
+		}
+	}
+
+	/**
+	 * Splits the data into the header and chunks of complete persons. It only looks at the bytes
+	 * necessary to find the boundaries of the person elements, and at the ids of the persons.
+	 * <p>
+	 * Positions stored across calls to {@link #request(int)} must be relative to {@link #start},
+	 * as the buffer may get compacted.
+	 */
+	private static final class Splitter {
+		private final InputStream stream;
+		private final PopulationXmlScanner idScanner = new PopulationXmlScanner(null);
+		private byte[] buffer = new byte[1 << 16];
+		private int start = 0;
+		private int pos = 0;
+		private int limit = 0;
+		private boolean eof = false;
+		private boolean done = false;
+
+		Splitter(InputStream stream) {
+			this.stream = stream;
+		}
+
+		/**
+		 * @return everything before the first <code>&lt;person&gt;</code>, or before the end of the population if there are no persons.
+		 */
+		byte[] readHeader() throws IOException {
+			while (findMarkup()) {
+				if (isElement("person")) {
+					break;
+				}
+				if (isElement("/population")) {
+					this.done = true;
+					break;
+				}
+				skipMarkup();
+			}
+			byte[] header = Arrays.copyOfRange(this.buffer, 0, this.pos);
+			this.start = this.pos;
+			return header;
+		}
+
+		/**
+		 * @return the next chunk of complete persons, or <code>null</code> at the end of the population.
+		 */
+		byte[] nextChunk() throws IOException {
+			while (!this.done) {
+				if (!findMarkup()) {
+					throw new UncheckedIOException(new IOException("Malformed population xml: unexpected end of file, missing </population>"));
+				}
+				if (isElement("person")) {
+					int tagStart = this.pos - this.start;
+					boolean isEmpty = skipTag();
+					createPersonId(this.start + tagStart, this.pos);
+					if (!isEmpty) {
+						skipToEndOfPerson();
+					}
+					if (this.pos - this.start >= CHUNK_SIZE) {
+						return emitChunk();
+					}
+				} else if (isElement("/population")) {
+					this.done = true;
+				} else if (isComment()) {
+					skipMarkup();
+				} else {
+					throw new UncheckedIOException(new IOException("Malformed population xml: unexpected element inside <population>: "
+							+ new String(this.buffer, this.pos, Math.min(40, this.limit - this.pos), StandardCharsets.UTF_8)));
+				}
+			}
+			return this.pos > this.start ? emitChunk() : null;
+		}
+
+		private byte[] emitChunk() {
+			byte[] chunk = Arrays.copyOfRange(this.buffer, this.start, this.pos);
+			this.start = this.pos;
+			return chunk;
+		}
+
+		private void createPersonId(int tagStart, int tagEnd) {
+			this.idScanner.readId(this.buffer, tagStart, tagEnd, PopulationReaderMatsimV6.ATTR_PERSON_ID, Person.class);
+		}
+
+		private void skipToEndOfPerson() throws IOException {
+			while (findMarkup()) {
+				if (isElement("/person")) {
+					skipTag();
+					return;
+				}
+				if (isComment() || startsWith("<![CDATA[")) {
+					skipMarkup();
+				} else {
+					this.pos++;
+				}
+			}
+			throw new UncheckedIOException(new IOException("Malformed population xml: unexpected end of file, missing </person>"));
+		}
+
+		/** Moves to the next '<', returns <code>false</code> at the end of the data. */
+		private boolean findMarkup() throws IOException {
+			while (request(1)) {
+				for (int i = this.pos; i < this.limit; i++) {
+					if (this.buffer[i] == '<') {
+						this.pos = i;
+						return true;
+					}
+				}
+				this.pos = this.limit;
+			}
+			return false;
+		}
+
+		private boolean isComment() throws IOException {
+			return startsWith("<!--");
+		}
+
+		/** Skips a comment, CDATA section, processing instruction, doctype declaration or a tag. */
+		private void skipMarkup() throws IOException {
+			if (startsWith("<!--")) {
+				skipPast("-->");
+			} else if (startsWith("<![CDATA[")) {
+				skipPast("]]>");
+			} else if (startsWith("<?")) {
+				skipPast("?>");
+			} else if (startsWith("<!")) {
+				skipDeclaration();
+			} else {
+				skipTag();
+			}
+		}
+
+		/** @return <code>true</code> if the tag is an empty-element tag */
+		private boolean skipTag() throws IOException {
+			byte quote = 0;
+			byte previous = 0;
+			while (request(1)) {
+				byte b = this.buffer[this.pos++];
+				if (quote != 0) {
+					if (b == quote) {
+						quote = 0;
+					}
+				} else if (b == '"' || b == '\'') {
+					quote = b;
+				} else if (b == '>') {
+					return previous == '/';
+				}
+				previous = b;
+			}
+			throw new UncheckedIOException(new IOException("Malformed population xml: unexpected end of file inside a tag"));
+		}
+
+		private void skipDeclaration() throws IOException {
+			byte quote = 0;
+			int brackets = 0;
+			while (request(1)) {
+				byte b = this.buffer[this.pos++];
+				if (quote != 0) {
+					if (b == quote) {
+						quote = 0;
+					}
+				} else if (b == '"' || b == '\'') {
+					quote = b;
+				} else if (b == '[') {
+					brackets++;
+				} else if (b == ']') {
+					brackets--;
+				} else if (b == '>' && brackets == 0) {
+					return;
+				}
+			}
+			throw new UncheckedIOException(new IOException("Malformed population xml: unexpected end of file inside a declaration"));
+		}
+
+		private void skipPast(String terminator) throws IOException {
+			while (request(terminator.length())) {
+				if (startsWith(terminator)) {
+					this.pos += terminator.length();
+					return;
+				}
+				this.pos++;
+			}
+			throw new UncheckedIOException(new IOException("Malformed population xml: unexpected end of file, missing " + terminator));
+		}
+
+		/** Checks if there is a tag with the given name (including a leading '/' for end tags) at the current position. */
+		private boolean isElement(String name) throws IOException {
+			if (!request(name.length() + 2) || this.buffer[this.pos] != '<') {
+				return false;
+			}
+			for (int i = 0; i < name.length(); i++) {
+				if (this.buffer[this.pos + 1 + i] != name.charAt(i)) {
+					return false;
+				}
+			}
+			byte next = this.buffer[this.pos + 1 + name.length()];
+			return next == '>' || next == '/' || next == ' ' || next == '\t' || next == '\n' || next == '\r';
+		}
+
+		private boolean startsWith(String s) throws IOException {
+			if (!request(s.length())) {
+				return false;
+			}
+			for (int i = 0; i < s.length(); i++) {
+				if (this.buffer[this.pos + i] != s.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/** Makes sure that at least <code>count</code> bytes starting at <code>pos</code> are in the buffer, if the data is long enough. */
+		private boolean request(int count) throws IOException {
+			while (this.pos + count > this.limit) {
+				if (this.eof) {
+					return false;
+				}
+				if (this.limit == this.buffer.length) {
+					if (this.start > this.buffer.length / 2) {
+						System.arraycopy(this.buffer, this.start, this.buffer, 0, this.limit - this.start);
+					} else {
+						byte[] larger = new byte[this.buffer.length * 2];
+						System.arraycopy(this.buffer, this.start, larger, 0, this.limit - this.start);
+						this.buffer = larger;
+					}
+					this.pos -= this.start;
+					this.limit -= this.start;
+					this.start = 0;
+				}
+				int read = this.stream.read(this.buffer, this.limit, this.buffer.length - this.limit);
+				if (read < 0) {
+					this.eof = true;
+				} else {
+					this.limit += read;
+				}
+			}
+			return true;
+		}
+	}
+
+}
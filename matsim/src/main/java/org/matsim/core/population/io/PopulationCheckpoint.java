@@ -0,0 +1,86 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PopulationCheckpoint.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population.io;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.controler.Checkpointable;
+import org.matsim.utils.objectattributes.AttributeConverter;
+
+import jakarta.inject.Inject;
+
+/**
+ * Stores the complete population, including all plans and their scores, in a checkpoint. The persons are
+ * restored in the same order, as this order influences replanning. Coordinates are stored in the internal CRS.
+ */
+public final class PopulationCheckpoint implements Checkpointable {
+
+	private final Scenario scenario;
+	private final Map<Class<?>, AttributeConverter<?>> attributeConverters;
+
+	@Inject
+	PopulationCheckpoint(Scenario scenario, Map<Class<?>, AttributeConverter<?>> attributeConverters) {
+		this.scenario = scenario;
+		this.attributeConverters = attributeConverters;
+	}
+
+	@Override
+	public void writeCheckpoint(DataOutputStream out) throws IOException {
+		PopulationWriterBinary writer = new PopulationWriterBinary(null, this.scenario.getPopulation(), getNumberOfThreads());
+		writer.putAttributeConverters(this.attributeConverters);
+		writer.setSortPersons(false);
+		// the writer closes the stream, but the checkpoint continues after the population
+		writer.write(new FilterOutputStream(out) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				this.out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				flush();
+			}
+		});
+	}
+
+	@Override
+	public void readCheckpoint(DataInputStream in) throws IOException {
+		Population population = this.scenario.getPopulation();
+		for (Id<Person> personId : new ArrayList<>(population.getPersons().keySet())) {
+			population.removePerson(personId);
+		}
+		new PopulationReaderBinary(null, null, this.scenario, this.attributeConverters, getNumberOfThreads()).parse(in);
+	}
+
+	private int getNumberOfThreads() {
+		return this.scenario.getConfig().global().getNumberOfThreads();
+	}
+
+}
@@ -20,6 +20,10 @@
 
 package org.matsim.core.population.io;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Stack;
@@ -32,6 +36,7 @@ import org.matsim.core.scenario.ProjectionUtils;
 import org.matsim.core.utils.geometry.CoordinateTransformation;
 import org.matsim.core.utils.geometry.transformations.IdentityTransformation;
 import org.matsim.core.utils.geometry.transformations.TransformationFactory;
+import org.matsim.core.utils.io.IOUtils;
 import org.matsim.core.utils.io.MatsimXmlParser;
 import org.matsim.utils.FeatureFlags;
 import org.matsim.utils.objectattributes.AttributeConverter;
@@ -52,6 +57,7 @@ public final class PopulationReader extends MatsimXmlParser {
 	private final static String PLANS_V4 = "plans_v4.dtd";
 	private final static String POPULATION_V5 = "population_v5.dtd";
 	private final static String POPULATION_V6 = "population_v6.dtd";
+	private final static String BINARY_EXTENSION = ".bin";
 
 	private final String inputCRS;
 	private final String targetCRS;
@@ -94,6 +100,63 @@ public final class PopulationReader extends MatsimXmlParser {
 		attributeConverters.putAll( converters );
 	}
 
+	@Override
+	public void readFile(final String filename) throws UncheckedIOException {
+		URL url = IOUtils.resolveFileOrResource(filename);
+		if (!readBinary(url) && !readChunked(url)) {
+			super.readFile(filename);
+		}
+	}
+
+	@Override
+	public void parse(final URL url) throws UncheckedIOException {
+		if (!readBinary(url) && !readChunked(url)) {
+			super.parse(url);
+		}
+	}
+
+	/**
+	 * Reads files written by {@link PopulationWriterBinary}, recognized by their extension <code>.bin</code>.
+	 *
+	 * @return <code>false</code> if the file is not a binary population file.
+	 */
+	private boolean readBinary(final URL url) {
+		if (!url.getPath().endsWith(BINARY_EXTENSION)) {
+			return false;
+		}
+		int numberOfThreads = Math.max(1, this.scenario.getConfig().global().getNumberOfThreads());
+		PopulationReaderBinary reader = new PopulationReaderBinary(this.inputCRS, this.targetCRS, this.scenario, this.attributeConverters, numberOfThreads);
+		try (InputStream stream = IOUtils.getInputStream(url)) {
+			reader.parse(stream);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (this.targetCRS != null) {
+			ProjectionUtils.putCRS(this.scenario.getPopulation(), this.targetCRS);
+		}
+		return true;
+	}
+
+	/**
+	 * Reads population_v6 files with {@link ChunkedPopulationReaderMatsimV6} if parallel IO is enabled.
+	 *
+	 * @return <code>false</code> if the file must be read with SAX, as it is in another format or the population is streamed.
+	 */
+	private boolean readChunked(final URL url) {
+		if (!FeatureFlags.useParallelIO() || this.scenario.getPopulation() instanceof StreamingPopulation) {
+			return false;
+		}
+		int numberOfThreads = Math.max(1, this.scenario.getConfig().global().getNumberOfThreads());
+		ChunkedPopulationReaderMatsimV6 reader = new ChunkedPopulationReaderMatsimV6(this.inputCRS, this.targetCRS, this.scenario, this.attributeConverters, numberOfThreads);
+		if (!reader.read(url)) {
+			return false;
+		}
+		if (this.targetCRS != null) {
+			ProjectionUtils.putCRS(this.scenario.getPopulation(), this.targetCRS);
+		}
+		return true;
+	}
+
 	@Override
 	public void startTag(final String name, final Attributes atts, final Stack<String> context) {
 		this.delegate.startTag(name, atts, context);
@@ -0,0 +1,420 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PopulationReaderBinary.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.population.PersonUtils;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteFactories;
+import org.matsim.core.router.StageActivityTypeIdentifier;
+import org.matsim.core.scenario.ProjectionUtils;
+import org.matsim.core.utils.geometry.CoordinateTransformation;
+import org.matsim.core.utils.geometry.transformations.IdentityTransformation;
+import org.matsim.core.utils.geometry.transformations.TransformationFactory;
+import org.matsim.core.utils.misc.OptionalTime;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.utils.objectattributes.AttributeConverter;
+import org.matsim.utils.objectattributes.ObjectAttributesConverter;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+import org.matsim.vehicles.Vehicle;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * Reads populations written by {@link PopulationWriterBinary}. The chunks of the file are decoded by several
+ * threads in parallel, but the persons are added to the population in the order of the file, from the calling
+ * thread. The person ids are created in the order of the file as well, so their indices do not depend on the
+ * number of threads.
+ * <p>
+ * The activities are created in the same way as the {@link PopulationReaderMatsimV6} does, i.e. an
+ * interaction activity is only used for stage activities without start and end time and a maximum duration of 0.
+ */
+/* deliberately package */ final class PopulationReaderBinary {
+
+	private static final Logger log = LogManager.getLogger(PopulationReaderBinary.class);
+
+	private final String inputCRS;
+	private final String targetCRS;
+	private final Population population;
+	private final Map<Class<?>, AttributeConverter<?>> converters;
+	private final int numberOfThreads;
+	private CoordinateTransformation coordinateTransformation = new IdentityTransformation();
+
+	PopulationReaderBinary(String inputCRS, String targetCRS, Scenario scenario, Map<Class<?>, AttributeConverter<?>> converters, int numberOfThreads) {
+		this.inputCRS = inputCRS;
+		this.targetCRS = targetCRS;
+		this.population = scenario.getPopulation();
+		this.converters = converters;
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	void parse(InputStream stream) throws UncheckedIOException {
+		log.info("starting to read binary population with " + this.numberOfThreads + " threads.");
+		ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads, r -> {
+			Thread thread = new Thread(r, "PopulationReaderBinary");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+			int magic = in.readInt();
+			int version = in.readInt();
+			if (magic != PopulationWriterBinary.MAGIC) {
+				throw new IllegalArgumentException("not a binary MATSim population file.");
+			}
+			if (version != PopulationWriterBinary.VERSION) {
+				throw new IllegalArgumentException("unsupported version of binary population file: " + version);
+			}
+			byte[] header = new byte[in.readInt()];
+			int headerSize = in.readInt();
+			in.readFully(header);
+			readHeader(ByteBuffer.wrap(Zstd.decompress(header, headerSize)));
+
+			ArrayDeque<Future<Person[]>> pending = new ArrayDeque<>();
+			while (true) {
+				int idsCompressedSize;
+				try {
+					idsCompressedSize = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				int idsSize = in.readInt();
+				int compressedSize = in.readInt();
+				int uncompressedSize = in.readInt();
+				int numberOfPersons = in.readInt();
+				byte[] ids = new byte[idsCompressedSize];
+				in.readFully(ids);
+				byte[] chunk = new byte[compressedSize];
+				in.readFully(chunk);
+
+				ByteBuffer idBuffer = ByteBuffer.wrap(Zstd.decompress(ids, idsSize));
+				List<Id<Person>> personIds = new ArrayList<>(numberOfPersons);
+				for (int i = 0; i < numberOfPersons; i++) {
+					personIds.add(Id.create(readString(idBuffer), Person.class));
+				}
+				pending.add(executor.submit(() -> new ChunkDecoder(this.coordinateTransformation, this.converters)
+					.decode(ByteBuffer.wrap(Zstd.decompress(chunk, uncompressedSize)), personIds)));
+				if (pending.size() >= 2 * this.numberOfThreads) {
+					addPersons(pending.poll());
+				}
+			}
+			while (!pending.isEmpty()) {
+				addPersons(pending.poll());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void readHeader(ByteBuffer header) {
+		this.population.setName(readString(header));
+		ObjectAttributesConverter converter = new ObjectAttributesConverter(this.converters);
+		int count = readVarInt(header);
+		for (int i = 0; i < count; i++) {
+			String name = readString(header);
+			String className = readString(header);
+			Object value = converter.convert(className, readString(header));
+			if (value != null) {
+				this.population.getAttributes().putAttribute(name, value);
+			}
+		}
+
+		String fileCRS = ProjectionUtils.getCRS(this.population);
+		if (fileCRS != null && this.targetCRS != null) {
+			if (this.inputCRS != null) {
+				log.warn("coordinate transformation defined both in config and in input file: setting from input file will be used");
+			}
+			this.coordinateTransformation = TransformationFactory.getCoordinateTransformation(fileCRS, this.targetCRS);
+			ProjectionUtils.putCRS(this.population, this.targetCRS);
+		} else if (this.inputCRS != null && this.targetCRS != null) {
+			this.coordinateTransformation = TransformationFactory.getCoordinateTransformation(this.inputCRS, this.targetCRS);
+		}
+	}
+
+	private void addPersons(Future<Person[]> chunk) {
+		Person[] persons;
+		try {
+			persons = chunk.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("could not decode binary population", e.getCause());
+		}
+		for (Person person : persons) {
+			this.population.addPerson(person);
+		}
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = readVarInt(buffer) - 1;
+		if (length < 0) {
+			return null;
+		}
+		String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+
+	private static int readVarInt(ByteBuffer buffer) {
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	private static long readVarLong(ByteBuffer buffer) {
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	/**
+	 * Decodes the persons of one chunk, see {@link PopulationWriterBinary} for the layout.
+	 */
+	private final class ChunkDecoder {
+
+		private final CoordinateTransformation coordinateTransformation;
+		private final ObjectAttributesConverter converter;
+		private final RouteFactories routeFactories = PopulationReaderBinary.this.population.getFactory().getRouteFactories();
+		private String[] dictionary;
+		private Id<Link>[] linkIds;
+		private ByteBuffer in;
+
+		ChunkDecoder(CoordinateTransformation coordinateTransformation, Map<Class<?>, AttributeConverter<?>> converters) {
+			this.coordinateTransformation = coordinateTransformation;
+			this.converter = new ObjectAttributesConverter(converters);
+		}
+
+		@SuppressWarnings("unchecked")
+		Person[] decode(ByteBuffer content, List<Id<Person>> personIds) {
+			this.in = content;
+			this.dictionary = new String[readVarInt(content) + 1];
+			for (int i = 1; i < this.dictionary.length; i++) {
+				this.dictionary[i] = readString(content);
+			}
+			this.linkIds = new Id[this.dictionary.length];
+
+			Person[] persons = new Person[personIds.size()];
+			for (int i = 0; i < persons.length; i++) {
+				persons[i] = readPerson(personIds.get(i));
+			}
+			return persons;
+		}
+
+		private Person readPerson(Id<Person> personId) {
+			Person person = PopulationUtils.getFactory().createPerson(personId);
+			readAttributes(person.getAttributes());
+			int numberOfPlans = readVarInt(this.in);
+			int selected = readVarInt(this.in) - 1;
+			for (int i = 0; i < numberOfPlans; i++) {
+				readPlan(PersonUtils.createAndAddPlan(person, i == selected));
+			}
+			return person;
+		}
+
+		private void readPlan(Plan plan) {
+			int flags = this.in.get();
+			if ((flags & 1) != 0) {
+				plan.setScore(this.in.getDouble());
+			}
+			if ((flags & 2) != 0) {
+				plan.setType(readCode());
+			}
+			readAttributes(plan.getAttributes());
+			int numberOfElements = readVarInt(this.in);
+			long[] time = {0};
+			for (int i = 0; i < numberOfElements; i++) {
+				if (this.in.get() == PopulationWriterBinary.ELEMENT_ACTIVITY) {
+					readActivity(plan, time);
+				} else {
+					readLeg(plan, time);
+				}
+			}
+		}
+
+		private void readActivity(Plan plan, long[] time) {
+			int flags = this.in.get();
+			String type = readCode();
+			Id<Link> linkId = readLinkId();
+			String facilityId = readCode();
+			Coord coord = null;
+			if ((flags & 1) != 0) {
+				double x = this.in.getDouble();
+				double y = this.in.getDouble();
+				coord = (flags & 2) != 0 ? new Coord(x, y, this.in.getDouble()) : new Coord(x, y);
+				coord = this.coordinateTransformation.transform(coord);
+			}
+			OptionalTime startTime = readTime(time);
+			OptionalTime duration = readTime(null);
+			OptionalTime endTime = readTime(time);
+
+			// same check as in the xml reader whether the times match the assumptions made in InteractionActivity
+			boolean isInteraction = StageActivityTypeIdentifier.isStageActivity(type)
+				&& startTime.isUndefined() && endTime.isUndefined() && duration.isDefined() && duration.seconds() == 0.0;
+			Activity act = isInteraction
+				? PopulationUtils.createInteractionActivityFromLinkId(type, linkId)
+				: PopulationUtils.createActivityFromLinkId(type, linkId);
+			if (facilityId != null) {
+				act.setFacilityId(Id.create(facilityId, ActivityFacility.class));
+			}
+			act.setCoord(coord);
+			if (!isInteraction) {
+				startTime.ifDefined(act::setStartTime);
+				duration.ifDefined(act::setMaximumDuration);
+				endTime.ifDefined(act::setEndTime);
+			}
+			readAttributes(act.getAttributes());
+			plan.addActivity(act);
+		}
+
+		private void readLeg(Plan plan, long[] time) {
+			Leg leg = PopulationUtils.createAndAddLeg(plan, readCode().intern());
+			leg.setRoutingMode(readCode());
+			readTime(time).ifDefined(leg::setDepartureTime);
+			readTime(null).ifDefined(leg::setTravelTime);
+			readAttributes(leg.getAttributes());
+
+			int routeKind = this.in.get();
+			if (routeKind == PopulationWriterBinary.ROUTE_NONE) {
+				return;
+			}
+			Class<? extends Route> routeClass = this.routeFactories.getRouteClassForType(readCode());
+			Id<Link> startLinkId = readLinkId();
+			Id<Link> endLinkId = readLinkId();
+			Route route = this.routeFactories.createRoute(routeClass, startLinkId, endLinkId);
+			readTime(null).ifDefined(route::setTravelTime);
+			route.setDistance(this.in.getDouble());
+			if (routeKind == PopulationWriterBinary.ROUTE_NETWORK) {
+				int numberOfLinks = readVarInt(this.in);
+				List<Id<Link>> links = new ArrayList<>(numberOfLinks);
+				for (int i = 0; i < numberOfLinks; i++) {
+					links.add(readLinkId());
+				}
+				String vehicleId = readCode();
+				double travelCost = this.in.getDouble();
+				if (route instanceof NetworkRoute networkRoute) {
+					networkRoute.setLinkIds(startLinkId, links, endLinkId);
+					if (vehicleId != null) {
+						networkRoute.setVehicleId(Id.create(vehicleId, Vehicle.class));
+					}
+					networkRoute.setTravelCost(travelCost);
+				}
+			} else {
+				String description = readCode();
+				if (description != null) {
+					route.setRouteDescription(description);
+				}
+			}
+			leg.setRoute(route);
+		}
+
+		/**
+		 * @param time the previous time within the plan, <code>null</code> for durations
+		 */
+		private OptionalTime readTime(long[] time) {
+			long value = readVarLong(this.in);
+			if (value == 0) {
+				return OptionalTime.undefined();
+			}
+			if (value == 1) {
+				return OptionalTime.defined(this.in.getDouble());
+			}
+			long delta = ((value - 2) >>> 1) ^ -((value - 2) & 1);
+			if (time == null) {
+				return OptionalTime.defined(delta);
+			}
+			time[0] += delta;
+			return OptionalTime.defined(time[0]);
+		}
+
+		private void readAttributes(Attributes attributes) {
+			int count = readVarInt(this.in);
+			for (int i = 0; i < count; i++) {
+				String name = readCode();
+				String className = readCode();
+				Object value = this.converter.convert(className, readCode());
+				if (value != null) {
+					attributes.putAttribute(name, value);
+				}
+			}
+		}
+
+		private Id<Link> readLinkId() {
+			int code = readVarInt(this.in);
+			if (code == 0) {
+				return null;
+			}
+			Id<Link> linkId = this.linkIds[code];
+			if (linkId == null) {
+				linkId = Id.createLinkId(this.dictionary[code]);
+				this.linkIds[code] = linkId;
+			}
+			return linkId;
+		}
+
+		private String readCode() {
+			return this.dictionary[readVarInt(this.in)];
+		}
+	}
+
+}
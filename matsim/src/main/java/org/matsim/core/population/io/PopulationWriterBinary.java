@@ -0,0 +1,487 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PopulationWriterBinary.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.api.internal.MatsimWriter;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.utils.geometry.CoordinateTransformation;
+import org.matsim.core.utils.geometry.transformations.IdentityTransformation;
+import org.matsim.core.utils.misc.OptionalTime;
+import org.matsim.utils.objectattributes.AttributeConverter;
+import org.matsim.utils.objectattributes.ObjectAttributesConverter;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * Writes a population in a binary format that is much smaller and faster to read than population_v6 XML,
+ * e.g. to store the plans of intermediate iterations to continue a run later on. The files are read by the
+ * {@link PopulationReader} if their name ends with <code>.bin</code>.
+ * <p>
+ * Like {@link org.matsim.core.events.algorithms.EventWriterBinary}, the persons are stored in independently
+ * compressed chunks, so that several chunks can be encoded and decoded in parallel. All strings within a chunk
+ * (ids, types, modes, attribute values, ...) are replaced by their index in a dictionary of the chunk, network
+ * routes are stored as arrays of such indices, and the times within a plan are stored as the difference to
+ * the previous time. The file layout is:
+ * <pre>
+ * file:   MAGIC VERSION header chunk*
+ * header: compressedSize uncompressedSize zstd(name attributes)
+ * chunk:  idsCompressedSize idsUncompressedSize compressedSize uncompressedSize numberOfPersons zstd(personIds) zstd(content)
+ * </pre>
+ * The person ids are compressed separately, so that the reader can create them in the order of the file
+ * before the content is decoded in parallel. See {@link ChunkEncoder} for the details of the content.
+ * <p>
+ * The persons are written ordered by their id, like {@link PopulationWriter} does. All values are stored
+ * with their full precision, so a population can be written and read again without any loss.
+ */
+public final class PopulationWriterBinary implements MatsimWriter {
+
+	private static final Logger log = LogManager.getLogger(PopulationWriterBinary.class);
+
+	public static final int MAGIC = 0x4D504F42; // "MPOB"
+	public static final int VERSION = 1;
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+	private static final int COMPRESSION_LEVEL = 3;
+
+	static final int ELEMENT_ACTIVITY = 0;
+	static final int ELEMENT_LEG = 1;
+	static final int ROUTE_NONE = 0;
+	static final int ROUTE_NETWORK = 1;
+	static final int ROUTE_GENERIC = 2;
+
+	private final CoordinateTransformation coordinateTransformation;
+	private final Population population;
+	private final int numberOfThreads;
+	private final Map<Class<?>, AttributeConverter<?>> converters = new HashMap<>();
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private boolean sortPersons = true;
+
+	public PopulationWriterBinary(final Population population) {
+		this(new IdentityTransformation(), population);
+	}
+
+	/**
+	 * @param coordinateTransformation transformation from the internal CRS to the CRS in which the file should be written
+	 */
+	public PopulationWriterBinary(final CoordinateTransformation coordinateTransformation, final Population population) {
+		this(coordinateTransformation, population, Math.min(8, Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * @param coordinateTransformation transformation from the internal CRS to the CRS in which the file should be written
+	 * @param numberOfThreads number of threads encoding and compressing the chunks
+	 */
+	public PopulationWriterBinary(final CoordinateTransformation coordinateTransformation, final Population population, final int numberOfThreads) {
+		this.coordinateTransformation = coordinateTransformation == null ? new IdentityTransformation() : coordinateTransformation;
+		this.population = population;
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	public void putAttributeConverters(final Map<Class<?>, AttributeConverter<?>> converters) {
+		this.converters.putAll(converters);
+	}
+
+	public void putAttributeConverter(final Class<?> key, final AttributeConverter<?> converter) {
+		this.converters.put(key, converter);
+	}
+
+	/**
+	 * @param chunkSize number of persons per chunk
+	 */
+	public void setChunkSize(final int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @param sortPersons whether to write the persons sorted by id, or in the order of the population
+	 */
+	/* deliberately package */ void setSortPersons(final boolean sortPersons) {
+		this.sortPersons = sortPersons;
+	}
+
+	@Override
+	public void write(final String filename) {
+		// not using IOUtils, as the file must not be compressed as a whole
+		try (OutputStream stream = new FileOutputStream(filename)) {
+			write(stream);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		log.info("Population written to: " + filename);
+	}
+
+	/**
+	 * Writes the population to the stream and closes it.
+	 */
+	public void write(final OutputStream stream) {
+		ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads, r -> {
+			Thread thread = new Thread(r, "PopulationWriterBinary");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeHeader(out);
+
+			ArrayDeque<Future<EncodedChunk>> pending = new ArrayDeque<>();
+			List<Person> chunk = new ArrayList<>(this.chunkSize);
+			for (Person person : this.sortPersons ? PopulationUtils.getSortedPersons(this.population).values() : this.population.getPersons().values()) {
+				chunk.add(person);
+				if (chunk.size() == this.chunkSize) {
+					List<Person> persons = chunk;
+					pending.add(executor.submit(() -> new ChunkEncoder(this.coordinateTransformation, this.converters).encode(persons)));
+					chunk = new ArrayList<>(this.chunkSize);
+					if (pending.size() >= 2 * this.numberOfThreads) {
+						writeChunk(out, pending.poll());
+					}
+				}
+			}
+			if (!chunk.isEmpty()) {
+				List<Person> persons = chunk;
+				pending.add(executor.submit(() -> new ChunkEncoder(this.coordinateTransformation, this.converters).encode(persons)));
+			}
+			while (!pending.isEmpty()) {
+				writeChunk(out, pending.poll());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void writeHeader(DataOutputStream out) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream content = new DataOutputStream(bytes);
+		writeString(content, this.population.getName());
+		ObjectAttributesConverter converter = new ObjectAttributesConverter(this.converters);
+		Attributes attributes = this.population.getAttributes();
+		List<String[]> values = new ArrayList<>();
+		for (Map.Entry<String, Object> entry : attributes.getAsMap().entrySet()) {
+			String converted = converter.convertToString(entry.getValue());
+			if (converted != null) {
+				values.add(new String[] {entry.getKey(), entry.getValue().getClass().getName(), converted});
+			}
+		}
+		writeVarInt(content, values.size());
+		for (String[] value : values) {
+			for (String s : value) {
+				writeString(content, s);
+			}
+		}
+		content.flush();
+		byte[] uncompressed = bytes.toByteArray();
+		byte[] compressed = Zstd.compress(uncompressed, COMPRESSION_LEVEL);
+		out.writeInt(compressed.length);
+		out.writeInt(uncompressed.length);
+		out.write(compressed);
+	}
+
+	private static void writeChunk(DataOutputStream out, Future<EncodedChunk> future) throws IOException {
+		EncodedChunk chunk;
+		try {
+			chunk = future.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("could not encode persons", e.getCause());
+		}
+		out.writeInt(chunk.ids.length);
+		out.writeInt(chunk.idsSize);
+		out.writeInt(chunk.content.length);
+		out.writeInt(chunk.contentSize);
+		out.writeInt(chunk.numberOfPersons);
+		out.write(chunk.ids);
+		out.write(chunk.content);
+	}
+
+	/** The compressed ids and content of a chunk, together with their uncompressed sizes. */
+	private record EncodedChunk(byte[] ids, int idsSize, byte[] content, int contentSize, int numberOfPersons) {
+	}
+
+	/**
+	 * Strings are written as their length + 1 followed by their UTF-8 bytes, a length of 0 stands for <code>null</code>.
+	 */
+	static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			writeVarInt(out, 0);
+			return;
+		}
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, utf8.length + 1);
+		out.write(utf8);
+	}
+
+	static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	/**
+	 * Encodes the persons of one chunk. The content consists of the dictionary (number of entries, then every
+	 * entry as string), followed by the persons:
+	 * <ul>
+	 * <li>person: attributes, number of plans, index of the selected plan + 1 (0 if none), plans</li>
+	 * <li>plan: flags (1: has score, 2: has type), score (double), type, attributes, number of elements, elements</li>
+	 * <li>activity: {@link #ELEMENT_ACTIVITY}, flags (1: has coord, 2: coord has z), type, link, facility,
+	 * x, y, z (doubles), start time, maximum duration, end time, attributes</li>
+	 * <li>leg: {@link #ELEMENT_LEG}, mode, routing mode, departure time, travel time, attributes, route</li>
+	 * <li>route: {@link #ROUTE_NONE}, or {@link #ROUTE_NETWORK}, type, start link, end link, travel time,
+	 * distance (double), number of links, links, vehicle, travel cost (double), or {@link #ROUTE_GENERIC},
+	 * type, start link, end link, travel time, distance (double), description</li>
+	 * <li>attributes: number of attributes, then name, class name and value of every attribute</li>
+	 * </ul>
+	 * All strings and ids are written as varint code: 0 for null, otherwise 1 + the index in the dictionary.
+	 * See {@link #writeTime(OptionalTime, long)} for how times are stored.
+	 */
+	private static final class ChunkEncoder {
+
+		private final CoordinateTransformation coordinateTransformation;
+		private final ObjectAttributesConverter converter;
+		private final Map<String, Integer> dictionary = new HashMap<>();
+		private final List<String> dictionaryValues = new ArrayList<>();
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+		private final DataOutputStream out = new DataOutputStream(this.bytes);
+
+		ChunkEncoder(CoordinateTransformation coordinateTransformation, Map<Class<?>, AttributeConverter<?>> converters) {
+			this.coordinateTransformation = coordinateTransformation;
+			// the converter caches converters for enums, so every thread needs its own
+			this.converter = new ObjectAttributesConverter(converters);
+		}
+
+		EncodedChunk encode(List<Person> persons) throws IOException {
+			ByteArrayOutputStream idBytes = new ByteArrayOutputStream(persons.size() * 8);
+			DataOutputStream ids = new DataOutputStream(idBytes);
+			for (Person person : persons) {
+				writeString(ids, person.getId().toString());
+				writePerson(person);
+			}
+			ids.flush();
+			this.out.flush();
+
+			ByteArrayOutputStream contentBytes = new ByteArrayOutputStream(this.bytes.size() + this.dictionaryValues.size() * 16);
+			DataOutputStream content = new DataOutputStream(contentBytes);
+			writeVarInt(content, this.dictionaryValues.size());
+			for (String value : this.dictionaryValues) {
+				writeString(content, value);
+			}
+			this.bytes.writeTo(content);
+			content.flush();
+
+			byte[] uncompressedIds = idBytes.toByteArray();
+			byte[] uncompressedContent = contentBytes.toByteArray();
+			return new EncodedChunk(
+				Zstd.compress(uncompressedIds, COMPRESSION_LEVEL), uncompressedIds.length,
+				Zstd.compress(uncompressedContent, COMPRESSION_LEVEL), uncompressedContent.length,
+				persons.size());
+		}
+
+		private void writePerson(Person person) throws IOException {
+			writeAttributes(person.getAttributes());
+			List<? extends Plan> plans = person.getPlans();
+			writeVarInt(this.out, plans.size());
+			writeVarInt(this.out, plans.indexOf(person.getSelectedPlan()) + 1);
+			for (Plan plan : plans) {
+				writePlan(plan);
+			}
+		}
+
+		private void writePlan(Plan plan) throws IOException {
+			Double score = plan.getScore();
+			this.out.writeByte((score != null ? 1 : 0) | (plan.getType() != null ? 2 : 0));
+			if (score != null) {
+				this.out.writeDouble(score);
+			}
+			if (plan.getType() != null) {
+				writeCode(plan.getType());
+			}
+			writeAttributes(plan.getAttributes());
+			List<PlanElement> elements = plan.getPlanElements();
+			writeVarInt(this.out, elements.size());
+			long time = 0;
+			for (PlanElement element : elements) {
+				if (element instanceof Activity act) {
+					time = writeActivity(act, time);
+				} else {
+					time = writeLeg((Leg) element, time);
+				}
+			}
+		}
+
+		private long writeActivity(Activity act, long time) throws IOException {
+			Coord coord = act.getCoord() == null ? null : this.coordinateTransformation.transform(act.getCoord());
+			this.out.writeByte(ELEMENT_ACTIVITY);
+			this.out.writeByte((coord != null ? 1 : 0) | (coord != null && coord.hasZ() ? 2 : 0));
+			writeCode(act.getType());
+			writeCode(act.getLinkId());
+			writeCode(act.getFacilityId());
+			if (coord != null) {
+				this.out.writeDouble(coord.getX());
+				this.out.writeDouble(coord.getY());
+				if (coord.hasZ()) {
+					this.out.writeDouble(coord.getZ());
+				}
+			}
+			time = writeTime(act.getStartTime(), time);
+			writeTime(act.getMaximumDuration(), 0);
+			time = writeTime(act.getEndTime(), time);
+			writeAttributes(act.getAttributes());
+			return time;
+		}
+
+		private long writeLeg(Leg leg, long time) throws IOException {
+			this.out.writeByte(ELEMENT_LEG);
+			writeCode(leg.getMode());
+			writeCode(leg.getRoutingMode());
+			time = writeTime(leg.getDepartureTime(), time);
+			writeTime(leg.getTravelTime(), 0);
+			writeAttributes(leg.getAttributes());
+
+			Route route = leg.getRoute();
+			if (route == null) {
+				this.out.writeByte(ROUTE_NONE);
+				return time;
+			}
+			this.out.writeByte(route instanceof NetworkRoute ? ROUTE_NETWORK : ROUTE_GENERIC);
+			writeCode(route.getRouteType());
+			writeCode(route.getStartLinkId());
+			writeCode(route.getEndLinkId());
+			writeTime(route.getTravelTime(), 0);
+			this.out.writeDouble(route.getDistance());
+			if (route instanceof NetworkRoute networkRoute) {
+				List<? extends Id<?>> linkIds = networkRoute.getLinkIds();
+				writeVarInt(this.out, linkIds.size());
+				for (Id<?> linkId : linkIds) {
+					writeCode(linkId);
+				}
+				writeCode(networkRoute.getVehicleId());
+				this.out.writeDouble(networkRoute.getTravelCost());
+			} else {
+				writeCode(route.getRouteDescription());
+			}
+			return time;
+		}
+
+		/**
+		 * Times are written as varlong: 0 if the time is undefined, 1 followed by the time as double if it is
+		 * not a whole number of seconds, and otherwise 2 + the zigzag-encoded difference to the previous time.
+		 *
+		 * @return the time to which the next time is relative
+		 */
+		private long writeTime(OptionalTime time, long previous) throws IOException {
+			if (time.isUndefined()) {
+				writeVarLong(this.out, 0);
+				return previous;
+			}
+			double seconds = time.seconds();
+			if (seconds != Math.rint(seconds) || Math.abs(seconds) > (1L << 52)) {
+				writeVarLong(this.out, 1);
+				this.out.writeDouble(seconds);
+				return previous;
+			}
+			long value = (long) seconds;
+			long delta = value - previous;
+			writeVarLong(this.out, ((delta << 1) ^ (delta >> 63)) + 2);
+			return value;
+		}
+
+		private void writeAttributes(Attributes attributes) throws IOException {
+			if (attributes.size() == 0) {
+				writeVarInt(this.out, 0);
+				return;
+			}
+			List<String> values = new ArrayList<>(attributes.size() * 3);
+			for (Map.Entry<String, Object> entry : attributes.getAsMap().entrySet()) {
+				String converted = this.converter.convertToString(entry.getValue());
+				if (converted != null) {
+					values.add(entry.getKey());
+					values.add(entry.getValue().getClass().getName());
+					values.add(converted);
+				}
+			}
+			writeVarInt(this.out, values.size() / 3);
+			for (String value : values) {
+				writeCode(value);
+			}
+		}
+
+		private void writeCode(Id<?> id) throws IOException {
+			writeCode(id == null ? null : id.toString());
+		}
+
+		private void writeCode(String value) throws IOException {
+			if (value == null) {
+				writeVarInt(this.out, 0);
+				return;
+			}
+			Integer code = this.dictionary.get(value);
+			if (code == null) {
+				this.dictionaryValues.add(value);
+				code = this.dictionaryValues.size();
+				this.dictionary.put(value, code);
+			}
+			writeVarInt(this.out, code);
+		}
+	}
+
+}
@@ -0,0 +1,398 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PopulationXmlScanner.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Stack;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.core.utils.io.MatsimXmlParser;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * A minimal, non-validating XML tokenizer working directly on UTF-8 encoded bytes. It supports
+ * what MATSim's population writers produce (elements, attributes, character content, the predefined
+ * and numeric entities, comments, CDATA sections and processing instructions), but no DTD
+ * declarations or user-defined entities. The tokens are passed to a {@link MatsimXmlParser} in the
+ * same way as the SAX-based parsing does, so existing readers can be re-used.
+ * <p>
+ * Element and attribute names are cached, so parsing does not create a new String for every tag.
+ */
+/* deliberately package */ final class PopulationXmlScanner {
+
+	private static final int NAME_CACHE_SIZE = 256; // must be a power of 2
+
+	private final MatsimXmlParser handler;
+	private final Stack<String> context = new Stack<>();
+	private final int outerDepth;
+	private final AttributesImpl atts = new AttributesImpl();
+	private final List<StringBuilder> contents = new ArrayList<>();
+	private final StringBuilder valueBuffer = new StringBuilder();
+	private final byte[][] nameKeys = new byte[NAME_CACHE_SIZE][];
+	private final String[] nameValues = new String[NAME_CACHE_SIZE];
+
+	private byte[] data;
+	private int pos;
+	private int end;
+
+	/**
+	 * @param handler receives the tags, may be <code>null</code> if only {@link #readId(byte[], int, int, String, Class)} is used.
+	 * @param outerContext the names of the elements enclosing the scanned data, e.g. <code>population</code> when scanning persons.
+	 */
+	PopulationXmlScanner(MatsimXmlParser handler, String... outerContext) {
+		this.handler = handler;
+		for (String name : outerContext) {
+			this.context.push(name);
+		}
+		this.outerDepth = outerContext.length;
+	}
+
+	void scan(byte[] data, int start, int end) {
+		this.data = data;
+		this.pos = start;
+		this.end = end;
+		while (this.pos < end) {
+			int lt = indexOf((byte) '<', this.pos);
+			if (lt > this.pos && depth() > 0) {
+				decode(this.pos, lt, this.contents.get(depth() - 1), false);
+			}
+			if (lt == end) {
+				break;
+			}
+			this.pos = lt + 1;
+			byte b = byteAt(this.pos);
+			if (b == '/') {
+				endElement();
+			} else if (b == '!') {
+				if (startsWith("!--")) {
+					this.pos = indexOf("-->", this.pos + 3) + 3;
+				} else if (startsWith("![CDATA[")) {
+					int cdataEnd = indexOf("]]>", this.pos + 8);
+					if (depth() > 0) {
+						this.contents.get(depth() - 1).append(new String(data, this.pos + 8, cdataEnd - this.pos - 8, StandardCharsets.UTF_8));
+					}
+					this.pos = cdataEnd + 3;
+				} else {
+					throw error("unsupported markup declaration");
+				}
+			} else if (b == '?') {
+				this.pos = indexOf("?>", this.pos + 1) + 2;
+			} else {
+				startElement();
+			}
+		}
+		if (depth() != 0) {
+			throw error("element " + this.context.peek() + " is not closed");
+		}
+	}
+
+	private int depth() {
+		return this.context.size() - this.outerDepth;
+	}
+
+	private void startElement() {
+		String name = readName();
+		boolean isEmpty = parseAttributes();
+		this.handler.startTag(name, this.atts, this.context);
+		this.context.push(name);
+		int depth = depth();
+		if (this.contents.size() < depth) {
+			this.contents.add(new StringBuilder());
+		}
+		this.contents.get(depth - 1).setLength(0);
+		if (isEmpty) {
+			closeElement(name);
+		}
+	}
+
+	private void endElement() {
+		this.pos++;
+		String name = readName();
+		skipWhitespace();
+		if (byteAt(this.pos) != '>') {
+			throw error("expected '>' after </" + name);
+		}
+		this.pos++;
+		if (depth() == 0 || !this.context.peek().equals(name)) {
+			throw error("unexpected end tag </" + name + ">");
+		}
+		closeElement(name);
+	}
+
+	private void closeElement(String name) {
+		this.context.pop();
+		String content = this.contents.get(depth()).toString();
+		this.handler.endTag(name, content, this.context);
+	}
+
+	/**
+	 * @return <code>true</code> if the tag is an empty-element tag, i.e. ends with <code>/&gt;</code>
+	 */
+	private boolean parseAttributes() {
+		this.atts.clear();
+		while (true) {
+			skipWhitespace();
+			byte b = byteAt(this.pos);
+			if (b == '>') {
+				this.pos++;
+				return false;
+			}
+			if (b == '/') {
+				if (byteAt(this.pos + 1) != '>') {
+					throw error("expected '/>'");
+				}
+				this.pos += 2;
+				return true;
+			}
+			String name = readName();
+			int valueEnd = readAttributeValue(name);
+			this.atts.addAttribute("", name, name, "CDATA", attributeValue(this.pos, valueEnd));
+			this.pos = valueEnd + 1;
+		}
+	}
+
+	/**
+	 * Reads the id in the attribute <code>attribute</code> of the start tag beginning at <code>start</code> (pointing to the <code>&lt;</code>).
+	 * If the value contains neither entities nor non-ASCII characters, the id is looked up directly from
+	 * the bytes, without creating a String.
+	 *
+	 * @return the id, or <code>null</code> if the tag has no such attribute
+	 */
+	<T> Id<T> readId(byte[] data, int start, int end, String attribute, Class<T> type) {
+		this.data = data;
+		this.pos = start + 1;
+		this.end = end;
+		readName();
+		while (true) {
+			skipWhitespace();
+			byte b = byteAt(this.pos);
+			if (b == '>' || b == '/') {
+				return null;
+			}
+			String name = readName();
+			int valueEnd = readAttributeValue(name);
+			if (name.equals(attribute)) {
+				if (isPlainValue(this.pos, valueEnd)) {
+					return Id.createFromBytes(this.data, this.pos, valueEnd - this.pos, type);
+				}
+				return Id.create(attributeValue(this.pos, valueEnd), type);
+			}
+			this.pos = valueEnd + 1;
+		}
+	}
+
+	/**
+	 * Reads <code>="value"</code> after the attribute name, and leaves <code>pos</code> at the start of the value.
+	 *
+	 * @return the position of the closing quote
+	 */
+	private int readAttributeValue(String name) {
+		skipWhitespace();
+		if (byteAt(this.pos) != '=') {
+			throw error("expected '=' after attribute " + name);
+		}
+		this.pos++;
+		skipWhitespace();
+		byte quote = byteAt(this.pos);
+		if (quote != '"' && quote != '\'') {
+			throw error("expected quoted value for attribute " + name);
+		}
+		this.pos++;
+		int valueEnd = indexOf(quote, this.pos);
+		if (valueEnd == this.end) {
+			throw error("unterminated value of attribute " + name);
+		}
+		return valueEnd;
+	}
+
+	private boolean isPlainValue(int from, int to) {
+		for (int i = from; i < to; i++) {
+			byte b = this.data[i];
+			if (b < 0 || b == '&' || b == '\r' || b == '\n' || b == '\t') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String attributeValue(int from, int to) {
+		if (!isPlainValue(from, to)) {
+			this.valueBuffer.setLength(0);
+			decode(from, to, this.valueBuffer, true);
+			return this.valueBuffer.toString();
+		}
+		// plain ASCII, which is a subset of both Latin-1 and UTF-8, but cheaper to convert
+		return new String(this.data, from, to - from, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Decodes UTF-8 bytes, resolves entities and normalizes line breaks (and in attribute values, all
+	 * white space characters) as required by the XML specification.
+	 */
+	private void decode(int from, int to, StringBuilder target, boolean isAttribute) {
+		int i = from;
+		while (i < to) {
+			byte b = this.data[i];
+			if (b < 0) {
+				int j = i + 1;
+				while (j < to && this.data[j] < 0) {
+					j++;
+				}
+				target.append(new String(this.data, i, j - i, StandardCharsets.UTF_8));
+				i = j;
+			} else if (b == '&') {
+				i = decodeEntity(i, to, target);
+			} else if (b == '\r') {
+				target.append(isAttribute ? ' ' : '\n');
+				i += (i + 1 < to && this.data[i + 1] == '\n') ? 2 : 1;
+			} else if (isAttribute && (b == '\n' || b == '\t')) {
+				target.append(' ');
+				i++;
+			} else {
+				target.append((char) b);
+				i++;
+			}
+		}
+	}
+
+	private int decodeEntity(int ampersand, int to, StringBuilder target) {
+		int semicolon = ampersand + 1;
+		while (semicolon < to && this.data[semicolon] != ';') {
+			semicolon++;
+		}
+		if (semicolon == to) {
+			throw error("unterminated entity reference");
+		}
+		String entity = new String(this.data, ampersand + 1, semicolon - ampersand - 1, StandardCharsets.ISO_8859_1);
+		switch (entity) {
+			case "lt" -> target.append('<');
+			case "gt" -> target.append('>');
+			case "amp" -> target.append('&');
+			case "quot" -> target.append('"');
+			case "apos" -> target.append('\'');
+			default -> {
+				if (entity.startsWith("#x")) {
+					target.appendCodePoint(Integer.parseInt(entity.substring(2), 16));
+				} else if (entity.startsWith("#")) {
+					target.appendCodePoint(Integer.parseInt(entity.substring(1)));
+				} else {
+					throw error("unknown entity &" + entity + ";");
+				}
+			}
+		}
+		return semicolon + 1;
+	}
+
+	private String readName() {
+		int start = this.pos;
+		int hash = 0;
+		while (this.pos < this.end) {
+			byte b = this.data[this.pos];
+			if (b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '>' || b == '/' || b == '=') {
+				break;
+			}
+			hash = 31 * hash + b;
+			this.pos++;
+		}
+		if (this.pos == start) {
+			throw error("expected a name");
+		}
+		int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+		byte[] key = this.nameKeys[slot];
+		if (key != null && Arrays.equals(key, 0, key.length, this.data, start, this.pos)) {
+			return this.nameValues[slot];
+		}
+		String name = new String(this.data, start, this.pos - start, StandardCharsets.UTF_8);
+		this.nameKeys[slot] = Arrays.copyOfRange(this.data, start, this.pos);
+		this.nameValues[slot] = name;
+		return name;
+	}
+
+	private void skipWhitespace() {
+		while (this.pos < this.end) {
+			byte b = this.data[this.pos];
+			if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+				return;
+			}
+			this.pos++;
+		}
+	}
+
+	private byte byteAt(int index) {
+		if (index >= this.end) {
+			throw error("unexpected end of data");
+		}
+		return this.data[index];
+	}
+
+	private boolean startsWith(String s) {
+		if (this.pos + s.length() > this.end) {
+			return false;
+		}
+		for (int i = 0; i < s.length(); i++) {
+			if (this.data[this.pos + i] != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** @return the index of the byte, or <code>end</code> if not found */
+	private int indexOf(byte b, int from) {
+		for (int i = from; i < this.end; i++) {
+			if (this.data[i] == b) {
+				return i;
+			}
+		}
+		return this.end;
+	}
+
+	private int indexOf(String s, int from) {
+		byte first = (byte) s.charAt(0);
+		for (int i = from; i + s.length() <= this.end; i++) {
+			if (this.data[i] == first) {
+				int j = 1;
+				while (j < s.length() && this.data[i + j] == s.charAt(j)) {
+					j++;
+				}
+				if (j == s.length()) {
+					return i;
+				}
+			}
+		}
+		throw error("missing " + s);
+	}
+
+	private UncheckedIOException error(String message) {
+		int lineStart = this.pos;
+		while (lineStart > 0 && this.data[lineStart - 1] != '\n') {
+			lineStart--;
+		}
+		int lineEnd = Math.min(this.end, Math.max(lineStart, this.pos) + 80);
+		String near = new String(this.data, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8).strip();
+		return new UncheckedIOException(new IOException("Malformed population xml: " + message + ", near: " + near));
+	}
+}
@@ -23,6 +23,7 @@ import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.population.BasicPlan;
 import org.matsim.api.core.v01.population.HasPlansAndId;
 import org.matsim.api.core.v01.population.Plan;
+import org.matsim.core.replanning.modules.AbstractMultithreadedModule;
 import org.matsim.core.replanning.modules.GenericPlanStrategyModule;
 import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.RandomUnscoredPlanSelector;
@@ -136,6 +137,45 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 		this.counter = 0;
 	}
 
+	/**
+	 * @return <code>true</code> if the modules of this strategy can be fused, see {@link AbstractMultithreadedModule#canBeFused(List, ReplanningContext)}.
+	 */
+	/* package */ boolean canFuseModules() {
+		return this.firstModule != null && AbstractMultithreadedModule.canBeFused(getModules(), this.replanningContext);
+	}
+
+	/**
+	 * Instead of {@link #finish()}: prepares all but the first module and hands them the plans, but does not finish
+	 * them. The returned modules must then be finished by {@link AbstractMultithreadedModule#finishReplanning(List)},
+	 * and afterwards {@link #finishFused()} be called.
+	 */
+	/* package */ List<AbstractMultithreadedModule> prepareFusedModules() {
+		for (GenericPlanStrategyModule<T> module : this.modules) {
+			module.prepareReplanning(this.replanningContext);
+			for (T plan : this.plans) {
+				module.handlePlan(plan);
+			}
+		}
+		List<AbstractMultithreadedModule> chain = new ArrayList<>();
+		for (Object module : getModules()) {
+			chain.add((AbstractMultithreadedModule) module);
+		}
+		return chain;
+	}
+
+	/* package */ void finishFused() {
+		this.plans.clear();
+		log.info("Plan-Strategy finished, " + this.counter + " plans handled. Strategy: " + this.toString());
+		this.counter = 0;
+	}
+
+	private List<GenericPlanStrategyModule<T>> getModules() {
+		List<GenericPlanStrategyModule<T>> all = new ArrayList<>();
+		all.add(this.firstModule);
+		all.addAll(this.modules);
+		return all;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder name = new StringBuilder(20);
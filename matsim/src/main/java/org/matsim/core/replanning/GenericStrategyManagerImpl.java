@@ -18,13 +18,18 @@
  * *********************************************************************** */
 package org.matsim.core.replanning;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.logging.log4j.LogManager;
@@ -33,6 +38,7 @@ import org.matsim.api.core.v01.population.*;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.replanning.choosers.StrategyChooser;
 import org.matsim.core.replanning.choosers.WeightedStrategyChooser;
+import org.matsim.core.replanning.modules.AbstractMultithreadedModule;
 import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.GenericWorstPlanForRemovalSelector;
 import org.matsim.core.replanning.selectors.RandomPlanSelector;
@@ -240,8 +246,22 @@ public class GenericStrategyManagerImpl<PL extends BasicPlan, AG extends HasPlan
 		}
 
 		// finally make sure all strategies have finished there work
+		boolean fuse = replanningContext != null && replanningContext.isFusingStrategyModules();
+		List<GenericPlanStrategyImpl<PL, AG>> fused = new ArrayList<>();
+		List<List<AbstractMultithreadedModule>> chains = new ArrayList<>();
 		for (GenericPlanStrategy<PL, AG> strategy : distinctStrategies()) {
-			strategy.finish();
+			if (fuse && strategy instanceof GenericPlanStrategyImpl<PL, AG> impl && impl.canFuseModules()) {
+				// the modules are prepared in the same order as without fusing, so they get the same local random seeds, but all before any plan is handled
+				chains.add(impl.prepareFusedModules());
+				fused.add(impl);
+			} else {
+				strategy.finish();
+			}
+		}
+		if (!chains.isEmpty()) {
+			// one pass over the plans for all fused strategies
+			AbstractMultithreadedModule.finishReplanning(chains);
+			fused.forEach(GenericPlanStrategyImpl::finishFused);
 		}
 
 	}
@@ -363,6 +383,59 @@ public class GenericStrategyManagerImpl<PL extends BasicPlan, AG extends HasPlan
 		this.removalPlanSelector = planSelector;
 	}
 
+	/**
+	 * Writes the current weights of the strategies, together with the iterations of the change requests that are still
+	 * pending.  Used for checkpoints, see {@link StrategyManagerCheckpoint}.
+	 */
+	final void writeWeights(DataOutputStream out) throws IOException {
+		out.writeInt(weightsPerSubpopulation.size());
+		for (Map.Entry<String, StrategyWeights<PL, AG>> entry : weightsPerSubpopulation.entrySet()) {
+			out.writeBoolean(entry.getKey() != null);
+			if (entry.getKey() != null) {
+				out.writeUTF(entry.getKey());
+			}
+			StrategyWeights<PL, AG> weights = entry.getValue();
+			out.writeInt(weights.weights.size());
+			for (double weight : weights.weights) {
+				out.writeDouble(weight);
+			}
+			// not recomputed from the weights, as the sum depends on the order of all changes so far
+			out.writeDouble(weights.totalWeights);
+			out.writeInt(weights.changeRequests.size());
+			for (int iteration : weights.changeRequests.keySet()) {
+				out.writeInt(iteration);
+			}
+		}
+	}
+
+	/**
+	 * Restores the weights written by {@link #writeWeights(DataOutputStream)}.  The strategies must have been added in the
+	 * same order as in the run which wrote them.  Change requests which were already applied in that run are dropped, so
+	 * they do not overwrite the restored weights.
+	 */
+	final void readWeights(DataInputStream in) throws IOException {
+		int numberOfSubpopulations = in.readInt();
+		for (int i = 0; i < numberOfSubpopulations; i++) {
+			String subpopulation = in.readBoolean() ? in.readUTF() : null;
+			StrategyWeights<PL, AG> weights = getStrategyWeights(subpopulation);
+			int numberOfStrategies = in.readInt();
+			if (numberOfStrategies != weights.weights.size()) {
+				throw new IllegalStateException("The checkpoint contains " + numberOfStrategies + " strategies for subpopulation " + subpopulation
+						+ ", but " + weights.weights.size() + " are configured.");
+			}
+			for (int j = 0; j < numberOfStrategies; j++) {
+				weights.weights.set(j, in.readDouble());
+			}
+			weights.totalWeights = in.readDouble();
+			Set<Integer> pending = new HashSet<>();
+			int numberOfChangeRequests = in.readInt();
+			for (int j = 0; j < numberOfChangeRequests; j++) {
+				pending.add(in.readInt());
+			}
+			weights.changeRequests.keySet().retainAll(pending);
+		}
+	}
+
 	final int getMaxPlansPerAgent() {
 		return this.maxPlansPerAgent ;
 	}
@@ -19,6 +19,9 @@
 
 package org.matsim.core.replanning;
 
+import org.matsim.core.replanning.modules.ReplanningPool;
+import org.matsim.core.replanning.modules.TripRouterPool;
+
 /**
  * A partial, inside view of the Controler which is available during replanning.
  * @author michaz
@@ -31,4 +34,36 @@ public interface ReplanningContext {
 	 */
 	int getIteration();
 
+	/**
+	 * Whether multi-threaded strategy modules should use work stealing and per-person random seeds,
+	 * see {@link org.matsim.core.config.groups.ReplanningConfigGroup#isWorkStealing()}.
+	 */
+	default boolean isWorkStealing() {
+		return false;
+	}
+
+	/**
+	 * Whether the modules of the strategies should be fused into one pass over the plans,
+	 * see {@link org.matsim.core.config.groups.ReplanningConfigGroup#isFuseStrategyModules()}.
+	 */
+	default boolean isFusingStrategyModules() {
+		return false;
+	}
+
+	/**
+	 * The threads of the run for multi-threaded strategy modules, or <code>null</code> if the modules should start
+	 * their own threads and stop them after every replanning.
+	 */
+	default ReplanningPool getReplanningPool() {
+		return null;
+	}
+
+	/**
+	 * The trip routers that ReRoute modules hand on to the ReRoute modules after them within one iteration, or
+	 * <code>null</code> if every module should create its own.
+	 */
+	default TripRouterPool getTripRouterPool() {
+		return null;
+	}
+
 }
@@ -22,21 +22,35 @@
 
 package org.matsim.core.replanning;
 
+import org.matsim.core.config.Config;
 import org.matsim.core.controler.ControlerListenerManager;
 import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.controler.listener.ShutdownListener;
+import org.matsim.core.replanning.modules.ReplanningPool;
+import org.matsim.core.replanning.modules.TripRouterPool;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 @Singleton
-class ReplanningContextImpl implements ReplanningContext, IterationStartsListener {
+class ReplanningContextImpl implements ReplanningContext, IterationStartsListener, ShutdownListener {
 
     private int iteration;
+    private final boolean workStealing;
+    private final boolean fusingStrategyModules;
+    private final ReplanningPool replanningPool = new ReplanningPool();
+    private final TripRouterPool tripRouterPool;
 
     @Inject
-    ReplanningContextImpl(ControlerListenerManager controlerListenerManager) {
+    ReplanningContextImpl(ControlerListenerManager controlerListenerManager, Config config) {
         controlerListenerManager.addControlerListener(this);
+        this.workStealing = config.replanning().isWorkStealing();
+        this.fusingStrategyModules = config.replanning().isFuseStrategyModules();
+        // reused routers continue the random numbers of randomized routing instead of starting new ones, which changes
+        // the results. So only together with work stealing, whose results differ from the default anyway.
+        this.tripRouterPool = this.workStealing ? new TripRouterPool() : null;
     }
 
     @Override
@@ -44,8 +58,40 @@ class ReplanningContextImpl implements ReplanningContext, IterationStartsListene
         return iteration;
     }
 
+    @Override
+    public boolean isWorkStealing() {
+        return workStealing;
+    }
+
+    @Override
+    public boolean isFusingStrategyModules() {
+        return fusingStrategyModules;
+    }
+
+    @Override
+    public ReplanningPool getReplanningPool() {
+        return replanningPool;
+    }
+
+    @Override
+    public TripRouterPool getTripRouterPool() {
+        return tripRouterPool;
+    }
+
     @Override
     public void notifyIterationStarts(IterationStartsEvent event) {
         this.iteration = event.getIteration();
+        if (this.tripRouterPool != null) {
+            // the routers were created during the replanning of the last iteration
+            this.tripRouterPool.clear();
+        }
+    }
+
+    @Override
+    public void notifyShutdown(ShutdownEvent event) {
+        this.replanningPool.shutdown();
+        if (this.tripRouterPool != null) {
+            this.tripRouterPool.clear();
+        }
     }
 }
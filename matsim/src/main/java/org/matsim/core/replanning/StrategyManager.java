@@ -34,6 +34,10 @@ import org.matsim.core.replanning.selectors.WorstPlanForRemovalSelector;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -230,4 +234,12 @@ public class StrategyManager implements MatsimManager {
 	public final List<Double> getWeights(final String subpopulation) {
 		return delegate.getWeights(subpopulation);
 	}
+
+	final void writeWeights(DataOutputStream out) throws IOException {
+		delegate.writeWeights(out);
+	}
+
+	final void readWeights(DataInputStream in) throws IOException {
+		delegate.readWeights(in);
+	}
 }
@@ -0,0 +1,54 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * StrategyManagerCheckpoint.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.replanning;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.matsim.core.controler.Checkpointable;
+
+import jakarta.inject.Inject;
+
+/**
+ * Stores the weights of the strategies in a checkpoint, as they may have been changed during the run, e.g. by
+ * the {@link org.matsim.core.replanning.annealing.ReplanningAnnealer} or by change requests.
+ */
+/* deliberately package */ final class StrategyManagerCheckpoint implements Checkpointable {
+
+	private final StrategyManager strategyManager;
+
+	@Inject
+	StrategyManagerCheckpoint(StrategyManager strategyManager) {
+		this.strategyManager = strategyManager;
+	}
+
+	@Override
+	public void writeCheckpoint(DataOutputStream out) throws IOException {
+		this.strategyManager.writeWeights(out);
+	}
+
+	@Override
+	public void readCheckpoint(DataInputStream in) throws IOException {
+		this.strategyManager.readWeights(in);
+	}
+
+}
@@ -20,10 +20,13 @@
 package org.matsim.core.replanning.annealing;
 
 import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.population.Person;
@@ -31,6 +34,7 @@ import org.matsim.api.core.v01.population.Plan;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.core.config.groups.ReplanningConfigGroup;
+import org.matsim.core.controler.Checkpointable;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
 import org.matsim.core.controler.events.IterationStartsEvent;
 import org.matsim.core.controler.events.StartupEvent;
@@ -45,10 +49,13 @@ import org.matsim.core.replanning.strategies.DefaultPlanStrategiesModule.Default
 import org.matsim.core.utils.io.IOUtils;
 
 /**
+ * Anneals the configured parameters. The current values are stored in checkpoints, as some anneal types depend on the
+ * value of the previous iteration.  The strategy weights it changes are stored with the strategy manager.
+ *
  * @author fouriep, davig, jbischoff
  */
-
-public class ReplanningAnnealer implements IterationStartsListener, StartupListener {
+@Singleton
+public class ReplanningAnnealer implements IterationStartsListener, StartupListener, Checkpointable {
 
 	private static final Logger log = LogManager.getLogger(ReplanningAnnealer.class);
 	private static final String ANNEAL_FILENAME = "annealingRates.txt";
@@ -169,6 +176,36 @@ public class ReplanningAnnealer implements IterationStartsListener, StartupListe
 		writeIterationstats(currentIter, annealStats);
 	}
 
+	@Override
+	public void writeCheckpoint(DataOutputStream out) throws IOException {
+		out.writeInt(this.currentValuesPerSubpopulation.size());
+		for (Map.Entry<AnnealParameterOption, Map<String, Double>> e : this.currentValuesPerSubpopulation.entrySet()) {
+			out.writeUTF(e.getKey().name());
+			out.writeInt(e.getValue().size());
+			for (Map.Entry<String, Double> value : e.getValue().entrySet()) {
+				out.writeBoolean(value.getKey() != null);
+				if (value.getKey() != null) {
+					out.writeUTF(value.getKey());
+				}
+				out.writeDouble(value.getValue());
+			}
+		}
+	}
+
+	@Override
+	public void readCheckpoint(DataInputStream in) throws IOException {
+		int numberOfParameters = in.readInt();
+		for (int i = 0; i < numberOfParameters; i++) {
+			AnnealParameterOption parameter = AnnealParameterOption.valueOf(in.readUTF());
+			Map<String, Double> mapPerSubpopulation = this.currentValuesPerSubpopulation.computeIfAbsent(parameter, a -> new HashMap<>());
+			int numberOfValues = in.readInt();
+			for (int j = 0; j < numberOfValues; j++) {
+				String subpopulation = in.readBoolean() ? in.readUTF() : null;
+				mapPerSubpopulation.put(subpopulation, in.readDouble());
+			}
+		}
+	}
+
 	private void writeIterationstats(int currentIter, Map<String, String> annealStats) {
 		try (BufferedWriter bw = IOUtils.getAppendingBufferedWriter(outputDirectoryHierarchy.getOutputFilename(ANNEAL_FILENAME))) {
 			bw.write(Integer.toString(currentIter));
@@ -25,14 +25,23 @@ import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.replanning.PlanStrategyModule;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 import org.matsim.core.replanning.ReplanningContext;
 import org.matsim.core.utils.misc.Counter;
 
-import java.lang.Thread.UncaughtExceptionHandler;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
 
 /**
  * An abstract strategy module for running multiple plan algorithms in parallel.
@@ -41,16 +50,20 @@ import java.util.concurrent.atomic.AtomicReference;
  * Just overwrite getPlanAlgoInstance() to return an instance of your plan
  * algorithm.
  * <p></p>
- * <code>initThreads()</code> creates the threads, but does not yet start them.
- * <p></p>
- * <code>handlePlan(Plan)</code> distributes the plans equally to all threads.
- * <p></p>
- * <code>finishReplanning()</code> finally starts the threads and waits for all threads to be finished.
- * <p></p>
- * While this approach does not lead to optimal performance gains ("slow threads" vs.
- * "fast threads"), it helps building reproducible runs.  Additionally, as the threads are only
- * started after all to-be-handled plans are added, we can use unsynchronized data structures.
- * <p></p>
+ * <code>handlePlan(Plan)</code> collects the plans, <code>finishReplanning()</code> then handles them on the
+ * threads of the {@link ReplanningPool} and waits until all plans are handled. There are two ways to do this:
+ * <ul>
+ * <li>By default, the plans are distributed equally to as many plan algorithm instances as there are threads,
+ * each handling its plans in order. While this approach does not lead to optimal performance gains
+ * ("slow threads" vs. "fast threads"), it helps building reproducible runs.</li>
+ * <li>With {@link ReplanningContext#isWorkStealing()}, modules that {@link #supportsWorkStealing()} handle the
+ * plans in small tasks, which idle threads steal from busy ones. A task borrows one of the plan algorithm instances
+ * for as long as it runs. Which instance handles which plan thus depends on the scheduling of the threads. To stay
+ * reproducible, these modules create their instances with {@link #getPlanAlgoInstance(Random)} and draw their
+ * random numbers from the given generator only: it is re-seeded before every plan from the plan's person, so the
+ * results depend neither on which thread handles a plan nor on the number of threads. All other modules handle
+ * their plans as by default.</li>
+ * </ul>
  * Design comments/questions:<ul>
  * <li> As a consequence of the design, the instances that getPlanAlgoInstance() returns, need to be thread-safe.  kai, dec'12
  * For an example with discussions, see {@link tutorial.programming.multiThreadedPlanStrategy.RunWithMultithreadedModule}
@@ -61,15 +74,16 @@ import java.util.concurrent.atomic.AtomicReference;
 abstract public class AbstractMultithreadedModule implements PlanStrategyModule {
 	private final int numOfThreads;
 
-	private PlanAlgoThread[] algothreads = null;
-	private Thread[] threads = null;
 	private PlanAlgorithm directAlgo = null;
 	private String name = null;
 
-	private int count = 0;
-
-	private final AtomicReference<Throwable> hadException = new AtomicReference<>(null);
-	private final ExceptionHandler exceptionHandler = new ExceptionHandler(this.hadException);
+	private final List<Plan> plans = new ArrayList<>();
+	private PlanAlgorithm[] algos = null;
+	private boolean workStealing = false;
+	private long seed = 0;
+	private Random[] randoms = null;
+	private BlockingQueue<Integer> freeAlgos = null;
+	private Counter counter = null;
 
 	private ReplanningContext replanningContext;
 
@@ -83,6 +97,27 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	 */
 	abstract public PlanAlgorithm getPlanAlgoInstance();
 
+	/**
+	 * Used instead of {@link #getPlanAlgoInstance()} with work stealing, if this module {@link #supportsWorkStealing()}.
+	 * The returned instance must draw all its random numbers from <code>random</code>, which is re-seeded before every
+	 * plan from the plan's person. By default, <code>random</code> is ignored, which is fine for modules without random
+	 * numbers.
+	 */
+	protected PlanAlgorithm getPlanAlgoInstance(@SuppressWarnings("unused") Random random) {
+		return getPlanAlgoInstance();
+	}
+
+	/**
+	 * Whether the plan algorithm instances from {@link #getPlanAlgoInstance(Random)} give the same result for a plan
+	 * no matter which instance handles it, and after which other plans. Only such modules use work stealing. A
+	 * subclass of such a module that creates its instances differently must return <code>false</code> again.
+	 *
+	 * @return <code>false</code> by default
+	 */
+	protected boolean supportsWorkStealing() {
+		return false;
+	}
+
 	public AbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
 		this.numOfThreads = globalConfigGroup.getNumberOfThreads();
 	}
@@ -107,7 +142,11 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 			// it seems, no threads are desired :(
 			this.directAlgo = getPlanAlgoInstance();
 		} else {
-			initThreads();
+			this.workStealing = replanningContextTmp != null && replanningContextTmp.isWorkStealing() && supportsWorkStealing();
+			if (this.workStealing) {
+				this.seed = MatsimRandom.getLocalInstance().nextLong();
+			}
+			initAlgos();
 		}
 		this.afterPrepareReplanningHook(replanningContextTmp);
 	}
@@ -119,8 +158,7 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	@Override
 	public final void handlePlan(final Plan plan) {
 		if (this.directAlgo == null) {
-			this.algothreads[this.count % this.numOfThreads].addPlanToThread(plan);
-			this.count++;
+			this.plans.add(plan);
 		} else {
 			this.directAlgo.run(plan);
 		}
@@ -135,106 +173,307 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	
 	@Override
 	public final void finishReplanning() {
-		this.beforeFinishReplanningHook();
-		
-		if (this.directAlgo == null) {
-			// only try to start threads if we did not directly work on all the plans
-			log.info("[" + this.name + "] starting " + this.threads.length + " threads, handling " + this.count + " plans");
+		finishReplanning(List.of(List.of(this)));
+	}
 
-			// start threads
-			for (Thread thread : this.threads) {
-				thread.start();
+	/**
+	 * Finishes the replanning of several chains of modules in one pass. Each chain are the modules of one strategy, in
+	 * the order they would be applied, all prepared and handed the same plans in the same order. Instead of one module
+	 * handling all the plans before the next module starts, every plan is handed through all modules of its chain
+	 * before the next plan is handled, and all chains are handled on the threads at the same time.
+	 * <p>
+	 * Every module still handles its plans with the same plan algorithm instances, in the same order, as with
+	 * {@link #finishReplanning()}. But all modules are prepared before the first one handles any plan, and the
+	 * {@link #beforeFinishReplanningHook()}s of all modules are called before any plan is handled, the
+	 * {@link #afterFinishReplanningHook()}s after all plans are handled. This only gives the same results for modules
+	 * that are {@link #isFusable(ReplanningContext)}, which {@link #canBeFused(List, ReplanningContext)} checks.
+	 */
+	public static void finishReplanning(List<? extends List<? extends AbstractMultithreadedModule>> chains) {
+		for (List<? extends AbstractMultithreadedModule> chain : chains) {
+			chain.forEach(AbstractMultithreadedModule::beforeFinishReplanningHook);
+		}
+		try {
+			// only use threads if we did not directly work on all the plans
+			List<List<? extends AbstractMultithreadedModule>> threaded = new ArrayList<>();
+			for (List<? extends AbstractMultithreadedModule> chain : chains) {
+				AbstractMultithreadedModule first = chain.get(0);
+				if (first.directAlgo == null) {
+					threaded.add(chain);
+				}
 			}
-
-			// wait until each thread is finished
-			try {
-				for (Thread thread : this.threads) {
-					thread.join();
+			if (!threaded.isEmpty()) {
+				run(threaded);
+			}
+		} finally {
+			// reset
+			for (List<? extends AbstractMultithreadedModule> chain : chains) {
+				for (AbstractMultithreadedModule module : chain) {
+					module.plans.clear();
+					module.algos = null;
+					module.randoms = null;
+					module.freeAlgos = null;
+					module.replanningContext = null;
 				}
-			} catch (InterruptedException e) {
-				throw new RuntimeException(e);
 			}
-			log.info("[" + this.name + "] all " + this.threads.length + " threads finished.");
-			Throwable throwable = this.hadException.get();
-			if (throwable != null) {
-				throw new RuntimeException("Some threads crashed, thus not all plans may have been handled.", throwable);
+		}
+		for (List<? extends AbstractMultithreadedModule> chain : chains) {
+			chain.forEach(AbstractMultithreadedModule::afterFinishReplanningHook);
+		}
+	}
+
+	/**
+	 * @param replanningContext the context the modules are prepared with
+	 * @return <code>true</code> if the modules can be handed to {@link #finishReplanning(List)} as one chain without
+	 * changing the results: they all need to be {@link #isFusable(ReplanningContext) fusable}
+	 * AbstractMultithreadedModules using the same number of threads, and either all or none of them use work stealing.
+	 */
+	public static boolean canBeFused(List<?> modules, ReplanningContext replanningContext) {
+		boolean workStealing = replanningContext != null && replanningContext.isWorkStealing();
+		int numberOfThreads = -1;
+		Boolean stealing = null;
+		for (Object module : modules) {
+			if (!(module instanceof AbstractMultithreadedModule) || !((AbstractMultithreadedModule) module).isFusable(replanningContext)) {
+				return false;
+			}
+			int n = ((AbstractMultithreadedModule) module).numOfThreads;
+			if (n == 0 || (numberOfThreads != -1 && n != numberOfThreads)) {
+				return false;
 			}
+			numberOfThreads = n;
+			boolean s = workStealing && ((AbstractMultithreadedModule) module).supportsWorkStealing();
+			if (stealing != null && s != stealing) {
+				return false;
+			}
+			stealing = s;
 		}
-		// reset
-		this.algothreads = null;
-		this.threads = null;
-		this.replanningContext = null;
-		this.count = 0;
-		
-		this.afterFinishReplanningHook();
+		return !modules.isEmpty();
+	}
+
+	/**
+	 * Whether this module, prepared with <code>replanningContext</code>, gives the same results when it is fused with
+	 * other modules by {@link #finishReplanning(List)}. This is the case if
+	 * <ul>
+	 * <li>the plan algorithm instances do not depend on what other modules did to the plans or to any other state, as
+	 * they are created before the other modules of the replanning handled any plan,</li>
+	 * <li>the hooks do not depend on the other modules either, and other modules do not depend on the hooks,</li>
+	 * <li>the plan algorithms draw their random numbers only from generators created in
+	 * {@link #getPlanAlgoInstance()} or passed to {@link #getPlanAlgoInstance(Random)}, not from the shared
+	 * {@link MatsimRandom#getRandom()}, and do not create generators while handling plans.</li>
+	 * </ul>
+	 * Subclasses of a fusable module that break one of these must return <code>false</code>.
+	 *
+	 * @return <code>false</code> by default
+	 */
+	protected boolean isFusable(@SuppressWarnings("unused") ReplanningContext replanningContext) {
+		return false;
 	}
 
-	private void initThreads() {
-		if (this.threads != null) {
+	private void initAlgos() {
+		if (this.algos != null) {
 			throw new RuntimeException("threads are already initialized");
 		}
+		this.algos = new PlanAlgorithm[this.numOfThreads];
+		if (this.workStealing) {
+			this.randoms = new Random[this.numOfThreads];
+			this.freeAlgos = new LinkedBlockingQueue<>();
+			for (int i = 0; i < this.numOfThreads; i++) {
+				this.randoms[i] = new Random(this.seed);
+				this.algos[i] = getPlanAlgoInstance(this.randoms[i]);
+				this.freeAlgos.add(i);
+			}
+		} else {
+			for (int i = 0; i < this.numOfThreads; i++) {
+				this.algos[i] = getPlanAlgoInstance();
+			}
+		}
+		this.name = this.algos[0].getClass().getSimpleName();
+	}
 
-		this.hadException.set(null);
-		this.threads = new Thread[this.numOfThreads];
-		this.algothreads = new PlanAlgoThread[this.numOfThreads];
-
-		Counter counter = null;
-		// setup threads
-		for (int i = 0; i < this.numOfThreads; i++) {
-			PlanAlgorithm algo = getPlanAlgoInstance();
-			if (i == 0) {
-				this.name = algo.getClass().getSimpleName();
-				counter = new Counter("[" + this.name + "] handled plan # ");
+	private static void run(List<List<? extends AbstractMultithreadedModule>> chains) {
+		Statistics statistics = new Statistics();
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		int numberOfThreads = 0;
+		for (List<? extends AbstractMultithreadedModule> chain : chains) {
+			AbstractMultithreadedModule first = chain.get(0);
+			int n = first.numOfThreads;
+			int size = first.plans.size();
+			numberOfThreads = Math.max(numberOfThreads, n);
+			String name = chain.stream().map((AbstractMultithreadedModule m) -> m.name).collect(Collectors.joining("+"));
+			names.add(name);
+			for (AbstractMultithreadedModule module : chain) {
+				if (module.numOfThreads != n || module.workStealing != first.workStealing || module.plans.size() != size) {
+					throw new IllegalArgumentException("The modules " + name + " cannot be fused, they differ in the number of threads, work stealing or plans.");
+				}
+				module.counter = new Counter("[" + module.name + "] handled plan # ");
 			}
-			PlanAlgoThread algothread = new PlanAlgoThread(algo, counter);
-			Thread thread = new Thread(algothread, this.name + "." + i);
-			thread.setUncaughtExceptionHandler(this.exceptionHandler);
-			this.threads[i] = thread;
-			this.algothreads[i] = algothread;
+			if (first.workStealing) {
+				// small enough tasks so a slow person does not hold up a thread for long, large enough to keep the overhead low
+				int taskSize = Math.max(1, size / (n * 16));
+				log.info("[" + name + "] handling " + size + " plans with " + n + " threads, using work stealing");
+				tasks.add(new PlansTask(chain, 0, size, taskSize, statistics));
+			} else {
+				log.info("[" + name + "] handling " + size + " plans with " + n + " threads");
+				for (int i = 0; i < n; i++) {
+					int lane = i;
+					tasks.add(ForkJoinTask.adapt(() -> {
+						long start = System.nanoTime();
+						int count = 0;
+						for (int p = lane; p < size; p += n) {
+							for (AbstractMultithreadedModule module : chain) {
+								module.algos[lane].run(module.plans.get(p));
+								module.counter.incCounter();
+							}
+							count++;
+						}
+						statistics.add(System.nanoTime() - start, count);
+					}));
+				}
+			}
+		}
+		String name = String.join(", ", names);
+		ReplanningContext context = chains.get(0).get(0).replanningContext;
+		ReplanningPool pool = context == null ? null : context.getReplanningPool();
+		boolean ownPool = pool == null;
+		if (ownPool) {
+			// no threads of the run (e.g. outside of the controler), so start them only for this replanning
+			pool = new ReplanningPool();
 		}
+		long start = System.nanoTime();
+		try {
+			pool.get(numberOfThreads).invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+		} catch (RuntimeException | Error e) {
+			log.error("[" + name + "] a thread crashed.", e);
+			throw new RuntimeException("Some threads crashed, thus not all plans may have been handled.", e);
+		} finally {
+			if (ownPool) {
+				pool.shutdown();
+			}
+		}
+		statistics.log(name, System.nanoTime() - start);
+	}
+
+	private int borrowAlgo() {
+		Integer algo = this.freeAlgos.poll();
+		if (algo != null) {
+			return algo;
+		}
+		// there are as many instances as threads, so one is free unless the pool runs spare threads or the calling
+		// thread helps out. Tell the pool that we wait, so it can keep the other threads busy in the meantime.
+		AlgoBlocker blocker = new AlgoBlocker(this.freeAlgos);
+		try {
+			ForkJoinPool.managedBlock(blocker);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		return blocker.algo;
+	}
+
+	private void runWithWorkStealing(int algo, int index) {
+		Plan plan = this.plans.get(index);
+		this.randoms[algo].setSeed(getSeed(plan, index));
+		this.algos[algo].run(plan);
+		this.counter.incCounter();
+	}
+
+	private long getSeed(Plan plan, int index) {
+		long key = (plan == null || plan.getPerson() == null) ? index : plan.getPerson().getId().toString().hashCode();
+		return this.seed ^ (key * 0x9E3779B97F4A7C15L);
 	}
 
 	/* package (for a test) */ final int getNumOfThreads() {
 		return numOfThreads;
 	}
 
-	private final static class ExceptionHandler implements UncaughtExceptionHandler {
+	private static final class PlansTask extends RecursiveAction {
 
-		private final AtomicReference<Throwable> hadException;
+		private final List<? extends AbstractMultithreadedModule> chain;
+		private final int from;
+		private final int to;
+		private final int taskSize;
+		private final Statistics statistics;
 
-		public ExceptionHandler(final AtomicReference<Throwable> hadException) {
-			this.hadException = hadException;
+		PlansTask(List<? extends AbstractMultithreadedModule> chain, int from, int to, int taskSize, Statistics statistics) {
+			this.chain = chain;
+			this.from = from;
+			this.to = to;
+			this.taskSize = taskSize;
+			this.statistics = statistics;
 		}
 
 		@Override
-		public void uncaughtException(Thread t, Throwable e) {
-			log.error("Thread " + t.getName() + " died with exception. Will stop after all threads finished.", e);
-			this.hadException.set(e);
+		protected void compute() {
+			if (this.to - this.from > this.taskSize) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new PlansTask(this.chain, this.from, middle, this.taskSize, this.statistics),
+						new PlansTask(this.chain, middle, this.to, this.taskSize, this.statistics));
+				return;
+			}
+			if (this.from == this.to) {
+				return;
+			}
+			long start = System.nanoTime();
+			int[] algos = new int[this.chain.size()];
+			for (int m = 0; m < algos.length; m++) {
+				algos[m] = this.chain.get(m).borrowAlgo();
+			}
+			try {
+				for (int i = this.from; i < this.to; i++) {
+					for (int m = 0; m < algos.length; m++) {
+						this.chain.get(m).runWithWorkStealing(algos[m], i);
+					}
+				}
+			} finally {
+				for (int m = 0; m < algos.length; m++) {
+					this.chain.get(m).freeAlgos.add(algos[m]);
+				}
+			}
+			this.statistics.add(System.nanoTime() - start, this.to - this.from);
 		}
-
 	}
 
-	private final static class PlanAlgoThread implements Runnable {
-
-		private final PlanAlgorithm planAlgo;
-		private final List<Plan> plans = new LinkedList<>();
-		private final Counter counter;
+	/** Waits for a plan algorithm instance to be returned. */
+	private static final class AlgoBlocker implements ForkJoinPool.ManagedBlocker {
+		private final BlockingQueue<Integer> freeAlgos;
+		private Integer algo = null;
 
-		public PlanAlgoThread(final PlanAlgorithm algo, final Counter counter) {
-			this.planAlgo = algo;
-			this.counter = counter;
+		AlgoBlocker(BlockingQueue<Integer> freeAlgos) {
+			this.freeAlgos = freeAlgos;
 		}
 
-		public void addPlanToThread(final Plan plan) {
-			this.plans.add(plan);
+		@Override
+		public boolean block() throws InterruptedException {
+			if (this.algo == null) {
+				this.algo = this.freeAlgos.take();
+			}
+			return true;
 		}
 
 		@Override
-		public void run() {
-			for (Plan plan : this.plans) {
-				this.planAlgo.run(plan);
-				this.counter.incCounter();
+		public boolean isReleasable() {
+			if (this.algo == null) {
+				this.algo = this.freeAlgos.poll();
 			}
+			return this.algo != null;
+		}
+	}
+
+	/** Collects how long each thread was busy, to report the utilisation of the threads. */
+	private static final class Statistics {
+		private final Map<String, long[]> byThread = new ConcurrentHashMap<>();
+
+		void add(long nanos, int numberOfPlans) {
+			long[] values = this.byThread.computeIfAbsent(Thread.currentThread().getName(), k -> new long[2]);
+			// only the thread itself writes its values
+			values[0] += nanos;
+			values[1] += numberOfPlans;
+		}
+
+		void log(String name, long wallNanos) {
+			StringBuilder utilisation = new StringBuilder();
+			new TreeMap<>(this.byThread).forEach((thread, values) -> utilisation.append(String.format(" %s: %d plans, %.0f%%;", thread, values[1], 100.0 * values[0] / wallNanos)));
+			log.info(String.format("[%s] all plans handled in %.3f s. Thread utilisation:%s", name, wallNanos / 1e9, utilisation));
 		}
 	}
 }
@@ -25,6 +25,9 @@ import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.algorithms.ChooseRandomLegMode;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
+import org.matsim.core.replanning.ReplanningContext;
+
+import java.util.Random;
 
 /**
  * Changes the transportation mode of all legs in a plan to a randomly chosen
@@ -73,9 +76,24 @@ public class ChangeLegMode extends AbstractMultithreadedModule {
 
 	@Override
 	public PlanAlgorithm getPlanAlgoInstance() {
-		ChooseRandomLegMode algo = new ChooseRandomLegMode(this.availableModes, MatsimRandom.getLocalInstance(), this.allowSwitchFromListedModesOnly);
+		return getPlanAlgoInstance(MatsimRandom.getLocalInstance());
+	}
+
+	@Override
+	protected PlanAlgorithm getPlanAlgoInstance(Random random) {
+		ChooseRandomLegMode algo = new ChooseRandomLegMode(this.availableModes, random, this.allowSwitchFromListedModesOnly);
 		algo.setIgnoreCarAvailability(this.ignoreCarAvailability);
 		return algo;
 	}
 
+	@Override
+	protected boolean supportsWorkStealing() {
+		return true;
+	}
+
+	@Override
+	protected boolean isFusable(ReplanningContext replanningContext) {
+		return true;
+	}
+
 }
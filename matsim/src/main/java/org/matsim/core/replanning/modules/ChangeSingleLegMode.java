@@ -25,6 +25,9 @@ import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.algorithms.ChooseRandomSingleLegMode;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
+import org.matsim.core.replanning.ReplanningContext;
+
+import java.util.Random;
 
 /**
  * Changes the transportation mode of one leg in a plan to a randomly chosen
@@ -69,9 +72,24 @@ public class ChangeSingleLegMode extends AbstractMultithreadedModule {
 
 	@Override
 	public PlanAlgorithm getPlanAlgoInstance() {
-		ChooseRandomSingleLegMode algo = new ChooseRandomSingleLegMode(this.availableModes, MatsimRandom.getLocalInstance(), this.allowSwitchFromListedModesOnly );
+		return getPlanAlgoInstance(MatsimRandom.getLocalInstance());
+	}
+
+	@Override
+	protected PlanAlgorithm getPlanAlgoInstance(Random random) {
+		ChooseRandomSingleLegMode algo = new ChooseRandomSingleLegMode(this.availableModes, random, this.allowSwitchFromListedModesOnly );
 		algo.setIgnoreCarAvailability(this.ignoreCarAvailability);
 		return algo;
 	}
 
+	@Override
+	protected boolean supportsWorkStealing() {
+		return true;
+	}
+
+	@Override
+	protected boolean isFusable(ReplanningContext replanningContext) {
+		return true;
+	}
+
 }
@@ -23,6 +23,7 @@ import org.matsim.core.config.Config;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
+import org.matsim.core.replanning.ReplanningContext;
 import org.matsim.withinday.controller.ExecutedPlansService;
 
 /**
@@ -50,4 +51,15 @@ public class KeepLastExecuted extends AbstractMultithreadedModule {
 		};
 	}
 
+	@Override
+	protected boolean supportsWorkStealing() {
+		// no random numbers
+		return true;
+	}
+
+	@Override
+	protected boolean isFusable(ReplanningContext replanningContext) {
+		return true;
+	}
+
 }
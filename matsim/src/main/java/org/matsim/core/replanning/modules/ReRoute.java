@@ -24,11 +24,15 @@ import org.matsim.api.core.v01.Scenario;
 import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.controler.Controler;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
+import org.matsim.core.replanning.ReplanningContext;
 import org.matsim.core.router.PlanRouter;
 import org.matsim.core.router.TripRouter;
 import org.matsim.core.utils.timing.TimeInterpretation;
 import org.matsim.facilities.ActivityFacilities;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import jakarta.inject.Provider;
 
 /**
@@ -44,6 +48,9 @@ public class ReRoute extends AbstractMultithreadedModule {
 
 	private final Provider<TripRouter> tripRouterProvider;
 
+	private final List<TripRouter> tripRouters = new ArrayList<>();
+	private TripRouterPool tripRouterPool = null;
+
 	public ReRoute(ActivityFacilities facilities, Provider<TripRouter> tripRouterProvider, GlobalConfigGroup globalConfigGroup, TimeInterpretation timeInterpretation) {
 		super(globalConfigGroup);
 		this.facilities = facilities;
@@ -55,13 +62,43 @@ public class ReRoute extends AbstractMultithreadedModule {
 		this(scenario.getActivityFacilities(), tripRouterProvider, scenario.getConfig().global(), timeInterpretation);
 	}
 
+	// no work stealing: with randomized routing, the route of a person depends on the persons the same router
+	// handled before
+
+	@Override
+	protected void beforePrepareReplanningHook(ReplanningContext replanningContext) {
+		this.tripRouterPool = replanningContext == null ? null : replanningContext.getTripRouterPool();
+	}
+
 	@Override
 	public final PlanAlgorithm getPlanAlgoInstance() {
+			TripRouter tripRouter = this.tripRouterPool == null ? null : this.tripRouterPool.get(tripRouterProvider);
+			if (tripRouter == null) {
+				tripRouter = tripRouterProvider.get();
+			}
+			this.tripRouters.add(tripRouter);
 			return new PlanRouter(
-					tripRouterProvider.get(),
+					tripRouter,
 					facilities,
 					timeInterpretation
 					);
 	}
 
+	@Override
+	protected void afterFinishReplanningHook() {
+		if (this.tripRouterPool != null) {
+			// in the same order as they were used, so the next module gets them in the same order in every run
+			this.tripRouters.forEach(tripRouter -> this.tripRouterPool.add(tripRouterProvider, tripRouter));
+		}
+		this.tripRouters.clear();
+		this.tripRouterPool = null;
+	}
+
+	@Override
+	protected boolean isFusable(ReplanningContext replanningContext) {
+		// as long as the routing modules draw their random numbers from their own generators. When fused, the modules
+		// are all prepared before any hands back its routers, so they would not reuse the same routers as unfused.
+		return replanningContext == null || replanningContext.getTripRouterPool() == null;
+	}
+
 }
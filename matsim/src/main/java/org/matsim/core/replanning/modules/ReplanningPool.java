@@ -0,0 +1,60 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ReplanningPool.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.replanning.modules;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads on which {@link AbstractMultithreadedModule}s handle their plans. The threads are shared by all
+ * modules of one run, one pool per number of threads, instead of starting new threads for every module in every
+ * iteration. The {@link org.matsim.core.replanning.ReplanningContext} of a run owns its pool and shuts it down
+ * together with the controler.
+ */
+public final class ReplanningPool {
+
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+
+	private final Map<Integer, ForkJoinPool> pools = new ConcurrentHashMap<>();
+
+	/* package */ ForkJoinPool get(int numberOfThreads) {
+		return this.pools.computeIfAbsent(numberOfThreads, n -> new ForkJoinPool(n, Worker::new, null, false));
+	}
+
+	/**
+	 * Shuts down the threads once they have finished the plans they are handling.
+	 */
+	public void shutdown() {
+		this.pools.values().forEach(ForkJoinPool::shutdown);
+		this.pools.clear();
+	}
+
+	private static final class Worker extends ForkJoinWorkerThread {
+		Worker(ForkJoinPool pool) {
+			super(pool);
+			setName("ReplanningPool." + threadCounter.getAndIncrement());
+		}
+	}
+
+}
@@ -26,8 +26,11 @@ import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.algorithms.ChooseRandomLegModeForSubtour;
 import org.matsim.core.population.algorithms.PermissibleModesCalculator;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
+import org.matsim.core.replanning.ReplanningContext;
 import org.matsim.core.router.TripStructureUtils;
 
+import java.util.Random;
+
 /**
  * Changes the transportation mode of all legs of one randomly chosen subtour in a plan to a randomly chosen
  * different mode given a list of possible modes.
@@ -97,6 +100,11 @@ public class SubtourModeChoice extends AbstractMultithreadedModule {
 
 	@Override
 	public PlanAlgorithm getPlanAlgoInstance() {
+		return getPlanAlgoInstance(MatsimRandom.getLocalInstance());
+	}
+
+	@Override
+	protected PlanAlgorithm getPlanAlgoInstance(Random random) {
 		
 		final ChooseRandomLegModeForSubtour chooseRandomLegMode =
 				new ChooseRandomLegModeForSubtour(
@@ -104,9 +112,18 @@ public class SubtourModeChoice extends AbstractMultithreadedModule {
 						this.permissibleModesCalculator,
 						this.modes,
 						this.chainBasedModes,
-						MatsimRandom.getLocalInstance(), behavior, probaForChangeSingleTripMode, coordDist);
+						random, behavior, probaForChangeSingleTripMode, coordDist);
 		return chooseRandomLegMode;
 	}
 
+	@Override
+	protected boolean supportsWorkStealing() {
+		return true;
+	}
+
+	@Override
+	protected boolean isFusable(ReplanningContext replanningContext) {
+		return true;
+	}
 
 }
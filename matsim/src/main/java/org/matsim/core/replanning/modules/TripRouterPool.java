@@ -0,0 +1,59 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TripRouterPool.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.replanning.modules;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.matsim.core.router.TripRouter;
+
+import jakarta.inject.Provider;
+
+/**
+ * Trip routers which {@link ReRoute} modules hand back after their replanning, so that the ReRoute modules after them
+ * can reuse the routers instead of creating new ones. The routers are kept per provider they were created by, and
+ * handed out in the order they were handed back, so a module gets the same routers in every run. The
+ * {@link org.matsim.core.replanning.ReplanningContext} of a run clears the pool at the start of every iteration, so
+ * no router outlives the travel times of its iteration.
+ */
+public final class TripRouterPool {
+
+	private final Map<Provider<TripRouter>, Deque<TripRouter>> free = new IdentityHashMap<>();
+
+	/**
+	 * @return a router created by <code>provider</code> and handed back before, or <code>null</code> if there is none
+	 */
+	/* package */ synchronized TripRouter get(Provider<TripRouter> provider) {
+		Deque<TripRouter> routers = this.free.get(provider);
+		return routers == null ? null : routers.pollFirst();
+	}
+
+	/* package */ synchronized void add(Provider<TripRouter> provider, TripRouter tripRouter) {
+		this.free.computeIfAbsent(provider, p -> new ArrayDeque<>()).addLast(tripRouter);
+	}
+
+	public synchronized void clear() {
+		this.free.clear();
+	}
+
+}
@@ -22,6 +22,7 @@ package org.matsim.core.replanning.modules;
 import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 import org.matsim.core.population.algorithms.TripsToLegsAlgorithm;
+import org.matsim.core.replanning.ReplanningContext;
 import org.matsim.core.router.TripRouter;
 import org.matsim.core.router.TripStructureUtils;
 
@@ -53,5 +54,16 @@ public class TripsToLegsModule extends AbstractMultithreadedModule {
 	public PlanAlgorithm getPlanAlgoInstance() {
 		return new TripsToLegsAlgorithm( TripStructureUtils.getRoutingModeIdentifier() );
 	}
+
+	@Override
+	protected boolean supportsWorkStealing() {
+		// no random numbers
+		return true;
+	}
+
+	@Override
+	protected boolean isFusable(ReplanningContext replanningContext) {
+		return true;
+	}
 }
 
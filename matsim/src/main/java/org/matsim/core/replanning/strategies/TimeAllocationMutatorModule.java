@@ -28,8 +28,11 @@ import org.matsim.core.config.groups.TimeAllocationMutatorConfigGroup;
 import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 import org.matsim.core.population.algorithms.MutateActivityTimeAllocation;
+import org.matsim.core.replanning.ReplanningContext;
 import org.matsim.core.replanning.modules.AbstractMultithreadedModule;
 
+import java.util.Random;
+
 /**
  * Wraps the {@link org.matsim.core.population.algorithms.TripPlanMutateTimeAllocation}-
  * PlanAlgorithm into a {@link PlanStrategyModule} so it can be used for plans
@@ -57,10 +60,25 @@ class TimeAllocationMutatorModule extends AbstractMultithreadedModule{
 
 	@Override
 	public PlanAlgorithm getPlanAlgoInstance() {
+		return getPlanAlgoInstance(MatsimRandom.getLocalInstance());
+	}
+
+	@Override
+	protected PlanAlgorithm getPlanAlgoInstance(Random random) {
 		PlanAlgorithm pmta = new MutateActivityTimeAllocation
-				(this.mutationRange, this.affectingDuration, MatsimRandom.getLocalInstance(),
+				(this.mutationRange, this.affectingDuration, random,
 						timeAllocationMutatorConfigGroup.getLatestActivityEndTime(), timeAllocationMutatorConfigGroup.isMutateAroundInitialEndTimeOnly(),
 						timeAllocationMutatorConfigGroup.getMutationRangeStep());
 		return pmta;
 	}
+
+	@Override
+	protected boolean supportsWorkStealing() {
+		return true;
+	}
+
+	@Override
+	protected boolean isFusable(ReplanningContext replanningContext) {
+		return true;
+	}
 }
@@ -0,0 +1,128 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CachingLeastCostPathCalculator.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.VersionedTravelTime;
+import org.matsim.vehicles.Vehicle;
+import org.matsim.vehicles.VehicleType;
+
+/**
+ * Remembers the paths found by another {@link LeastCostPathCalculator} for repeated requests of the same
+ * person with the same origin, destination, departure time bin and vehicle type. The travel time and cost of a
+ * re-used path are calculated again for the actual departure time, person and vehicle, but the path itself is the one
+ * found for the first request in the time bin.
+ * <p>
+ * The travel disutility may depend on the person (scoring parameters, tolls, routing randomness), so paths are only
+ * shared across persons if this is explicitly requested (<code>sharedAcrossPersons</code>). Then it depends on which
+ * persons a thread has routed before, and thus on the scheduling of the replanning, which of several equally good
+ * paths a person gets. Without sharing, all requests of a person are handled in one replanning task, so the results
+ * do not depend on the scheduling.
+ * <p>
+ * The cache holds at most <code>maxEntries</code> paths and drops the least recently used ones. It is not
+ * thread-safe; as every replanning thread has its own {@link TripRouter}, every thread gets its own cache.
+ * All paths are dropped when the version of the travel times changes, i.e. at the iteration boundaries.
+ */
+/* deliberately package */ final class CachingLeastCostPathCalculator implements LeastCostPathCalculator {
+
+	private record Key(Node fromNode, Node toNode, int timeBin, Id<VehicleType> vehicleType, Id<Person> person) {
+	}
+
+	private record Entry(Path path, double departureTime, Person person, Vehicle vehicle) {
+	}
+
+	private final LeastCostPathCalculator delegate;
+	private final VersionedTravelTime travelTime;
+	private final TravelDisutility travelDisutility;
+	private final double timeBinSize;
+	private final boolean sharedAcrossPersons;
+	private final RouteCacheStatistics.Counter counter;
+	private final Map<Key, Entry> cache;
+	private long version;
+
+	CachingLeastCostPathCalculator(LeastCostPathCalculator delegate, VersionedTravelTime travelTime, TravelDisutility travelDisutility,
+			int maxEntries, double timeBinSize, boolean sharedAcrossPersons, RouteCacheStatistics.Counter counter) {
+		this.delegate = delegate;
+		this.travelTime = travelTime;
+		this.travelDisutility = travelDisutility;
+		this.timeBinSize = timeBinSize;
+		this.sharedAcrossPersons = sharedAcrossPersons;
+		this.counter = counter;
+		this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+		this.version = travelTime.getVersion();
+	}
+
+	@Override
+	public Path calcLeastCostPath(Node fromNode, Node toNode, double starttime, Person person, Vehicle vehicle) {
+		long currentVersion = this.travelTime.getVersion();
+		if (currentVersion != this.version) {
+			this.cache.clear();
+			this.version = currentVersion;
+		}
+		Id<VehicleType> vehicleType = vehicle == null || vehicle.getType() == null ? null : vehicle.getType().getId();
+		Id<Person> personId = this.sharedAcrossPersons || person == null ? null : person.getId();
+		Key key = new Key(fromNode, toNode, (int) (starttime / this.timeBinSize), vehicleType, personId);
+		Entry entry = this.cache.get(key);
+		if (entry == null) {
+			this.counter.miss();
+			Path path = this.delegate.calcLeastCostPath(fromNode, toNode, starttime, person, vehicle);
+			this.cache.put(key, new Entry(path, starttime, person, vehicle));
+			// the caller may modify the returned path, so it must not be the cached instance
+			return path == null ? null : new Path(new ArrayList<>(path.nodes), new ArrayList<>(path.links), path.travelTime, path.travelCost);
+		}
+		this.counter.hit();
+		Path path = entry.path;
+		if (path == null) {
+			return null;
+		}
+		if (entry.departureTime == starttime && entry.person == person && entry.vehicle == vehicle) {
+			return new Path(new ArrayList<>(path.nodes), new ArrayList<>(path.links), path.travelTime, path.travelCost);
+		}
+		// same summation as in the routers, so the values do not depend on whether the path was cached or not
+		double time = starttime;
+		double cost = 0;
+		for (Link link : path.links) {
+			double linkTravelTime = this.travelTime.getLinkTravelTime(link, time, person, vehicle);
+			cost += this.travelDisutility.getLinkTravelDisutility(link, time, person, vehicle);
+			time += linkTravelTime;
+		}
+		return new Path(new ArrayList<>(path.nodes), new ArrayList<>(path.links), time - starttime, cost);
+	}
+
+	/* package */ int size() {
+		return this.cache.size();
+	}
+
+}
@@ -42,7 +42,7 @@ public class LeastCostPathCalculatorModule extends AbstractModule {
         } else if (config.controller().getRoutingAlgorithmType().equals(ControllerConfigGroup.RoutingAlgorithmType.AStarLandmarks)) {
             bind(LeastCostPathCalculatorFactory.class).to(AStarLandmarksFactory.class);
         } else if (config.controller().getRoutingAlgorithmType().equals(ControllerConfigGroup.RoutingAlgorithmType.SpeedyALT)) {
-            bind(LeastCostPathCalculatorFactory.class).to(SpeedyALTFactory.class);
+            bind(LeastCostPathCalculatorFactory.class).toInstance(new SpeedyALTFactory(config.routing().getLandmarksCacheDirectory(), config.global().getNumberOfThreads()));
         }
     }
 
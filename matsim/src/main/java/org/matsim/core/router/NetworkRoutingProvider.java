@@ -36,7 +36,9 @@ import org.matsim.core.network.algorithms.TransportModeNetworkFilter;
 import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.router.util.VersionedTravelTime;
 import org.matsim.core.utils.timing.TimeInterpretation;
 
 import com.google.inject.name.Named;
@@ -62,6 +64,7 @@ public class NetworkRoutingProvider implements Provider<RoutingModule>{
 	@Inject Scenario scenario ;
 	@Inject TimeInterpretation timeInterpretation;
 	@Inject MultimodalLinkChooser multimodalLinkChooser;
+	@Inject(optional = true) RouteCacheStatistics routeCacheStatistics; // not bound without the TripRouterModule
 	@Inject
 	@Named(TransportMode.walk)
 	private RoutingModule walkRouter;
@@ -110,11 +113,22 @@ public class NetworkRoutingProvider implements Provider<RoutingModule>{
 		if (travelTime == null) {
 			throw new RuntimeException("No TravelTime bound for mode "+routingMode+".");
 		}
+		TravelDisutility travelDisutility = travelDisutilityFactory.createTravelDisutility(travelTime);
 		LeastCostPathCalculator routeAlgo =
 				leastCostPathCalculatorFactory.createPathCalculator(
 						filteredNetwork,
-						travelDisutilityFactory.createTravelDisutility(travelTime),
+						travelDisutility,
 						travelTime);
+		if ( routingConfigGroup.getRouteCacheSize() > 0 ) {
+			if ( travelTime instanceof VersionedTravelTime versionedTravelTime ) {
+				routeAlgo = new CachingLeastCostPathCalculator(routeAlgo, versionedTravelTime, travelDisutility, routingConfigGroup.getRouteCacheSize(),
+						routingConfigGroup.getRouteCacheTimeBinSize(), routingConfigGroup.isRouteCacheSharedAcrossPersons(),
+						routeCacheStatistics == null ? new RouteCacheStatistics.Counter() : routeCacheStatistics.getCounter(routingMode));
+			} else {
+				// we could not tell when cached routes become outdated
+				log.warn( "routes of mode " + routingMode + " are not cached, as its travel times do not tell when they change (see VersionedTravelTime)." );
+			}
+		}
 
 		// the following again refers to the (transport)mode, since it will determine the mode of the leg on the network:
 		if ( !routingConfigGroup.getAccessEgressType().equals(RoutingConfigGroup.AccessEgressType.none) ) {
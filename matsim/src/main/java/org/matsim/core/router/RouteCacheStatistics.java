@@ -0,0 +1,80 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RouteCacheStatistics.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+
+/**
+ * Counts the hits and misses of the route caches of all network modes and logs the hit rates at the end
+ * of every iteration.
+ */
+/* deliberately package */ final class RouteCacheStatistics implements IterationEndsListener {
+
+	private static final Logger log = LogManager.getLogger(RouteCacheStatistics.class);
+
+	/* deliberately package */ static final class Counter {
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+
+		void hit() {
+			this.hits.increment();
+		}
+
+		void miss() {
+			this.misses.increment();
+		}
+
+		long getHits() {
+			return this.hits.sum();
+		}
+
+		long getMisses() {
+			return this.misses.sum();
+		}
+	}
+
+	private final Map<String, Counter> counters = new TreeMap<>();
+
+	/* package */ synchronized Counter getCounter(String mode) {
+		return this.counters.computeIfAbsent(mode, m -> new Counter());
+	}
+
+	@Override
+	public synchronized void notifyIterationEnds(IterationEndsEvent event) {
+		for (Map.Entry<String, Counter> e : this.counters.entrySet()) {
+			Counter counter = e.getValue();
+			long hits = counter.hits.sumThenReset();
+			long misses = counter.misses.sumThenReset();
+			if (hits + misses > 0) {
+				log.info("route cache of mode {}: {} requests, {} hits, hit rate {}%", e.getKey(), hits + misses, hits,
+						String.format("%.1f", 100.0 * hits / (hits + misses)));
+			}
+		}
+	}
+
+}
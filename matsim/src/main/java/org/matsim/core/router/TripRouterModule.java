@@ -22,6 +22,8 @@
 
 package org.matsim.core.router;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.matsim.core.config.groups.RoutingConfigGroup;
 import org.matsim.core.controler.AbstractModule;
 import org.matsim.core.network.algorithms.NetworkTurnInfoBuilder;
@@ -29,8 +31,11 @@ import org.matsim.core.network.algorithms.NetworkTurnInfoBuilderI;
 import org.matsim.pt.config.TransitConfigGroup.TransitRoutingAlgorithmType;
 import org.matsim.pt.router.TransitRouterModule;
 
+import com.google.inject.Singleton;
+
 
 public class TripRouterModule extends AbstractModule {
+    private static final Logger log = LogManager.getLogger(TripRouterModule.class);
 
     @Override
     public void install() {
@@ -60,6 +65,15 @@ public class TripRouterModule extends AbstractModule {
             addRoutingModuleBinding(mode).toProvider(new BeelineTeleportationRouting(getConfig().routing().getModeRoutingParams().get(mode)));
         }
 
+        // always bound, so optional injection points resolve with explicit bindings only (e.g. for the grapher)
+        bind(RouteCacheStatistics.class).in(Singleton.class);
+        if (routeConfigGroup.getRouteCacheSize() > 0) {
+            addControlerListenerBinding().to(RouteCacheStatistics.class);
+            if (routeConfigGroup.getRoutingRandomness() > 0) {
+                log.warn("routes are cached with routingRandomness > 0: persons with the same origin, destination and departure time bin get the same route.");
+            }
+        }
+
         boolean linkToLinkRouting = getConfig().controller().isLinkToLinkRoutingEnabled();
         if (linkToLinkRouting) {
             bind(NetworkTurnInfoBuilderI.class).to(NetworkTurnInfoBuilder.class) ;
@@ -148,7 +148,7 @@ public class LeastCostPathTree {
         return this.data[nodeIndex * 3];
     }
 
-    private double getTimeRaw(int nodeIndex) {
+    double getTimeRaw(int nodeIndex) {
         return this.data[nodeIndex * 3 + 1];
     }
 
@@ -0,0 +1,206 @@
+package org.matsim.core.router.speedy;
+
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calculates the least cost paths from many origins to many destinations in one call, and returns the travel
+ * costs, times and distances in flat arrays.
+ * <p>
+ * The origins are distributed over several threads, each of them running a {@link LeastCostPathTree}. The trees
+ * are kept in a pool and re-used in later calls. Each search stops as soon as all destinations are settled, which
+ * often saves a large part of the work compared to calculating full trees.
+ * <p>
+ * As the travel times and costs may depend on the departure time, the searches of different origins cannot be
+ * merged into a single search. Origins with the same node and departure time should be de-duplicated by the caller.
+ * <p>
+ * An instance can be used by only one thread at a time.
+ */
+public class ManyToManyLeastCostPathTree {
+
+	private final SpeedyGraph graph;
+	private final TravelTime tt;
+	private final TravelDisutility td;
+	private final int numberOfThreads;
+	private final ConcurrentLinkedQueue<LeastCostPathTree> treePool = new ConcurrentLinkedQueue<>();
+
+	public ManyToManyLeastCostPathTree(SpeedyGraph graph, TravelTime tt, TravelDisutility td, int numberOfThreads) {
+		this.graph = graph;
+		this.tt = tt;
+		this.td = td;
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	/**
+	 * Calculates the least cost paths from each of the <code>fromNodes</code> to each of the <code>toNodes</code>.
+	 *
+	 * @param departureTimes the departure time at each of the <code>fromNodes</code>
+	 */
+	public Result calculate(int[] fromNodes, double[] departureTimes, int[] toNodes, Person person, Vehicle vehicle) {
+		if (fromNodes.length != departureTimes.length) {
+			throw new IllegalArgumentException("number of fromNodes and departureTimes must be the same.");
+		}
+		Result result = new Result(fromNodes.length, toNodes.length);
+		run(fromNodes.length, toNodes, (tree, stopCriterion, o) -> {
+			tree.calculate(fromNodes[o], departureTimes[o], person, vehicle, stopCriterion);
+			for (int d = 0; d < toNodes.length; d++) {
+				result.set(o, d, tree, toNodes[d], departureTimes[o]);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Calculates the least cost paths from each of the <code>fromNodes</code> to each of the <code>toNodes</code>,
+	 * searching backwards from the <code>toNodes</code>. The travel times in the result are durations, i.e. positive.
+	 *
+	 * @param arrivalTimes the arrival time at each of the <code>toNodes</code>
+	 */
+	public Result calculateBackwards(int[] fromNodes, int[] toNodes, double[] arrivalTimes, Person person, Vehicle vehicle) {
+		if (toNodes.length != arrivalTimes.length) {
+			throw new IllegalArgumentException("number of toNodes and arrivalTimes must be the same.");
+		}
+		Result result = new Result(fromNodes.length, toNodes.length);
+		run(toNodes.length, fromNodes, (tree, stopCriterion, d) -> {
+			tree.calculateBackwards(toNodes[d], arrivalTimes[d], person, vehicle, stopCriterion);
+			for (int o = 0; o < fromNodes.length; o++) {
+				result.set(o, d, tree, fromNodes[o], arrivalTimes[d]);
+			}
+		});
+		return result;
+	}
+
+	private void run(int rootCount, int[] targetNodes, RootCalculation calculation) {
+		if (targetNodes.length == 0) {
+			return;
+		}
+		boolean[] isTarget = new boolean[this.graph.nodeCount];
+		int targetCount = 0;
+		for (int node : targetNodes) {
+			if (!isTarget[node]) {
+				isTarget[node] = true;
+				targetCount++;
+			}
+		}
+		int uniqueTargetCount = targetCount;
+
+		AtomicInteger nextRoot = new AtomicInteger(0);
+		Runnable worker = () -> {
+			LeastCostPathTree tree = this.treePool.poll();
+			if (tree == null) {
+				tree = new LeastCostPathTree(this.graph, this.tt, this.td);
+			}
+			AllTargetsStopCriterion stopCriterion = new AllTargetsStopCriterion(isTarget);
+			try {
+				int root;
+				while ((root = nextRoot.getAndIncrement()) < rootCount) {
+					stopCriterion.remaining = uniqueTargetCount;
+					calculation.calculate(tree, stopCriterion, root);
+				}
+			} finally {
+				this.treePool.add(tree);
+			}
+		};
+
+		int threads = Math.min(this.numberOfThreads, rootCount);
+		if (threads <= 1) {
+			worker.run();
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>(threads);
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(worker));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private interface RootCalculation {
+		void calculate(LeastCostPathTree tree, LeastCostPathTree.StopCriterion stopCriterion, int root);
+	}
+
+	private static final class AllTargetsStopCriterion implements LeastCostPathTree.StopCriterion {
+		private final boolean[] isTarget;
+		int remaining;
+
+		AllTargetsStopCriterion(boolean[] isTarget) {
+			this.isTarget = isTarget;
+		}
+
+		@Override
+		public boolean stop(int nodeIndex, double arrivalTime, double travelCost, double distance, double departureTime) {
+			// the target node itself is already settled when this is called
+			return this.isTarget[nodeIndex] && --this.remaining == 0;
+		}
+	}
+
+	/**
+	 * The travel costs, times and distances between all origins and destinations, stored in row-major order
+	 * (one row per origin). Unreachable destinations have infinite values.
+	 */
+	public static final class Result {
+		public final int originCount;
+		public final int destinationCount;
+		public final double[] travelCosts;
+		public final double[] travelTimes;
+		public final double[] distances;
+
+		Result(int originCount, int destinationCount) {
+			this.originCount = originCount;
+			this.destinationCount = destinationCount;
+			this.travelCosts = new double[originCount * destinationCount];
+			this.travelTimes = new double[originCount * destinationCount];
+			this.distances = new double[originCount * destinationCount];
+		}
+
+		private void set(int origin, int destination, LeastCostPathTree tree, int node, double rootTime) {
+			int index = origin * this.destinationCount + destination;
+			double cost = tree.getCost(node);
+			if (Double.isFinite(cost)) {
+				this.travelCosts[index] = cost;
+				this.travelTimes[index] = Math.abs(tree.getTimeRaw(node) - rootTime);
+				this.distances[index] = tree.getDistance(node);
+			} else {
+				this.travelCosts[index] = Double.POSITIVE_INFINITY;
+				this.travelTimes[index] = Double.POSITIVE_INFINITY;
+				this.distances[index] = Double.POSITIVE_INFINITY;
+			}
+		}
+
+		public int index(int origin, int destination) {
+			return origin * this.destinationCount + destination;
+		}
+
+		public double getTravelCost(int origin, int destination) {
+			return this.travelCosts[index(origin, destination)];
+		}
+
+		public double getTravelTime(int origin, int destination) {
+			return this.travelTimes[index(origin, destination)];
+		}
+
+		public double getDistance(int origin, int destination) {
+			return this.distances[index(origin, destination)];
+		}
+	}
+
+}
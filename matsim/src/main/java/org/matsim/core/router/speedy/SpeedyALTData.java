@@ -35,6 +35,13 @@ class SpeedyALTData {
 	private final double minTravelCostPerLength;
 
 	public SpeedyALTData(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts) {
+		this(graph, landmarksCount, travelCosts, 4);
+	}
+
+	/**
+	 * @param numberOfThreads the number of threads used to calculate the shortest path trees of the landmarks.
+	 */
+	public SpeedyALTData(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts, int numberOfThreads) {
 		this.graph = graph;
 		this.landmarksCount = landmarksCount;
 		this.travelCosts = travelCosts;
@@ -43,7 +50,20 @@ class SpeedyALTData {
 		this.deadendData = new int[graph.nodeCount];
 
 		this.findDeadEnds();
-		this.calcLandmarks();
+		this.calcLandmarks(Math.max(1, numberOfThreads));
+		this.minTravelCostPerLength = this.calcMinTravelCostPerLength();
+	}
+
+	/**
+	 * Restores previously calculated data, see {@link SpeedyALTDataCache}.
+	 */
+	SpeedyALTData(SpeedyGraph graph, TravelDisutility travelCosts, int[] landmarksNodeIndices, double[] nodesData, int[] deadendData) {
+		this.graph = graph;
+		this.landmarksCount = landmarksNodeIndices.length;
+		this.travelCosts = travelCosts;
+		this.landmarksNodeIndices = landmarksNodeIndices;
+		this.nodesData = nodesData;
+		this.deadendData = deadendData;
 		this.minTravelCostPerLength = this.calcMinTravelCostPerLength();
 	}
 
@@ -128,7 +148,7 @@ class SpeedyALTData {
 		return otherNodeIndex;
 	}
 
-	private void calcLandmarks() {
+	private void calcLandmarks(int numberOfThreads) {
 		LOG.info("calculate landmarks...");
 		Node firstNode = null;
 		for (int i = 0; i < this.graph.nodeCount; i++) {
@@ -143,7 +163,7 @@ class SpeedyALTData {
 		}
 
 		Future<double[]>[] trees = new Future[this.landmarksCount * 2];
-		ExecutorService executor = Executors.newFixedThreadPool(4);
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
 
 		int firstLandmarkIndex = firstNode.getId().index();
 		this.landmarksNodeIndices[0] = firstLandmarkIndex;
@@ -315,6 +335,18 @@ class SpeedyALTData {
 		return this.nodesData[nodeIndex * (this.landmarksCount * 2) + 2 * landmarkIndex + 1];
 	}
 
+	int[] getLandmarksNodeIndices() {
+		return this.landmarksNodeIndices;
+	}
+
+	double[] getNodesData() {
+		return this.nodesData;
+	}
+
+	int[] getDeadendData() {
+		return this.deadendData;
+	}
+
 	public double getMinTravelCostPerLength() {
 		return this.minTravelCostPerLength;
 	}
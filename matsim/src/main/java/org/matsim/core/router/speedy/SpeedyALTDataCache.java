@@ -0,0 +1,159 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.speedy.SpeedyGraph.LinkIterator;
+import org.matsim.core.router.util.TravelDisutility;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Persists {@link SpeedyALTData} in a binary file, so the landmarks do not have to be calculated again
+ * when the same network is routed with the same minimal travel disutilities, e.g. after a restart.
+ *
+ * Each file is identified by a 64-bit key that is calculated from the node and link ids, the graph structure,
+ * the minimal travel disutility of every link and the number of landmarks. If any of these change, a
+ * different file is used, so stale data is never loaded.
+ */
+final class SpeedyALTDataCache {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyALTDataCache.class);
+
+	private final static int MAGIC = 0x53414C54; // "SALT"
+	private final static int VERSION = 1;
+
+	private final Path directory;
+
+	SpeedyALTDataCache(Path directory) {
+		this.directory = directory;
+	}
+
+	SpeedyALTData getOrCalculate(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts, int numberOfThreads) {
+		long key = calcKey(graph, landmarksCount, travelCosts);
+		Path file = getFile(key);
+		if (Files.exists(file)) {
+			try {
+				SpeedyALTData data = read(file, key, graph, landmarksCount, travelCosts);
+				if (data != null) {
+					LOG.info("loaded landmarks from " + file);
+					return data;
+				}
+				LOG.warn("cached landmarks in " + file + " do not match the network, they will be calculated again.");
+			} catch (IOException e) {
+				LOG.warn("could not read cached landmarks from " + file + ", they will be calculated again.", e);
+			}
+		}
+		SpeedyALTData data = new SpeedyALTData(graph, landmarksCount, travelCosts, numberOfThreads);
+		try {
+			write(file, key, data);
+			LOG.info("stored landmarks in " + file);
+		} catch (IOException e) {
+			LOG.warn("could not store landmarks in " + file, e);
+		}
+		return data;
+	}
+
+	Path getFile(long key) {
+		return this.directory.resolve(String.format("speedyALT-%016x.bin", key));
+	}
+
+	static long calcKey(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts) {
+		long hash = 0xcbf29ce484222325L;
+		hash = mix(hash, graph.nodeCount);
+		hash = mix(hash, graph.linkCount);
+		hash = mix(hash, landmarksCount);
+		LinkIterator outLI = graph.getOutLinkIterator();
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			Node node = graph.getNode(nodeIdx);
+			hash = mix(hash, node == null ? -1 : node.getId().toString().hashCode());
+			outLI.reset(nodeIdx);
+			while (outLI.next()) {
+				hash = mix(hash, outLI.getLinkIndex());
+				hash = mix(hash, outLI.getToNodeIndex());
+			}
+		}
+		for (int linkIdx = 0; linkIdx < graph.linkCount; linkIdx++) {
+			Link link = graph.getLink(linkIdx);
+			if (link == null) {
+				hash = mix(hash, -1);
+			} else {
+				hash = mix(hash, link.getId().toString().hashCode());
+				hash = mix(hash, Double.doubleToLongBits(travelCosts.getLinkMinimumTravelDisutility(link)));
+			}
+		}
+		return hash;
+	}
+
+	private static long mix(long hash, long value) {
+		// FNV-1a on 64-bit values, with an additional multiply-xorshift to spread the bits of small values
+		hash = (hash ^ value) * 0x100000001b3L;
+		return hash ^ (hash >>> 29);
+	}
+
+	private static SpeedyALTData read(Path file, long key, SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != key
+					|| in.readInt() != graph.nodeCount || in.readInt() != landmarksCount) {
+				return null;
+			}
+			int[] landmarks = new int[landmarksCount];
+			for (int i = 0; i < landmarksCount; i++) {
+				landmarks[i] = in.readInt();
+			}
+			int[] deadends = new int[graph.nodeCount];
+			for (int i = 0; i < deadends.length; i++) {
+				deadends[i] = in.readInt();
+			}
+			double[] nodesData = new double[graph.nodeCount * landmarksCount * 2];
+			for (int i = 0; i < nodesData.length; i++) {
+				nodesData[i] = in.readDouble();
+			}
+			return new SpeedyALTData(graph, travelCosts, landmarks, nodesData, deadends);
+		}
+	}
+
+	private void write(Path file, long key, SpeedyALTData data) throws IOException {
+		Files.createDirectories(this.directory);
+		// write to a temporary file first, so concurrent runs never see partially written data
+		Path tmpFile = Files.createTempFile(this.directory, "speedyALT-", ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile), 1 << 16))) {
+				int[] landmarks = data.getLandmarksNodeIndices();
+				int[] deadends = data.getDeadendData();
+				double[] nodesData = data.getNodesData();
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(key);
+				out.writeInt(deadends.length);
+				out.writeInt(landmarks.length);
+				for (int landmark : landmarks) {
+					out.writeInt(landmark);
+				}
+				for (int deadend : deadends) {
+					out.writeInt(deadend);
+				}
+				for (double value : nodesData) {
+					out.writeDouble(value);
+				}
+			}
+			try {
+				Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmpFile);
+		}
+	}
+
+}
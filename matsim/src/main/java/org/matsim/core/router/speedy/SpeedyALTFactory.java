@@ -6,6 +6,7 @@ import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
 import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -16,6 +17,22 @@ public class SpeedyALTFactory implements LeastCostPathCalculatorFactory {
 
 	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
 	private final Map<SpeedyGraph, SpeedyALTData> landmarksData = new ConcurrentHashMap<>();
+	private final SpeedyALTDataCache cache;
+	private final int numberOfThreads;
+
+	public SpeedyALTFactory() {
+		this(null, 4);
+	}
+
+	/**
+	 * @param landmarksCacheDirectory directory where the calculated landmarks are stored and loaded from
+	 *                                in later runs, or <code>null</code> to always calculate them.
+	 * @param numberOfThreads the number of threads used to calculate the landmarks.
+	 */
+	public SpeedyALTFactory(String landmarksCacheDirectory, int numberOfThreads) {
+		this.cache = landmarksCacheDirectory == null ? null : new SpeedyALTDataCache(Path.of(landmarksCacheDirectory));
+		this.numberOfThreads = numberOfThreads;
+	}
 
 	@Override
 	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
@@ -27,7 +44,11 @@ public class SpeedyALTFactory implements LeastCostPathCalculatorFactory {
 		SpeedyALTData landmarks = this.landmarksData.get(graph);
 		if (landmarks == null) {
 			int landmarksCount = Math.min(16, graph.nodeCount);
-			landmarks = new SpeedyALTData(graph, landmarksCount, travelCosts);
+			if (this.cache == null) {
+				landmarks = new SpeedyALTData(graph, landmarksCount, travelCosts, this.numberOfThreads);
+			} else {
+				landmarks = this.cache.getOrCalculate(graph, landmarksCount, travelCosts, this.numberOfThreads);
+			}
 			this.landmarksData.put(graph, landmarks);
 		}
 		return new SpeedyALT(landmarks, travelTimes, travelCosts);
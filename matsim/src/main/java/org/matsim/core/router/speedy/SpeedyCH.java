@@ -0,0 +1,316 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An A*-search for time-dependent least cost paths that uses a customizable contraction hierarchy to calculate the
+ * exact least cost to the destination based on the minimal travel disutilities of the links as estimation.
+ *
+ * Based on "A fast and tight heuristic for A* in road networks" (CH-Potentials) by Ben Strasser and Tim Zeitz, 2021:
+ * Before each query, an upward search in the hierarchy (see {@link SpeedyCHData}) starting at the destination is run
+ * backwards. The estimation for a node is then calculated lazily, only for the nodes reached by the A*-search, as the
+ * minimum over its upward edges.
+ * As the estimation is the exact least cost to the destination with minimal travel disutilities, it is much better
+ * than the estimation based on landmarks in {@link SpeedyALT} and the search explores far fewer nodes. Nodes from which
+ * the destination cannot be reached are never explored, so no dead-end detection is required.
+ *
+ * The estimation is a lower bound of the real cost, so the algorithm finds the same least cost paths as
+ * {@link SpeedyDijkstra} and {@link SpeedyALT} with time-dependent travel times and disutilities. Only if multiple
+ * paths have exactly the same cost, a different one might be returned.
+ *
+ * Where it helps: on road networks with a pronounced hierarchy, and when the minimal travel disutilities are a tight
+ * bound of the actual ones (e.g. little congestion). On the Kelheim network, it answered about 14 times as many queries
+ * as {@link SpeedyALT}, on the Berlin network about as many with congested and 1.7 times as many with free flow travel
+ * times. Where it does not: on networks without hierarchy, like grids, it is slower than {@link SpeedyALT} (about
+ * 75 instead of 120 queries per second on a 300x300 grid). There, the hierarchy has large separators that end up as
+ * dense cliques at its top, so every node has many upward edges, and the estimation of every node reached by the
+ * search has to look at all of them. With loose bounds (congestion), the search does not explore enough fewer nodes
+ * to make up for that. It is thus not offered as a {@code routingAlgorithmType}, but has to be bound explicitly, see
+ * {@link SpeedyCHFactory}.
+ *
+ * This implementation is not thread-safe. In the case of multi-threading, every thread should use
+ * a separate instance. (But the used {@link SpeedyCHData} is thread-safe and can be shared by multiple
+ * instances).
+ */
+public class SpeedyCH implements LeastCostPathCalculator {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCH.class);
+
+	private final SpeedyGraph graph;
+	private final SpeedyCHData chData;
+	private final SpeedyCHData.Metric metric;
+	private final TravelTime tt;
+	private final TravelDisutility td;
+	private final double[] data; // 3 entries per node: cost to node, time, distance
+	private int currentIteration = Integer.MIN_VALUE;
+	private final int[] iterationIds;
+	private final int[] comingFrom;
+	private final int[] usedLink;
+	private final double[] potentials; // estimated cost to the destination
+	private final int[] potentialIterationIds;
+	private final double[] backwardCosts; // cost to the destination in the upward search space of the destination
+	private final int[] backwardIterationIds;
+	private int[] stackNodes = new int[64]; // the nodes whose estimation is currently calculated
+	private int[] stackEdges = new int[64]; // the next upward edge to look at for each node on the stack
+	private double[] stackPotentials = new double[64]; // the estimation so far for each node on the stack
+	private final SpeedyGraph.LinkIterator outLI;
+	private final DAryMinHeap pq;
+
+	SpeedyCH(SpeedyCHData chData, SpeedyCHData.Metric metric, TravelTime tt, TravelDisutility td) {
+		this.graph = chData.graph;
+		this.chData = chData;
+		this.metric = metric;
+		this.tt = tt;
+		this.td = td;
+		this.data = new double[this.graph.nodeCount * 3];
+		this.iterationIds = new int[this.graph.nodeCount];
+		this.comingFrom = new int[this.graph.nodeCount];
+		this.usedLink = new int[this.graph.nodeCount];
+		this.potentials = new double[this.graph.nodeCount];
+		this.potentialIterationIds = new int[this.graph.nodeCount];
+		this.backwardCosts = new double[this.graph.nodeCount];
+		this.backwardIterationIds = new int[this.graph.nodeCount];
+		this.pq = new DAryMinHeap(this.graph.nodeCount, 6);
+		this.outLI = this.graph.getOutLinkIterator();
+		Arrays.fill(this.iterationIds, this.currentIteration);
+		Arrays.fill(this.potentialIterationIds, this.currentIteration);
+		Arrays.fill(this.backwardIterationIds, this.currentIteration);
+	}
+
+	public SpeedyCH(SpeedyCHData chData, TravelTime tt, TravelDisutility td) {
+		this(chData, chData.getMetric(td), tt, td);
+	}
+
+	public double getCost(int nodeIndex) {
+		return this.data[nodeIndex * 3];
+	}
+
+	private double getTimeRaw(int nodeIndex) {
+		return this.data[nodeIndex * 3 + 1];
+	}
+
+	private double getDistance(int nodeIndex) {
+		return this.data[nodeIndex * 3 + 2];
+	}
+
+	private void setData(int nodeIndex, double cost, double time, double distance) {
+		int index = nodeIndex * 3;
+		this.data[index] = cost;
+		this.data[index + 1] = time;
+		this.data[index + 2] = distance;
+		this.iterationIds[nodeIndex] = this.currentIteration;
+	}
+
+	@Override
+	public Path calcLeastCostPath(Node startNode, Node endNode, double startTime, Person person, Vehicle vehicle) {
+		this.currentIteration++;
+		if (this.currentIteration == Integer.MAX_VALUE) {
+			// reset iteration as we overflow
+			Arrays.fill(this.iterationIds, this.currentIteration);
+			Arrays.fill(this.potentialIterationIds, this.currentIteration);
+			Arrays.fill(this.backwardIterationIds, this.currentIteration);
+			this.currentIteration = Integer.MIN_VALUE;
+		}
+		int startNodeIndex = startNode.getId().index();
+		int endNodeIndex = endNode.getId().index();
+
+		searchBackward(endNodeIndex);
+
+		double estimation = estimateMinTravelcostToDestination(startNodeIndex);
+
+		this.comingFrom[startNodeIndex] = -1;
+		setData(startNodeIndex, 0, startTime, 0);
+		this.pq.clear();
+		if (estimation < Double.POSITIVE_INFINITY) {
+			this.pq.insert(startNodeIndex, 0 + estimation);
+		}
+		boolean foundEndNode = false;
+
+		while (!this.pq.isEmpty()) {
+			final int nodeIdx = this.pq.poll();
+			if (nodeIdx == endNodeIndex) {
+				foundEndNode = true;
+				break;
+			}
+
+			double currTime = getTimeRaw(nodeIdx);
+			double currCost = getCost(nodeIdx);
+			double currDistance = getDistance(nodeIdx);
+
+			this.outLI.reset(nodeIdx);
+			while (this.outLI.next()) {
+				int linkIdx = this.outLI.getLinkIndex();
+				Link link = this.graph.getLink(linkIdx);
+				int toNode = this.outLI.getToNodeIndex();
+
+				estimation = estimateMinTravelcostToDestination(toNode);
+				if (estimation == Double.POSITIVE_INFINITY) {
+					continue; // the destination cannot be reached from this node
+				}
+
+				double travelTime = this.tt.getLinkTravelTime(link, currTime, person, vehicle);
+				double newTime = currTime + travelTime;
+				double travelCost = this.td.getLinkTravelDisutility(link, currTime, person, vehicle);
+				double newCost = currCost + travelCost;
+
+				if (this.iterationIds[toNode] == this.currentIteration) {
+					// this node was already visited in this route-query
+					double oldCost = getCost(toNode);
+					if (newCost < oldCost) {
+						this.pq.decreaseKey(toNode, newCost + estimation);
+						setData(toNode, newCost, newTime, currDistance + link.getLength());
+						this.comingFrom[toNode] = nodeIdx;
+						this.usedLink[toNode] = linkIdx;
+					}
+				} else {
+					setData(toNode, newCost, newTime, currDistance + link.getLength());
+					this.pq.insert(toNode, newCost + estimation);
+					this.comingFrom[toNode] = nodeIdx;
+					this.usedLink[toNode] = linkIdx;
+				}
+			}
+		}
+
+		if (foundEndNode) {
+			return constructPath(endNodeIndex, startTime);
+		}
+		LOG.warn("No route was found from node " + startNode.getId() + " to node " + endNode.getId() + ". Some possible reasons:");
+		LOG.warn("  * Network is not connected.  Run NetworkCleaner().") ;
+		LOG.warn("  * Network for considered mode does not even exist.  Modes need to be entered for each link in network.xml.");
+		LOG.warn("  * Network for considered mode is not connected to starting or ending point of route.  Setting insertingAccessEgressWalk to true may help.");
+		LOG.warn("This will now return null, but it may fail later with a NullPointerException.");
+		return null;
+	}
+
+	/**
+	 * Calculates the least cost from all nodes in the upward search space of the destination (which are all ancestors
+	 * of the destination in the elimination tree) to the destination, using only downward edges.
+	 */
+	private void searchBackward(int endNodeIndex) {
+		int[] parent = this.chData.parent;
+		for (int nodeIdx = endNodeIndex; nodeIdx >= 0; nodeIdx = parent[nodeIdx]) {
+			this.backwardCosts[nodeIdx] = Double.POSITIVE_INFINITY;
+			this.backwardIterationIds[nodeIdx] = this.currentIteration;
+		}
+		this.backwardCosts[endNodeIndex] = 0;
+		int[] firstEdge = this.chData.firstEdge;
+		int[] edgeTarget = this.chData.edgeTarget;
+		double[] downCosts = this.metric.downCosts;
+		for (int nodeIdx = endNodeIndex; nodeIdx >= 0; nodeIdx = parent[nodeIdx]) {
+			double cost = this.backwardCosts[nodeIdx];
+			if (cost == Double.POSITIVE_INFINITY) {
+				continue;
+			}
+			for (int edge = firstEdge[nodeIdx], end = firstEdge[nodeIdx + 1]; edge < end; edge++) {
+				int higherNodeIdx = edgeTarget[edge];
+				double newCost = cost + downCosts[edge];
+				if (newCost < this.backwardCosts[higherNodeIdx]) {
+					this.backwardCosts[higherNodeIdx] = newCost;
+				}
+			}
+		}
+	}
+
+	/**
+	 * The least cost from a node to the destination is the minimum over all upward edges of the cost of the edge plus
+	 * the least cost from the edge's higher node, or the cost found in the backward search. The higher nodes are
+	 * calculated first, using an explicit stack as the hierarchy might be too deep for recursion.
+	 */
+	private double estimateMinTravelcostToDestination(int nodeIdx) {
+		if (this.potentialIterationIds[nodeIdx] == this.currentIteration) {
+			return this.potentials[nodeIdx];
+		}
+		int[] firstEdge = this.chData.firstEdge;
+		int[] edgeTarget = this.chData.edgeTarget;
+		double[] upCosts = this.metric.upCosts;
+
+		int stackSize = 0;
+		pushPotential(stackSize++, nodeIdx);
+		while (stackSize > 0) {
+			int top = stackSize - 1;
+			int currNodeIdx = this.stackNodes[top];
+			int edge = this.stackEdges[top];
+			double potential = this.stackPotentials[top];
+			boolean pushed = false;
+			for (int end = firstEdge[currNodeIdx + 1]; edge < end; edge++) {
+				int higherNodeIdx = edgeTarget[edge];
+				if (this.potentialIterationIds[higherNodeIdx] != this.currentIteration) {
+					// calculate the higher node first, then continue with this edge
+					this.stackEdges[top] = edge;
+					this.stackPotentials[top] = potential;
+					pushPotential(stackSize++, higherNodeIdx);
+					pushed = true;
+					break;
+				}
+				double cost = upCosts[edge] + this.potentials[higherNodeIdx];
+				if (cost < potential) {
+					potential = cost;
+				}
+			}
+			if (!pushed) {
+				this.potentials[currNodeIdx] = potential;
+				this.potentialIterationIds[currNodeIdx] = this.currentIteration;
+				stackSize--;
+			}
+		}
+		return this.potentials[nodeIdx];
+	}
+
+	private void pushPotential(int stackIndex, int nodeIdx) {
+		if (stackIndex == this.stackNodes.length) {
+			int newLength = this.stackNodes.length * 2;
+			this.stackNodes = Arrays.copyOf(this.stackNodes, newLength);
+			this.stackEdges = Arrays.copyOf(this.stackEdges, newLength);
+			this.stackPotentials = Arrays.copyOf(this.stackPotentials, newLength);
+		}
+		this.stackNodes[stackIndex] = nodeIdx;
+		this.stackEdges[stackIndex] = this.chData.firstEdge[nodeIdx];
+		this.stackPotentials[stackIndex] = this.backwardIterationIds[nodeIdx] == this.currentIteration ? this.backwardCosts[nodeIdx] : Double.POSITIVE_INFINITY;
+	}
+
+	private Path constructPath(int endNodeIndex, double startTime) {
+		double travelCost = getCost(endNodeIndex);
+		double arrivalTime = getTimeRaw(endNodeIndex);
+		if (Double.isInfinite(arrivalTime)) {
+			throw new RuntimeException("Undefined time on end node");
+		}
+		double travelTime = arrivalTime - startTime;
+
+		List<Node> nodes = new ArrayList<>();
+		List<Link> links = new ArrayList<>();
+
+		int nodeIndex = endNodeIndex;
+
+		nodes.add(this.graph.getNode(nodeIndex));
+
+		int linkIndex = this.usedLink[nodeIndex];
+		nodeIndex = this.comingFrom[nodeIndex];
+
+		while (nodeIndex >= 0) {
+			nodes.add(this.graph.getNode(nodeIndex));
+			links.add(this.graph.getLink(linkIndex));
+
+			linkIndex = this.usedLink[nodeIndex];
+			nodeIndex = this.comingFrom[nodeIndex];
+		}
+
+		Collections.reverse(nodes);
+		Collections.reverse(links);
+
+		return new Path(nodes, links, travelTime, travelCost);
+	}
+
+}
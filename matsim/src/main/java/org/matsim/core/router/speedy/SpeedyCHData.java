@@ -0,0 +1,569 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.speedy.SpeedyGraph.LinkIterator;
+import org.matsim.core.router.util.TravelDisutility;
+
+import java.util.Arrays;
+
+/**
+ * Preprocessed data for {@link SpeedyCH}: a customizable contraction hierarchy (CCH) of a {@link SpeedyGraph}.
+ *
+ * The preprocessing is split into two phases, as described in "Customizable Contraction Hierarchies" by Julian Dibbelt,
+ * Ben Strasser and Dorothea Wagner, 2016:
+ * <ul>
+ *   <li>The metric-independent part, done in the constructor: the nodes are ordered by a geometric nested dissection
+ *   and then contracted in this order, without any witness searches. The result is a chordal supergraph of the
+ *   (undirected) network, stored as the upward edges of every node.</li>
+ *   <li>The customization, see {@link #customize(TravelDisutility)}: assigns the minimal travel disutility to every
+ *   edge of the hierarchy. This only takes a linear pass over the links and the triangles of the hierarchy, so
+ *   it is cheap to repeat whenever the travel disutilities change, e.g. after every iteration.</li>
+ * </ul>
+ *
+ * This class is thread-safe and can safely be used by multiple threads.
+ */
+class SpeedyCHData {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCHData.class);
+
+	private final static int LEAF_CELL_SIZE = 8;
+
+	final SpeedyGraph graph;
+	final int[] rank; // for each node: the position in the contraction order
+	final int[] parent; // for each node: the parent in the elimination tree, i.e. the lowest upward neighbor, or -1
+	final int[] firstEdge; // for each node: the index of the first upward edge, the edges of node i are [firstEdge[i], firstEdge[i + 1])
+	final int[] edgeTarget; // for each edge: the index of the higher node
+	private final int[] linkEdges; // for each link: 2 * edge index of the link, + 1 if the link goes downward
+	private final int[] triangles; // 3 ints per triangle: upper edge, lower edge to the first node of the upper edge, lower edge to its second node
+
+	private TravelDisutility lastTravelCosts = null;
+	private Metric lastMetric = null;
+
+	SpeedyCHData(SpeedyGraph graph) {
+		this.graph = graph;
+		int[][] neighbors = buildUndirectedNeighbors(graph);
+		LOG.info("order nodes...");
+		int[] order = new NestedDissection(graph, neighbors).order();
+		this.rank = new int[graph.nodeCount];
+		for (int i = 0; i < order.length; i++) {
+			this.rank[order[i]] = i;
+		}
+		LOG.info("contract nodes...");
+		this.parent = new int[graph.nodeCount];
+		int[][] upward = contract(order, neighbors);
+		this.firstEdge = new int[graph.nodeCount + 1];
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			this.firstEdge[nodeIdx + 1] = this.firstEdge[nodeIdx] + upward[nodeIdx].length;
+		}
+		this.edgeTarget = new int[this.firstEdge[graph.nodeCount]];
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			System.arraycopy(upward[nodeIdx], 0, this.edgeTarget, this.firstEdge[nodeIdx], upward[nodeIdx].length);
+		}
+		this.linkEdges = findLinkEdges();
+		this.triangles = findTriangles();
+		LOG.info("contraction hierarchy with " + graph.nodeCount + " nodes and " + this.edgeTarget.length + " edges ("
+				+ graph.linkCount + " links in network), " + (this.triangles.length / 3) + " triangles.");
+	}
+
+	/**
+	 * Calculates the minimal travel disutility of every edge in the hierarchy, in both directions.
+	 */
+	Metric customize(TravelDisutility travelCosts) {
+		int edgeCount = this.edgeTarget.length;
+		double[] upCosts = new double[edgeCount];
+		double[] downCosts = new double[edgeCount];
+		Arrays.fill(upCosts, Double.POSITIVE_INFINITY);
+		Arrays.fill(downCosts, Double.POSITIVE_INFINITY);
+		for (int linkIdx = 0; linkIdx < this.graph.linkCount; linkIdx++) {
+			int linkEdge = this.linkEdges[linkIdx];
+			if (linkEdge < 0) {
+				continue;
+			}
+			double cost = travelCosts.getLinkMinimumTravelDisutility(this.graph.getLink(linkIdx));
+			int edge = linkEdge >> 1;
+			double[] costs = (linkEdge & 1) == 0 ? upCosts : downCosts;
+			if (cost < costs[edge]) {
+				costs[edge] = cost;
+			}
+		}
+		// the triangles are sorted by the rank of their lowest node, so the lower edges are always final when they are used
+		int[] triangles = this.triangles;
+		for (int i = 0; i < triangles.length; i += 3) {
+			int edge = triangles[i];
+			int lowerFirst = triangles[i + 1]; // lower node -> first node of edge
+			int lowerSecond = triangles[i + 2]; // lower node -> second node of edge
+			double up = downCosts[lowerFirst] + upCosts[lowerSecond];
+			if (up < upCosts[edge]) {
+				upCosts[edge] = up;
+			}
+			double down = downCosts[lowerSecond] + upCosts[lowerFirst];
+			if (down < downCosts[edge]) {
+				downCosts[edge] = down;
+			}
+		}
+		return new Metric(upCosts, downCosts);
+	}
+
+	/**
+	 * Returns the customization for the given travel disutility, re-using the last one if it was calculated
+	 * for the same object.
+	 */
+	synchronized Metric getMetric(TravelDisutility travelCosts) {
+		if (travelCosts != this.lastTravelCosts) {
+			this.lastMetric = customize(travelCosts);
+			this.lastTravelCosts = travelCosts;
+		}
+		return this.lastMetric;
+	}
+
+	/**
+	 * The minimal travel disutilities of the edges of the hierarchy. For an edge from node v to the higher node u,
+	 * the up-cost is the cost to travel from v to u, the down-cost is the cost to travel from u to v.
+	 */
+	static final class Metric {
+		final double[] upCosts;
+		final double[] downCosts;
+
+		Metric(double[] upCosts, double[] downCosts) {
+			this.upCosts = upCosts;
+			this.downCosts = downCosts;
+		}
+	}
+
+	private static int[][] buildUndirectedNeighbors(SpeedyGraph graph) {
+		int[] degree = new int[graph.nodeCount];
+		LinkIterator outLI = graph.getOutLinkIterator();
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			outLI.reset(nodeIdx);
+			while (outLI.next()) {
+				int toNodeIdx = outLI.getToNodeIndex();
+				if (toNodeIdx != nodeIdx) {
+					degree[nodeIdx]++;
+					degree[toNodeIdx]++;
+				}
+			}
+		}
+		int[][] neighbors = new int[graph.nodeCount][];
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			neighbors[nodeIdx] = new int[degree[nodeIdx]];
+			degree[nodeIdx] = 0;
+		}
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			outLI.reset(nodeIdx);
+			while (outLI.next()) {
+				int toNodeIdx = outLI.getToNodeIndex();
+				if (toNodeIdx != nodeIdx) {
+					neighbors[nodeIdx][degree[nodeIdx]++] = toNodeIdx;
+					neighbors[toNodeIdx][degree[toNodeIdx]++] = nodeIdx;
+				}
+			}
+		}
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			int[] n = neighbors[nodeIdx];
+			Arrays.sort(n);
+			int count = 0;
+			for (int i = 0; i < n.length; i++) {
+				if (i == 0 || n[i] != n[i - 1]) {
+					n[count++] = n[i];
+				}
+			}
+			neighbors[nodeIdx] = Arrays.copyOf(n, count);
+		}
+		return neighbors;
+	}
+
+	/**
+	 * Contracts the nodes in the given order. When a node is contracted, all its upward neighbors become neighbors of
+	 * each other. It is enough to add them to the lowest upward neighbor (the parent in the elimination tree), as they
+	 * will be passed on further when this node is contracted.
+	 *
+	 * @return for every node its upward neighbors, sorted by rank
+	 */
+	private int[][] contract(int[] order, int[][] neighbors) {
+		int nodeCount = this.graph.nodeCount;
+		int[][] pending = new int[nodeCount][];
+		int[] pendingCount = new int[nodeCount];
+		for (int nodeIdx = 0; nodeIdx < nodeCount; nodeIdx++) {
+			int count = 0;
+			for (int n : neighbors[nodeIdx]) {
+				if (this.rank[n] > this.rank[nodeIdx]) {
+					count++;
+				}
+			}
+			pending[nodeIdx] = new int[Math.max(count, 4)];
+			for (int n : neighbors[nodeIdx]) {
+				if (this.rank[n] > this.rank[nodeIdx]) {
+					pending[nodeIdx][pendingCount[nodeIdx]++] = n;
+				}
+			}
+		}
+
+		int[][] upward = new int[nodeCount][];
+		int[] seen = new int[nodeCount];
+		Arrays.fill(seen, -1);
+		Integer[] sortBuffer = new Integer[0];
+		for (int nodeIdx : order) {
+			int[] candidates = pending[nodeIdx];
+			int count = 0;
+			for (int i = 0, n = pendingCount[nodeIdx]; i < n; i++) {
+				int c = candidates[i];
+				if (seen[c] != nodeIdx) {
+					seen[c] = nodeIdx;
+					candidates[count++] = c;
+				}
+			}
+			pending[nodeIdx] = null;
+			if (sortBuffer.length < count) {
+				sortBuffer = new Integer[count * 2];
+			}
+			for (int i = 0; i < count; i++) {
+				sortBuffer[i] = candidates[i];
+			}
+			Arrays.sort(sortBuffer, 0, count, (a, b) -> Integer.compare(this.rank[a], this.rank[b]));
+			int[] up = new int[count];
+			for (int i = 0; i < count; i++) {
+				up[i] = sortBuffer[i];
+			}
+			upward[nodeIdx] = up;
+
+			if (count == 0) {
+				this.parent[nodeIdx] = -1;
+				continue;
+			}
+			int parentIdx = up[0];
+			this.parent[nodeIdx] = parentIdx;
+			int needed = pendingCount[parentIdx] + count - 1;
+			if (pending[parentIdx].length < needed) {
+				pending[parentIdx] = Arrays.copyOf(pending[parentIdx], Math.max(needed, pending[parentIdx].length * 2));
+			}
+			System.arraycopy(up, 1, pending[parentIdx], pendingCount[parentIdx], count - 1);
+			pendingCount[parentIdx] = needed;
+		}
+		return upward;
+	}
+
+	int findEdge(int lowerNodeIdx, int higherNodeIdx) {
+		int higherRank = this.rank[higherNodeIdx];
+		int low = this.firstEdge[lowerNodeIdx];
+		int high = this.firstEdge[lowerNodeIdx + 1] - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int midRank = this.rank[this.edgeTarget[mid]];
+			if (midRank < higherRank) {
+				low = mid + 1;
+			} else if (midRank > higherRank) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	private int[] findLinkEdges() {
+		int[] linkEdges = new int[this.graph.linkCount];
+		Arrays.fill(linkEdges, -1);
+		LinkIterator outLI = this.graph.getOutLinkIterator();
+		for (int nodeIdx = 0; nodeIdx < this.graph.nodeCount; nodeIdx++) {
+			outLI.reset(nodeIdx);
+			while (outLI.next()) {
+				int toNodeIdx = outLI.getToNodeIndex();
+				if (toNodeIdx == nodeIdx) {
+					continue; // loops are never part of a least cost path
+				}
+				if (this.rank[nodeIdx] < this.rank[toNodeIdx]) {
+					linkEdges[outLI.getLinkIndex()] = 2 * findEdge(nodeIdx, toNodeIdx);
+				} else {
+					linkEdges[outLI.getLinkIndex()] = 2 * findEdge(toNodeIdx, nodeIdx) + 1;
+				}
+			}
+		}
+		return linkEdges;
+	}
+
+	/**
+	 * Enumerates all lower triangles: for every node v and every pair of upward neighbors u, w (rank u < rank w),
+	 * the edge u-w exists (the hierarchy is chordal) and paths u-v-w can be shortcuts of it.
+	 */
+	private int[] findTriangles() {
+		int count = 0;
+		for (int nodeIdx = 0; nodeIdx < this.graph.nodeCount; nodeIdx++) {
+			int degree = this.firstEdge[nodeIdx + 1] - this.firstEdge[nodeIdx];
+			count += degree * (degree - 1) / 2;
+		}
+		int[] triangles = new int[count * 3];
+		int[] edgeTo = new int[this.graph.nodeCount];
+		int pos = 0;
+		int[] order = new int[this.graph.nodeCount];
+		for (int nodeIdx = 0; nodeIdx < this.graph.nodeCount; nodeIdx++) {
+			order[this.rank[nodeIdx]] = nodeIdx;
+		}
+		for (int nodeIdx : order) {
+			for (int e1 = this.firstEdge[nodeIdx], end = this.firstEdge[nodeIdx + 1]; e1 < end; e1++) {
+				int first = this.edgeTarget[e1];
+				for (int e = this.firstEdge[first]; e < this.firstEdge[first + 1]; e++) {
+					edgeTo[this.edgeTarget[e]] = e;
+				}
+				for (int e2 = e1 + 1; e2 < end; e2++) {
+					triangles[pos++] = edgeTo[this.edgeTarget[e2]];
+					triangles[pos++] = e1;
+					triangles[pos++] = e2;
+				}
+			}
+		}
+		return triangles;
+	}
+
+	/**
+	 * Orders the nodes by nested dissection: the network is recursively split into two parts by a small set of
+	 * separator nodes. The separator nodes are ordered after the nodes of the two parts, so they end up high in the
+	 * hierarchy.
+	 * <p>
+	 * The separators are found with InertialFlow, see "On Balanced Separators in Road Networks" by Aaron Schild and
+	 * Christian Sommer, 2015: the nodes are sorted along a few directions based on their coordinates, and the minimum
+	 * vertex cut between the first and the last quarter of the nodes is calculated with a max-flow algorithm. This
+	 * finds natural separators like rivers with few bridges, which result in much smaller hierarchies than straight lines.
+	 */
+	private static final class NestedDissection {
+
+		private final static int INFINITE_CAPACITY = Integer.MAX_VALUE / 2;
+
+		private final SpeedyGraph graph;
+		private final int[][] neighbors;
+		private final double[] x;
+		private final double[] y;
+		private final int[] cellIds; // for each node: the cell it was last assigned to
+		private final int[] localIndex; // for each node: the index in its cell
+		private final int[] order;
+		private int orderCount = 0;
+		private int cellCount = 0;
+
+		NestedDissection(SpeedyGraph graph, int[][] neighbors) {
+			this.graph = graph;
+			this.neighbors = neighbors;
+			this.x = new double[graph.nodeCount];
+			this.y = new double[graph.nodeCount];
+			this.cellIds = new int[graph.nodeCount];
+			this.localIndex = new int[graph.nodeCount];
+			this.order = new int[graph.nodeCount];
+		}
+
+		int[] order() {
+			int[] cell = new int[this.graph.nodeCount];
+			int count = 0;
+			for (int nodeIdx = 0; nodeIdx < this.graph.nodeCount; nodeIdx++) {
+				Node node = this.graph.getNode(nodeIdx);
+				if (node == null) {
+					// not all indices might be in use, contract them first
+					this.order[this.orderCount++] = nodeIdx;
+				} else {
+					Coord coord = node.getCoord();
+					this.x[nodeIdx] = coord.getX();
+					this.y[nodeIdx] = coord.getY();
+					cell[count++] = nodeIdx;
+				}
+			}
+			dissect(Arrays.copyOf(cell, count));
+			return this.order;
+		}
+
+		private void dissect(int[] cell) {
+			if (cell.length <= LEAF_CELL_SIZE) {
+				for (int nodeIdx : cell) {
+					this.order[this.orderCount++] = nodeIdx;
+				}
+				return;
+			}
+			int[][] best = null;
+			for (int direction = 0; direction < 4; direction++) {
+				int limit = best == null ? Integer.MAX_VALUE : best[1].length;
+				int[][] cut = findMinimumVertexCut(sortAlong(cell, direction), limit);
+				if (cut != null) {
+					best = cut;
+				}
+			}
+			if (best == null) {
+				// the first and last nodes are directly connected in all directions, only happens for tiny cells
+				for (int nodeIdx : cell) {
+					this.order[this.orderCount++] = nodeIdx;
+				}
+				return;
+			}
+			dissect(best[0]);
+			dissect(best[2]);
+			for (int nodeIdx : best[1]) {
+				this.order[this.orderCount++] = nodeIdx;
+			}
+		}
+
+		/**
+		 * Calculates the minimum vertex cut between the first and the last quarter of the sorted nodes, by
+		 * augmenting unit flows along shortest paths in a graph where every node is split into an in- and an out-node.
+		 *
+		 * @return the nodes on the source side, the separator and the nodes on the sink side, or null if the separator
+		 * would not be smaller than the limit or if there is no separator
+		 */
+		private int[][] findMinimumVertexCut(int[] sorted, int limit) {
+			int cellId = ++this.cellCount;
+			int m = sorted.length;
+			for (int i = 0; i < m; i++) {
+				this.cellIds[sorted[i]] = cellId;
+				this.localIndex[sorted[i]] = i;
+			}
+			int terminalCount = Math.max(1, m / 4);
+			// the separator can only contain non-terminal nodes, a larger flow means that terminals are directly connected
+			limit = Math.min(limit, m - 2 * terminalCount + 1);
+			int source = 2 * m;
+			int sink = 2 * m + 1;
+			int flowNodeCount = 2 * m + 2;
+
+			// count the arcs (including the reverse arcs) per flow node
+			int[] firstArc = new int[flowNodeCount + 1];
+			for (int i = 0; i < m; i++) {
+				firstArc[2 * i]++;
+				firstArc[2 * i + 1]++;
+				for (int n : this.neighbors[sorted[i]]) {
+					if (this.cellIds[n] == cellId) {
+						firstArc[2 * i + 1]++;
+						firstArc[2 * this.localIndex[n]]++;
+					}
+				}
+			}
+			for (int i = 0; i < terminalCount; i++) {
+				firstArc[source]++;
+				firstArc[2 * i]++;
+				firstArc[2 * (m - 1 - i) + 1]++;
+				firstArc[sink]++;
+			}
+			int arcCount = 0;
+			for (int u = 0; u < flowNodeCount; u++) {
+				int count = firstArc[u];
+				firstArc[u] = arcCount;
+				arcCount += count;
+			}
+			firstArc[flowNodeCount] = arcCount;
+			int[] nextArc = Arrays.copyOf(firstArc, flowNodeCount);
+			int[] arcHead = new int[arcCount];
+			int[] arcCapacity = new int[arcCount];
+			int[] arcReverse = new int[arcCount];
+			Arcs arcs = new Arcs(nextArc, arcHead, arcCapacity, arcReverse);
+
+			for (int i = 0; i < m; i++) {
+				boolean terminal = i < terminalCount || i >= m - terminalCount;
+				arcs.add(2 * i, 2 * i + 1, terminal ? INFINITE_CAPACITY : 1);
+				for (int n : this.neighbors[sorted[i]]) {
+					if (this.cellIds[n] == cellId) {
+						arcs.add(2 * i + 1, 2 * this.localIndex[n], INFINITE_CAPACITY);
+					}
+				}
+			}
+			for (int i = 0; i < terminalCount; i++) {
+				arcs.add(source, 2 * i, INFINITE_CAPACITY);
+				arcs.add(2 * (m - 1 - i) + 1, sink, INFINITE_CAPACITY);
+			}
+
+			int[] visited = new int[flowNodeCount];
+			int[] parentArc = new int[flowNodeCount];
+			int[] queue = new int[flowNodeCount];
+			int search = 0;
+			int flow = 0;
+			while (true) {
+				search++;
+				visited[source] = search;
+				int head = 0;
+				int tail = 0;
+				queue[tail++] = source;
+				boolean foundSink = false;
+				while (head < tail && !foundSink) {
+					int u = queue[head++];
+					for (int arc = firstArc[u], end = firstArc[u + 1]; arc < end; arc++) {
+						int v = arcHead[arc];
+						if (arcCapacity[arc] > 0 && visited[v] != search) {
+							visited[v] = search;
+							parentArc[v] = arc;
+							if (v == sink) {
+								foundSink = true;
+								break;
+							}
+							queue[tail++] = v;
+						}
+					}
+				}
+				if (!foundSink) {
+					break;
+				}
+				for (int v = sink; v != source; ) {
+					int arc = parentArc[v];
+					arcCapacity[arc]--;
+					arcCapacity[arcReverse[arc]]++;
+					v = arcHead[arcReverse[arc]];
+				}
+				flow++;
+				if (flow >= limit) {
+					return null;
+				}
+			}
+
+			// the nodes reachable from the source in the residual graph are on the source side
+			int[] sourceSide = new int[m];
+			int sourceCount = 0;
+			int[] separator = new int[flow];
+			int separatorCount = 0;
+			int[] sinkSide = new int[m];
+			int sinkCount = 0;
+			for (int i = 0; i < m; i++) {
+				if (visited[2 * i + 1] == search) {
+					sourceSide[sourceCount++] = sorted[i];
+				} else if (visited[2 * i] == search) {
+					separator[separatorCount++] = sorted[i];
+				} else {
+					sinkSide[sinkCount++] = sorted[i];
+				}
+			}
+			return new int[][] { Arrays.copyOf(sourceSide, sourceCount), separator, Arrays.copyOf(sinkSide, sinkCount) };
+		}
+
+		private int[] sortAlong(int[] cell, int direction) {
+			double[] values = new double[cell.length];
+			for (int i = 0; i < cell.length; i++) {
+				int nodeIdx = cell[i];
+				values[i] = switch (direction) {
+					case 0 -> this.x[nodeIdx];
+					case 1 -> this.y[nodeIdx];
+					case 2 -> this.x[nodeIdx] + this.y[nodeIdx];
+					default -> this.x[nodeIdx] - this.y[nodeIdx];
+				};
+			}
+			Integer[] indices = new Integer[cell.length];
+			for (int i = 0; i < cell.length; i++) {
+				indices[i] = i;
+			}
+			Arrays.sort(indices, (a, b) -> {
+				int c = Double.compare(values[a], values[b]);
+				return c != 0 ? c : Integer.compare(cell[a], cell[b]);
+			});
+			int[] sorted = new int[cell.length];
+			for (int i = 0; i < cell.length; i++) {
+				sorted[i] = cell[indices[i]];
+			}
+			return sorted;
+		}
+
+		private record Arcs(int[] nextArc, int[] arcHead, int[] arcCapacity, int[] arcReverse) {
+			void add(int from, int to, int capacity) {
+				int arc = this.nextArc[from]++;
+				int reverse = this.nextArc[to]++;
+				this.arcHead[arc] = to;
+				this.arcCapacity[arc] = capacity;
+				this.arcReverse[arc] = reverse;
+				this.arcHead[reverse] = from;
+				this.arcCapacity[reverse] = 0;
+				this.arcReverse[reverse] = arc;
+			}
+		}
+	}
+
+}
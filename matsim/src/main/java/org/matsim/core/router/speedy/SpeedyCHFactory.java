@@ -0,0 +1,40 @@
+package org.matsim.core.router.speedy;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates {@link SpeedyCH} instances. The contraction hierarchy of a network is only calculated once, and only
+ * customized again when a new {@link TravelDisutility} is passed in (e.g. in the next iteration).
+ * <p>
+ * Only use it after checking with {@code LeastCostPathCalculatorBenchmark} that it is faster than SpeedyALT on the
+ * network at hand, see {@link SpeedyCH} for when this is the case. It replaces the factory of the configured
+ * {@code routingAlgorithmType} with an overriding module. The factory keeps the contraction hierarchy, so it must be
+ * bound as a singleton; otherwise, the hierarchy is calculated again for every injection:
+ * <pre>
+ * controler.addOverridingModule(new AbstractModule() {
+ *     public void install() {
+ *         bind(LeastCostPathCalculatorFactory.class).to(SpeedyCHFactory.class).in(Singleton.class);
+ *     }
+ * });
+ * </pre>
+ */
+public class SpeedyCHFactory implements LeastCostPathCalculatorFactory {
+
+	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
+	private final Map<SpeedyGraph, SpeedyCHData> chData = new ConcurrentHashMap<>();
+
+	@Override
+	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
+		SpeedyGraph graph = this.graphs.computeIfAbsent(network, SpeedyGraphBuilder::build);
+		SpeedyCHData data = this.chData.computeIfAbsent(graph, SpeedyCHData::new);
+		return new SpeedyCH(data, travelTimes, travelCosts);
+	}
+
+}
@@ -0,0 +1,38 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * VersionedTravelTime.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.util;
+
+/**
+ * A {@link TravelTime} whose travel times change over time, e.g. because they are observed in the mobsim.
+ * Users that keep results derived from the travel times (like cached routes) can compare the version
+ * to find out if the travel times have changed since.
+ * <p>
+ * The version only changes at the iteration boundaries, i.e. when the travel times are reset before the mobsim
+ * and when the mobsim has ended. While the mobsim is running, observed travel times may change without a new version.
+ */
+public interface VersionedTravelTime extends TravelTime {
+
+	/**
+	 * @return a number that changes whenever the travel times returned by this object are reset or complete.
+	 */
+	long getVersion();
+
+}
@@ -63,8 +63,11 @@ import org.matsim.vehicles.Vehicle;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.matsim.core.router.TripStructureUtils.Trip;
@@ -92,6 +95,19 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 
 	private final Vehicle2DriverEventHandler vehicles2Drivers = new Vehicle2DriverEventHandler();
 
+	/* The calls to the scoring functions are either done directly, or handed over to one of several threads, each
+	 * responsible for the persons with id.index() % numberOfThreads == partition. As all the calls for one person are
+	 * done by the same thread in the original order, the scores are the same in both cases. */
+	private static final byte SCORE_EVENT = 0;
+	private static final byte SCORE_LINK_ENTER = 1;
+	private static final byte SCORE_ACTIVITY = 2;
+	private static final byte SCORE_LEG = 3;
+	private static final byte SCORE_TRIP = 4;
+	private static final byte FINISH = 5;
+
+	private final int numberOfThreads;
+	private ScoringPartition[] partitions = null;
+
 	@Inject
 	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
 						 Population population, ScoringFunctionFactory scoringFunctionFactory, Config config) {
@@ -109,6 +125,7 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		this.legsDelegate = eventsToLegs;
 		this.actsDelegate = eventsToActivities;
 		this.scoringFunctionFactory = scoringFunctionFactory;
+		this.numberOfThreads = config.scoring().getNumberOfThreads();
 
 		eventsManager.addHandler(this);
 		eventsToActivities.addActivityHandler(this::handleActivity);
@@ -116,11 +133,44 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	}
 
 	private void init() {
+		stopPartitions();
+		this.exception.set(null);
 		for (Person person : this.population.getPersons().values()) {
 			this.agentScorers.put(person.getId(), this.scoringFunctionFactory.createNewScoringFunction(person ) );
 			this.partialScores.put(person.getId(), new TDoubleArrayList());
 			this.tripRecords.put(person.getId(), PopulationUtils.createPlan());
 		}
+		if (this.numberOfThreads > 1) {
+			this.partitions = new ScoringPartition[this.numberOfThreads];
+			for (int i = 0; i < this.numberOfThreads; i++) {
+				this.partitions[i] = new ScoringPartition(i);
+				this.partitions[i].start();
+			}
+		}
+	}
+
+	private void dispatch(byte kind, Id<Person> personId, Object payload) {
+		if (this.partitions == null) {
+			score(kind, personId, payload);
+		} else {
+			this.partitions[personId.index() % this.partitions.length].add(kind, personId, payload);
+		}
+	}
+
+	private void score(byte kind, Id<Person> personId, Object payload) {
+		switch (kind) {
+			case SCORE_EVENT -> scoreEvent(personId, (Event) payload);
+			case SCORE_LINK_ENTER -> this.agentScorers.get(personId).handleEvent((Event) payload);
+			case SCORE_ACTIVITY -> scoreActivity(personId, (Activity) payload);
+			case SCORE_LEG -> scoreLeg(personId, (Leg) payload);
+			case SCORE_TRIP -> callTripScoring((ActivityStartEvent) payload);
+			case FINISH -> {
+				ScoringFunction scoringFunction = this.agentScorers.get(personId);
+				scoringFunction.finish();
+				this.partialScores.get(personId).add(scoringFunction.getScore());
+			}
+			default -> throw new IllegalArgumentException("unknown kind " + kind);
+		}
 	}
 
 	@Override
@@ -129,19 +179,9 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		// aggregated into legs and activities. for the time being, not all PersonEvents may "implement HasPersonId". link enter/leave events
 		// are NOT passed on, for performance reasons. kai/dominik, dec'12
 		if (o instanceof HasPersonId) {
-			ScoringFunction scoringFunction = getScoringFunctionForAgent(((HasPersonId) o).getPersonId());
-			if (scoringFunction != null) {
-				if (o instanceof PersonStuckEvent) {
-					scoringFunction.agentStuck(o.getTime());
-				} else if (o instanceof PersonMoneyEvent) {
-					scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
-					// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
-					// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
-				} else if (o instanceof PersonScoreEvent) {
-					scoringFunction.addScore(((PersonScoreEvent) o).getAmount());
-				}
-				scoringFunction.handleEvent(o);
-				// passing this on in any case, see comment above.  kai, mar'17
+			Id<Person> personId = ((HasPersonId) o).getPersonId();
+			if (personId != null && this.agentScorers.get(personId) != null) {
+				dispatch(SCORE_EVENT, personId, o);
 			}
 		}
 
@@ -164,10 +204,9 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		if (o instanceof LinkEnterEvent) {
 			Id<Vehicle> vehicleId = ((LinkEnterEvent)o).getVehicleId();
 			Id<Person> driverId = this.vehicles2Drivers.getDriverOfVehicle(vehicleId);
-			ScoringFunction scoringFunction = getScoringFunctionForAgent( driverId );
 			// (this will NOT do the scoring function lookup twice since LinkEnterEvent is not an instance of HasPersonId.  kai, mar'17)
-			if (scoringFunction != null) {
-				scoringFunction.handleEvent(o);
+			if (driverId != null && this.agentScorers.get(driverId) != null) {
+				dispatch(SCORE_LINK_ENTER, driverId, o);
 			}
 		}
 
@@ -192,10 +231,25 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		if (o instanceof VehicleLeavesTrafficEvent) this.legsDelegate.handleEvent((VehicleLeavesTrafficEvent) o);
 	}
 
+	private void scoreEvent(Id<Person> personId, Event o) {
+		ScoringFunction scoringFunction = this.agentScorers.get(personId);
+		if (o instanceof PersonStuckEvent) {
+			scoringFunction.agentStuck(o.getTime());
+		} else if (o instanceof PersonMoneyEvent) {
+			scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
+			// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
+			// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
+		} else if (o instanceof PersonScoreEvent) {
+			scoringFunction.addScore(((PersonScoreEvent) o).getAmount());
+		}
+		scoringFunction.handleEvent(o);
+		// passing this on in any case, see comment above.  kai, mar'17
+	}
+
 	private void handleActivityStart(ActivityStartEvent event) {
 		this.actsDelegate.handleEvent(event);
-		if (!StageActivityTypeIdentifier.isStageActivity( event.getActType() ) ) {
-			this.callTripScoring(event);
+		if (!StageActivityTypeIdentifier.isStageActivity( event.getActType() ) && this.tripRecords.get(event.getPersonId()) != null) {
+			dispatch(SCORE_TRIP, event.getPersonId(), event);
 		}
 	}
 
@@ -212,7 +266,7 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 			// (To make matters worse, it passes on my local machine, but fails in jenkins.  Possibly, the byte buffer memory management
 			// in the minibus raptor implementation has issues--???) kai, sep'18
 
-			ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(event.getPersonId());
+			ScoringFunction scoringFunction = this.agentScorers.get(event.getPersonId());
 			for (Trip trip : trips) {
 				if (trip != null) {
 					scoringFunction.handleTrip(trip);
@@ -226,8 +280,20 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 
 	void handleLeg(PersonExperiencedLeg o) {
 		Id<Person> agentId = o.getAgentId();
-		Leg leg = o.getLeg();
-		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
+		if (this.tripRecords.get(agentId) != null) {
+			dispatch(SCORE_LEG, agentId, o.getLeg());
+		}
+	}
+
+	void handleActivity(PersonExperiencedActivity o) {
+		Id<Person> agentId = o.getAgentId();
+		if (this.tripRecords.get(agentId) != null) {
+			dispatch(SCORE_ACTIVITY, agentId, o.getActivity());
+		}
+	}
+
+	private void scoreLeg(Id<Person> agentId, Leg leg) {
+		ScoringFunction scoringFunction = this.agentScorers.get(agentId);
 		if (scoringFunction != null) {
 			scoringFunction.handleLeg(leg);
 			TDoubleCollection partialScoresForAgent = this.partialScores.get(agentId);
@@ -239,10 +305,8 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		}
 	}
 
-	void handleActivity(PersonExperiencedActivity o) {
-		Id<Person> agentId = o.getAgentId();
-		Activity activity = o.getActivity();
-		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
+	private void scoreActivity(Id<Person> agentId, Activity activity) {
+		ScoringFunction scoringFunction = this.agentScorers.get(agentId);
 		if (scoringFunction != null) {
 			scoringFunction.handleActivity(activity);
 			TDoubleCollection partialScoresForAgent = this.partialScores.get(agentId);
@@ -264,12 +328,23 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	 * @param agentId
 	 *            The id of the agent the scoring function is requested for.
 	 * @return The scoring function for the specified agent.
+	 * @throws IllegalStateException if several scoring threads are still handling the scoring functions, i.e.
+	 *            {@link #finishScoringFunctions()} was not called since the functions were created.
 	 */
 	ScoringFunction getScoringFunctionForAgent(final Id<Person> agentId) {
+		if (this.partitions != null) {
+			throw new IllegalStateException("The scoring functions are still used by " + this.partitions.length + " scoring threads. Call finishScoringFunctions() first.");
+		}
 		return this.agentScorers.get(agentId);
 	}
 
 	void finishScoringFunctions() {
+		if (this.partitions != null) {
+			for (Id<Person> personId : this.agentScorers.keySet()) {
+				dispatch(FINISH, personId, null);
+			}
+			stopPartitions();
+		}
 		// Rethrow an exception in a scoring function (user code) if there was one.
 		Throwable throwable = this.exception.get();
 		if (throwable != null) {
@@ -279,11 +354,19 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 				throw new RuntimeException(throwable);
 			}
 		}
-		for (ScoringFunction sf : this.agentScorers.values()) {
-			sf.finish();
+		if (this.numberOfThreads <= 1) {
+			for (Id<Person> personId : this.agentScorers.keySet()) {
+				score(FINISH, personId, null);
+			}
 		}
-		for (Entry<Id<Person>, TDoubleCollection> entry : this.partialScores.entrySet()) {
-			entry.getValue().add(this.getScoringFunctionForAgent(entry.getKey()).getScore());
+	}
+
+	private void stopPartitions() {
+		if (this.partitions != null) {
+			for (ScoringPartition partition : this.partitions) {
+				partition.stop();
+			}
+			this.partitions = null;
 		}
 	}
 
@@ -309,4 +392,113 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		this.actsDelegate.reset(iteration);
 	}
 
+	/**
+	 * The persons of one partition, scored by a thread of their own. The calls are collected in batches, which are
+	 * re-used once the thread has worked through them, so no objects are created per call.
+	 */
+	private final class ScoringPartition implements Runnable {
+
+		private static final int BATCH_SIZE = 1024;
+		private static final int NUMBER_OF_BATCHES = 8;
+
+		private final BlockingQueue<Batch> filled = new ArrayBlockingQueue<>(NUMBER_OF_BATCHES + 1);
+		private final BlockingQueue<Batch> empty = new ArrayBlockingQueue<>(NUMBER_OF_BATCHES);
+		private final Batch stop = new Batch(0);
+		private final Thread thread;
+		private Batch current;
+
+		ScoringPartition(int partition) {
+			for (int i = 0; i < NUMBER_OF_BATCHES; i++) {
+				this.empty.add(new Batch(BATCH_SIZE));
+			}
+			this.current = this.empty.poll();
+			this.thread = new Thread(this, "ScoringFunctionsForPopulation." + partition);
+			this.thread.setDaemon(true);
+		}
+
+		void start() {
+			this.thread.start();
+		}
+
+		void add(byte kind, Id<Person> personId, Object payload) {
+			Batch batch = this.current;
+			batch.kinds[batch.size] = kind;
+			batch.personIds[batch.size] = personId;
+			batch.payloads[batch.size] = payload;
+			batch.size++;
+			if (batch.size == BATCH_SIZE) {
+				put(this.filled, batch);
+				this.current = take(this.empty);
+			}
+		}
+
+		/** Hands over the last batch, and waits until all calls are done. */
+		void stop() {
+			put(this.filled, this.current);
+			put(this.filled, this.stop);
+			try {
+				this.thread.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				Batch batch = take(this.filled);
+				if (batch == this.stop) {
+					return;
+				}
+				if (exception.get() == null) {
+					try {
+						for (int i = 0; i < batch.size; i++) {
+							score(batch.kinds[i], batch.personIds[i], batch.payloads[i]);
+						}
+					} catch (Throwable t) {
+						exception.compareAndSet(null, t);
+					}
+				}
+				batch.clear();
+				put(this.empty, batch);
+			}
+		}
+
+		private static <E> void put(BlockingQueue<E> queue, E element) {
+			try {
+				queue.put(element);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		private static <E> E take(BlockingQueue<E> queue) {
+			try {
+				return queue.take();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	private static final class Batch {
+		final byte[] kinds;
+		final Id<Person>[] personIds;
+		final Object[] payloads;
+		int size = 0;
+
+		@SuppressWarnings("unchecked")
+		Batch(int capacity) {
+			this.kinds = new byte[capacity];
+			this.personIds = new Id[capacity];
+			this.payloads = new Object[capacity];
+		}
+
+		void clear() {
+			Arrays.fill(this.personIds, 0, this.size, null);
+			Arrays.fill(this.payloads, 0, this.size, null);
+			this.size = 0;
+		}
+	}
+
 }
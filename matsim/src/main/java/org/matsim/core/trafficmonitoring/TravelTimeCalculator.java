@@ -42,18 +42,25 @@ import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
 import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityEventHandler;
 import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.controler.Checkpointable;
 import org.matsim.core.gbl.Gbl;
+import org.matsim.core.mobsim.qsim.qnetsimengine.NetsimEventHandlers;
 import org.matsim.core.router.util.LinkToLinkTravelTime;
 import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.router.util.VersionedTravelTime;
 import org.matsim.core.utils.collections.CollectionUtils;
-import org.matsim.core.utils.collections.Tuple;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vehicles.VehicleType;
 
-import java.util.HashSet;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Calculates actual travel times on link from events and optionally also the link-to-link
@@ -68,7 +75,7 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEventHandler,
 									     VehicleEntersTrafficEventHandler, VehicleLeavesTrafficEventHandler, VehicleArrivesAtFacilityEventHandler,
-									     VehicleAbortsEventHandler {
+									     VehicleAbortsEventHandler, Checkpointable {
 	private static final Logger log = LogManager.getLogger(TravelTimeCalculator.class);
 
 	private static final String ERROR_STUCK_AND_LINKTOLINK = "Using the stuck feature with turning move travel times is not available. As the next link of a stucked" +
@@ -81,11 +88,20 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	private final Network network;
 	private IdMap<Link, TravelTimeDataArray> linkData;
 
-	private Map<Tuple<Id<Link>, Id<Link>>, TravelTimeDataArray> linkToLinkData;
-
-	private final Map<Id<Vehicle>, LinkEnterEvent> linkEnterEvents;
-
-	private final Set<Id<Vehicle>> vehiclesToIgnore;
+	/* The link-to-link data is stored per turn of the network, see TurnIndex, and only created when the turn is
+	 * used. Turns that are not part of the network (e.g. if links were added later) are stored in a map with
+	 * the two link indices as key. */
+	private TurnIndex turnIndex;
+	private AtomicReferenceArray<TravelTimeDataArray> turnData;
+	private Map<Long, TravelTimeDataArray> otherTurnData;
+
+	/* for every vehicle the link it entered last and the time it entered it, and whether the vehicle is ignored
+	 * because it is not used for one of the analyzed modes. */
+	private final VehicleLinkEnters vehicleLinkEnters = new VehicleLinkEnters();
+	/* changes at the iteration boundaries, i.e. when the travel times are reset before the mobsim and when the mobsim
+	 * has ended, see VersionedTravelTime. It is not changed by the events, as they may come from all netsim threads at
+	 * once, so during the mobsim the travel times change without a new version. */
+	private volatile long version = 0;
 	private final Set<String> analyzedModes;
 
 	private final boolean filterAnalyzedModes;
@@ -95,6 +111,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	private final boolean calculateLinkToLinkTravelTimes;
 
 	@Inject private QSimConfigGroup qsimConfig ;
+	private NetsimEventHandlers netsimEventHandlers = null;
 	TravelTimeGetter travelTimeGetter ;
 
 	@Deprecated // use builder instead.  kai, feb'19
@@ -130,6 +147,13 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		configure(this, ttconfigGroup, network);
 	}
 
+	@Inject(optional = true) // not bound without the TravelTimeCalculatorModule
+	void setNetsimEventHandlers(TravelTimeCalculatorConfigGroup ttconfigGroup, NetsimEventHandlers netsimEventHandlers) {
+		if (ttconfigGroup.isFeedFromNetsim()) {
+			this.feedFromNetsim(netsimEventHandlers);
+		}
+	}
+
 	@Deprecated // user builder instead.  kai, feb'19
 	public TravelTimeCalculator( final Network network, TravelTimeCalculatorConfigGroup ttconfigGroup ) {
 		// one tests needs this public
@@ -219,29 +243,104 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 			this.linkData = new IdMap<>(Link.class);
 		}
 		if (this.calculateLinkToLinkTravelTimes){
-			// assume that every link has 2 outgoing links as default
-			this.linkToLinkData = new ConcurrentHashMap<>((int) (network.getLinks().size() * 1.4 * 2));
+			this.turnIndex = new TurnIndex(network);
+			this.turnData = new AtomicReferenceArray<>(this.turnIndex.getNumberOfTurns());
+			this.otherTurnData = new ConcurrentHashMap<>();
 		}
-		this.linkEnterEvents = new ConcurrentHashMap<>();
-
-		// if we just look at one mode, we need to ignore all vehicles with a different mode. However, the info re the mode is only in
-		// the vehicleEntersTraffic event.  So we need to memorize the ignored vehicles from there ...
-		this.vehiclesToIgnore = new HashSet<>();
 
 		this.reset(0);
 	}
 
+	/**
+	 * Lets the threads of the QNetsimEngine pass the link enter and leave events, the vehicle enters and leaves
+	 * traffic events and the vehicle aborts events directly to this calculator, instead of through the events manager.
+	 * This calculator must still be registered as handler at the events manager, for the events that are not created by
+	 * the netsim (like {@link VehicleArrivesAtFacilityEvent}s) and for the case that the netsim does not support this.
+	 * <p>
+	 * The data of a link is only updated by events that are created by the node at the end of that link (or the link
+	 * itself), so it is only updated by one thread at a time and the travel times are the same as if the events were
+	 * received from the events manager. Only the link data must exist in advance, as the map containing it is not thread-safe.
+	 */
+	public void feedFromNetsim(final NetsimEventHandlers handlers) {
+		if (this.calculateLinkTravelTimes) {
+			for (Id<Link> linkId : this.network.getLinks().keySet()) {
+				this.getTravelTimeData(linkId, true);
+			}
+		}
+		this.netsimEventHandlers = handlers;
+		handlers.addHandler(event -> {
+			if (event instanceof LinkLeaveEvent e) {
+				this.handleLinkLeave(e);
+			} else if (event instanceof LinkEnterEvent e) {
+				this.handleLinkEnter(e);
+			} else if (event instanceof VehicleEntersTrafficEvent e) {
+				this.handleVehicleEntersTraffic(e);
+			} else if (event instanceof VehicleLeavesTrafficEvent e) {
+				this.handleVehicleLeavesTraffic(e);
+			} else if (event instanceof VehicleAbortsEvent e) {
+				this.handleVehicleAborts(e);
+			}
+		});
+	}
+
+	private boolean isFedFromNetsim() {
+		return this.netsimEventHandlers != null && this.netsimEventHandlers.isAttached();
+	}
+
 	@Override
 	public void handleEvent(final LinkEnterEvent e) {
+		if (!isFedFromNetsim()) {
+			handleLinkEnter(e);
+		}
+	}
+
+	@Override
+	public void handleEvent(final LinkLeaveEvent e) {
+		if (!isFedFromNetsim()) {
+			handleLinkLeave(e);
+		}
+	}
+
+	@Override
+	public void handleEvent(VehicleEntersTrafficEvent event) {
+		if (!isFedFromNetsim()) {
+			handleVehicleEntersTraffic(event);
+		}
+	}
+
+	@Override
+	public void handleEvent(final VehicleLeavesTrafficEvent event) {
+		if (!isFedFromNetsim()) {
+			handleVehicleLeavesTraffic(event);
+		}
+	}
+
+	@Override
+	public void handleEvent(VehicleArrivesAtFacilityEvent event) {
+		/* remove EnterEvents from list when a bus stops on a link.
+		 * otherwise, the stop time would be counted as travel time, when the
+		 * bus departs again and leaves the link! */
+		this.vehicleLinkEnters.remove(event.getVehicleId().index());
+	}
+
+	@Override
+	public void handleEvent(VehicleAbortsEvent event) {
+		if (!isFedFromNetsim()) {
+			handleVehicleAborts(event);
+		}
+	}
+
+	private void handleLinkEnter(final LinkEnterEvent e) {
 		/* if only some modes are analyzed, we check whether the vehicles
 		 * performs a trip with one of those modes. if not, we skip the event. */
-		if (filterAnalyzedModes && vehiclesToIgnore.contains(e.getVehicleId())) return;
+		int vehicle = e.getVehicleId().index();
+		if (filterAnalyzedModes && this.vehicleLinkEnters.isIgnored(vehicle)) return;
 
-		LinkEnterEvent oldEvent = this.linkEnterEvents.put(e.getVehicleId(), e);
-		if ((oldEvent != null) && this.calculateLinkToLinkTravelTimes) {
-			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(oldEvent.getLinkId(), e.getLinkId());
-			TravelTimeData data = getLinkToLinkTravelTimeData(fromToLink );
-			double enterTime = oldEvent.getTime();
+		int oldLink = this.vehicleLinkEnters.getLink(vehicle);
+		double enterTime = this.vehicleLinkEnters.getTime(vehicle);
+		this.vehicleLinkEnters.set(vehicle, e.getLinkId().index(), e.getTime());
+		if ((oldLink >= 0) && this.calculateLinkToLinkTravelTimes) {
+			TravelTimeData data = getLinkToLinkTravelTimeData(oldLink, e.getLinkId().index());
 
 			final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
 			data.addTravelTime(timeSlot, e.getTime() - enterTime );
@@ -249,13 +348,12 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		}
 	}
 
-	@Override
-	public void handleEvent(final LinkLeaveEvent e) {
+	private void handleLinkLeave(final LinkLeaveEvent e) {
 		if (this.calculateLinkTravelTimes) {
-			LinkEnterEvent oldEvent = this.linkEnterEvents.get(e.getVehicleId());
-			if (oldEvent != null) {
+			int vehicle = e.getVehicleId().index();
+			if (this.vehicleLinkEnters.getLink(vehicle) >= 0) {
 				TravelTimeData data = this.getTravelTimeData(e.getLinkId(), true);
-				double enterTime = oldEvent.getTime();
+				double enterTime = this.vehicleLinkEnters.getTime(vehicle);
 
 				final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
 				data.addTravelTime(timeSlot, e.getTime() - enterTime );
@@ -264,40 +362,29 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		}
 	}
 
-	@Override
-	public void handleEvent(VehicleEntersTrafficEvent event) {
+	private void handleVehicleEntersTraffic(VehicleEntersTrafficEvent event) {
 		/* if filtering transport modes is enabled and the vehicles
 		 * starts a leg on a non analyzed transport mode, add the vehicle
 		 * to the filtered vehicles set. */
 		if (filterAnalyzedModes && !analyzedModes.contains(event.getNetworkMode())) {
-			this.vehiclesToIgnore.add(event.getVehicleId());
+			this.vehicleLinkEnters.setIgnored(event.getVehicleId().index(), true);
 		}
 	}
 
-	@Override
-	public void handleEvent(final VehicleLeavesTrafficEvent event) {
+	private void handleVehicleLeavesTraffic(final VehicleLeavesTrafficEvent event) {
 		/* remove EnterEvents from list when a vehicle arrives.
 		 * otherwise, the activity duration would be counted as travel time, when the
 		 * vehicle departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		this.vehicleLinkEnters.remove(event.getVehicleId().index());
 
 		// try to remove vehicles from set with filtered vehicles
-		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
+		if (filterAnalyzedModes) this.vehicleLinkEnters.setIgnored(event.getVehicleId().index(), false);
 	}
 
-	@Override
-	public void handleEvent(VehicleArrivesAtFacilityEvent event) {
-		/* remove EnterEvents from list when a bus stops on a link.
-		 * otherwise, the stop time would be counted as travel time, when the
-		 * bus departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
-	}
-
-	@Override
-	public void handleEvent(VehicleAbortsEvent event) {
-		LinkEnterEvent e = this.linkEnterEvents.remove(event.getVehicleId());
-		if (e != null) {
-			TravelTimeData data = this.getTravelTimeData(e.getLinkId(), true);
+	private void handleVehicleAborts(VehicleAbortsEvent event) {
+		int enterLink = this.vehicleLinkEnters.remove(event.getVehicleId().index());
+		if (enterLink >= 0) {
+			TravelTimeData data = this.getTravelTimeData(Id.get(enterLink, Link.class), true);
 			data.setNeedsConsolidation( true );
 
 			//			this.aggregator.addStuckEventTravelTime(data, e.getTime(), event.getTime());
@@ -313,7 +400,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		}
 
 		// try to remove vehicle from set with filtered vehicles
-		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
+		if (filterAnalyzedModes) this.vehicleLinkEnters.setIgnored(event.getVehicleId().index(), false);
 	}
 
 	private TravelTimeDataArray getTravelTimeData(final Id<Link> linkId, final boolean createIfMissing) {
@@ -325,11 +412,20 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		return data;
 	}
 
-	private TravelTimeDataArray getLinkToLinkTravelTimeData( Tuple<Id<Link>, Id<Link>> fromLinkToLink ) {
-		TravelTimeDataArray data = this.linkToLinkData.get(fromLinkToLink);
+	private TravelTimeDataArray getLinkToLinkTravelTimeData( final int fromLinkIndex, final int toLinkIndex ) {
+		int turn = this.turnIndex.getTurnIndex(fromLinkIndex, toLinkIndex);
+		if (turn < 0) {
+			long key = ((long) fromLinkIndex << 32) | (toLinkIndex & 0xffffffffL);
+			return this.otherTurnData.computeIfAbsent(key, k -> this.createTravelTimeData(Id.get(fromLinkIndex, Link.class)));
+		}
+		TravelTimeDataArray data = this.turnData.get(turn);
 		if ( null == data ) {
-			data = this.createTravelTimeData(fromLinkToLink.getFirst()) ;
-			this.linkToLinkData.put(fromLinkToLink, data);
+			// the router may ask for travel times of unused turns from several threads
+			TravelTimeDataArray newData = this.createTravelTimeData(Id.get(fromLinkIndex, Link.class));
+			data = this.turnData.compareAndExchange(turn, null, newData);
+			if (data == null) {
+				data = newData;
+			}
 		}
 		return data;
 	}
@@ -356,7 +452,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 			throw new IllegalStateException("No link to link travel time is available " +
 									    "if calculation is switched off by config option!");
 		}
-		TravelTimeData data = this.getLinkToLinkTravelTimeData(new Tuple<>(fromLinkId, toLinkId) );
+		TravelTimeData data = this.getLinkToLinkTravelTimeData(fromLinkId.index(), toLinkId.index());
 		if ( data.isNeedingConsolidation() ) {
 			consolidateData(data);
 		}
@@ -372,13 +468,93 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 			}
 		}
 		if (this.calculateLinkToLinkTravelTimes){
-			for (TravelTimeData data : this.linkToLinkData.values()){
+			for (int turn = 0; turn < this.turnData.length(); turn++) {
+				TravelTimeData data = this.turnData.get(turn);
+				if (data != null) {
+					data.resetTravelTimes();
+					data.setNeedsConsolidation( false );
+				}
+			}
+			for (TravelTimeData data : this.otherTurnData.values()){
 				data.resetTravelTimes();
 				data.setNeedsConsolidation( false );
 			}
 		}
-		this.linkEnterEvents.clear();
-		this.vehiclesToIgnore.clear();
+		this.vehicleLinkEnters.clear();
+		incrementVersion();
+	}
+
+	/**
+	 * Tells the users of the {@link VersionedTravelTime}s that the travel times have changed. Called when they are
+	 * reset and after the mobsim, see {@link TravelTimeCalculatorModule}.
+	 */
+	void incrementVersion() {
+		this.version++; // only called by the controler thread, so no update is lost
+	}
+
+	/**
+	 * Stores the travel times collected in the last iteration, as they are used for the replanning of the next iteration.
+	 */
+	@Override
+	public void writeCheckpoint(DataOutputStream out) throws IOException {
+		out.writeInt(this.numSlots);
+		if (this.calculateLinkTravelTimes) {
+			out.writeInt(this.linkData.size());
+			for (Map.Entry<Id<Link>, TravelTimeDataArray> e : this.linkData.entrySet()) {
+				out.writeUTF(e.getKey().toString());
+				e.getValue().writeCheckpoint(out);
+			}
+		} else {
+			out.writeInt(0);
+		}
+		if (this.calculateLinkToLinkTravelTimes) {
+			List<Id<Link>> fromLinkIds = new ArrayList<>();
+			List<Id<Link>> toLinkIds = new ArrayList<>();
+			List<TravelTimeDataArray> turns = new ArrayList<>();
+			for (Link fromLink : this.network.getLinks().values()) {
+				for (Link toLink : fromLink.getToNode().getOutLinks().values()) {
+					int turn = this.turnIndex.getTurnIndex(fromLink.getId().index(), toLink.getId().index());
+					TravelTimeDataArray data = turn < 0 ? null : this.turnData.get(turn);
+					if (data != null) {
+						fromLinkIds.add(fromLink.getId());
+						toLinkIds.add(toLink.getId());
+						turns.add(data);
+					}
+				}
+			}
+			for (Map.Entry<Long, TravelTimeDataArray> e : this.otherTurnData.entrySet()) {
+				fromLinkIds.add(Id.get((int) (e.getKey() >>> 32), Link.class));
+				toLinkIds.add(Id.get((int) e.getKey().longValue(), Link.class));
+				turns.add(e.getValue());
+			}
+			out.writeInt(turns.size());
+			for (int i = 0; i < turns.size(); i++) {
+				out.writeUTF(fromLinkIds.get(i).toString());
+				out.writeUTF(toLinkIds.get(i).toString());
+				turns.get(i).writeCheckpoint(out);
+			}
+		} else {
+			out.writeInt(0);
+		}
+	}
+
+	@Override
+	public void readCheckpoint(DataInputStream in) throws IOException {
+		int slots = in.readInt();
+		if (slots != this.numSlots) {
+			throw new IllegalStateException("The checkpoint contains travel times for " + slots + " time slots, but " + this.numSlots + " are configured.");
+		}
+		reset(-1);
+		int linkCount = in.readInt();
+		for (int i = 0; i < linkCount; i++) {
+			getTravelTimeData(Id.createLinkId(in.readUTF()), true).readCheckpoint(in);
+		}
+		int turnCount = in.readInt();
+		for (int i = 0; i < turnCount; i++) {
+			Id<Link> fromLinkId = Id.createLinkId(in.readUTF());
+			Id<Link> toLinkId = Id.createLinkId(in.readUTF());
+			getLinkToLinkTravelTimeData(fromLinkId.index(), toLinkId.index()).readCheckpoint(in);
+		}
 	}
 
 	/**
@@ -435,7 +611,12 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	private static int cnt = 0 ;
 
 	public TravelTime getLinkTravelTimes() {
-		return new TravelTime() {
+		return new VersionedTravelTime() {
+
+			@Override
+			public long getVersion() {
+				return TravelTimeCalculator.this.version;
+			}
 
 			@Override
 			public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
@@ -31,6 +31,9 @@ import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
 import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.events.AfterMobsimEvent;
+import org.matsim.core.controler.listener.AfterMobsimListener;
+import org.matsim.core.mobsim.qsim.qnetsimengine.NetsimEventHandlers;
 import org.matsim.core.router.util.LinkToLinkTravelTime;
 import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.utils.collections.CollectionUtils;
@@ -50,6 +53,8 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 
 	@Override
 	public void install() {
+		// always bound, so injection points and tools like the grapher find it; without handlers, it does not change anything
+		bind(NetsimEventHandlers.class).in(Singleton.class);
 		if (getConfig().travelTimeCalculator().getSeparateModes()) {
 			// (this is the default)
 
@@ -63,6 +68,8 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 
 				// generate and bind the observer:
 				bind(TravelTimeCalculator.class).annotatedWith(Names.named(mode)).toProvider(new SingleModeTravelTimeCalculatorProvider(mode)).in(Singleton.class);
+				addCheckpointableBinding("travelTimes." + mode).to(Key.get(TravelTimeCalculator.class, Names.named(mode)));
+				addControlerListenerBinding().toInstance(new VersionUpdater(binder().getProvider(Key.get(TravelTimeCalculator.class, Names.named(mode)))));
 
 				// bind the observer to travel time provider (for router):
 				addTravelTimeBinding(mode).toProvider(new Provider<TravelTime>() {
@@ -84,6 +91,8 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 
 			// bind the TravelTimeCalculator, which is the observer and aggregator:
 			bind(TravelTimeCalculator.class).in(Singleton.class);
+			addCheckpointableBinding("travelTimes").to(TravelTimeCalculator.class);
+			addControlerListenerBinding().toInstance(new VersionUpdater(binder().getProvider(TravelTimeCalculator.class)));
 
 			// bind the TravelTime objects.  In this case, this just passes on the same information from TravelTimeCalculator to each individual mode:
 			if (getConfig().travelTimeCalculator().isCalculateLinkTravelTimes()) {
@@ -104,6 +113,7 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 		@Inject TravelTimeCalculatorConfigGroup config;
 		@Inject EventsManager eventsManager;
 		@Inject Network network;
+		@com.google.inject.Inject(optional = true) NetsimEventHandlers netsimEventHandlers;
 
 		private String mode;
 
@@ -127,10 +137,30 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 			builder.configure( config );
 			TravelTimeCalculator calculator = builder.build();
 			eventsManager.addHandler( calculator );
+			if ( config.isFeedFromNetsim() ) {
+				calculator.feedFromNetsim( netsimEventHandlers );
+			}
 			return calculator ;
 		}
 	}
 
+	/**
+	 * Starts a new version of the travel times when the mobsim has ended, so that results derived from the travel
+	 * times during the mobsim (e.g. by within-day replanning) are not used for the replanning.
+	 */
+	private static class VersionUpdater implements AfterMobsimListener {
+		private final Provider<TravelTimeCalculator> travelTimeCalculator;
+
+		VersionUpdater(Provider<TravelTimeCalculator> travelTimeCalculator) {
+			this.travelTimeCalculator = travelTimeCalculator;
+		}
+
+		@Override
+		public void notifyAfterMobsim(AfterMobsimEvent event) {
+			this.travelTimeCalculator.get().incrementVersion();
+		}
+	}
+
 	private static class ObservedLinkTravelTimes implements Provider<TravelTime> {
 
 		@Inject
@@ -22,6 +22,9 @@ package org.matsim.core.trafficmonitoring;
 
 import org.matsim.api.core.v01.network.Link;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
@@ -117,6 +120,20 @@ class TravelTimeDataArray extends TravelTimeData {
 		return freespeed;
 	}
 
+	void writeCheckpoint(final DataOutputStream out) throws IOException {
+		out.writeBoolean(isNeedingConsolidation());
+		for (long val : this.data) {
+			out.writeLong(val);
+		}
+	}
+
+	void readCheckpoint(final DataInputStream in) throws IOException {
+		setNeedsConsolidation(in.readBoolean());
+		for (int i = 0; i < this.data.length; i++) {
+			this.data[i] = in.readLong();
+		}
+	}
+
 	/* package-private for debugging */ String cntToString(){
 		StringBuilder strb = new StringBuilder().append( "cnt=[ " );
 		for( int ii = 0 ; ii < this.data.length ; ii++ ){
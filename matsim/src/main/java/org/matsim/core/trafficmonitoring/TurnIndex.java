@@ -0,0 +1,76 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TurnIndex.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+
+/**
+ * Assigns a consecutive index to every turn (pair of a link and one of the out-links of its to-node) of a network,
+ * based on the {@link Id#index()} of the links. The turns of a link are stored next to each other, so looking up
+ * a turn only requires to scan the (few) out-links of its from-link, without creating any key objects.
+ */
+final class TurnIndex {
+
+	/** for every from-link index, the index of its first turn. The turns of link i are [offsets[i], offsets[i+1]) */
+	private final int[] offsets;
+	/** for every turn, the index of the to-link */
+	private final int[] toLinks;
+
+	TurnIndex(final Network network) {
+		int linkCount = Id.getNumberOfIds(Link.class);
+		this.offsets = new int[linkCount + 1];
+		for (Link link : network.getLinks().values()) {
+			this.offsets[link.getId().index() + 1] = link.getToNode().getOutLinks().size();
+		}
+		for (int i = 0; i < linkCount; i++) {
+			this.offsets[i + 1] += this.offsets[i];
+		}
+		this.toLinks = new int[this.offsets[linkCount]];
+		for (Link link : network.getLinks().values()) {
+			int turn = this.offsets[link.getId().index()];
+			for (Link toLink : link.getToNode().getOutLinks().values()) {
+				this.toLinks[turn++] = toLink.getId().index();
+			}
+		}
+	}
+
+	/**
+	 * @return the index of the turn, or -1 if the turn is not part of the network (or was added after this index was built)
+	 */
+	int getTurnIndex(final int fromLinkIndex, final int toLinkIndex) {
+		if (fromLinkIndex + 1 >= this.offsets.length) {
+			return -1;
+		}
+		for (int turn = this.offsets[fromLinkIndex], end = this.offsets[fromLinkIndex + 1]; turn < end; turn++) {
+			if (this.toLinks[turn] == toLinkIndex) {
+				return turn;
+			}
+		}
+		return -1;
+	}
+
+	int getNumberOfTurns() {
+		return this.toLinks.length;
+	}
+
+}
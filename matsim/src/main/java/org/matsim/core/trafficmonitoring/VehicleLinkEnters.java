@@ -0,0 +1,126 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * VehicleLinkEnters.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.util.Arrays;
+
+/**
+ * Stores for every vehicle (by the index of its Id) the link it entered last, the time it entered it and whether
+ * the vehicle is ignored.
+ * <p>
+ * The data is stored in fixed-size chunks which are never copied. Thus, different threads may update the data of
+ * different vehicles at the same time without losing updates, as long as the data of one vehicle is only updated by
+ * one thread at a time (and there is a happens-before relation between the threads, like the barriers between time
+ * steps in the QNetsimEngine).
+ */
+final class VehicleLinkEnters {
+
+	private static final int CHUNK_BITS = 12;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private volatile Chunk[] chunks = new Chunk[0];
+
+	/**
+	 * @return the index of the link the vehicle entered last, or -1 if the vehicle is not on a link
+	 */
+	int getLink(final int vehicle) {
+		Chunk chunk = getChunk(vehicle, false);
+		return chunk == null ? -1 : chunk.links[vehicle & CHUNK_MASK];
+	}
+
+	double getTime(final int vehicle) {
+		return getChunk(vehicle, true).times[vehicle & CHUNK_MASK];
+	}
+
+	void set(final int vehicle, final int link, final double time) {
+		Chunk chunk = getChunk(vehicle, true);
+		chunk.links[vehicle & CHUNK_MASK] = link;
+		chunk.times[vehicle & CHUNK_MASK] = time;
+	}
+
+	/**
+	 * @return the index of the link the vehicle entered last, or -1 if the vehicle was not on a link
+	 */
+	int remove(final int vehicle) {
+		Chunk chunk = getChunk(vehicle, false);
+		if (chunk == null) {
+			return -1;
+		}
+		int link = chunk.links[vehicle & CHUNK_MASK];
+		chunk.links[vehicle & CHUNK_MASK] = -1;
+		return link;
+	}
+
+	boolean isIgnored(final int vehicle) {
+		Chunk chunk = getChunk(vehicle, false);
+		return chunk != null && chunk.ignored[vehicle & CHUNK_MASK];
+	}
+
+	void setIgnored(final int vehicle, final boolean ignored) {
+		Chunk chunk = getChunk(vehicle, ignored);
+		if (chunk != null) {
+			chunk.ignored[vehicle & CHUNK_MASK] = ignored;
+		}
+	}
+
+	void clear() {
+		for (Chunk chunk : this.chunks) {
+			if (chunk != null) {
+				Arrays.fill(chunk.links, -1);
+				Arrays.fill(chunk.ignored, false);
+			}
+		}
+	}
+
+	private Chunk getChunk(final int vehicle, final boolean create) {
+		int index = vehicle >>> CHUNK_BITS;
+		Chunk[] chunks = this.chunks;
+		if (index < chunks.length && chunks[index] != null) {
+			return chunks[index];
+		}
+		if (!create) {
+			return null;
+		}
+		synchronized (this) {
+			chunks = this.chunks;
+			if (index >= chunks.length) {
+				chunks = Arrays.copyOf(chunks, Math.max(index + 1, chunks.length * 2));
+			}
+			if (chunks[index] == null) {
+				chunks[index] = new Chunk();
+			}
+			this.chunks = chunks;
+			return chunks[index];
+		}
+	}
+
+	private static final class Chunk {
+		final int[] links = new int[CHUNK_SIZE];
+		final double[] times = new double[CHUNK_SIZE];
+		final boolean[] ignored = new boolean[CHUNK_SIZE];
+
+		Chunk() {
+			Arrays.fill(this.links, -1);
+		}
+	}
+
+}
@@ -0,0 +1,366 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CalendarQueue.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.collections;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A priority queue for elements that become due at a point in simulation time, e.g. activity ends or
+ * teleportation arrivals. The elements are put into buckets of a fixed time width (one second by default),
+ * organized as a ring that covers a fixed horizon. Adding an element and removing the next one are thus
+ * O(1), compared to O(log n) for a heap. Elements further in the future than the horizon are kept in
+ * an overflow heap until the ring reaches them. The ring starts at the bucket of the last removed element,
+ * or moves back if an earlier element is added.
+ * <p></p>
+ * Within a bucket, the elements are sorted lazily by time and the given tie-breaker once the bucket
+ * is reached, so the elements are returned in exactly the same order as by a {@link PriorityQueue}
+ * with the comparator <code>comparingDouble(time).thenComparing(tieBreaker)</code>, as long as that
+ * comparator is a total order.
+ * <p></p>
+ * The elements must not change their time while they are in the queue. Like
+ * {@link java.util.concurrent.PriorityBlockingQueue}, all methods are thread-safe, and the iterator
+ * works on a snapshot; its <code>remove()</code> removes the element from the queue. Unlike the iterator
+ * of a {@link PriorityQueue}, the iterator and {@link #toArray()} return the elements in the order in
+ * which they would be removed, so anything done for all remaining elements (e.g. the stuck events at the end
+ * of the simulation) happens in a well-defined order.
+ */
+public final class CalendarQueue<E> extends AbstractQueue<E> {
+
+	public static final double DEFAULT_BUCKET_WIDTH = 1.0;
+	public static final int DEFAULT_NUMBER_OF_BUCKETS = 1 << 17; // a bit more than 36 hours with 1-second buckets
+
+	private final ToDoubleFunction<? super E> timeFunction;
+	private final Comparator<? super E> comparator;
+	private final double bucketWidth;
+	private final Bucket[] buckets;
+	private final int mask;
+	private final PriorityQueue<E> overflow;
+
+	private static final long MAX_INDEX = 1L << 53; // keeps the index arithmetic free of overflows, also for infinite times
+
+	/** the ring covers the buckets [cursor, cursor + number of buckets); later elements are in the overflow. */
+	private long cursor = 0;
+	/** there is no non-empty bucket in the ring before this index. */
+	private long scanIndex = 0;
+	private int sizeInRing = 0;
+
+	public CalendarQueue(ToDoubleFunction<? super E> timeFunction, Comparator<? super E> tieBreaker) {
+		this(timeFunction, tieBreaker, DEFAULT_BUCKET_WIDTH, DEFAULT_NUMBER_OF_BUCKETS);
+	}
+
+	public CalendarQueue(ToDoubleFunction<? super E> timeFunction, Comparator<? super E> tieBreaker, double bucketWidth, int numberOfBuckets) {
+		if (!(bucketWidth > 0)) {
+			throw new IllegalArgumentException("bucketWidth must be positive, but is " + bucketWidth);
+		}
+		if (numberOfBuckets <= 0 || Integer.bitCount(numberOfBuckets) != 1) {
+			throw new IllegalArgumentException("numberOfBuckets must be a power of 2, but is " + numberOfBuckets);
+		}
+		this.timeFunction = timeFunction;
+		this.comparator = Comparator.<E>comparingDouble(timeFunction).thenComparing(tieBreaker);
+		this.bucketWidth = bucketWidth;
+		this.buckets = new Bucket[numberOfBuckets];
+		this.mask = numberOfBuckets - 1;
+		this.overflow = new PriorityQueue<>(this.comparator);
+	}
+
+	@Override
+	public synchronized boolean offer(E e) {
+		long index = bucketIndex(e);
+		if (this.sizeInRing == 0 && this.overflow.isEmpty()) {
+			this.cursor = index;
+			this.scanIndex = index;
+		} else if (index < this.cursor) {
+			moveRingBack(index);
+		}
+		if (index - this.cursor > this.mask) {
+			this.overflow.add(e);
+		} else {
+			bucket(index).add(e);
+			this.sizeInRing++;
+			this.scanIndex = Math.min(this.scanIndex, index);
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized E peek() {
+		if (this.sizeInRing == 0) {
+			return this.overflow.peek();
+		}
+		return this.buckets[slot(firstIndex())].peek(this.comparator);
+	}
+
+	@Override
+	public synchronized E poll() {
+		if (this.sizeInRing == 0) {
+			if (this.overflow.isEmpty()) {
+				return null;
+			}
+			moveRingForward(bucketIndex(this.overflow.peek()));
+		} else {
+			moveRingForward(firstIndex());
+		}
+		E e = this.buckets[slot(this.cursor)].poll(this.comparator);
+		this.sizeInRing--;
+		return e;
+	}
+
+	@Override
+	public synchronized int size() {
+		return this.sizeInRing + this.overflow.size();
+	}
+
+	@Override
+	public synchronized void clear() {
+		for (Bucket bucket : this.buckets) {
+			if (bucket != null) {
+				bucket.clear();
+			}
+		}
+		this.overflow.clear();
+		this.sizeInRing = 0;
+	}
+
+	@Override
+	public synchronized boolean remove(Object o) {
+		@SuppressWarnings("unchecked")
+		long index = bucketIndex((E) o);
+		if (index >= this.cursor && index - this.cursor <= this.mask) {
+			Bucket bucket = this.buckets[slot(index)];
+			if (bucket != null && bucket.remove(o)) {
+				this.sizeInRing--;
+				return true;
+			}
+			return false;
+		}
+		return this.overflow.remove(o);
+	}
+
+	@Override
+	public synchronized Object[] toArray() {
+		Object[] array = new Object[size()];
+		int pos = 0;
+		for (long index = this.scanIndex; pos < this.sizeInRing; index++) {
+			Bucket bucket = this.buckets[slot(index)];
+			if (bucket != null && !bucket.isEmpty()) {
+				bucket.sort(this.comparator);
+				System.arraycopy(bucket.elements, bucket.head, array, pos, bucket.size - bucket.head);
+				pos += bucket.size - bucket.head;
+			}
+		}
+		Object[] overflow = this.overflow.toArray();
+		@SuppressWarnings("unchecked")
+		Comparator<Object> comparator = (Comparator<Object>) this.comparator;
+		Arrays.sort(overflow, comparator);
+		System.arraycopy(overflow, 0, array, pos, overflow.length);
+		return array;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Itr(toArray());
+	}
+
+	private long bucketIndex(E e) {
+		double index = Math.floor(this.timeFunction.applyAsDouble(e) / this.bucketWidth);
+		return (long) Math.max(-MAX_INDEX, Math.min(MAX_INDEX, index));
+	}
+
+	private int slot(long index) {
+		return (int) (index & this.mask);
+	}
+
+	private Bucket bucket(long index) {
+		int slot = slot(index);
+		Bucket bucket = this.buckets[slot];
+		if (bucket == null) {
+			bucket = new Bucket();
+			this.buckets[slot] = bucket;
+		}
+		return bucket;
+	}
+
+	/**
+	 * Returns the index of the first non-empty bucket in the ring; there must be one.
+	 */
+	private long firstIndex() {
+		long index = this.scanIndex;
+		while (true) {
+			Bucket bucket = this.buckets[slot(index)];
+			if (bucket != null && !bucket.isEmpty()) {
+				this.scanIndex = index;
+				return index;
+			}
+			index++;
+		}
+	}
+
+	/**
+	 * Moves the start of the ring to the given index, which must not be after the first non-empty bucket, and moves
+	 * the elements from the overflow into the ring that are now within its range.
+	 */
+	private void moveRingForward(long index) {
+		this.cursor = index;
+		this.scanIndex = index;
+		while (!this.overflow.isEmpty()) {
+			long overflowIndex = bucketIndex(this.overflow.peek());
+			if (overflowIndex - this.cursor > this.mask) {
+				break;
+			}
+			bucket(overflowIndex).add(this.overflow.poll());
+			this.sizeInRing++;
+		}
+	}
+
+	/**
+	 * Moves the start of the ring back to the given index, i.e. an element is added before the current start. The
+	 * elements at the end of the ring which are no longer within its range are moved to the overflow.
+	 */
+	@SuppressWarnings("unchecked")
+	private void moveRingBack(long index) {
+		long last = this.cursor + this.mask;
+		for (long i = Math.max(index + this.mask + 1, this.cursor); i <= last && this.sizeInRing > 0; i++) {
+			Bucket bucket = this.buckets[slot(i)];
+			if (bucket != null) {
+				for (int j = bucket.head; j < bucket.size; j++) {
+					this.overflow.add((E) bucket.elements[j]);
+					this.sizeInRing--;
+				}
+				bucket.clear();
+			}
+		}
+		this.cursor = index;
+		this.scanIndex = index;
+	}
+
+	private static final class Bucket {
+		private Object[] elements = new Object[4];
+		private int head = 0;
+		private int size = 0;
+		private boolean sorted = true;
+
+		boolean isEmpty() {
+			return this.head == this.size;
+		}
+
+		void add(Object e) {
+			if (this.size == this.elements.length) {
+				if (this.head > 0) {
+					System.arraycopy(this.elements, this.head, this.elements, 0, this.size - this.head);
+					Arrays.fill(this.elements, this.size - this.head, this.size, null);
+					this.size -= this.head;
+					this.head = 0;
+				}
+				if (this.size == this.elements.length) {
+					this.elements = Arrays.copyOf(this.elements, this.elements.length * 2);
+				}
+			}
+			this.elements[this.size++] = e;
+			this.sorted = false;
+		}
+
+		@SuppressWarnings("unchecked")
+		<E> void sort(Comparator<? super E> comparator) {
+			if (!this.sorted) {
+				Arrays.sort((E[]) this.elements, this.head, this.size, comparator);
+				this.sorted = true;
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		<E> E peek(Comparator<? super E> comparator) {
+			sort(comparator);
+			return (E) this.elements[this.head];
+		}
+
+		<E> E poll(Comparator<? super E> comparator) {
+			E e = peek(comparator);
+			this.elements[this.head++] = null;
+			if (this.head == this.size) {
+				this.head = 0;
+				this.size = 0;
+			}
+			return e;
+		}
+
+		boolean remove(Object o) {
+			for (int i = this.head; i < this.size; i++) {
+				if (this.elements[i] == o) {
+					System.arraycopy(this.elements, i + 1, this.elements, i, this.size - i - 1);
+					this.elements[--this.size] = null;
+					if (this.head == this.size) {
+						this.head = 0;
+						this.size = 0;
+					}
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void clear() {
+			Arrays.fill(this.elements, this.head, this.size, null);
+			this.head = 0;
+			this.size = 0;
+			this.sorted = true;
+		}
+	}
+
+	private final class Itr implements Iterator<E> {
+		private final Object[] snapshot;
+		private int next = 0;
+		private int last = -1;
+
+		Itr(Object[] snapshot) {
+			this.snapshot = snapshot;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.next < this.snapshot.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public E next() {
+			if (this.next >= this.snapshot.length) {
+				throw new NoSuchElementException();
+			}
+			this.last = this.next++;
+			return (E) this.snapshot[this.last];
+		}
+
+		@Override
+		public void remove() {
+			if (this.last < 0) {
+				throw new IllegalStateException();
+			}
+			CalendarQueue.this.remove(this.snapshot[this.last]);
+			this.last = -1;
+		}
+	}
+}
@@ -0,0 +1,615 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PackedKdTree.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable spatial index with the same queries as {@link QuadTree}, built once from all its objects.
+ * <p>
+ * The objects are stored as an implicit kd-tree in three arrays (x, y, value): the median of a range
+ * of the arrays is the node splitting the range into its two halves, so there are no node or leaf
+ * objects. This needs far less memory than a {@link QuadTree} and the queries touch mostly neighbouring
+ * memory. The tree is built in O(n log n), in parallel for large numbers of objects.
+ * <p>
+ * As the tree never changes, all queries may be used by several threads concurrently. Use
+ * {@link QuadTrees#createPackedKdTree(Collection)} to create one.
+ */
+public final class PackedKdTree<T> {
+
+	/** ranges of at most this size are searched linearly */
+	private static final int LEAF_SIZE = 8;
+	/** ranges larger than this are built in parallel */
+	private static final int PARALLEL_SIZE = 1 << 16;
+
+	private static final byte SPLIT_X = 0;
+	private static final byte SPLIT_Y = 1;
+
+	private final double[] xs;
+	private final double[] ys;
+	private final Object[] values;
+	private final byte[] splitAxis;
+	private final double minX;
+	private final double minY;
+	private final double maxX;
+	private final double maxY;
+
+	/**
+	 * Builds the tree from the arrays, which are re-ordered and kept by the tree.
+	 */
+	/* package */ PackedKdTree(final double[] xs, final double[] ys, final Object[] values) {
+		if (xs.length != ys.length || xs.length != values.length) {
+			throw new IllegalArgumentException("x, y and values must have the same length.");
+		}
+		this.xs = xs;
+		this.ys = ys;
+		this.values = values;
+		this.splitAxis = new byte[xs.length];
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < xs.length; i++) {
+			if (Double.isNaN(xs[i]) || Double.isNaN(ys[i])) {
+				throw new IllegalArgumentException("Coordinate of " + values[i] + " is not defined.");
+			}
+			minX = Math.min(minX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxX = Math.max(maxX, xs[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		new Build(0, xs.length).invoke();
+	}
+
+	/**
+	 * Gets the object closest to x/y
+	 *
+	 * @param x easting, left-right location, longitude
+	 * @param y northing, up-down location, latitude
+	 * @return the object found closest to x/y, or <code>null</code> if the tree is empty
+	 */
+	@SuppressWarnings("unchecked")
+	public T getClosest(final double x, final double y) {
+		Closest closest = new Closest();
+		closest(0, this.xs.length, x, y, closest);
+		return closest.index < 0 ? null : (T) this.values[closest.index];
+	}
+
+	/**
+	 * Gets the objects closest to each of the coordinates, using several threads.
+	 *
+	 * @param x easting of the coordinates
+	 * @param y northing of the coordinates
+	 * @return the object closest to x[i]/y[i] at index i
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> getClosest(final double[] x, final double[] y) {
+		if (x.length != y.length) {
+			throw new IllegalArgumentException("x and y must have the same length.");
+		}
+		Object[] result = new Object[x.length];
+		IntStream.range(0, x.length).parallel().forEach(i -> result[i] = getClosest(x[i], y[i]));
+		return (List<T>) Arrays.asList(result);
+	}
+
+	/**
+	 * Gets the k objects closest to x/y.
+	 *
+	 * @param x easting, left-right location, longitude
+	 * @param y northing, up-down location, latitude
+	 * @param k the number of objects to find
+	 * @return the (at most) k objects closest to x/y, the closest one first
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> getKNearest(final double x, final double y, final int k) {
+		Nearest nearest = new Nearest(Math.min(k, this.xs.length));
+		if (nearest.capacity > 0) {
+			nearest(0, this.xs.length, x, y, nearest);
+		}
+		int[] indices = nearest.sortedIndices();
+		List<T> result = new ArrayList<>(indices.length);
+		for (int index : indices) {
+			result.add((T) this.values[index]);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets all objects within a certain distance around x/y
+	 *
+	 * @param x left-right location, longitude
+	 * @param y up-down location, latitude
+	 * @param distance the maximal distance returned objects can be away from x/y
+	 * @return the objects found within distance to x/y
+	 */
+	public Collection<T> getDisk(final double x, final double y, final double distance) {
+		return getRing(x, y, 0, distance);
+	}
+
+	/**
+	 * Gets all objects within a linear ring (including borders).
+	 *
+	 * @param x left-right location, longitude
+	 * @param y up-down location, latitude
+	 * @param rMin inner ring radius
+	 * @param rMax outer rind radius
+	 * @return objects within the ring
+	 */
+	public Collection<T> getRing(final double x, final double y, final double rMin, final double rMax) {
+		List<T> result = new ArrayList<>();
+		ring(0, this.xs.length, x, y, rMin * rMin, rMax * rMax, result);
+		return result;
+	}
+
+	/**
+	 * Gets all objects within an elliptical region.
+	 *
+	 * @param x1 first focus, longitude
+	 * @param y1 first focus, latitude
+	 * @param x2 second focus, longitude
+	 * @param y2 second focus, latitude
+	 * @param distance the maximal sum of the distances between an object and the two foci
+	 * @return the objects found in the elliptical region
+	 * @throws IllegalArgumentException if the distance is shorter than the distance between the foci
+	 */
+	public Collection<T> getElliptical(final double x1, final double y1, final double x2, final double y2, final double distance) {
+		if (distance * distance < (x1 - x2) * (x1 - x2) + (y1 - y2) * (y1 - y2)) {
+			throw new IllegalArgumentException("wrong ellipse specification: distance must be greater than distance between foci."
+					+ " x1=" + x1 + " y1=" + y1 + " x2=" + x2 + " y2=" + y2 + " distance=" + distance);
+		}
+		List<T> result = new ArrayList<>();
+		elliptical(0, this.xs.length, x1, y1, x2, y2, distance, result);
+		return result;
+	}
+
+	/**
+	 * Gets all objects inside the specified boundary, including the objects on the border, like
+	 * {@link QuadTree#getRectangle(QuadTree.Rect, Collection)}.
+	 *
+	 * @param bounds The bounds of the area of interest.
+	 * @param values1 A collection to store the found objects in.
+	 * @return The objects found within the area.
+	 */
+	public Collection<T> getRectangle(final QuadTree.Rect bounds, final Collection<T> values1) {
+		rectangle(0, this.xs.length, bounds, values1);
+		return values1;
+	}
+
+	/**
+	 * Gets all objects inside the specified area, including the objects on the border.
+	 *
+	 * @param minX The minimum left-right location, longitude
+	 * @param minY The minimum up-down location, latitude
+	 * @param maxX The maximum left-right location, longitude
+	 * @param maxY The maximum up-down location, latitude
+	 * @param values1 A collection to store the found objects in.
+	 * @return The objects found within the area.
+	 */
+	public Collection<T> getRectangle(final double minX, final double minY, final double maxX, final double maxY, final Collection<T> values1) {
+		return getRectangle(new QuadTree.Rect(minX, minY, maxX, maxY), values1);
+	}
+
+	/**
+	 * Executes executor on all objects inside a certain boundary, like {@link QuadTree#execute(QuadTree.Rect, QuadTree.Executor)}.
+	 *
+	 * @param bounds The boundary in which the executor will be applied, or <code>null</code> for all objects.
+	 * @param executor is executed on the fitting objects
+	 * @return the count of objects found within the bounds.
+	 */
+	public int execute(final QuadTree.Rect bounds, final QuadTree.Executor<T> executor) {
+		return execute(0, this.xs.length, bounds == null ? new QuadTree.Rect(this.minX, this.minY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY) : bounds, executor);
+	}
+
+	/**
+	 * Returns the number of entries in this tree.
+	 *
+	 * @return the number of entries in this tree.
+	 */
+	public int size() {
+		return this.xs.length;
+	}
+
+	/** @return the minimum x coordinate of all objects in the tree. */
+	public double getMinEasting() {
+		return this.minX;
+	}
+
+	/** @return the maximum x coordinate of all objects in the tree. */
+	public double getMaxEasting() {
+		return this.maxX;
+	}
+
+	/** @return the minimum y coordinate of all objects in the tree. */
+	public double getMinNorthing() {
+		return this.minY;
+	}
+
+	/** @return the maximum y coordinate of all objects in the tree. */
+	public double getMaxNorthing() {
+		return this.maxY;
+	}
+
+	/**
+	 * @return all objects in the tree, in no particular order.
+	 */
+	@SuppressWarnings("unchecked")
+	public Collection<T> values() {
+		return (Collection<T>) Collections.unmodifiableList(Arrays.asList(this.values));
+	}
+
+	// ---------- queries ----------
+
+	private static final class Closest {
+		double distanceSqr = Double.POSITIVE_INFINITY;
+		int index = -1;
+	}
+
+	private double split(final int node) {
+		return this.splitAxis[node] == SPLIT_X ? this.xs[node] : this.ys[node];
+	}
+
+	private void closest(int from, int to, final double x, final double y, final Closest closest) {
+		while (to - from > LEAF_SIZE) {
+			int node = (from + to) >>> 1;
+			double dx = this.xs[node] - x;
+			double dy = this.ys[node] - y;
+			double distanceSqr = dx * dx + dy * dy;
+			if (distanceSqr < closest.distanceSqr) {
+				closest.distanceSqr = distanceSqr;
+				closest.index = node;
+			}
+			double diff = (this.splitAxis[node] == SPLIT_X ? x : y) - split(node);
+			// first the side containing x/y, then the other one if it could still contain something closer
+			if (diff < 0) {
+				closest(from, node, x, y, closest);
+				if (diff * diff >= closest.distanceSqr) {
+					return;
+				}
+				from = node + 1;
+			} else {
+				closest(node + 1, to, x, y, closest);
+				if (diff * diff >= closest.distanceSqr) {
+					return;
+				}
+				to = node;
+			}
+		}
+		for (int i = from; i < to; i++) {
+			double dx = this.xs[i] - x;
+			double dy = this.ys[i] - y;
+			double distanceSqr = dx * dx + dy * dy;
+			if (distanceSqr < closest.distanceSqr) {
+				closest.distanceSqr = distanceSqr;
+				closest.index = i;
+			}
+		}
+	}
+
+	/** a max-heap of the k closest objects found so far */
+	private static final class Nearest {
+		final int capacity;
+		final double[] distanceSqr;
+		final int[] index;
+		int size = 0;
+
+		Nearest(int capacity) {
+			this.capacity = Math.max(capacity, 0);
+			this.distanceSqr = new double[this.capacity];
+			this.index = new int[this.capacity];
+		}
+
+		double bound() {
+			return this.size < this.capacity ? Double.POSITIVE_INFINITY : this.distanceSqr[0];
+		}
+
+		void offer(double d, int i) {
+			if (this.size < this.capacity) {
+				int pos = this.size++;
+				while (pos > 0) {
+					int parent = (pos - 1) >>> 1;
+					if (this.distanceSqr[parent] >= d) {
+						break;
+					}
+					this.distanceSqr[pos] = this.distanceSqr[parent];
+					this.index[pos] = this.index[parent];
+					pos = parent;
+				}
+				this.distanceSqr[pos] = d;
+				this.index[pos] = i;
+			} else if (d < this.distanceSqr[0]) {
+				int pos = 0;
+				while (true) {
+					int child = 2 * pos + 1;
+					if (child >= this.size) {
+						break;
+					}
+					if (child + 1 < this.size && this.distanceSqr[child + 1] > this.distanceSqr[child]) {
+						child++;
+					}
+					if (this.distanceSqr[child] <= d) {
+						break;
+					}
+					this.distanceSqr[pos] = this.distanceSqr[child];
+					this.index[pos] = this.index[child];
+					pos = child;
+				}
+				this.distanceSqr[pos] = d;
+				this.index[pos] = i;
+			}
+		}
+
+		int[] sortedIndices() {
+			Integer[] order = new Integer[this.size];
+			for (int i = 0; i < this.size; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, (a, b) -> Double.compare(this.distanceSqr[a], this.distanceSqr[b]));
+			int[] result = new int[this.size];
+			for (int i = 0; i < this.size; i++) {
+				result[i] = this.index[order[i]];
+			}
+			return result;
+		}
+	}
+
+	private void nearest(int from, int to, final double x, final double y, final Nearest nearest) {
+		while (to - from > LEAF_SIZE) {
+			int node = (from + to) >>> 1;
+			double dx = this.xs[node] - x;
+			double dy = this.ys[node] - y;
+			nearest.offer(dx * dx + dy * dy, node);
+			double diff = (this.splitAxis[node] == SPLIT_X ? x : y) - split(node);
+			if (diff < 0) {
+				nearest(from, node, x, y, nearest);
+				if (diff * diff >= nearest.bound()) {
+					return;
+				}
+				from = node + 1;
+			} else {
+				nearest(node + 1, to, x, y, nearest);
+				if (diff * diff >= nearest.bound()) {
+					return;
+				}
+				to = node;
+			}
+		}
+		for (int i = from; i < to; i++) {
+			double dx = this.xs[i] - x;
+			double dy = this.ys[i] - y;
+			nearest.offer(dx * dx + dy * dy, i);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void ring(final int from, final int to, final double x, final double y, final double rMinSqr, final double rMaxSqr, final List<T> result) {
+		if (to - from <= LEAF_SIZE) {
+			for (int i = from; i < to; i++) {
+				double dx = this.xs[i] - x;
+				double dy = this.ys[i] - y;
+				double distanceSqr = dx * dx + dy * dy;
+				if (distanceSqr <= rMaxSqr && distanceSqr >= rMinSqr) {
+					result.add((T) this.values[i]);
+				}
+			}
+			return;
+		}
+		int node = (from + to) >>> 1;
+		double diff = (this.splitAxis[node] == SPLIT_X ? x : y) - split(node);
+		if (diff <= 0 || diff * diff <= rMaxSqr) {
+			ring(from, node, x, y, rMinSqr, rMaxSqr, result);
+		}
+		double dx = this.xs[node] - x;
+		double dy = this.ys[node] - y;
+		double distanceSqr = dx * dx + dy * dy;
+		if (distanceSqr <= rMaxSqr && distanceSqr >= rMinSqr) {
+			result.add((T) this.values[node]);
+		}
+		if (diff >= 0 || diff * diff <= rMaxSqr) {
+			ring(node + 1, to, x, y, rMinSqr, rMaxSqr, result);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void elliptical(final int from, final int to, final double x1, final double y1, final double x2, final double y2,
+			final double distance, final List<T> result) {
+		if (to - from <= LEAF_SIZE) {
+			for (int i = from; i < to; i++) {
+				addIfInEllipse(i, x1, y1, x2, y2, distance, result);
+			}
+			return;
+		}
+		int node = (from + to) >>> 1;
+		boolean splitX = this.splitAxis[node] == SPLIT_X;
+		double split = split(node);
+		double f1 = splitX ? x1 : y1;
+		double f2 = splitX ? x2 : y2;
+		// no object on one side can be closer to a focus than the splitting line
+		if (Math.max(0, f1 - split) + Math.max(0, f2 - split) <= distance) {
+			elliptical(from, node, x1, y1, x2, y2, distance, result);
+		}
+		addIfInEllipse(node, x1, y1, x2, y2, distance, result);
+		if (Math.max(0, split - f1) + Math.max(0, split - f2) <= distance) {
+			elliptical(node + 1, to, x1, y1, x2, y2, distance, result);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addIfInEllipse(final int i, final double x1, final double y1, final double x2, final double y2, final double distance, final List<T> result) {
+		double distance1 = Math.sqrt((this.xs[i] - x1) * (this.xs[i] - x1) + (this.ys[i] - y1) * (this.ys[i] - y1));
+		if (distance1 <= distance) {
+			double distance2 = Math.sqrt((this.xs[i] - x2) * (this.xs[i] - x2) + (this.ys[i] - y2) * (this.ys[i] - y2));
+			if (distance1 + distance2 <= distance) {
+				result.add((T) this.values[i]);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void rectangle(final int from, final int to, final QuadTree.Rect bounds, final Collection<T> result) {
+		if (to - from <= LEAF_SIZE) {
+			for (int i = from; i < to; i++) {
+				if (bounds.containsOrEquals(this.xs[i], this.ys[i])) {
+					result.add((T) this.values[i]);
+				}
+			}
+			return;
+		}
+		int node = (from + to) >>> 1;
+		boolean splitX = this.splitAxis[node] == SPLIT_X;
+		double split = split(node);
+		if ((splitX ? bounds.minX : bounds.minY) <= split) {
+			rectangle(from, node, bounds, result);
+		}
+		if (bounds.containsOrEquals(this.xs[node], this.ys[node])) {
+			result.add((T) this.values[node]);
+		}
+		if ((splitX ? bounds.maxX : bounds.maxY) >= split) {
+			rectangle(node + 1, to, bounds, result);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private int execute(final int from, final int to, final QuadTree.Rect bounds, final QuadTree.Executor<T> executor) {
+		int count = 0;
+		if (to - from <= LEAF_SIZE) {
+			for (int i = from; i < to; i++) {
+				if (bounds.contains(this.xs[i], this.ys[i])) {
+					count++;
+					executor.execute(this.xs[i], this.ys[i], (T) this.values[i]);
+				}
+			}
+			return count;
+		}
+		int node = (from + to) >>> 1;
+		boolean splitX = this.splitAxis[node] == SPLIT_X;
+		double split = split(node);
+		if ((splitX ? bounds.minX : bounds.minY) <= split) {
+			count += execute(from, node, bounds, executor);
+		}
+		if (bounds.contains(this.xs[node], this.ys[node])) {
+			count++;
+			executor.execute(this.xs[node], this.ys[node], (T) this.values[node]);
+		}
+		if ((splitX ? bounds.maxX : bounds.maxY) >= split) {
+			count += execute(node + 1, to, bounds, executor);
+		}
+		return count;
+	}
+
+	// ---------- building ----------
+
+	/**
+	 * Re-orders the range so that its median by the coordinate with the larger extent is in the middle,
+	 * with all smaller ones before and all larger ones after it, and then does the same for both halves.
+	 */
+	private final class Build extends RecursiveAction {
+		private final int from;
+		private final int to;
+
+		Build(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= LEAF_SIZE) {
+				return;
+			}
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (int i = this.from; i < this.to; i++) {
+				minX = Math.min(minX, xs[i]);
+				minY = Math.min(minY, ys[i]);
+				maxX = Math.max(maxX, xs[i]);
+				maxY = Math.max(maxY, ys[i]);
+			}
+			byte axis = (maxX - minX) >= (maxY - minY) ? SPLIT_X : SPLIT_Y;
+			int node = (this.from + this.to) >>> 1;
+			select(axis == SPLIT_X ? xs : ys, this.from, this.to - 1, node);
+			splitAxis[node] = axis;
+			Build left = new Build(this.from, node);
+			Build right = new Build(node + 1, this.to);
+			if (this.to - this.from > PARALLEL_SIZE) {
+				ForkJoinTask.invokeAll(left, right);
+			} else {
+				left.compute();
+				right.compute();
+			}
+		}
+	}
+
+	/** quickselect: moves the k-th smallest coordinate of [left, right] to k */
+	private void select(final double[] coords, int left, int right, final int k) {
+		while (right > left) {
+			int mid = (left + right) >>> 1;
+			// median of three as pivot, to avoid the worst case on sorted input
+			if (coords[mid] < coords[left]) swap(mid, left);
+			if (coords[right] < coords[left]) swap(right, left);
+			if (coords[right] < coords[mid]) swap(right, mid);
+			double pivot = coords[mid];
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (coords[i] < pivot) i++;
+				while (coords[j] > pivot) j--;
+				if (i <= j) {
+					swap(i, j);
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private void swap(final int i, final int j) {
+		double x = this.xs[i];
+		this.xs[i] = this.xs[j];
+		this.xs[j] = x;
+		double y = this.ys[i];
+		this.ys[i] = this.ys[j];
+		this.ys[j] = y;
+		Object value = this.values[i];
+		this.values[i] = this.values[j];
+		this.values[j] = value;
+	}
+
+}
@@ -68,4 +68,23 @@ public class QuadTrees {
 		}
 		return quadTree;
 	}
+
+	public static <E extends BasicLocation> PackedKdTree<E> createPackedKdTree(Collection<? extends E> elements) {
+		return createPackedKdTree(elements, BasicLocation::getCoord);
+	}
+
+	public static <E> PackedKdTree<E> createPackedKdTree(Collection<? extends E> elements, Function<? super E, Coord> coordFunction) {
+		double[] xs = new double[elements.size()];
+		double[] ys = new double[elements.size()];
+		Object[] values = new Object[elements.size()];
+		int i = 0;
+		for (E e : elements) {
+			Coord c = coordFunction.apply(e);
+			xs[i] = c.getX();
+			ys[i] = c.getY();
+			values[i] = e;
+			i++;
+		}
+		return new PackedKdTree<>(xs, ys, values);
+	}
 }
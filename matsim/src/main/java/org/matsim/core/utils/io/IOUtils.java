@@ -311,6 +311,17 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 		}
 	}
 
+	/**
+	 * Same as {@link #getInputStream(URL)}, but the data is read and decompressed on a separate thread, a few
+	 * blocks ahead of the consumer. Useful for large compressed files where the consumer itself does substantial
+	 * work on the data, as decompression then no longer adds to the consumer's run time.
+	 *
+	 * @throws UncheckedIOException
+	 */
+	public static InputStream getReadAheadInputStream(URL url) throws UncheckedIOException {
+		return new ReadAheadInputStream(getInputStream(url));
+	}
+
 	/**
 	 * Creates a reader for an input URL. If the URL has a compression extension,
 	 * the method will try to open the compressed file using the proper
@@ -149,7 +149,8 @@ public abstract class MatsimXmlParser extends DefaultHandler implements MatsimRe
 	 * @throws UncheckedIOException
 	 */
 	@Override
-	public final void readFile(final String filename) throws UncheckedIOException {
+	public void readFile(final String filename) throws UncheckedIOException {
+		// not final, so that readers can bypass SAX for formats they can read faster themselves.
 		log.info("starting to parse xml from file " + filename + " ...");
 		this.theSource = filename;
 		parse(new InputSource(IOUtils.getBufferedReader(filename)));
@@ -164,7 +165,8 @@ public abstract class MatsimXmlParser extends DefaultHandler implements MatsimRe
 		parse(stream);
 	}
 
-	public final void parse(final URL url) throws UncheckedIOException {
+	public void parse(final URL url) throws UncheckedIOException {
+		// not final, see readFile(String)
 		Gbl.assertNotNull(url);
 		this.theSource = url.toString();
 		log.info("starting to parse xml from url " + this.theSource + " ...");
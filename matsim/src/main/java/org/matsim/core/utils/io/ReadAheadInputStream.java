@@ -0,0 +1,132 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads an input stream on a separate thread into a small number of blocks ahead of the consumer.
+ * For compressed files, this moves the decompression to its own thread, so it runs concurrently
+ * with whatever the consumer does with the data.
+ */
+/* deliberately package */ class ReadAheadInputStream extends InputStream {
+
+	private static final int BLOCK_SIZE = 256 * 1024;
+	private static final int BLOCK_COUNT = 8;
+	private static final byte[] END = new byte[0];
+
+	private final InputStream source;
+	private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<>(BLOCK_COUNT);
+	private final Thread thread;
+	private volatile IOException exception = null;
+
+	private byte[] block = null;
+	private int position = 0;
+	private int length = 0;
+	private boolean eof = false;
+
+	ReadAheadInputStream(InputStream source) {
+		this.source = source;
+		this.thread = new Thread(this::readAhead, "ReadAheadInputStream");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	private void readAhead() {
+		try {
+			try {
+				int read = 0;
+				while (read >= 0) {
+					byte[] buffer = new byte[BLOCK_SIZE];
+					int filled = 0;
+					while (filled < BLOCK_SIZE && (read = this.source.read(buffer, filled, BLOCK_SIZE - filled)) >= 0) {
+						filled += read;
+					}
+					if (filled > 0) {
+						this.blocks.put(filled == BLOCK_SIZE ? buffer : Arrays.copyOf(buffer, filled));
+					}
+				}
+			} catch (IOException e) {
+				this.exception = e;
+			}
+			this.blocks.put(END);
+		} catch (InterruptedException e) {
+			// the stream was closed, stop reading
+		}
+	}
+
+	private boolean nextBlock() throws IOException {
+		if (this.eof) {
+			return false;
+		}
+		try {
+			this.block = this.blocks.take();
+		} catch (InterruptedException e) {
+			throw new IOException(e);
+		}
+		if (this.block == END) {
+			this.eof = true;
+			if (this.exception != null) {
+				throw this.exception;
+			}
+			return false;
+		}
+		this.position = 0;
+		this.length = this.block.length;
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (this.position == this.length && !nextBlock()) {
+			return -1;
+		}
+		return this.block[this.position++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (this.position == this.length && !nextBlock()) {
+			return -1;
+		}
+		int count = Math.min(len, this.length - this.position);
+		System.arraycopy(this.block, this.position, b, off, count);
+		this.position += count;
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return this.length - this.position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.thread.interrupt();
+		this.source.close();
+	}
+}
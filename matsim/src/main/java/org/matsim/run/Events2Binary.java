@@ -0,0 +1,53 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * Events2Binary.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.run;
+
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.algorithms.EventWriterBinary;
+
+/**
+ * Converts an events file (in any format the {@link MatsimEventsReader} understands, e.g. XML) to the binary
+ * events format, see {@link EventWriterBinary}.
+ */
+public class Events2Binary {
+
+	public static void convert(final String inputFile, final String outputFile) {
+		EventsManager events = EventsUtils.createEventsManager();
+		EventWriterBinary writer = new EventWriterBinary(outputFile);
+		events.addHandler(writer);
+		events.initProcessing();
+		new MatsimEventsReader(events).readFile(inputFile);
+		events.finishProcessing();
+		writer.closeFile();
+	}
+
+	public static void main(final String[] args) {
+		if (args.length != 2) {
+			System.out.println("usage: Events2Binary input-events-file output-events-file");
+			System.out.println("       converts e.g. output_events.xml.gz to output_events.bin");
+			System.exit(1);
+		}
+		convert(args[0], args[1]);
+	}
+
+}
@@ -0,0 +1,57 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * Population2Binary.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.run;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.population.io.PopulationReader;
+import org.matsim.core.population.io.PopulationWriter;
+import org.matsim.core.population.io.PopulationWriterBinary;
+import org.matsim.core.scenario.ScenarioUtils;
+
+/**
+ * Converts a population file (in any format the {@link PopulationReader} understands, e.g. XML) to the binary
+ * population format, see {@link PopulationWriterBinary}. If the name of the output file does not end with
+ * <code>.bin</code>, the population is written as population_v6 XML instead, so this also converts binary
+ * population files back to XML.
+ */
+public class Population2Binary {
+
+	public static void convert(final String inputFile, final String outputFile) {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		new PopulationReader(scenario).readFile(inputFile);
+		if (outputFile.endsWith(".bin")) {
+			new PopulationWriterBinary(scenario.getPopulation()).write(outputFile);
+		} else {
+			new PopulationWriter(scenario.getPopulation()).write(outputFile);
+		}
+	}
+
+	public static void main(final String[] args) {
+		if (args.length != 2) {
+			System.out.println("usage: Population2Binary input-population-file output-population-file");
+			System.out.println("       converts e.g. output_plans.xml.gz to output_plans.bin, or output_plans.bin to output_plans.xml.gz");
+			System.exit(1);
+		}
+		convert(args[0], args[1]);
+	}
+
+}
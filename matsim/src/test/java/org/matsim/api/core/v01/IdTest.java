@@ -26,6 +26,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.matsim.core.utils.collections.Tuple;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -134,6 +135,65 @@ import java.util.List;
 		Assertions.assertEquals(countBefore, countAfter, "The number of created Ids should not have changed.");
 	}
 
+	 @Test
+	 void testCreateFromBytes() {
+		Id<TLink> linkId1 = Id.create("1", TLink.class);
+		byte[] data = "xx1x".getBytes(StandardCharsets.UTF_8);
+		Assertions.assertSame(linkId1, Id.createFromBytes(data, 2, 1, TLink.class));
+
+		byte[] newId = "a-new-id".getBytes(StandardCharsets.UTF_8);
+		Id<TLink> linkId2 = Id.createFromBytes(newId, 0, newId.length, TLink.class);
+		Assertions.assertEquals("a-new-id", linkId2.toString());
+		Assertions.assertSame(linkId2, Id.create("a-new-id", TLink.class));
+
+		byte[] utf8 = "Zürich".getBytes(StandardCharsets.UTF_8);
+		Id<TLink> linkId3 = Id.createFromBytes(utf8, 0, utf8.length, TLink.class);
+		Assertions.assertEquals("Zürich", linkId3.toString());
+		Assertions.assertSame(linkId3, Id.create("Zürich", TLink.class));
+	}
+
+	 @Test
+	 void testIndexAfterGrowing() {
+		int count = Id.getNumberOfIds(TNode.class);
+		List<Id<TNode>> ids = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			ids.add(Id.create("grow" + i, TNode.class));
+		}
+		Assertions.assertEquals(count + 5000, Id.getNumberOfIds(TNode.class));
+		for (Id<TNode> id : ids) {
+			Assertions.assertSame(id, Id.get(id.index(), TNode.class));
+			Assertions.assertSame(id, Id.get(id.toString(), TNode.class));
+		}
+		Assertions.assertNull(Id.get("unknown", TNode.class));
+	}
+
+	 @Test
+	 void testConcurrentCreation() throws InterruptedException {
+		int threads = 4;
+		int count = 20000;
+		List<Id<TLink>>[] created = new List[threads];
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int thread = t;
+			created[t] = new ArrayList<>();
+			workers[t] = new Thread(() -> {
+				for (int i = 0; i < count; i++) {
+					created[thread].add(Id.create("concurrent" + ((i + thread * 997) % count), TLink.class));
+				}
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		for (int t = 0; t < threads; t++) {
+			for (Id<TLink> id : created[t]) {
+				Assertions.assertSame(id, Id.create(id.toString(), TLink.class));
+				Assertions.assertSame(id, Id.get(id.index(), TLink.class));
+			}
+		}
+	}
+
 	private static class TLink {}
 	private static class TNode {}
 
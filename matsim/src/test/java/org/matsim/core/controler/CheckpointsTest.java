@@ -0,0 +1,141 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CheckpointsTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.replanning.StrategyManager;
+import org.matsim.core.replanning.annealing.ReplanningAnnealerConfigGroup;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class CheckpointsTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testResumedRunEqualsUninterruptedRun() {
+		String uninterruptedDir = this.utils.getOutputDirectory() + "uninterrupted/";
+		Config config = createConfig(uninterruptedDir);
+		config.controller().setWriteCheckpointInterval(2);
+		Scenario uninterrupted = ScenarioUtils.loadScenario(config);
+		new Controler(uninterrupted).run();
+
+		String checkpoint = uninterruptedDir + "ITERS/it.2/2.checkpoint.bin";
+		Assertions.assertTrue(new File(checkpoint).exists());
+		Assertions.assertTrue(new File(uninterruptedDir + "ITERS/it.4/4.checkpoint.bin").exists());
+		Assertions.assertFalse(new File(uninterruptedDir + "ITERS/it.3/3.checkpoint.bin").exists());
+
+		String resumedDir = this.utils.getOutputDirectory() + "resumed/";
+		Config resumedConfig = createConfig(resumedDir);
+		resumedConfig.controller().setResumeFromCheckpoint(new File(checkpoint).getAbsolutePath());
+		Scenario resumed = ScenarioUtils.loadScenario(resumedConfig);
+		new Controler(resumed).run();
+
+		Assertions.assertFalse(new File(resumedDir + "ITERS/it.2").exists(), "iterations up to the checkpoint must not run again");
+		Assertions.assertTrue(new File(resumedDir + "ITERS/it.3").exists());
+		Assertions.assertEquals(getScores(uninterrupted), getScores(resumed));
+		Assertions.assertTrue(PopulationUtils.equalPopulation(uninterrupted.getPopulation(), resumed.getPopulation()));
+	}
+
+	@Test
+	void testResumedRunRestoresStrategyWeightsAndAnnealing() {
+		String uninterruptedDir = this.utils.getOutputDirectory() + "uninterrupted/";
+		Config config = createConfig(uninterruptedDir);
+		config.controller().setWriteCheckpointInterval(2);
+		enableAnnealing(config);
+		Controler uninterrupted = new Controler(ScenarioUtils.loadScenario(config));
+		uninterrupted.run();
+
+		String resumedDir = this.utils.getOutputDirectory() + "resumed/";
+		Config resumedConfig = createConfig(resumedDir);
+		resumedConfig.controller().setResumeFromCheckpoint(new File(uninterruptedDir + "ITERS/it.2/2.checkpoint.bin").getAbsolutePath());
+		enableAnnealing(resumedConfig);
+		Controler resumed = new Controler(ScenarioUtils.loadScenario(resumedConfig));
+		resumed.run();
+
+		// the geometric annealing depends on the value of the previous iteration, so it only continues correctly if restored
+		Assertions.assertEquals(uninterrupted.getInjector().getInstance(StrategyManager.class).getWeights(null),
+				resumed.getInjector().getInstance(StrategyManager.class).getWeights(null));
+		Assertions.assertEquals(getScores(uninterrupted.getScenario()), getScores(resumed.getScenario()));
+		Assertions.assertTrue(PopulationUtils.equalPopulation(uninterrupted.getScenario().getPopulation(), resumed.getScenario().getPopulation()));
+	}
+
+	@Test
+	void testCheckpointInsideDeletedOutputDirectoryIsRejected() throws IOException {
+		String outputDir = this.utils.getOutputDirectory() + "run/";
+		File checkpoint = new File(outputDir + "ITERS/it.2/2.checkpoint.bin");
+		Files.createDirectories(checkpoint.getParentFile().toPath());
+		Files.createFile(checkpoint.toPath());
+
+		Config config = createConfig(outputDir);
+		config.controller().setResumeFromCheckpoint(checkpoint.getAbsolutePath());
+		Assertions.assertThrows(RuntimeException.class, () -> new Controler(ScenarioUtils.loadScenario(config)).run());
+		Assertions.assertTrue(checkpoint.exists(), "the checkpoint must not be deleted");
+	}
+
+	private static void enableAnnealing(Config config) {
+		config.replanningAnnealer().setActivateAnnealingModule(true);
+		ReplanningAnnealerConfigGroup.AnnealingVariable annealingVariable = new ReplanningAnnealerConfigGroup.AnnealingVariable();
+		annealingVariable.setAnnealType("geometric");
+		annealingVariable.setShapeFactor(0.8);
+		annealingVariable.setStartValue(0.5);
+		config.replanningAnnealer().addAnnealingVariable(annealingVariable);
+	}
+
+	private static Config createConfig(String outputDirectory) {
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		config.plans().setInputFile("plans100.xml");
+		config.controller().setOutputDirectory(outputDirectory);
+		config.controller().setOverwriteFileSetting(OutputDirectoryHierarchy.OverwriteFileSetting.deleteDirectoryIfExists);
+		config.controller().setLastIteration(4);
+		config.controller().setCreateGraphsInterval(0);
+		config.controller().setDumpDataAtEnd(false);
+		return config;
+	}
+
+	private static List<Double> getScores(Scenario scenario) {
+		List<Double> scores = new ArrayList<>();
+		for (Person person : scenario.getPopulation().getPersons().values()) {
+			for (Plan plan : person.getPlans()) {
+				scores.add(plan.getScore());
+			}
+		}
+		return scores;
+	}
+
+}
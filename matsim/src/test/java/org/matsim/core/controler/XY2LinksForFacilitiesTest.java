@@ -0,0 +1,88 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * XY2LinksForFacilitiesTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.facilities.ActivityFacilities;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.facilities.FacilitiesUtils;
+
+public class XY2LinksForFacilitiesTest {
+
+	@Test
+	void testSameLinksAsNearestLinkOnGrid() {
+		Network network = NetworkUtils.createNetwork();
+		int gridSize = 10;
+		Node[][] nodes = new Node[gridSize][gridSize];
+		for (int i = 0; i < gridSize; i++) {
+			for (int j = 0; j < gridSize; j++) {
+				nodes[i][j] = NetworkUtils.createAndAddNode(network, Id.createNodeId(i + "_" + j), new Coord(i * 100.0, j * 100.0));
+			}
+		}
+		for (int i = 0; i < gridSize; i++) {
+			for (int j = 0; j < gridSize; j++) {
+				if (i + 1 < gridSize) {
+					addLinks(network, nodes[i][j], nodes[i + 1][j]);
+				}
+				if (j + 1 < gridSize) {
+					addLinks(network, nodes[i][j], nodes[i][j + 1]);
+				}
+			}
+		}
+
+		// on the nodes, in the middle of the cells (4 equally near nodes), in the middle of the links (2 equally near
+		// nodes), and somewhere else
+		ActivityFacilities facilities = FacilitiesUtils.createActivityFacilities();
+		Map<Id<ActivityFacility>, Id<Link>> expected = new HashMap<>();
+		for (int i = 0; i < 2 * gridSize; i++) {
+			for (int j = 0; j < 2 * gridSize; j++) {
+				for (double offset : new double[] {0, 13}) {
+					Coord coord = new Coord(i * 50.0 + offset, j * 50.0);
+					ActivityFacility facility = facilities.getFactory().createActivityFacility(Id.create(facilities.getFacilities().size(), ActivityFacility.class), coord);
+					facilities.addActivityFacility(facility);
+					expected.put(facility.getId(), NetworkUtils.getNearestLink(network, coord).getId());
+				}
+			}
+		}
+
+		XY2LinksForFacilities.run(network, facilities);
+
+		for (ActivityFacility facility : facilities.getFacilities().values()) {
+			Assertions.assertEquals(expected.get(facility.getId()), facility.getLinkId(), "facility at " + facility.getCoord());
+		}
+	}
+
+	private static void addLinks(Network network, Node from, Node to) {
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(from.getId() + "-" + to.getId()), from, to, 100.0, 13.9, 600.0, 1.0);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(to.getId() + "-" + from.getId()), to, from, 100.0, 13.9, 600.0, 1.0);
+	}
+
+}
@@ -0,0 +1,170 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ReplayEventsManagerTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.ReplayEvents;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class ReplayEventsManagerTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testAllGroupsSeeAllEventsInOrder() {
+		ReplayEventsManager events = new ReplayEventsManager(3, 100);
+		List<EventsCollector> collectors = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			EventsCollector collector = new EventsCollector();
+			collectors.add(collector);
+			events.addHandler(collector);
+		}
+
+		for (int iteration = 0; iteration < 2; iteration++) {
+			for (EventsCollector collector : collectors) {
+				collector.reset(iteration);
+			}
+			List<Event> expected = createEvents(10_050);
+			events.initProcessing();
+			expected.forEach(events::processEvent);
+			events.finishProcessing();
+
+			Assertions.assertThat(events.getEventCount()).isEqualTo(expected.size());
+			Assertions.assertThat(events.getEventsPerSecond()).isPositive();
+			for (EventsCollector collector : collectors) {
+				Assertions.assertThat(collector.getEvents()).containsExactlyElementsOf(expected);
+			}
+		}
+	}
+
+	@Test
+	void testHandlerEventsStayInGroup() {
+		ReplayEventsManager events = new ReplayEventsManager(2, 10);
+		events.addHandler(new LinkEnterEventHandler() {
+			@Override
+			public void handleEvent(LinkEnterEvent event) {
+				events.processEvent(new PersonStuckEvent(event.getTime(), Id.createPersonId(0), event.getLinkId(), "car"));
+			}
+
+			@Override
+			public void reset(int iteration) {}
+		}, 0);
+		EventsCollector sameGroup = new EventsCollector();
+		EventsCollector otherGroup = new EventsCollector();
+		events.addHandler(sameGroup, 0);
+		events.addHandler(otherGroup, 1);
+
+		events.initProcessing();
+		events.processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.processEvent(new LinkLeaveEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.finishProcessing();
+
+		// the created event is processed immediately, like in the EventsManagerImpl
+		Assertions.assertThat(sameGroup.getEvents()).containsExactlyInAnyOrder(
+				new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new PersonStuckEvent(0.0, Id.createPersonId(0), Id.createLinkId(0), "car"),
+				new LinkLeaveEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		Assertions.assertThat(otherGroup.getEvents()).containsExactly(
+				new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new LinkLeaveEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+	}
+
+	@Test
+	void testExceptionInHandler() {
+		ReplayEventsManager events = new ReplayEventsManager(2, 10);
+		events.addHandler(new EventsCollector());
+		events.addHandler(new LinkEnterEventHandler() {
+			@Override
+			public void handleEvent(LinkEnterEvent event) {
+				throw new IllegalStateException("failing handler");
+			}
+
+			@Override
+			public void reset(int iteration) {}
+		});
+		events.initProcessing();
+		Assertions.assertThatThrownBy(() -> {
+			try {
+				createEvents(100_000).forEach(events::processEvent);
+			} finally {
+				events.finishProcessing();
+			}
+		}).hasRootCauseMessage("failing handler");
+	}
+
+	@Test
+	void testReadEvents() {
+		List<Event> expected = createEvents(5_000);
+		String filename = utils.getOutputDirectory() + "events.xml.gz";
+		EventWriterXML writer = new EventWriterXML(filename);
+		expected.forEach(writer::handleEvent);
+		writer.closeFile();
+
+		EventsCollector collector1 = new EventsCollector();
+		EventsCollector collector2 = new EventsCollector();
+		double eventsPerSecond = EventsUtils.readEvents(filename, 2, collector1, collector2);
+		Assertions.assertThat(eventsPerSecond).isPositive();
+		Assertions.assertThat(collector1.getEvents()).containsExactlyElementsOf(expected);
+		Assertions.assertThat(collector2.getEvents()).containsExactlyElementsOf(expected);
+
+		EventsCollector collector3 = new EventsCollector();
+		EventsCollector collector4 = new EventsCollector();
+		ReplayEvents.run(ConfigUtils.createConfig(), filename, 2, new AbstractModule() {
+			@Override
+			public void install() {
+				addEventHandlerBinding().toInstance(collector3);
+				addEventHandlerBinding().toInstance(collector4);
+			}
+		});
+		Assertions.assertThat(collector3.getEvents()).containsExactlyElementsOf(expected);
+		Assertions.assertThat(collector4.getEvents()).containsExactlyElementsOf(expected);
+	}
+
+	private static List<Event> createEvents(int count) {
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			double time = i / 10;
+			if (i % 2 == 0) {
+				events.add(new LinkEnterEvent(time, Id.createVehicleId(i % 77), Id.createLinkId(i % 13)));
+			} else {
+				events.add(new LinkLeaveEvent(time, Id.createVehicleId(i % 77), Id.createLinkId(i % 13)));
+			}
+		}
+		return events;
+	}
+
+}
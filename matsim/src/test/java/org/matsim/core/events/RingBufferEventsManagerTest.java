@@ -0,0 +1,210 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RingBufferEventsManagerTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class RingBufferEventsManagerTest {
+
+	@Test
+	void testEventHandlerCanProduceAdditionalEventLateInSimStep() {
+		final RingBufferEventsManager events = new RingBufferEventsManager(8);
+		events.addHandler(new LinkEnterEventHandler() {
+			@Override
+			public void handleEvent(LinkEnterEvent event) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				events.processEvent(new PersonStuckEvent(event.getTime(), Id.createPersonId(0), Id.createLinkId(0), "car"));
+			}
+
+			@Override
+			public void reset(int iteration) {}
+		});
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		events.processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.processEvent(new LinkLeaveEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.afterSimStep(0.0);
+		Assertions.assertThat(collector.getEvents()).hasSize(3);
+		events.processEvent(new LinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.processEvent(new LinkLeaveEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.afterSimStep(1.0);
+		Assertions.assertThat(collector.getEvents()).hasSize(6);
+		events.finishProcessing();
+
+		Assertions.assertThat(collector.getEvents()).containsExactly(
+				new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new LinkLeaveEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new PersonStuckEvent(0.0, Id.createPersonId(0), Id.createLinkId(0), "car"),
+				new LinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new LinkLeaveEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new PersonStuckEvent(1.0, Id.createPersonId(0), Id.createLinkId(0), "car"));
+	}
+
+	@Test
+	void testEventHandlerWaitsForSlowerHandlerThreadWhenBufferIsFull() {
+		final RingBufferEventsManager events = new RingBufferEventsManager(2, 16);
+		// on the first thread: fills the buffer while the second thread is still at its first events
+		events.addHandler(new LinkEnterEventHandler() {
+			@Override
+			public void handleEvent(LinkEnterEvent event) {
+				for (int i = 0; i < 10; i++) {
+					events.processEvent(new PersonStuckEvent(event.getTime(), Id.createPersonId(i), Id.createLinkId(0), "car"));
+				}
+			}
+
+			@Override
+			public void reset(int iteration) {}
+		});
+		// on the second thread: slow
+		EventsCollector collector = new EventsCollector() {
+			@Override
+			public void handleEvent(Event event) {
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				super.handleEvent(event);
+			}
+		};
+		events.addHandler(collector);
+		events.initProcessing();
+		for (int i = 0; i < 12; i++) {
+			events.processEvent(new LinkLeaveEvent(0.0, Id.createVehicleId(i), Id.createLinkId(0)));
+		}
+		events.processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.afterSimStep(0.0);
+		events.finishProcessing();
+		Assertions.assertThat(collector.getEvents()).hasSize(23);
+	}
+
+	@Test
+	void testEventHandlerCreatingMoreEventsThanFitIntoBufferFails() {
+		final RingBufferEventsManager events = new RingBufferEventsManager(1, 16);
+		events.addHandler(new LinkEnterEventHandler() {
+			@Override
+			public void handleEvent(LinkEnterEvent event) {
+				for (int i = 0; i < 40; i++) {
+					events.processEvent(new PersonStuckEvent(event.getTime(), Id.createPersonId(i), Id.createLinkId(0), "car"));
+				}
+			}
+
+			@Override
+			public void reset(int iteration) {}
+		});
+		events.initProcessing();
+		events.processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		Assertions.assertThatThrownBy(() -> events.afterSimStep(0.0)).hasMessageContaining("Exception while processing events");
+	}
+
+	@Test
+	void testEventsAreChronologicallyOrdered() {
+		RingBufferEventsManager events = new RingBufferEventsManager(2);
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		try {
+			events.initProcessing();
+			events.processEvent(new LinkEnterEvent(10.0, Id.createVehicleId(0), Id.createLinkId(0)));
+			events.processEvent(new LinkLeaveEvent(50.0, Id.createVehicleId(0), Id.createLinkId(0)));
+			events.processEvent(new LinkEnterEvent(49.0, Id.createVehicleId(0), Id.createLinkId(0)));
+			events.processEvent(new LinkLeaveEvent(69.0, Id.createVehicleId(0), Id.createLinkId(0)));
+			events.finishProcessing();
+			Assertions.fail("Expected exception about order of events");
+		} catch (Exception expected) {
+		}
+	}
+
+	@Test
+	void testAllHandlersSeeSameOrderWhenBufferWrapsAround() {
+		RingBufferEventsManager events = new RingBufferEventsManager(3, 16);
+		Assertions.assertThat(events.getBufferSize()).isEqualTo(16);
+		List<EventsCollector> collectors = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			EventsCollector collector = new EventsCollector();
+			collectors.add(collector);
+			events.addHandler(collector);
+		}
+
+		List<Event> expected = new ArrayList<>();
+		for (int iteration = 0; iteration < 2; iteration++) {
+			for (EventsCollector collector : collectors) {
+				collector.reset(iteration);
+			}
+			expected.clear();
+			events.initProcessing();
+			for (int time = 0; time < 20; time++) {
+				for (int i = 0; i < 50; i++) {
+					Event event = new LinkEnterEvent(time, Id.createVehicleId(i), Id.createLinkId(time));
+					expected.add(event);
+					events.processEvent(event);
+				}
+				events.afterSimStep(time);
+			}
+			events.finishProcessing();
+
+			for (EventsCollector collector : collectors) {
+				Assertions.assertThat(collector.getEvents()).containsExactlyElementsOf(expected);
+			}
+		}
+	}
+
+	@Test
+	void testMultipleProducers() throws InterruptedException {
+		RingBufferEventsManager events = new RingBufferEventsManager(2, 64);
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+
+		Thread[] producers = new Thread[4];
+		for (int p = 0; p < producers.length; p++) {
+			final int producer = p;
+			producers[p] = new Thread(() -> {
+				for (int i = 0; i < 1000; i++) {
+					events.processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(producer * 1000 + i), Id.createLinkId(producer)));
+				}
+			});
+			producers[p].start();
+		}
+		for (Thread producer : producers) {
+			producer.join();
+		}
+		events.afterSimStep(0.0);
+		Assertions.assertThat(collector.getEvents()).hasSize(4000);
+		events.finishProcessing();
+	}
+
+}
@@ -0,0 +1,155 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventWriterBinaryTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events.algorithms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.run.Events2Binary;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.testcases.utils.EventsCollector;
+import org.matsim.vehicles.Vehicle;
+
+public class EventWriterBinaryTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testWriteReadFile() throws IOException {
+		List<Event> expected = createEvents();
+		String filename = utils.getOutputDirectory() + "events.bin";
+		// small chunks, so that the reader has to decode many of them in parallel
+		EventWriterBinary writer = new EventWriterBinary(new FileOutputStream(filename), 37);
+		expected.forEach(writer::handleEvent);
+		writer.closeFile();
+
+		Assertions.assertEquals(expected, readEvents(filename));
+	}
+
+	@Test
+	void testWriteReadStream() {
+		List<Event> expected = createEvents();
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(baos, 100);
+		expected.forEach(writer::handleEvent);
+		writer.closeFile();
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		new MatsimEventsReader(events).readStream(new ByteArrayInputStream(baos.toByteArray()), ControllerConfigGroup.EventsFileFormat.binary);
+		events.finishProcessing();
+
+		Assertions.assertEquals(expected, collector.getEvents());
+	}
+
+	@Test
+	void testNullAttribute() {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(baos);
+
+		GenericEvent event = new GenericEvent("TEST", 3600.0);
+		event.getAttributes().put("dummy", null);
+		writer.handleEvent(event);
+		writer.closeFile();
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		new MatsimEventsReader(events).readStream(new ByteArrayInputStream(baos.toByteArray()), ControllerConfigGroup.EventsFileFormat.binary);
+		events.finishProcessing();
+
+		Assertions.assertEquals(1, collector.getEvents().size(), "there must be 1 event.");
+		GenericEvent event1 = (GenericEvent) collector.getEvents().get(0);
+		Assertions.assertTrue(event1.getAttributes().containsKey("dummy"));
+		Assertions.assertNull(event1.getAttributes().get("dummy"));
+	}
+
+	@Test
+	void testConvertFromXml() {
+		List<Event> expected = createEvents();
+		String xmlFile = utils.getOutputDirectory() + "events.xml.gz";
+		String binaryFile = utils.getOutputDirectory() + "events.bin";
+		EventWriterXML xmlWriter = new EventWriterXML(xmlFile);
+		expected.forEach(xmlWriter::handleEvent);
+		xmlWriter.closeFile();
+
+		Events2Binary.convert(xmlFile, binaryFile);
+
+		Assertions.assertEquals(readEvents(xmlFile), readEvents(binaryFile));
+	}
+
+	private static List<Event> readEvents(String filename) {
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		new MatsimEventsReader(events).readFile(filename);
+		events.finishProcessing();
+		return collector.getEvents();
+	}
+
+	private static List<Event> createEvents() {
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			double time = 3600.0 + i * 0.5;
+			Id<Person> personId = Id.create("person " + (i % 50), Person.class);
+			Id<Vehicle> vehicleId = Id.create("vehicle<" + (i % 50), Vehicle.class);
+			Id<Link> linkId = Id.create("link\"" + (i % 13), Link.class);
+			events.add(new ActivityEndEvent(time, personId, linkId, i % 2 == 0 ? Id.create(i, ActivityFacility.class) : null, "home", i % 3 == 0 ? new Coord(i * 1.1, -i) : null));
+			events.add(new PersonDepartureEvent(time, personId, linkId, "car", "car"));
+			events.add(new LinkEnterEvent(time, vehicleId, linkId));
+			events.add(new LinkLeaveEvent(time + 1, vehicleId, linkId));
+			if (i % 7 == 0) {
+				GenericEvent generic = new GenericEvent("custom", time + 1);
+				generic.getAttributes().put("übung", "wert " + i);
+				generic.getAttributes().put("person", personId.toString());
+				events.add(generic);
+			}
+		}
+		return events;
+	}
+}
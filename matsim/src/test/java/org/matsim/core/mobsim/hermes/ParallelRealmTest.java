@@ -0,0 +1,98 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+
+public class ParallelRealmTest {
+
+	@BeforeEach
+	public void prepareTest() {
+		Id.resetCaches();
+		ScenarioImporter.flush();
+		HermesConfigGroup.SIM_STEPS = 30 * 60 * 60;
+	}
+
+	@AfterEach
+	public void resetMinOps() {
+		ParallelRealm.minOpsPerThread = 64;
+	}
+
+	@Test
+	void testSameEventsAsSingleThreaded() {
+		// process every time step in parallel, otherwise the small scenario would be run single-threaded most of the time
+		ParallelRealm.minOpsPerThread = 0;
+		List<String> expected = runHermes(1);
+		Assertions.assertTrue(expected.size() > 10000, "too few events to be meaningful: " + expected.size());
+		for (int threads : new int[] { 2, 3, 4 }) {
+			ScenarioImporter.flush();
+			Assertions.assertEquals(expected, runHermes(threads), "different events with " + threads + " threads");
+		}
+	}
+
+	@Test
+	void testPartitionLinks() {
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		int[] partition = ParallelRealm.partitionLinks(scenario.getNetwork(), 3);
+		int[] linksPerPartition = new int[3];
+		for (Link link : scenario.getNetwork().getLinks().values()) {
+			linksPerPartition[partition[link.getId().index()]]++;
+		}
+		int numberOfLinks = scenario.getNetwork().getLinks().size();
+		for (int count : linksPerPartition) {
+			Assertions.assertTrue(count >= numberOfLinks / 3 && count <= numberOfLinks / 3 + 1, "unbalanced partitions: " + count);
+		}
+	}
+
+	private static List<String> runHermes(int threads) {
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		config.plans().setInputFile("plans2000.xml.gz");
+		config.hermes().setNumberOfThreads(threads);
+		// reduced capacities, so that the agents have to wait for each other
+		config.hermes().setFlowCapacityFactor(0.5);
+		config.hermes().setStorageCapacityFactor(0.5);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		EventsManager events = EventsUtils.createEventsManager();
+		List<String> collected = new ArrayList<>();
+		events.addHandler((org.matsim.core.events.handler.BasicEventHandler) event -> collected.add(event.toString()));
+		new HermesBuilder().build(scenario, events).run();
+		return collected;
+	}
+
+}
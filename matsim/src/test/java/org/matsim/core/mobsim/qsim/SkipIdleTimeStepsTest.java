@@ -0,0 +1,163 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SkipIdleTimeStepsTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.mobsim.framework.HasNextWakeupTime;
+import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
+import org.matsim.core.mobsim.framework.listeners.MobsimBeforeSimStepListener;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class SkipIdleTimeStepsTest {
+
+	@ParameterizedTest
+	@ValueSource(booleans = {true, false})
+	void testSameEvents(boolean isUsingFastCapacityUpdate) {
+		Result withoutSkipping = run(false, isUsingFastCapacityUpdate, null);
+		Result withSkipping = run(true, isUsingFastCapacityUpdate, null);
+
+		Assertions.assertEquals(withoutSkipping.events.size(), withSkipping.events.size());
+		for (int i = 0; i < withoutSkipping.events.size(); i++) {
+			Assertions.assertEquals(withoutSkipping.events.get(i).toString(), withSkipping.events.get(i).toString(), "event " + i);
+		}
+		Assertions.assertTrue(withSkipping.executedTimeSteps < withoutSkipping.executedTimeSteps / 2,
+				withSkipping.executedTimeSteps + " time steps executed with skipping, " + withoutSkipping.executedTimeSteps + " without");
+	}
+
+	@Test
+	void testListenerOptingIn() {
+		Result withoutSkipping = run(false, true, null);
+		CountingListener everyTimeStep = new EveryTimeStepListener();
+		Result withSkipping = run(true, true, everyTimeStep);
+		Assertions.assertEquals(withoutSkipping.executedTimeSteps, withSkipping.executedTimeSteps);
+		Assertions.assertEquals(withoutSkipping.executedTimeSteps, everyTimeStep.count);
+	}
+
+	private record Result(List<Event> events, int executedTimeSteps) {
+	}
+
+	private static Result run(boolean skipIdleTimeSteps, boolean isUsingFastCapacityUpdate, MobsimBeforeSimStepListener listener) {
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setSkippingIdleTimeSteps(skipIdleTimeSteps);
+		config.qsim().setUsingFastCapacityUpdate(isUsingFastCapacityUpdate);
+		config.qsim().setEndTime(30 * 3600);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		createScenario(scenario);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		QSim qsim = new QSimBuilder(config).useDefaults().build(scenario, events);
+		CountingListener counter = new CountingListener();
+		qsim.addQueueSimulationListeners(counter);
+		if (listener != null) {
+			qsim.addQueueSimulationListeners(listener);
+		}
+		qsim.run();
+		return new Result(collector.getEvents(), counter.count);
+	}
+
+	/**
+	 * A ring of links, with agents going out in the morning and coming back in the evening, by car or teleported.
+	 */
+	private static void createScenario(Scenario scenario) {
+		Network network = scenario.getNetwork();
+		int n = 8;
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			double angle = 2 * Math.PI * i / n;
+			nodes.add(NetworkUtils.createAndAddNode(network, Id.createNodeId(i), new Coord(1000 * Math.cos(angle), 1000 * Math.sin(angle))));
+		}
+		List<Link> links = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			links.add(NetworkUtils.createAndAddLink(network, Id.createLinkId(i), nodes.get(i), nodes.get((i + 1) % n), 800, 10, 300, 1));
+		}
+
+		Random random = new Random(42);
+		PopulationFactory factory = scenario.getPopulation().getFactory();
+		for (int i = 0; i < 200; i++) {
+			Person person = factory.createPerson(Id.createPersonId(i));
+			Plan plan = factory.createPlan();
+			Link home = links.get(random.nextInt(n));
+			Link work = links.get(random.nextInt(n));
+			String mode = random.nextBoolean() ? TransportMode.car : TransportMode.walk;
+			Activity homeAm = factory.createActivityFromLinkId("home", home.getId());
+			homeAm.setCoord(home.getCoord());
+			homeAm.setEndTime(6 * 3600 + random.nextInt(3 * 3600) + (i % 3 == 0 ? 0.5 : 0));
+			plan.addActivity(homeAm);
+			plan.addLeg(factory.createLeg(mode));
+			Activity workAct = factory.createActivityFromLinkId("work", work.getId());
+			workAct.setCoord(work.getCoord());
+			workAct.setEndTime(16 * 3600 + random.nextInt(3 * 3600));
+			plan.addActivity(workAct);
+			plan.addLeg(factory.createLeg(mode));
+			Activity homePm = factory.createActivityFromLinkId("home", home.getId());
+			homePm.setCoord(home.getCoord());
+			plan.addActivity(homePm);
+			person.addPlan(plan);
+			scenario.getPopulation().addPerson(person);
+		}
+	}
+
+	private static class CountingListener implements MobsimBeforeSimStepListener {
+		int count = 0;
+
+		@Override
+		public void notifyMobsimBeforeSimStep(MobsimBeforeSimStepEvent e) {
+			this.count++;
+		}
+	}
+
+	private static class EveryTimeStepListener extends CountingListener implements HasNextWakeupTime {
+		@Override
+		public double getNextWakeupTime(double now) {
+			return now;
+		}
+	}
+
+}
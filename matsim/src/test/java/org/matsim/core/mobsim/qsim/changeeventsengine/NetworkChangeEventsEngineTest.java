@@ -35,7 +35,6 @@ import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.core.events.EventsUtils;
 import org.matsim.core.mobsim.framework.MobsimAgent;
-import org.matsim.core.mobsim.jdeqsim.MessageQueue;
 import org.matsim.core.mobsim.qsim.InternalInterface;
 import org.matsim.core.mobsim.qsim.QSim;
 import org.matsim.core.mobsim.qsim.QSimBuilder;
@@ -67,7 +66,7 @@ public class NetworkChangeEventsEngineTest {
 		EventsManager eventsManager = EventsUtils.createEventsManager();
 		QSim qsim = new QSimBuilder(config).useDefaults().build(scenario, eventsManager);
 
-		NetworkChangeEventsEngine engine = new NetworkChangeEventsEngine(scenario.getNetwork(), new MessageQueue());
+		NetworkChangeEventsEngine engine = new NetworkChangeEventsEngine(scenario.getNetwork());
 		qsim.addMobsimEngine(engine);
 
 		engine.onPrepareSim();
@@ -103,7 +102,7 @@ public class NetworkChangeEventsEngineTest {
 		EventsManager eventsManager = EventsUtils.createEventsManager();
 		QSim qsim = new QSimBuilder(config).useDefaults().build(scenario, eventsManager);
 
-		NetworkChangeEventsEngine engine = new NetworkChangeEventsEngine(scenario.getNetwork(), new MessageQueue());
+		NetworkChangeEventsEngine engine = new NetworkChangeEventsEngine(scenario.getNetwork());
 		engine.setInternalInterface(new DummyInternalInterfaceImpl(qsim));
 
 		engine.onPrepareSim();
@@ -139,7 +138,7 @@ public class NetworkChangeEventsEngineTest {
 		EventsManager eventsManager = EventsUtils.createEventsManager();
 		QSim qsim = new QSimBuilder(config).useDefaults().build(scenario, eventsManager);
 
-		NetworkChangeEventsEngine engine = new NetworkChangeEventsEngine(scenario.getNetwork(), new MessageQueue());
+		NetworkChangeEventsEngine engine = new NetworkChangeEventsEngine(scenario.getNetwork());
 		engine.setInternalInterface(new DummyInternalInterfaceImpl(qsim));
 
 		engine.onPrepareSim();
@@ -0,0 +1,177 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CompiledQNodeTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.NodeTransition;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.AbstractQSimModule;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class CompiledQNodeTest {
+
+	@ParameterizedTest
+	@EnumSource(NodeTransition.class)
+	void testSameEvents(NodeTransition nodeTransition) {
+		List<Event> expected = run(nodeTransition, false, false);
+		List<Event> actual = run(nodeTransition, true, false);
+
+		assertSameEvents(expected, actual);
+		Assertions.assertTrue(expected.stream().filter(e -> e instanceof LinkEnterEvent).count() > 1000);
+	}
+
+	@Test
+	void testSameEventsWithTurnAcceptanceLogic() {
+		List<Event> expected = run(NodeTransition.emptyBufferAfterBufferRandomDistribution_dontBlockNode, false, true);
+		List<Event> actual = run(NodeTransition.emptyBufferAfterBufferRandomDistribution_dontBlockNode, true, true);
+
+		assertSameEvents(expected, actual);
+		Assertions.assertTrue(expected.stream().anyMatch(e -> e instanceof PersonStuckEvent), "the turn acceptance logic should abort some agents");
+	}
+
+	private static void assertSameEvents(List<Event> expected, List<Event> actual) {
+		Assertions.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assertions.assertEquals(expected.get(i).toString(), actual.get(i).toString(), "event " + i);
+		}
+	}
+
+	/**
+	 * Many agents drive through a small grid with little capacity, so that the nodes are congested and some vehicles
+	 * get stuck and are pushed over the nodes.
+	 */
+	private static List<Event> run(NodeTransition nodeTransition, boolean usingCompiledNodes, boolean withTurnAcceptanceLogic) {
+		MatsimRandom.reset();
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setNodeTransitionLogic(nodeTransition);
+		config.qsim().setUsingCompiledNodes(usingCompiledNodes);
+		config.qsim().setStuckTime(60);
+		config.qsim().setEndTime(6 * 3600);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+
+		Network network = scenario.getNetwork();
+		int size = 5;
+		Node[][] nodes = new Node[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				nodes[i][j] = NetworkUtils.createAndAddNode(network, Id.createNodeId(i + "_" + j), new Coord(i * 100, j * 100));
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				if (i + 1 < size) {
+					createLink(network, nodes[i][j], nodes[i + 1][j], j * 100 + 300);
+					createLink(network, nodes[i + 1][j], nodes[i][j], i * 100 + 300);
+				}
+				if (j + 1 < size) {
+					createLink(network, nodes[i][j], nodes[i][j + 1], i * 100 + 300);
+					createLink(network, nodes[i][j + 1], nodes[i][j], j * 100 + 300);
+				}
+			}
+		}
+
+		Random random = new Random(4711);
+		List<Link> links = new ArrayList<>(network.getLinks().values());
+		PopulationFactory pf = scenario.getPopulation().getFactory();
+		for (int p = 0; p < 600; p++) {
+			Person person = pf.createPerson(Id.createPersonId(p));
+			Plan plan = pf.createPlan();
+			Activity home = pf.createActivityFromLinkId("home", links.get(random.nextInt(links.size())).getId());
+			home.setEndTime(random.nextInt(900));
+			plan.addActivity(home);
+			plan.addLeg(pf.createLeg(TransportMode.car));
+			plan.addActivity(pf.createActivityFromLinkId("work", links.get(random.nextInt(links.size())).getId()));
+			person.addPlan(plan);
+			scenario.getPopulation().addPerson(person);
+		}
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		EventsManager events = EventsUtils.createEventsManager(config);
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		QSimBuilder builder = new QSimBuilder(config).useDefaults();
+		if (withTurnAcceptanceLogic) {
+			builder.addOverridingQSimModule(new AbstractQSimModule() {
+				@Override
+				protected void configureQSim() {
+					ConfigurableQNetworkFactory factory = new ConfigurableQNetworkFactory(events, scenario);
+					factory.setTurnAcceptanceLogic(new BlockingTurnAcceptanceLogic());
+					bind(QNetworkFactory.class).toInstance(factory);
+				}
+			});
+		}
+		builder.build(scenario, events).run();
+		return collector.getEvents();
+	}
+
+	private static void createLink(Network network, Node from, Node to, double capacity) {
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(from.getId() + "-" + to.getId()), from, to, 100, 10, capacity, 1);
+	}
+
+	/**
+	 * Lets vehicles wait before turning into the links of the first row during the first ten minutes, and aborts the
+	 * vehicles turning into one link of the middle.
+	 */
+	private static class BlockingTurnAcceptanceLogic implements TurnAcceptanceLogic {
+		private final TurnAcceptanceLogic delegate = new DefaultTurnAcceptanceLogic();
+
+		@Override
+		public AcceptTurn isAcceptingTurn(Link currentLink, QLaneI currentLane, Id<Link> nextLinkId, QVehicle veh, QNetwork qNetwork, double now) {
+			if (nextLinkId != null && nextLinkId.toString().equals("2_2-2_3")) {
+				return AcceptTurn.ABORT;
+			}
+			if (nextLinkId != null && nextLinkId.toString().startsWith("0_") && now < 600) {
+				return AcceptTurn.WAIT;
+			}
+			return this.delegate.isAcceptingTurn(currentLink, currentLane, nextLinkId, veh, qNetwork, now);
+		}
+	}
+
+}
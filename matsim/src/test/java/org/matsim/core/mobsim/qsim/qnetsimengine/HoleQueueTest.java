@@ -0,0 +1,124 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * HoleQueueTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HoleQueueTest {
+
+	@Test
+	void testAddBeyondCapacity() {
+		HoleQueue holes = new HoleQueue();
+		for (int i = 0; i < 10; i++) {
+			holes.add(100.0 + i, i);
+		}
+		Assertions.assertEquals(10, holes.size());
+		for (int i = 0; i < 10; i++) {
+			Assertions.assertEquals(100.0 + i, holes.peekEarliestLinkExitTime(), 0.0);
+			Assertions.assertEquals(i, holes.pollSizeInEquivalents(), 0.0);
+		}
+		Assertions.assertTrue(holes.isEmpty());
+		Assertions.assertNull(holes.peek());
+		Assertions.assertNull(holes.poll());
+	}
+
+	@Test
+	void testGrowWithWrappedHead() {
+		HoleQueue holes = new HoleQueue();
+		holes.add(0.0, 0.0);
+		holes.add(1.0, 1.0);
+		holes.add(2.0, 2.0);
+		holes.pollSizeInEquivalents();
+		holes.pollSizeInEquivalents();
+		// the tail wraps around to the start of the arrays, the head stays at their end
+		holes.add(3.0, 3.0);
+		holes.add(4.0, 4.0);
+		holes.add(5.0, 5.0);
+		Assertions.assertEquals(4, holes.size());
+		// full, so this grows the arrays while the head is not at the start
+		holes.add(6.0, 6.0);
+		Assertions.assertEquals(5, holes.size());
+		Iterator<QueueWithBuffer.Hole> iterator = holes.iterator();
+		for (int i = 2; i < 7; i++) {
+			QueueWithBuffer.Hole hole = iterator.next();
+			Assertions.assertEquals(i, hole.getEarliestLinkExitTime(), 0.0);
+			Assertions.assertEquals(i, hole.getSizeInEquivalents(), 0.0);
+		}
+		Assertions.assertFalse(iterator.hasNext());
+		for (int i = 2; i < 7; i++) {
+			Assertions.assertEquals(i, holes.peekEarliestLinkExitTime(), 0.0);
+			Assertions.assertEquals(i, holes.pollSizeInEquivalents(), 0.0);
+		}
+		Assertions.assertTrue(holes.isEmpty());
+	}
+
+	@Test
+	void testInterleavedPollAndAdd() {
+		HoleQueue holes = new HoleQueue();
+		ArrayDeque<Integer> expected = new ArrayDeque<>();
+		int next = 0;
+		for (int step = 0; step < 200; step++) {
+			// the queue grows in the first steps and then keeps wrapping around with a constant size
+			int adds = step < 50 ? 2 : 1;
+			for (int a = 0; a < adds; a++) {
+				holes.add(next, 0.5 * next);
+				expected.add(next++);
+			}
+			if (step % 3 != 0) {
+				int first = expected.poll();
+				if (step % 2 == 0) {
+					Assertions.assertEquals(first, holes.peekEarliestLinkExitTime(), 0.0);
+					Assertions.assertEquals(0.5 * first, holes.pollSizeInEquivalents(), 0.0);
+				} else {
+					// the queue view used by the visualization
+					QueueWithBuffer.Hole hole = holes.poll();
+					Assertions.assertEquals(first, hole.getEarliestLinkExitTime(), 0.0);
+					Assertions.assertEquals(0.5 * first, hole.getSizeInEquivalents(), 0.0);
+				}
+			}
+			Assertions.assertEquals(expected.size(), holes.size());
+			Iterator<QueueWithBuffer.Hole> iterator = holes.iterator();
+			for (int index : expected) {
+				Assertions.assertEquals(index, iterator.next().getEarliestLinkExitTime(), 0.0);
+			}
+			Assertions.assertFalse(iterator.hasNext());
+		}
+	}
+
+	@Test
+	void testOfferAndClear() {
+		HoleQueue holes = new HoleQueue();
+		QueueWithBuffer.Hole hole = new QueueWithBuffer.Hole();
+		hole.setEarliestLinkExitTime(7.0);
+		hole.setSizeInEquivalents(2.0);
+		Assertions.assertTrue(holes.offer(hole));
+		Assertions.assertEquals(7.0, holes.peek().getEarliestLinkExitTime(), 0.0);
+		Assertions.assertEquals(2.0, holes.peek().getSizeInEquivalents(), 0.0);
+		holes.clear();
+		Assertions.assertTrue(holes.isEmpty());
+		Assertions.assertNull(holes.poll());
+	}
+
+}
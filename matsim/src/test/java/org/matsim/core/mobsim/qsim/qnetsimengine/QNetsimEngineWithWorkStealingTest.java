@@ -0,0 +1,146 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetsimEngineWithWorkStealingTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.NetsimScheduling;
+import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+
+public class QNetsimEngineWithWorkStealingTest {
+
+	@Test
+	void testSameEventsAsStaticPartitions() {
+		Map<Double, List<String>> expected = runQSim(NetsimScheduling.staticPartitions, new NetsimLoadBalancer());
+
+		NetsimLoadBalancer loadBalancer = new NetsimLoadBalancer();
+		for (int iteration = 0; iteration < 3; iteration++) {
+			// the first run uses round-robin, the following ones the partitions from the measured run times
+			Map<Double, List<String>> actual = runQSim(NetsimScheduling.workStealing, loadBalancer);
+			Assertions.assertEquals(expected, actual, "different events in iteration " + iteration);
+		}
+	}
+
+	@Test
+	void testPartitionIsBalanced() {
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		List<QNodeI> nodes = new ArrayList<>();
+		scenario.getNetwork().getNodes().values().forEach(node -> nodes.add(new DummyQNode(node)));
+
+		NetsimLoadBalancer loadBalancer = new NetsimLoadBalancer();
+		int[] partition = loadBalancer.partition(nodes, 4);
+		for (QNodeI node : nodes) {
+			Assertions.assertTrue(partition[node.getNode().getId().index()] >= 0);
+		}
+
+		// pretend unit 0 was very expensive. Its nodes must be spread over the other units afterwards.
+		loadBalancer.update(nodes, partition, new long[] { 1_000_000, 1, 1, 1 });
+		int[] newPartition = loadBalancer.partition(nodes, 4);
+		int[] previouslyExpensivePerUnit = new int[4];
+		for (QNodeI node : nodes) {
+			int index = node.getNode().getId().index();
+			if (partition[index] == 0) {
+				previouslyExpensivePerUnit[newPartition[index]]++;
+			}
+		}
+		for (int unit = 0; unit < 4; unit++) {
+			Assertions.assertTrue(previouslyExpensivePerUnit[unit] > 0, "no expensive node in unit " + unit);
+		}
+		Assertions.assertArrayEquals(newPartition, loadBalancer.partition(nodes, 4), "partition must be deterministic");
+	}
+
+	private static Map<Double, List<String>> runQSim(NetsimScheduling scheduling, NetsimLoadBalancer loadBalancer) {
+		MatsimRandom.reset();
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		config.plans().setInputFile("plans2000.xml.gz");
+		config.qsim().setNumberOfThreads(2);
+		config.qsim().setNetsimScheduling(scheduling);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsByTime collector = new EventsByTime();
+		events.addHandler(collector);
+
+		new QSimBuilder(config)
+				.useDefaults()
+				.addOverridingModule(new AbstractModule() {
+					@Override
+					public void install() {
+						bind(NetsimLoadBalancer.class).toInstance(loadBalancer);
+					}
+				})
+				.build(scenario, events)
+				.run();
+
+		collector.events.values().forEach(Collections::sort);
+		return collector.events;
+	}
+
+	/**
+	 * Events created by different threads in the same time step have no defined order, so only the
+	 * events per time step are compared.
+	 */
+	private static class EventsByTime implements BasicEventHandler {
+		private final Map<Double, List<String>> events = new TreeMap<>();
+
+		@Override
+		public void handleEvent(Event event) {
+			this.events.computeIfAbsent(event.getTime(), t -> new ArrayList<>()).add(event.toString());
+		}
+	}
+
+	private static class DummyQNode extends AbstractQNode {
+		DummyQNode(org.matsim.api.core.v01.network.Node node) {
+			super(node);
+		}
+
+		@Override
+		public boolean doSimStep(double now) {
+			return false;
+		}
+
+		@Override
+		public void init() {
+		}
+	}
+
+}
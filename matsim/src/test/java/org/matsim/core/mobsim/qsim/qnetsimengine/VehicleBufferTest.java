@@ -0,0 +1,130 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * VehicleBufferTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.vehicles.VehicleType;
+import org.matsim.vehicles.VehicleUtils;
+
+public class VehicleBufferTest {
+
+	@Test
+	void testAddBeyondCapacity() {
+		List<QVehicle> vehicles = createVehicles(10);
+		VehicleBuffer buffer = new VehicleBuffer();
+		for (int i = 0; i < vehicles.size(); i++) {
+			buffer.add(vehicles.get(i), i);
+		}
+		Assertions.assertEquals(10, buffer.size());
+		for (int i = 0; i < vehicles.size(); i++) {
+			Assertions.assertSame(vehicles.get(i), buffer.get(i));
+			Assertions.assertEquals(i, buffer.getFlowConsumption(i), 0.0);
+		}
+		for (QVehicle vehicle : vehicles) {
+			Assertions.assertSame(vehicle, buffer.peek());
+			Assertions.assertSame(vehicle, buffer.poll());
+		}
+		Assertions.assertTrue(buffer.isEmpty());
+		Assertions.assertNull(buffer.peek());
+		Assertions.assertNull(buffer.poll());
+	}
+
+	@Test
+	void testGrowWithWrappedHead() {
+		List<QVehicle> vehicles = createVehicles(7);
+		VehicleBuffer buffer = new VehicleBuffer();
+		buffer.add(vehicles.get(0), 0);
+		buffer.add(vehicles.get(1), 1);
+		buffer.add(vehicles.get(2), 2);
+		buffer.poll();
+		buffer.poll();
+		// the tail wraps around to the start of the array, the head stays at its end
+		buffer.add(vehicles.get(3), 3);
+		buffer.add(vehicles.get(4), 4);
+		buffer.add(vehicles.get(5), 5);
+		Assertions.assertEquals(4, buffer.size());
+		// full, so this grows the arrays while the head is not at the start
+		buffer.add(vehicles.get(6), 6);
+		Assertions.assertEquals(5, buffer.size());
+		for (int i = 2; i < 7; i++) {
+			Assertions.assertEquals(i, buffer.getFlowConsumption(0), 0.0);
+			Assertions.assertSame(vehicles.get(i), buffer.poll());
+		}
+		Assertions.assertTrue(buffer.isEmpty());
+	}
+
+	@Test
+	void testInterleavedPollAndAdd() {
+		List<QVehicle> vehicles = createVehicles(300);
+		VehicleBuffer buffer = new VehicleBuffer();
+		ArrayDeque<Integer> expected = new ArrayDeque<>();
+		int next = 0;
+		for (int step = 0; step < 200; step++) {
+			// the buffer grows in the first steps and then keeps wrapping around with a constant size
+			int adds = step < 50 ? 2 : 1;
+			for (int a = 0; a < adds && next < vehicles.size(); a++) {
+				buffer.add(vehicles.get(next), next);
+				expected.add(next++);
+			}
+			if (step % 3 != 0) {
+				Integer first = expected.poll();
+				Assertions.assertSame(vehicles.get(first), buffer.poll());
+			}
+			Assertions.assertEquals(expected.size(), buffer.size());
+			int i = 0;
+			for (int index : expected) {
+				Assertions.assertSame(vehicles.get(index), buffer.get(i));
+				Assertions.assertEquals(index, buffer.getFlowConsumption(i), 0.0);
+				i++;
+			}
+		}
+	}
+
+	@Test
+	void testClear() {
+		List<QVehicle> vehicles = createVehicles(5);
+		VehicleBuffer buffer = new VehicleBuffer();
+		vehicles.forEach(vehicle -> buffer.add(vehicle, 1.0));
+		buffer.poll();
+		buffer.clear();
+		Assertions.assertTrue(buffer.isEmpty());
+		Assertions.assertNull(buffer.poll());
+		buffer.add(vehicles.get(0), 2.0);
+		Assertions.assertSame(vehicles.get(0), buffer.peek());
+		Assertions.assertEquals(2.0, buffer.getFlowConsumption(0), 0.0);
+	}
+
+	private static List<QVehicle> createVehicles(int count) {
+		VehicleType type = VehicleUtils.createVehicleType(Id.create("car", VehicleType.class));
+		List<QVehicle> vehicles = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			vehicles.add(new QVehicleImpl(VehicleUtils.createVehicle(Id.createVehicleId(i), type)));
+		}
+		return vehicles;
+	}
+
+}
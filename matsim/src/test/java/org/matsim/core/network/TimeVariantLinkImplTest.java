@@ -170,6 +170,52 @@ public class TimeVariantLinkImplTest {
 	    }
 	}
 
+	/**
+	 * Tests that change events added out of order are applied by start time, and change events with the same start
+	 * time in the order in which they were added.
+	 */
+	@Test
+	void testFreespeedChangesOutOfOrder() {
+        for (LinkFactory lf : linkFactories(15 * 60, 30 * 3600)) {
+        	final Network network = new NetworkImpl(lf);
+
+    		Node node1 = NetworkUtils.createAndAddNode(network, Id.create("1", Node.class), new Coord((double) 0, (double) 0));
+    		Node node2 = NetworkUtils.createAndAddNode(network, Id.create("2", Node.class), new Coord((double) 100, (double) 0));
+    		TimeVariantLinkImpl link = (TimeVariantLinkImpl)NetworkUtils.createAndAddLink(network,Id.create("1", Link.class), node1, node2, (double) 100, (double) 10, (double) 3600, (double) 1 );
+
+    		NetworkChangeEvent change = new NetworkChangeEvent(9*3600.0);
+    		change.addLink(link);
+    		change.setFreespeedChange(new ChangeValue(ChangeType.FACTOR, 0.5));
+    		link.applyEvent(change);
+    		change = new NetworkChangeEvent(7*3600.0);
+    		change.addLink(link);
+    		change.setFreespeedChange(new ChangeValue(ChangeType.ABSOLUTE_IN_SI_UNITS, 20.0));
+    		link.applyEvent(change);
+    		change = new NetworkChangeEvent(7*3600.0);
+    		change.addLink(link);
+    		change.setFreespeedChange(new ChangeValue(ChangeType.OFFSET_IN_SI_UNITS, 4.0));
+    		link.applyEvent(change);
+
+    		assertEquals(10.0, link.getFreespeed(TIME_BEFORE_FIRST_CHANGE_EVENTS), MatsimTestUtils.EPSILON);
+    		assertEquals(10.0, link.getFreespeed(7*3600.0 - 1.0), MatsimTestUtils.EPSILON);
+    		assertEquals(24.0, link.getFreespeed(7*3600.0), MatsimTestUtils.EPSILON);
+    		assertEquals(24.0, link.getFreespeed(8*3600.0), MatsimTestUtils.EPSILON);
+    		assertEquals(12.0, link.getFreespeed(9*3600.0), MatsimTestUtils.EPSILON);
+    		// and once more backwards in time, after the lookups above
+    		assertEquals(24.0, link.getFreespeed(8*3600.0), MatsimTestUtils.EPSILON);
+    		assertEquals(10.0, link.getFreespeed(0.0), MatsimTestUtils.EPSILON);
+
+    		// a change added later is still taken into account
+    		change = new NetworkChangeEvent(8*3600.0);
+    		change.addLink(link);
+    		change.setFreespeedChange(new ChangeValue(ChangeType.ABSOLUTE_IN_SI_UNITS, 30.0));
+    		link.applyEvent(change);
+    		assertEquals(24.0, link.getFreespeed(7*3600.0), MatsimTestUtils.EPSILON);
+    		assertEquals(30.0, link.getFreespeed(8*3600.0), MatsimTestUtils.EPSILON);
+    		assertEquals(15.0, link.getFreespeed(9*3600.0), MatsimTestUtils.EPSILON);
+	    }
+	}
+
 	/**
 	 * Tests how multiple freespeed changes interact with each other on the link.
 	 */
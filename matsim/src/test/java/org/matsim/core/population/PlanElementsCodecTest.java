@@ -0,0 +1,222 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PlanElementsCodecTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.Controler;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.pt.routes.DefaultTransitPassengerRoute;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.vehicles.Vehicle;
+
+public class PlanElementsCodecTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testCompactAndRestore() {
+		Population population = PopulationUtils.createPopulation(ConfigUtils.createConfig());
+		Person person = population.getFactory().createPerson(Id.createPersonId(1));
+		population.addPerson(person);
+		Plan selected = createPlan(person);
+		Plan unselected = createPlan(person);
+		person.setSelectedPlan(selected);
+		Plan expected = createPlan(person);
+		person.removePlan(expected);
+
+		Assertions.assertEquals(1, PopulationUtils.compactUnselectedPlans(population));
+		Assertions.assertFalse(((PlanImpl) selected).isCompacted());
+		Assertions.assertTrue(((PlanImpl) unselected).isCompacted());
+		Assertions.assertEquals(0, PopulationUtils.compactUnselectedPlans(population), "already compacted plans must not be counted again");
+
+		List<PlanElement> restored = unselected.getPlanElements();
+		Assertions.assertFalse(((PlanImpl) unselected).isCompacted());
+		assertEqualPlanElements(expected.getPlanElements(), restored);
+
+		// the restored plan elements can be modified, and are compacted again
+		((Activity) restored.get(0)).setEndTime(8 * 3600);
+		Assertions.assertEquals(1, PopulationUtils.compactUnselectedPlans(population));
+		Assertions.assertEquals(8 * 3600, ((Activity) unselected.getPlanElements().get(0)).getEndTime().seconds(), 0.0);
+	}
+
+	@Test
+	void testUnsupportedAttributesAreNotCompacted() {
+		Population population = PopulationUtils.createPopulation(ConfigUtils.createConfig());
+		Person person = population.getFactory().createPerson(Id.createPersonId(1));
+		population.addPerson(person);
+		Plan selected = createPlan(person);
+		Plan unselected = createPlan(person);
+		person.setSelectedPlan(selected);
+		unselected.getPlanElements().get(0).getAttributes().putAttribute("coord", new Coord(1, 2));
+
+		Assertions.assertEquals(0, PopulationUtils.compactUnselectedPlans(population));
+		Assertions.assertFalse(((PlanImpl) unselected).isCompacted());
+	}
+
+	@Test
+	void testSameScoresWithCompactedPlans() {
+		List<Double> expected = runEquil(false);
+		List<Double> actual = runEquil(true);
+		Assertions.assertEquals(expected, actual);
+	}
+
+	private List<Double> runEquil(boolean compact) {
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		config.plans().setInputFile("plans100.xml");
+		config.plans().setCompactingUnselectedPlans(compact);
+		config.controller().setOutputDirectory(this.utils.getOutputDirectory() + (compact ? "compact" : "default"));
+		config.controller().setOverwriteFileSetting(OutputDirectoryHierarchy.OverwriteFileSetting.deleteDirectoryIfExists);
+		config.controller().setLastIteration(5);
+		config.controller().setCreateGraphsInterval(0);
+		config.controller().setDumpDataAtEnd(false);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		new Controler(scenario).run();
+
+		List<Double> scores = new ArrayList<>();
+		for (Person person : scenario.getPopulation().getPersons().values()) {
+			for (Plan plan : person.getPlans()) {
+				scores.add(plan.getScore());
+			}
+		}
+		return scores;
+	}
+
+	private static Plan createPlan(Person person) {
+		Plan plan = PopulationUtils.createPlan(person);
+		person.addPlan(plan);
+		Activity home = PopulationUtils.createActivityFromCoordAndLinkId("home", new Coord(100.5, 200, 3), Id.createLinkId("l1"));
+		home.setEndTime(7.5 * 3600 + 0.25);
+		home.setFacilityId(Id.create("f1", ActivityFacility.class));
+		home.getAttributes().putAttribute("string", "value");
+		home.getAttributes().putAttribute("double", 1.5);
+		home.getAttributes().putAttribute("int", -3);
+		home.getAttributes().putAttribute("long", 1L << 40);
+		home.getAttributes().putAttribute("boolean", true);
+		plan.addActivity(home);
+
+		Leg car = PopulationUtils.createLeg(TransportMode.car);
+		car.setRoutingMode(TransportMode.car);
+		car.setDepartureTime(7.5 * 3600);
+		car.setTravelTime(600);
+		NetworkRoute networkRoute = RouteUtils.createLinkNetworkRouteImpl(Id.createLinkId("l1"), List.of(Id.createLinkId("l2"), Id.createLinkId("l3")), Id.createLinkId("l4"));
+		networkRoute.setTravelTime(590);
+		networkRoute.setDistance(1234.5);
+		networkRoute.setTravelCost(42);
+		networkRoute.setVehicleId(Id.create("v1", Vehicle.class));
+		car.setRoute(networkRoute);
+		plan.addLeg(car);
+
+		plan.addActivity(PopulationUtils.createInteractionActivityFromLinkId("pt interaction", Id.createLinkId("l4")));
+
+		Leg pt = PopulationUtils.createLeg(TransportMode.pt);
+		pt.setRoutingMode(TransportMode.pt);
+		DefaultTransitPassengerRoute ptRoute = new DefaultTransitPassengerRoute(Id.createLinkId("l4"), Id.createLinkId("l5"),
+			Id.create("s1", TransitStopFacility.class), Id.create("s2", TransitStopFacility.class), Id.create("line", TransitLine.class), Id.create("route", TransitRoute.class));
+		ptRoute.setBoardingTime(8 * 3600);
+		ptRoute.setTravelTime(300);
+		pt.setRoute(ptRoute);
+		pt.getAttributes().putAttribute("note", "ünïcödé");
+		plan.addLeg(pt);
+
+		Leg walk = PopulationUtils.createLeg(TransportMode.walk);
+		Route genericRoute = RouteUtils.createGenericRouteImpl(Id.createLinkId("l5"), Id.createLinkId("l6"));
+		genericRoute.setRouteDescription("some description");
+		walk.setRoute(genericRoute);
+		plan.addLeg(walk);
+
+		plan.addActivity(PopulationUtils.createInteractionActivityFromLinkId("walk interaction", Id.createLinkId("l6")));
+
+		Leg walkWithoutDescription = PopulationUtils.createLeg(TransportMode.walk);
+		Route genericRouteWithoutDescription = RouteUtils.createGenericRouteImpl(Id.createLinkId("l6"), Id.createLinkId("l6"));
+		genericRouteWithoutDescription.setTravelTime(60);
+		walkWithoutDescription.setRoute(genericRouteWithoutDescription);
+		plan.addLeg(walkWithoutDescription);
+
+		Activity work = PopulationUtils.createActivityFromLinkId("work", Id.createLinkId("l6"));
+		work.setStartTime(9 * 3600);
+		work.setMaximumDuration(8 * 3600);
+		plan.addActivity(work);
+		return plan;
+	}
+
+	private static void assertEqualPlanElements(List<PlanElement> expected, List<PlanElement> actual) {
+		Assertions.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			PlanElement e = expected.get(i);
+			PlanElement a = actual.get(i);
+			Assertions.assertEquals(e.getClass(), a.getClass());
+			Assertions.assertEquals(e.toString(), a.toString());
+			Assertions.assertEquals(e.getAttributes().getAsMap(), a.getAttributes().getAsMap());
+			if (e instanceof Activity ea) {
+				Activity aa = (Activity) a;
+				Assertions.assertEquals(ea.getCoord(), aa.getCoord());
+				Assertions.assertEquals(ea.getFacilityId(), aa.getFacilityId());
+				Assertions.assertEquals(ea.getEndTime(), aa.getEndTime());
+			} else {
+				Leg el = (Leg) e;
+				Leg al = (Leg) a;
+				Assertions.assertEquals(el.getRoutingMode(), al.getRoutingMode());
+				Route er = el.getRoute();
+				Route ar = al.getRoute();
+				Assertions.assertEquals(er.getClass(), ar.getClass());
+				Assertions.assertEquals(er.getRouteDescription(), ar.getRouteDescription());
+				Assertions.assertEquals(er.getTravelTime(), ar.getTravelTime());
+				Assertions.assertEquals(er.getDistance(), ar.getDistance());
+				if (er instanceof NetworkRoute enr) {
+					NetworkRoute anr = (NetworkRoute) ar;
+					Assertions.assertEquals(enr.getLinkIds(), anr.getLinkIds());
+					Assertions.assertEquals(enr.getTravelCost(), anr.getTravelCost());
+					Assertions.assertEquals(enr.getVehicleId(), anr.getVehicleId());
+				}
+			}
+		}
+	}
+
+}
@@ -2,13 +2,23 @@ package org.matsim.core.population.io;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 
 public class ParallelPopulationReaderTest {
 
@@ -71,4 +81,99 @@ public class ParallelPopulationReaderTest {
 		}
 	}
 
+	@Test
+	void testChunkedPopulationReaderV6_sameAsSequentialReader() {
+		URL url = IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("kelheim"), "1pct.plans.xml.gz");
+
+		Scenario expected = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		new PopulationReaderMatsimV6(null, null, expected).parse(url);
+
+		Config config = ConfigUtils.createConfig();
+		config.global().setNumberOfThreads(3);
+		Scenario actual = ScenarioUtils.createScenario(config);
+		new PopulationReader(actual).parse(url);
+
+		Assertions.assertEquals(List.copyOf(expected.getPopulation().getPersons().keySet()), List.copyOf(actual.getPopulation().getPersons().keySet()));
+		Assertions.assertEquals(write(expected), write(actual));
+	}
+
+	@Test
+	void testChunkedPopulationReaderV6_xmlSyntax() throws IOException {
+		String xml = """
+			<?xml version="1.0" encoding="utf-8"?>
+			<!DOCTYPE population SYSTEM "http://www.matsim.org/files/dtd/population_v6.dtd">
+			<!-- a comment mentioning <person id="0"> -->
+			<population desc="entities &amp; umlauts: äöü">
+			<person id="chunked_1"><plan selected="yes">
+					<activity type="h" x="-25000" y="0" link="1" end_time="06:00"/>
+					<leg mode="car"><route type="generic" start_link="1" end_link="2"><![CDATA[some <description>]]></route></leg>
+					<activity type='w&#120;&#x79;' x="10000" y="0" link="2" />
+				</plan></person>
+			<!-- <person id="commented"> -->
+			<person id="chunked_2" />
+			<person
+					id="chunked_3">
+				<attributes>
+					<attribute name="name" class="java.lang.String">Ä &lt;b&gt;\r\nline</attribute>
+				</attributes>
+			</person>
+			</population>
+			""";
+
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		ChunkedPopulationReaderMatsimV6 reader = new ChunkedPopulationReaderMatsimV6(null, null, scenario, Map.of(), 2);
+		Assertions.assertTrue(reader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+
+		Map<Id<Person>, ? extends Person> persons = scenario.getPopulation().getPersons();
+		Assertions.assertEquals(List.of(Id.createPersonId("chunked_1"), Id.createPersonId("chunked_2"), Id.createPersonId("chunked_3")), List.copyOf(persons.keySet()));
+		Assertions.assertEquals("entities & umlauts: äöü", scenario.getPopulation().getName());
+		Person person1 = persons.get(Id.createPersonId("chunked_1"));
+		Assertions.assertEquals("some <description>", ((org.matsim.api.core.v01.population.Leg) person1.getSelectedPlan().getPlanElements().get(1)).getRoute().getRouteDescription());
+		Assertions.assertEquals("wxy", ((org.matsim.api.core.v01.population.Activity) person1.getSelectedPlan().getPlanElements().get(2)).getType());
+		Assertions.assertEquals(0, persons.get(Id.createPersonId("chunked_2")).getPlans().size());
+		Assertions.assertEquals("Ä <b>\nline", persons.get(Id.createPersonId("chunked_3")).getAttributes().getAttribute("name"));
+	}
+
+	@Test
+	void testChunkedPopulationReaderV6_otherVersionsAreNotRead() throws IOException {
+		String xml = """
+			<?xml version="1.0" ?>
+			<!DOCTYPE plans SYSTEM "http://www.matsim.org/files/dtd/plans_v4.dtd">
+			<plans>
+			<person id="1" />
+			</plans>
+			""";
+
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		ChunkedPopulationReaderMatsimV6 reader = new ChunkedPopulationReaderMatsimV6(null, null, scenario, Map.of(), 2);
+		Assertions.assertFalse(reader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+		Assertions.assertTrue(scenario.getPopulation().getPersons().isEmpty());
+	}
+
+	@Test
+	void testChunkedPopulationReaderV6_escalateException() {
+		String xml = """
+			<?xml version="1.0" encoding="utf-8"?>
+			<!DOCTYPE population SYSTEM "http://www.matsim.org/files/dtd/population_v6.dtd">
+
+			<population>
+			<person id="1">
+				<plan>
+					<activity type="h" x="-25000" y="foobar" link="1" end_time="06:00" />
+				</plan>
+			</person>
+			</population>
+			""";
+
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		ChunkedPopulationReaderMatsimV6 reader = new ChunkedPopulationReaderMatsimV6(null, null, scenario, Map.of(), 2);
+		Assertions.assertThrows(RuntimeException.class, () -> reader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+	}
+
+	private static String write(Scenario scenario) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new PopulationWriter(scenario.getPopulation()).writeV6(out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
 }
@@ -0,0 +1,221 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PopulationWriterBinaryTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population.io;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.controler.Controler;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.run.Population2Binary;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.vehicles.Vehicle;
+
+public class PopulationWriterBinaryTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testConvertFromAndToXml() {
+		URL url = IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("kelheim"), "1pct.plans.xml.gz");
+		String binaryFile = this.utils.getOutputDirectory() + "plans.bin";
+		String xmlFile = this.utils.getOutputDirectory() + "plans.xml.gz";
+
+		Population expected = readPopulation(url.toString());
+		Population2Binary.convert(url.toString(), binaryFile);
+		Population fromBinary = readPopulation(binaryFile);
+		Assertions.assertEquals(toXml(expected), toXml(fromBinary));
+
+		Population2Binary.convert(binaryFile, xmlFile);
+		Assertions.assertEquals(toXml(expected), toXml(readPopulation(xmlFile)));
+	}
+
+	@Test
+	void testWriteReadWithFullPrecision() {
+		Population population = PopulationUtils.createPopulation(ConfigUtils.createConfig());
+		population.setName("test population");
+		population.getAttributes().putAttribute("note", "äöü");
+		for (int i = 9; i >= 0; i--) {
+			population.addPerson(createPerson(population, i));
+		}
+		String filename = this.utils.getOutputDirectory() + "plans.bin";
+		// small chunks, so that the reader has to decode many of them in parallel
+		PopulationWriterBinary writer = new PopulationWriterBinary(null, population, 2);
+		writer.setChunkSize(3);
+		writer.write(filename);
+
+		Population actual = readPopulation(filename);
+		Assertions.assertEquals("test population", actual.getName());
+		Assertions.assertEquals("äöü", actual.getAttributes().getAttribute("note"));
+		Assertions.assertEquals(List.copyOf(PopulationUtils.getSortedPersons(population).keySet()), List.copyOf(actual.getPersons().keySet()));
+		Assertions.assertEquals(toXml(population), toXml(actual));
+
+		Person person = actual.getPersons().get(Id.createPersonId(7));
+		Assertions.assertEquals(7, person.getAttributes().getAttribute("number"));
+		Assertions.assertEquals(2, person.getPlans().size());
+		Assertions.assertSame(person.getPlans().get(1), person.getSelectedPlan());
+		Plan plan = person.getSelectedPlan();
+		Assertions.assertEquals(12.5, plan.getScore());
+		Assertions.assertEquals("type", plan.getType());
+		Assertions.assertNull(person.getPlans().get(0).getScore());
+
+		Activity home = (Activity) plan.getPlanElements().get(0);
+		Assertions.assertEquals(new Coord(100.25, -200.125, 3.5), home.getCoord());
+		Assertions.assertEquals(Id.create("f7", ActivityFacility.class), home.getFacilityId());
+		Assertions.assertEquals(7 * 3600 + 0.25, home.getEndTime().seconds());
+		Assertions.assertTrue(home.getStartTime().isUndefined());
+
+		Leg car = (Leg) plan.getPlanElements().get(1);
+		Assertions.assertEquals(TransportMode.car, car.getRoutingMode());
+		Assertions.assertEquals(7 * 3600 + 10, car.getDepartureTime().seconds());
+		Assertions.assertEquals(599.5, car.getTravelTime().seconds());
+		NetworkRoute route = (NetworkRoute) car.getRoute();
+		Assertions.assertEquals(List.of(Id.createLinkId("2"), Id.createLinkId("3")), route.getLinkIds());
+		Assertions.assertEquals(Id.create("v7", Vehicle.class), route.getVehicleId());
+		Assertions.assertEquals(42.5, route.getTravelCost());
+		Assertions.assertEquals(1234.5, route.getDistance());
+
+		Activity interaction = (Activity) plan.getPlanElements().get(2);
+		Assertions.assertEquals(PopulationUtils.createInteractionActivityFromLinkId("car interaction", null).getClass(), interaction.getClass());
+
+		Leg walk = (Leg) plan.getPlanElements().get(3);
+		Assertions.assertEquals("some description", walk.getRoute().getRouteDescription());
+		Assertions.assertTrue(walk.getDepartureTime().isUndefined());
+		Assertions.assertNull(((Leg) plan.getPlanElements().get(5)).getRoute());
+
+		Activity work = (Activity) plan.getPlanElements().get(6);
+		Assertions.assertEquals(-3600, work.getStartTime().seconds());
+		Assertions.assertEquals(8 * 3600, work.getMaximumDuration().seconds());
+		Assertions.assertEquals(Double.POSITIVE_INFINITY, work.getEndTime().seconds());
+	}
+
+	@Test
+	void testNotABinaryPopulation() {
+		String filename = this.utils.getOutputDirectory() + "plans.bin";
+		new PopulationWriter(PopulationUtils.createPopulation(ConfigUtils.createConfig())).write(filename);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> readPopulation(filename));
+	}
+
+	@Test
+	void testControlerWritesBinaryPlans() {
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		config.plans().setInputFile("plans100.xml");
+		config.controller().setOutputDirectory(this.utils.getOutputDirectory());
+		config.controller().setOverwriteFileSetting(OutputDirectoryHierarchy.OverwriteFileSetting.deleteDirectoryIfExists);
+		config.controller().setLastIteration(1);
+		config.controller().setCreateGraphsInterval(0);
+		config.controller().setPlansFileFormats(EnumSet.of(ControllerConfigGroup.PlansFileFormat.xml, ControllerConfigGroup.PlansFileFormat.binary));
+		new Controler(ScenarioUtils.loadScenario(config)).run();
+
+		String dir = this.utils.getOutputDirectory();
+		Assertions.assertEquals(toXml(readPopulation(dir + "ITERS/it.0/0.plans.xml.gz")), toXml(readPopulation(dir + "ITERS/it.0/0.plans.bin")));
+		Assertions.assertEquals(toXml(readPopulation(dir + "output_plans.xml.gz")), toXml(readPopulation(dir + "output_plans.bin")));
+	}
+
+	private static Person createPerson(Population population, int i) {
+		Person person = population.getFactory().createPerson(Id.createPersonId(i));
+		person.getAttributes().putAttribute("number", i);
+
+		Plan unselected = PopulationUtils.createPlan(person);
+		person.addPlan(unselected);
+		unselected.addActivity(PopulationUtils.createActivityFromCoord("home", new Coord(i, i)));
+
+		Plan plan = PopulationUtils.createPlan(person);
+		person.addPlan(plan);
+		person.setSelectedPlan(plan);
+		plan.setScore(12.5);
+		plan.setType("type");
+
+		Activity home = PopulationUtils.createActivityFromCoordAndLinkId("home", new Coord(100.25, -200.125, 3.5), Id.createLinkId("1"));
+		home.setFacilityId(Id.create("f" + i, ActivityFacility.class));
+		home.setEndTime(7 * 3600 + 0.25);
+		plan.addActivity(home);
+
+		Leg car = PopulationUtils.createLeg(TransportMode.car);
+		car.setRoutingMode(TransportMode.car);
+		car.setDepartureTime(7 * 3600 + 10);
+		car.setTravelTime(599.5);
+		NetworkRoute route = RouteUtils.createLinkNetworkRouteImpl(Id.createLinkId("1"), List.of(Id.createLinkId("2"), Id.createLinkId("3")), Id.createLinkId("4"));
+		route.setVehicleId(Id.create("v" + i, Vehicle.class));
+		route.setTravelCost(42.5);
+		route.setDistance(1234.5);
+		route.setTravelTime(590);
+		car.setRoute(route);
+		plan.addLeg(car);
+
+		plan.addActivity(PopulationUtils.createInteractionActivityFromLinkId("car interaction", Id.createLinkId("4")));
+
+		Leg walk = PopulationUtils.createLeg(TransportMode.walk);
+		walk.setRoute(RouteUtils.createGenericRouteImpl(Id.createLinkId("4"), Id.createLinkId("5")));
+		walk.getRoute().setRouteDescription("some description");
+		walk.getAttributes().putAttribute("note", "<&>");
+		plan.addLeg(walk);
+
+		plan.addActivity(PopulationUtils.createActivityFromLinkId("shop", Id.createLinkId("5")));
+		plan.addLeg(PopulationUtils.createLeg(TransportMode.bike));
+
+		Activity work = PopulationUtils.createActivityFromLinkId("work", Id.createLinkId("5"));
+		work.setStartTime(-3600);
+		work.setMaximumDuration(8 * 3600);
+		work.setEndTime(Double.POSITIVE_INFINITY);
+		plan.addActivity(work);
+		return person;
+	}
+
+	private static Population readPopulation(String filename) {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		new PopulationReader(scenario).readFile(filename);
+		return scenario.getPopulation();
+	}
+
+	private static String toXml(Population population) {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		new PopulationWriter(population).writeV6(stream);
+		return stream.toString(StandardCharsets.UTF_8);
+	}
+
+}
@@ -23,7 +23,9 @@ package org.matsim.core.replanning;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.TransportMode;
 import org.matsim.api.core.v01.population.HasPlansAndId;
+import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.Population;
@@ -32,12 +34,20 @@ import org.matsim.core.config.ConfigUtils;
 import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.PersonUtils;
 import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.algorithms.PlanAlgorithm;
+import org.matsim.core.replanning.modules.AbstractMultithreadedModule;
+import org.matsim.core.replanning.modules.ChangeLegMode;
+import org.matsim.core.replanning.modules.ChangeSingleLegMode;
 import org.matsim.core.replanning.selectors.BestPlanSelector;
 import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.RandomPlanSelector;
+import org.matsim.core.router.TripStructureUtils;
 import org.matsim.core.scenario.ScenarioUtils;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -374,6 +384,210 @@ public class StrategyManagerTest {
 		Assertions.assertEquals(1.0, weights.get(2), 1e-8);
 	}
 	
+	@Test
+	void testFusedStrategyModulesGiveSameResults() {
+		Assertions.assertEquals(runWithRandomModules(false, false), runWithRandomModules(true, false));
+		Assertions.assertEquals(runWithRandomModules(false, true), runWithRandomModules(true, true));
+	}
+
+	@Test
+	void testFusedStrategyModulesGiveSamePlans() {
+		Assertions.assertEquals(runWithModeChoiceModules(false), runWithModeChoiceModules(true));
+	}
+
+	@Test
+	void testStrategyModulesAreOnlyFusedIfFusable() {
+		Assertions.assertEquals(List.of(1.0, 1.0, 1.0), runWithFinishAwareModules(false), "without fusing, the second module is prepared after the first finished");
+		Assertions.assertEquals(List.of(1.0, 1.0, 1.0), runWithFinishAwareModules(true), "a module depending on the finish hook of another one must not be fused");
+	}
+
+	private static List<String> runWithModeChoiceModules(boolean fuse) {
+		MatsimRandom.reset(4711);
+		Population population = ScenarioUtils.createScenario(ConfigUtils.createConfig()).getPopulation();
+		for (int i = 0; i < 500; i++) {
+			Person person = PopulationUtils.getFactory().createPerson(Id.create(i, Person.class));
+			Plan plan = PopulationUtils.createPlan(person);
+			plan.addActivity(PopulationUtils.createActivityFromLinkId("home", Id.createLinkId(1)));
+			plan.addLeg(PopulationUtils.createLeg(TransportMode.car));
+			plan.addActivity(PopulationUtils.createActivityFromLinkId("work", Id.createLinkId(2)));
+			plan.addLeg(PopulationUtils.createLeg(TransportMode.car));
+			plan.addActivity(PopulationUtils.createActivityFromLinkId("home", Id.createLinkId(1)));
+			plan.setScore(0.0);
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+
+		String[] modes = {TransportMode.car, TransportMode.pt, TransportMode.bike, TransportMode.walk};
+		StrategyManager manager = new StrategyManager();
+		manager.setMaxPlansPerAgent(3);
+		manager.addStrategy(new PlanStrategyImpl.Builder(new RandomPlanSelector<>())
+				.addStrategyModule(new ChangeLegMode(3, modes, true, false)).addStrategyModule(new ChangeSingleLegMode(3, modes, true)).build(), null, 0.4);
+		manager.addStrategy(new PlanStrategyImpl.Builder(new RandomPlanSelector<>()).addStrategyModule(new ChangeSingleLegMode(3, modes, true)).build(), null, 0.3);
+		manager.addStrategy(new PlanStrategyImpl.Builder(new BestPlanSelector<>()).build(), null, 0.3);
+
+		ReplanningContext context = new ReplanningContext() {
+			@Override
+			public int getIteration() {
+				return 1;
+			}
+
+			@Override
+			public boolean isFusingStrategyModules() {
+				return fuse;
+			}
+		};
+		for (int iteration = 1; iteration <= 3; iteration++) {
+			manager.run(population, iteration, context);
+		}
+
+		List<String> modesOfPlans = new ArrayList<>();
+		for (Person person : population.getPersons().values()) {
+			for (Plan plan : person.getPlans()) {
+				modesOfPlans.add(TripStructureUtils.getLegs(plan).stream().map(Leg::getMode).collect(Collectors.joining(",")));
+			}
+		}
+		return modesOfPlans;
+	}
+
+	private static List<Double> runWithFinishAwareModules(boolean fuse) {
+		Population population = ScenarioUtils.createScenario(ConfigUtils.createConfig()).getPopulation();
+		for (int i = 0; i < 3; i++) {
+			Person person = PopulationUtils.getFactory().createPerson(Id.create(i, Person.class));
+			person.addPlan(PopulationUtils.createPlan(person));
+			population.addPerson(person);
+		}
+		FinishingModule first = new FinishingModule();
+		PlanStrategy strategy = new PlanStrategyImpl.Builder(new RandomPlanSelector<>())
+				.addStrategyModule(first).addStrategyModule(new AbstractMultithreadedModule(2) {
+					@Override
+					public PlanAlgorithm getPlanAlgoInstance() {
+						double score = first.finished ? 1.0 : 0.0;
+						return plan -> plan.setScore(score);
+					}
+				}).build();
+		StrategyManager manager = new StrategyManager();
+		manager.addStrategy(strategy, null, 1.0);
+		manager.run(population, 1, new ReplanningContext() {
+			@Override
+			public int getIteration() {
+				return 1;
+			}
+
+			@Override
+			public boolean isFusingStrategyModules() {
+				return fuse;
+			}
+		});
+
+		List<Double> scores = new ArrayList<>();
+		for (Person person : population.getPersons().values()) {
+			for (Plan plan : person.getPlans()) {
+				if (plan.getScore() != null) {
+					scores.add(plan.getScore());
+				}
+			}
+		}
+		return scores;
+	}
+
+	/** Remembers whether it finished, like modules that publish what they learned from the plans in the hook. */
+	private static class FinishingModule extends AbstractMultithreadedModule {
+		private boolean finished = false;
+
+		FinishingModule() {
+			super(2);
+		}
+
+		@Override
+		protected void beforePrepareReplanningHook(ReplanningContext replanningContext) {
+			this.finished = false;
+		}
+
+		@Override
+		protected void afterFinishReplanningHook() {
+			this.finished = true;
+		}
+
+		@Override
+		public PlanAlgorithm getPlanAlgoInstance() {
+			return plan -> {};
+		}
+	}
+
+	private static List<Double> runWithRandomModules(boolean fuse, boolean workStealing) {
+		MatsimRandom.reset(4711);
+		Population population = ScenarioUtils.createScenario(ConfigUtils.createConfig()).getPopulation();
+		for (int i = 0; i < 500; i++) {
+			Person person = PopulationUtils.getFactory().createPerson(Id.create(i, Person.class));
+			Plan plan = PopulationUtils.createPlan(person);
+			plan.setScore(0.0);
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+
+		StrategyManager manager = new StrategyManager();
+		manager.setMaxPlansPerAgent(3);
+		manager.addStrategy(new PlanStrategyImpl.Builder(new RandomPlanSelector<>())
+				.addStrategyModule(new RandomScoreModule(3)).addStrategyModule(new RandomScoreModule(3)).build(), null, 0.4);
+		manager.addStrategy(new PlanStrategyImpl.Builder(new RandomPlanSelector<>()).addStrategyModule(new RandomScoreModule(3)).build(), null, 0.3);
+		manager.addStrategy(new PlanStrategyImpl.Builder(new BestPlanSelector<>()).build(), null, 0.3);
+
+		ReplanningContext context = new ReplanningContext() {
+			@Override
+			public int getIteration() {
+				return 1;
+			}
+
+			@Override
+			public boolean isWorkStealing() {
+				return workStealing;
+			}
+
+			@Override
+			public boolean isFusingStrategyModules() {
+				return fuse;
+			}
+		};
+		for (int iteration = 1; iteration <= 3; iteration++) {
+			manager.run(population, iteration, context);
+		}
+
+		List<Double> scores = new ArrayList<>();
+		for (Person person : population.getPersons().values()) {
+			for (Plan plan : person.getPlans()) {
+				scores.add(plan.getScore());
+			}
+		}
+		return scores;
+	}
+
+	/** Changes the score depending on the previous score and a random number, so the order of the modules matters. */
+	private static class RandomScoreModule extends AbstractMultithreadedModule {
+		RandomScoreModule(int numberOfThreads) {
+			super(numberOfThreads);
+		}
+
+		@Override
+		public PlanAlgorithm getPlanAlgoInstance() {
+			return getPlanAlgoInstance(MatsimRandom.getLocalInstance());
+		}
+
+		@Override
+		protected PlanAlgorithm getPlanAlgoInstance(Random random) {
+			return plan -> plan.setScore(plan.getScore() * 0.5 + random.nextDouble());
+		}
+
+		@Override
+		protected boolean supportsWorkStealing() {
+			return true;
+		}
+
+		@Override
+		protected boolean isFusable(ReplanningContext replanningContext) {
+			return true;
+		}
+	}
+
 	/**
 	 * A simple extension to the PlanStrategy which counts how often it was
 	 * called.
@@ -24,10 +24,19 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
+import org.matsim.core.replanning.ReplanningContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 /**
  * @author mrieser
@@ -61,6 +70,84 @@ public class AbstractMultithreadedModuleTest {
 
 	}
 
+	@Test
+	void testRoundRobinIsReproducible() {
+		Assertions.assertEquals(runRandomModule(3, false), runRandomModule(3, false));
+	}
+
+	@Test
+	void testWorkStealingDoesNotDependOnNumberOfThreads() {
+		List<Double> expected = runRandomModule(1, true);
+		Assertions.assertEquals(expected, runRandomModule(3, true));
+		Assertions.assertEquals(expected, runRandomModule(4, true));
+		Assertions.assertNotEquals(expected, runRandomModule(3, false));
+	}
+
+	@Test
+	void testWorkStealingOnlyForModulesSupportingIt() {
+		Assertions.assertEquals(runModule(new LocalRandomScoreModule(3), false), runModule(new LocalRandomScoreModule(3), true));
+	}
+
+	private static List<Double> runRandomModule(int numberOfThreads, boolean workStealing) {
+		return runModule(new RandomScoreModule(numberOfThreads), workStealing);
+	}
+
+	private static List<Double> runModule(AbstractMultithreadedModule module, boolean workStealing) {
+		MatsimRandom.reset(4711);
+		List<Plan> plans = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			Person person = PopulationUtils.getFactory().createPerson(Id.create(i, Person.class));
+			Plan plan = PopulationUtils.createPlan(person);
+			person.addPlan(plan);
+			plans.add(plan);
+		}
+		module.prepareReplanning(new ReplanningContext() {
+			@Override
+			public int getIteration() {
+				return 0;
+			}
+
+			@Override
+			public boolean isWorkStealing() {
+				return workStealing;
+			}
+		});
+		plans.forEach(module::handlePlan);
+		module.finishReplanning();
+		List<Double> scores = new ArrayList<>();
+		plans.forEach(plan -> scores.add(plan.getScore()));
+		return scores;
+	}
+
+	private static class RandomScoreModule extends AbstractMultithreadedModule {
+		public RandomScoreModule(final int nOfThreads) {
+			super(nOfThreads);
+		}
+		@Override
+		public PlanAlgorithm getPlanAlgoInstance() {
+			return getPlanAlgoInstance(MatsimRandom.getLocalInstance());
+		}
+		@Override
+		protected PlanAlgorithm getPlanAlgoInstance(Random random) {
+			return plan -> plan.setScore(random.nextDouble() + random.nextGaussian());
+		}
+		@Override
+		protected boolean supportsWorkStealing() {
+			return true;
+		}
+	}
+
+	private static class LocalRandomScoreModule extends AbstractMultithreadedModule {
+		public LocalRandomScoreModule(final int nOfThreads) {
+			super(nOfThreads);
+		}
+		@Override
+		public PlanAlgorithm getPlanAlgoInstance() {
+			Random random = MatsimRandom.getLocalInstance();
+			return plan -> plan.setScore(random.nextDouble() + random.nextGaussian());
+		}
+	}
+
 	private static class DummyAbstractMultithreadedModule extends AbstractMultithreadedModule {
 		public DummyAbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
 			super(globalConfigGroup);
@@ -20,7 +20,9 @@
 
 package org.matsim.core.replanning.modules;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Assertions;
@@ -34,8 +36,11 @@ import org.matsim.api.core.v01.population.Plan;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.core.config.groups.ChangeModeConfigGroup;
+import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.PersonUtils;
 import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.replanning.ReplanningContext;
+import org.matsim.core.router.TripStructureUtils;
 
 /**
  * @author mrieser
@@ -101,6 +106,49 @@ public class ChangeSingleLegModeTest {
 		Assertions.assertEquals(0, counter.get("car").intValue());
 	}
 
+	@Test
+	void testWorkStealingDoesNotDependOnNumberOfThreads() {
+		List<String> expected = runWithWorkStealing(1);
+		Assertions.assertEquals(expected, runWithWorkStealing(3));
+		Assertions.assertEquals(expected, runWithWorkStealing(4));
+	}
+
+	private static List<String> runWithWorkStealing(int numberOfThreads) {
+		MatsimRandom.reset(4711);
+		final ChangeSingleLegMode module = new ChangeSingleLegMode(numberOfThreads, new String[] {"car", "pt", "bike", "walk"}, true);
+		module.prepareReplanning(new ReplanningContext() {
+			@Override
+			public int getIteration() {
+				return 0;
+			}
+
+			@Override
+			public boolean isWorkStealing() {
+				return true;
+			}
+		});
+		List<Plan> plans = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			Plan plan = PopulationUtils.createPlan(PopulationUtils.getFactory().createPerson(Id.create(i, Person.class)));
+			PopulationUtils.createAndAddActivityFromCoord(plan, "home", new Coord((double) 0, (double) 0));
+			PopulationUtils.createAndAddLeg( plan, TransportMode.car );
+			PopulationUtils.createAndAddActivityFromCoord(plan, "work", new Coord((double) 0, (double) 0));
+			PopulationUtils.createAndAddLeg( plan, TransportMode.car );
+			PopulationUtils.createAndAddActivityFromCoord(plan, "home", new Coord((double) 0, (double) 0));
+			plans.add(plan);
+			module.handlePlan(plan);
+		}
+		module.finishReplanning();
+
+		List<String> modes = new ArrayList<>();
+		for (Plan plan : plans) {
+			for (Leg leg : TripStructureUtils.getLegs(plan)) {
+				modes.add(leg.getMode());
+			}
+		}
+		return modes;
+	}
+
 	private void runTest(final ChangeSingleLegMode module, final String[] possibleModes, final int nOfTries) {
 		module.prepareReplanning(null);
 
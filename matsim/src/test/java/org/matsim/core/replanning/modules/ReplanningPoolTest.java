@@ -0,0 +1,48 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ReplanningPoolTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.replanning.modules;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ReplanningPoolTest {
+
+	@Test
+	void testThreadsAreSharedUntilShutdown() throws Exception {
+		ReplanningPool replanningPool = new ReplanningPool();
+		ForkJoinPool pool = replanningPool.get(2);
+		Assertions.assertSame(pool, replanningPool.get(2), "modules with the same number of threads must share the threads");
+		Assertions.assertNotSame(pool, replanningPool.get(3));
+
+		Thread thread = pool.submit(Thread::currentThread).get();
+		Assertions.assertTrue(thread.getName().startsWith("ReplanningPool."));
+		ReplanningPool otherReplanningPool = new ReplanningPool();
+		Assertions.assertNotSame(pool, otherReplanningPool.get(2), "every run must have its own threads");
+		otherReplanningPool.shutdown();
+
+		replanningPool.shutdown();
+		Assertions.assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS), "the threads must stop with the pool");
+	}
+
+}
@@ -0,0 +1,81 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TripRouterPoolTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.replanning.modules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.replanning.ReplanningContext;
+import org.matsim.core.router.TripRouter;
+import org.matsim.core.utils.timing.TimeInterpretation;
+import org.matsim.facilities.FacilitiesUtils;
+
+import jakarta.inject.Provider;
+
+public class TripRouterPoolTest {
+
+	@Test
+	void testReRouteModulesReuseTheRoutersOfEarlierOnes() {
+		Config config = ConfigUtils.createConfig();
+		config.global().setNumberOfThreads(2);
+		List<TripRouter> created = new ArrayList<>();
+		Provider<TripRouter> provider = () -> {
+			TripRouter tripRouter = new TripRouter.Builder(config).build();
+			created.add(tripRouter);
+			return tripRouter;
+		};
+		TripRouterPool pool = new TripRouterPool();
+
+		for (int i = 0; i < 3; i++) {
+			runReRoute(config, provider, pool);
+		}
+		Assertions.assertEquals(2, created.size(), "the later modules must reuse the routers of the first one");
+
+		pool.clear();
+		runReRoute(config, provider, pool);
+		Assertions.assertEquals(4, created.size(), "after clearing the pool, new routers must be created");
+
+		runReRoute(config, provider, null);
+		runReRoute(config, provider, null);
+		Assertions.assertEquals(8, created.size(), "without a pool, every module must create its own routers");
+	}
+
+	private static void runReRoute(Config config, Provider<TripRouter> provider, TripRouterPool pool) {
+		ReRoute reRoute = new ReRoute(FacilitiesUtils.createActivityFacilities(), provider, config.global(), TimeInterpretation.create(config));
+		reRoute.prepareReplanning(new ReplanningContext() {
+			@Override
+			public int getIteration() {
+				return 0;
+			}
+
+			@Override
+			public TripRouterPool getTripRouterPool() {
+				return pool;
+			}
+		});
+		reRoute.finishReplanning();
+	}
+
+}
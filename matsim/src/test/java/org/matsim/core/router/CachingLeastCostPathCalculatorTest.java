@@ -0,0 +1,175 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CachingLeastCostPathCalculatorTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.network.io.MatsimNetworkReader;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.router.costcalculators.OnlyTimeDependentTravelDisutility;
+import org.matsim.core.router.speedy.SpeedyALTFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.VersionedTravelTime;
+import org.matsim.vehicles.Vehicle;
+
+public class CachingLeastCostPathCalculatorTest {
+
+	/** the travel times increase during the day, so re-used paths get other travel times */
+	private static class IncreasingTravelTime implements VersionedTravelTime {
+		long version = 0;
+
+		@Override
+		public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+			return link.getLength() / link.getFreespeed() * (1.0 + time / 36000.0);
+		}
+
+		@Override
+		public long getVersion() {
+			return this.version;
+		}
+	}
+
+	private static class CountingCalculator implements LeastCostPathCalculator {
+		private final LeastCostPathCalculator delegate;
+		int count = 0;
+
+		CountingCalculator(LeastCostPathCalculator delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Path calcLeastCostPath(Node fromNode, Node toNode, double starttime, Person person, Vehicle vehicle) {
+			this.count++;
+			return this.delegate.calcLeastCostPath(fromNode, toNode, starttime, person, vehicle);
+		}
+	}
+
+	private final Network network = NetworkUtils.createNetwork();
+	private final IncreasingTravelTime travelTime = new IncreasingTravelTime();
+	private final TravelDisutility travelDisutility = new OnlyTimeDependentTravelDisutility(this.travelTime);
+	private final LeastCostPathCalculator router;
+	private final CountingCalculator counting;
+	private final RouteCacheStatistics.Counter counter = new RouteCacheStatistics.Counter();
+
+	public CachingLeastCostPathCalculatorTest() {
+		new MatsimNetworkReader(this.network).readFile("test/scenarios/equil/network.xml");
+		this.router = new SpeedyALTFactory().createPathCalculator(this.network, this.travelDisutility, this.travelTime);
+		this.counting = new CountingCalculator(this.router);
+	}
+
+	private Node node(String id) {
+		return this.network.getNodes().get(Id.create(id, Node.class));
+	}
+
+	@Test
+	void testRepeatedRequestsInSameTimeBin() {
+		CachingLeastCostPathCalculator cache = new CachingLeastCostPathCalculator(this.counting, this.travelTime, this.travelDisutility, 100, 900, true, this.counter);
+
+		Path first = cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600, null, null);
+		Path second = cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600 + 300, null, null);
+		Assertions.assertEquals(1, this.counting.count);
+		Assertions.assertEquals(1, this.counter.getHits());
+		Assertions.assertEquals(1, this.counter.getMisses());
+
+		Path expected = this.router.calcLeastCostPath(node("1"), node("15"), 8 * 3600 + 300, null, null);
+		Assertions.assertEquals(first.links, second.links);
+		Assertions.assertEquals(expected.links, second.links);
+		Assertions.assertEquals(expected.nodes, second.nodes);
+		Assertions.assertEquals(expected.travelTime, second.travelTime, 0.0, "travel time must be the one of the actual departure time");
+		Assertions.assertEquals(expected.travelCost, second.travelCost, 0.0);
+		Assertions.assertTrue(second.travelTime > first.travelTime);
+
+		cache.calcLeastCostPath(node("1"), node("15"), 9 * 3600, null, null);
+		Assertions.assertEquals(2, this.counting.count, "other time bins must be routed again");
+	}
+
+	@Test
+	void testModifiedPathsDoNotChangeTheCache() {
+		CachingLeastCostPathCalculator cache = new CachingLeastCostPathCalculator(this.counting, this.travelTime, this.travelDisutility, 100, 900, true, this.counter);
+
+		Path first = cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600, null, null);
+		int numberOfLinks = first.links.size();
+		first.links.clear();
+		first.nodes.clear();
+
+		Path second = cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600, null, null);
+		Assertions.assertEquals(1, this.counting.count);
+		Assertions.assertEquals(numberOfLinks, second.links.size());
+		Assertions.assertEquals(numberOfLinks + 1, second.nodes.size());
+
+		second.links.clear();
+		Path third = cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600, null, null);
+		Assertions.assertEquals(numberOfLinks, third.links.size());
+	}
+
+	@Test
+	void testNewTravelTimesClearCache() {
+		CachingLeastCostPathCalculator cache = new CachingLeastCostPathCalculator(this.counting, this.travelTime, this.travelDisutility, 100, 900, true, this.counter);
+
+		cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600, null, null);
+		cache.calcLeastCostPath(node("1"), node("12"), 8 * 3600, null, null);
+		Assertions.assertEquals(2, cache.size());
+
+		this.travelTime.version++;
+		cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600, null, null);
+		Assertions.assertEquals(3, this.counting.count);
+		Assertions.assertEquals(1, cache.size());
+	}
+
+	@Test
+	void testLeastRecentlyUsedPathIsDropped() {
+		CachingLeastCostPathCalculator cache = new CachingLeastCostPathCalculator(this.counting, this.travelTime, this.travelDisutility, 2, 900, true, this.counter);
+
+		cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600, null, null);
+		cache.calcLeastCostPath(node("1"), node("12"), 8 * 3600, null, null);
+		cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600, null, null);
+		cache.calcLeastCostPath(node("1"), node("13"), 8 * 3600, null, null);
+		Assertions.assertEquals(3, this.counting.count);
+		Assertions.assertEquals(2, cache.size());
+
+		cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600, null, null);
+		Assertions.assertEquals(3, this.counting.count, "the recently used path must still be cached");
+		cache.calcLeastCostPath(node("1"), node("12"), 8 * 3600, null, null);
+		Assertions.assertEquals(4, this.counting.count, "the least recently used path must have been dropped");
+	}
+
+	@Test
+	void testPathsAreNotSharedAcrossPersonsByDefault() {
+		CachingLeastCostPathCalculator cache = new CachingLeastCostPathCalculator(this.counting, this.travelTime, this.travelDisutility, 100, 900, false, this.counter);
+		Person person1 = PopulationUtils.getFactory().createPerson(Id.createPersonId("1"));
+		Person person2 = PopulationUtils.getFactory().createPerson(Id.createPersonId("2"));
+
+		cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600, person1, null);
+		cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600 + 300, person2, null);
+		Assertions.assertEquals(2, this.counting.count, "the path of another person must not be re-used");
+		cache.calcLeastCostPath(node("1"), node("15"), 8 * 3600 + 600, person1, null);
+		Assertions.assertEquals(2, this.counting.count, "the path of the same person must be re-used");
+	}
+
+}
@@ -0,0 +1,157 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ManyToManyLeastCostPathTreeTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+public class ManyToManyLeastCostPathTreeTest {
+
+	@Test
+	void testSameResultsAsLeastCostPathTree() {
+		Random random = new Random(20250612);
+		Network network = createGrid(20, random);
+		Node unreachable = NetworkUtils.createAndAddNode(network, Id.createNodeId("unreachable"), new Coord(-500, -500));
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		PeakTravelTime travelTime = new PeakTravelTime(random);
+
+		int[] fromNodes = new int[30];
+		double[] departureTimes = new double[fromNodes.length];
+		for (int i = 0; i < fromNodes.length; i++) {
+			fromNodes[i] = (i % 10 == 0 ? Id.createNodeId("0_0") : Id.createNodeId(random.nextInt(20) + "_" + random.nextInt(20))).index();
+			departureTimes[i] = 6 * 3600 + random.nextInt(4 * 3600);
+		}
+		int[] toNodes = new int[12];
+		for (int i = 0; i < toNodes.length; i++) {
+			toNodes[i] = Id.createNodeId(random.nextInt(20) + "_" + random.nextInt(20)).index();
+		}
+		toNodes[3] = toNodes[7]; // duplicate destinations must be supported
+		toNodes[5] = unreachable.getId().index();
+
+		ManyToManyLeastCostPathTree manyToMany = new ManyToManyLeastCostPathTree(graph, travelTime, travelTime, 3);
+		LeastCostPathTree tree = new LeastCostPathTree(graph, travelTime, travelTime);
+
+		ManyToManyLeastCostPathTree.Result result = manyToMany.calculate(fromNodes, departureTimes, toNodes, null, null);
+		Assertions.assertEquals(fromNodes.length * toNodes.length, result.travelCosts.length);
+		for (int o = 0; o < fromNodes.length; o++) {
+			tree.calculate(fromNodes[o], departureTimes[o], null, null);
+			for (int d = 0; d < toNodes.length; d++) {
+				if (toNodes[d] == unreachable.getId().index()) {
+					Assertions.assertEquals(Double.POSITIVE_INFINITY, result.getTravelCost(o, d));
+					Assertions.assertEquals(Double.POSITIVE_INFINITY, result.getTravelTime(o, d));
+					continue;
+				}
+				Assertions.assertEquals(tree.getCost(toNodes[d]), result.getTravelCost(o, d), 1e-9);
+				Assertions.assertEquals(tree.getTime(toNodes[d]).seconds() - departureTimes[o], result.getTravelTime(o, d), 1e-9);
+				Assertions.assertEquals(tree.getDistance(toNodes[d]), result.getDistance(o, d), 1e-9);
+			}
+		}
+
+		// the same with the reverse roles: the first 12 origins are now destinations with an arrival time
+		int[] fromNodes2 = toNodes;
+		int[] toNodes2 = new int[12];
+		double[] arrivalTimes = new double[toNodes2.length];
+		System.arraycopy(fromNodes, 0, toNodes2, 0, toNodes2.length);
+		System.arraycopy(departureTimes, 0, arrivalTimes, 0, arrivalTimes.length);
+		ManyToManyLeastCostPathTree.Result backwards = manyToMany.calculateBackwards(fromNodes2, toNodes2, arrivalTimes, null, null);
+		for (int d = 0; d < toNodes2.length; d++) {
+			tree.calculateBackwards(toNodes2[d], arrivalTimes[d], null, null, (node, arrTime, cost, distance, depTime) -> false);
+			for (int o = 0; o < fromNodes2.length; o++) {
+				Assertions.assertEquals(tree.getCost(fromNodes2[o]), backwards.getTravelCost(o, d), 1e-9);
+				if (fromNodes2[o] != unreachable.getId().index()) {
+					Assertions.assertEquals(arrivalTimes[d] - tree.getTime(fromNodes2[o]).seconds(), backwards.getTravelTime(o, d), 1e-9);
+				}
+			}
+		}
+	}
+
+	private static Network createGrid(int size, Random random) {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 100, y * 100));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y], random);
+					addLink(network, nodes[x + 1][y], nodes[x][y], random);
+				}
+				if (y + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x][y + 1], random);
+					addLink(network, nodes[x][y + 1], nodes[x][y], random);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLink(Network network, Node from, Node to, Random random) {
+		Link link = network.getFactory().createLink(Id.createLinkId(from.getId() + "-" + to.getId()), from, to);
+		link.setLength(100 + random.nextDouble() * 100);
+		link.setFreespeed(random.nextBoolean() ? 13.9 : 22.2);
+		link.setCapacity(1000);
+		link.setNumberOfLanes(1);
+		network.addLink(link);
+	}
+
+	private static class PeakTravelTime implements TravelTime, TravelDisutility {
+		private final double[] peakFactors = new double[Id.getNumberOfIds(Link.class)];
+
+		PeakTravelTime(Random random) {
+			for (int i = 0; i < this.peakFactors.length; i++) {
+				this.peakFactors[i] = 1 + 2 * random.nextDouble();
+			}
+		}
+
+		@Override
+		public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+			double freespeedTime = link.getLength() / link.getFreespeed();
+			boolean peak = time >= 7 * 3600 && time < 9 * 3600;
+			return peak ? freespeedTime * this.peakFactors[link.getId().index()] : freespeedTime;
+		}
+
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			return getLinkTravelTime(link, time, person, vehicle) + 0.001 * link.getLength();
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return link.getLength() / link.getFreespeed() + 0.001 * link.getLength();
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyALTDataCacheTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.ScoringConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.util.TravelDisutility;
+
+public class SpeedyALTDataCacheTest {
+
+	@TempDir
+	public Path tempFolder;
+
+	@Test
+	void testStoreAndLoad() {
+		SpeedyGraph graph = SpeedyGraphBuilder.build(createGrid(12));
+		TravelDisutility travelCosts = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+
+		SpeedyALTDataCache cache = new SpeedyALTDataCache(this.tempFolder);
+		SpeedyALTData calculated = cache.getOrCalculate(graph, 8, travelCosts, 2);
+		Path file = cache.getFile(SpeedyALTDataCache.calcKey(graph, 8, travelCosts));
+		Assertions.assertTrue(Files.exists(file));
+
+		SpeedyALTData loaded = new SpeedyALTDataCache(this.tempFolder).getOrCalculate(graph, 8, travelCosts, 2);
+		Assertions.assertNotSame(calculated, loaded);
+		Assertions.assertArrayEquals(calculated.getLandmarksNodeIndices(), loaded.getLandmarksNodeIndices());
+		Assertions.assertArrayEquals(calculated.getDeadendData(), loaded.getDeadendData());
+		Assertions.assertArrayEquals(calculated.getNodesData(), loaded.getNodesData());
+		Assertions.assertEquals(calculated.getMinTravelCostPerLength(), loaded.getMinTravelCostPerLength());
+	}
+
+	@Test
+	void testKey() {
+		Network network = createGrid(5);
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		TravelDisutility travelCosts = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		long key = SpeedyALTDataCache.calcKey(graph, 4, travelCosts);
+
+		Assertions.assertEquals(key, SpeedyALTDataCache.calcKey(SpeedyGraphBuilder.build(network), 4, travelCosts));
+		Assertions.assertNotEquals(key, SpeedyALTDataCache.calcKey(graph, 5, travelCosts));
+
+		TravelDisutility distanceCosts = new FreespeedTravelTimeAndDisutility(-6.0 / 3600, 6.0 / 3600, -0.001);
+		Assertions.assertNotEquals(key, SpeedyALTDataCache.calcKey(graph, 4, distanceCosts));
+
+		network.getLinks().get(Id.createLinkId("0_0-1_0")).setFreespeed(5.0);
+		Assertions.assertNotEquals(key, SpeedyALTDataCache.calcKey(SpeedyGraphBuilder.build(network), 4, travelCosts));
+	}
+
+	@Test
+	void testInvalidFileIsReplaced() throws IOException {
+		SpeedyGraph graph = SpeedyGraphBuilder.build(createGrid(6));
+		TravelDisutility travelCosts = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		SpeedyALTDataCache cache = new SpeedyALTDataCache(this.tempFolder);
+		Path file = cache.getFile(SpeedyALTDataCache.calcKey(graph, 4, travelCosts));
+		Files.write(file, new byte[] { 1, 2, 3 });
+
+		SpeedyALTData data = cache.getOrCalculate(graph, 4, travelCosts, 1);
+		SpeedyALTData expected = new SpeedyALTData(graph, 4, travelCosts, 1);
+		Assertions.assertArrayEquals(expected.getNodesData(), data.getNodesData());
+		Assertions.assertTrue(Files.size(file) > 3);
+	}
+
+	private static Network createGrid(int size) {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 100, y * 120));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y]);
+					addLink(network, nodes[x + 1][y], nodes[x][y]);
+				}
+				if (y + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x][y + 1]);
+					addLink(network, nodes[x][y + 1], nodes[x][y]);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLink(Network network, Node from, Node to) {
+		Link link = network.getFactory().createLink(Id.createLinkId(from.getId() + "-" + to.getId()), from, to);
+		link.setLength(NetworkUtils.getEuclideanDistance(from.getCoord(), to.getCoord()));
+		link.setFreespeed(13.9);
+		link.setCapacity(1000);
+		link.setNumberOfLanes(1);
+		network.addLink(link);
+	}
+
+}
@@ -0,0 +1,166 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyCHTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.groups.ScoringConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.AbstractLeastCostPathCalculatorTestWithTurnRestrictions;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+public class SpeedyCHTest extends AbstractLeastCostPathCalculatorTestWithTurnRestrictions {
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(final Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		SpeedyGraph g = SpeedyGraphBuilder.build(network);
+		SpeedyCHData chData = new SpeedyCHData(g);
+		return new SpeedyCH(chData, travelTimeCostCalculator, travelTimeCostCalculator);
+	}
+
+	@Test
+	void testSameRoutesAsSpeedyALTWithTimeDependentCosts() {
+		Random random = new Random(20250601);
+		Network network = createGrid(30, random);
+		CongestedTravelTime travelTime = new CongestedTravelTime(random);
+
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		SpeedyALT alt = new SpeedyALT(new SpeedyALTData(graph, 8, travelTime), travelTime, travelTime);
+		SpeedyCHData chData = new SpeedyCHData(graph);
+		SpeedyCH ch = new SpeedyCH(chData, travelTime, travelTime);
+
+		Node[] nodes = network.getNodes().values().toArray(new Node[0]);
+		for (int i = 0; i < 500; i++) {
+			Node from = nodes[random.nextInt(nodes.length)];
+			Node to = nodes[random.nextInt(nodes.length)];
+			double time = random.nextInt(24 * 3600);
+			Path expected = alt.calcLeastCostPath(from, to, time, null, null);
+			Path actual = ch.calcLeastCostPath(from, to, time, null, null);
+			Assertions.assertEquals(expected.travelCost, actual.travelCost, 1e-6, "from " + from.getId() + " to " + to.getId());
+			Assertions.assertEquals(expected.travelTime, actual.travelTime, 1e-6);
+			Assertions.assertEquals(expected.links, actual.links);
+		}
+	}
+
+	@Test
+	void testCustomization() {
+		Random random = new Random(4711);
+		Network network = createGrid(10, random);
+		SpeedyCHData chData = new SpeedyCHData(SpeedyGraphBuilder.build(network));
+		CongestedTravelTime travelTime1 = new CongestedTravelTime(random);
+		CongestedTravelTime travelTime2 = new CongestedTravelTime(random);
+
+		SpeedyCHData.Metric metric1 = chData.getMetric(travelTime1);
+		Assertions.assertSame(metric1, chData.getMetric(travelTime1), "customization must be re-used");
+		SpeedyCHData.Metric metric2 = chData.getMetric(travelTime2);
+		Assertions.assertNotSame(metric1, metric2);
+
+		// every link is a lower bound for its edge in the hierarchy
+		for (Link link : network.getLinks().values()) {
+			int from = link.getFromNode().getId().index();
+			int to = link.getToNode().getId().index();
+			double cost = travelTime2.getLinkMinimumTravelDisutility(link);
+			if (chData.rank[from] < chData.rank[to]) {
+				Assertions.assertTrue(metric2.upCosts[chData.findEdge(from, to)] <= cost);
+			} else {
+				Assertions.assertTrue(metric2.downCosts[chData.findEdge(to, from)] <= cost);
+			}
+		}
+	}
+
+	private static Network createGrid(int size, Random random) {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 100 + random.nextInt(50), y * 100 + random.nextInt(50)));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y], random);
+					addLink(network, nodes[x + 1][y], nodes[x][y], random);
+				}
+				if (y + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x][y + 1], random);
+					addLink(network, nodes[x][y + 1], nodes[x][y], random);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLink(Network network, Node from, Node to, Random random) {
+		Link link = network.getFactory().createLink(Id.createLinkId(from.getId() + "-" + to.getId()), from, to);
+		link.setLength(100 + random.nextDouble() * 100);
+		link.setFreespeed(random.nextBoolean() ? 13.9 : 22.2);
+		link.setCapacity(1000);
+		link.setNumberOfLanes(1);
+		network.addLink(link);
+	}
+
+	/**
+	 * Travel times are higher during the peak hours, by a random factor per link.
+	 */
+	private static class CongestedTravelTime implements TravelTime, TravelDisutility {
+		private final double[] peakFactors = new double[Id.getNumberOfIds(Link.class)];
+
+		CongestedTravelTime(Random random) {
+			for (int i = 0; i < this.peakFactors.length; i++) {
+				this.peakFactors[i] = 1 + 3 * random.nextDouble();
+			}
+		}
+
+		@Override
+		public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+			double freespeedTime = link.getLength() / link.getFreespeed();
+			double hour = (time / 3600) % 24;
+			boolean peak = (hour >= 7 && hour < 9) || (hour >= 16 && hour < 19);
+			return peak ? freespeedTime * this.peakFactors[link.getId().index()] : freespeedTime;
+		}
+
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			return getLinkTravelTime(link, time, person, vehicle) + 0.01 * link.getLength();
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return link.getLength() / link.getFreespeed() + 0.01 * link.getLength();
+		}
+	}
+
+}
@@ -23,6 +23,7 @@
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
@@ -33,21 +34,34 @@ import org.matsim.api.core.v01.events.PersonScoreEvent;
 import org.matsim.api.core.v01.population.Activity;
 import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.api.core.v01.population.PopulationFactory;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.Controler;
 import org.matsim.core.controler.ControlerListenerManagerImpl;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
 import org.matsim.core.events.EventsUtils;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.router.TripStructureUtils;
 import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
 
 	/**
  * @author mrieser / Simunto GmbH
  */
 public class ScoringFunctionsForPopulationTest {
 
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
 	 @Test
 	 void testTripScoring() {
 		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
@@ -134,6 +148,66 @@ public class ScoringFunctionsForPopulationTest {
 		Assertions.assertEquals(1.234+2.345, rsf.separateScoreSum, 1e-7);
 	}
 
+	@Test
+	void testScoringFunctionsAreOnlyHandedOutOnceScoringThreadsAreDone() {
+		Config config = ConfigUtils.createConfig();
+		config.scoring().setNumberOfThreads(2);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		Population population = scenario.getPopulation();
+		Id<Person> personId = Id.create(1, Person.class);
+		population.addPerson(population.getFactory().createPerson(personId));
+
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		ScoringFunctionFactory scoringFunctionFactory = agentId -> new RecordingScoringFunction();
+
+		ScoringFunctionsForPopulation sf = new ScoringFunctionsForPopulation(controlerListenerManager, eventsManager, new EventsToActivities(), new EventsToLegs(scenario), population, scoringFunctionFactory, config);
+		controlerListenerManager.fireControlerIterationStartsEvent(0, false);
+
+		eventsManager.initProcessing();
+		eventsManager.processEvent(new PersonScoreEvent(7*3600, personId, 1.234, "testing"));
+		eventsManager.finishProcessing();
+		Assertions.assertThrows(IllegalStateException.class, () -> sf.getScoringFunctionForAgent(personId));
+
+		sf.finishScoringFunctions();
+		RecordingScoringFunction rsf = (RecordingScoringFunction) sf.getScoringFunctionForAgent(personId);
+		Assertions.assertEquals(1, rsf.separateScoreCounter);
+		Assertions.assertEquals(1.234, rsf.separateScoreSum, 1e-7);
+	}
+
+	@Test
+	void testMultipleThreadsScoreTheSame() {
+		Scenario singleThreaded = runEquil(1);
+		Scenario multiThreaded = runEquil(3);
+		List<Double> expected = getScores(singleThreaded);
+		Assertions.assertEquals(expected, getScores(multiThreaded));
+		Assertions.assertTrue(expected.stream().allMatch(score -> score != null && score != 0.0));
+	}
+
+	private Scenario runEquil(int numberOfThreads) {
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		config.plans().setInputFile("plans100.xml");
+		config.controller().setOutputDirectory(this.utils.getOutputDirectory() + numberOfThreads + "/");
+		config.controller().setOverwriteFileSetting(OutputDirectoryHierarchy.OverwriteFileSetting.deleteDirectoryIfExists);
+		config.controller().setLastIteration(2);
+		config.controller().setCreateGraphsInterval(0);
+		config.controller().setDumpDataAtEnd(false);
+		config.scoring().setNumberOfThreads(numberOfThreads);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		new Controler(scenario).run();
+		return scenario;
+	}
+
+	private static List<Double> getScores(Scenario scenario) {
+		List<Double> scores = new ArrayList<>();
+		for (Person person : scenario.getPopulation().getPersons().values()) {
+			for (Plan plan : person.getPlans()) {
+				scores.add(plan.getScore());
+			}
+		}
+		return scores;
+	}
+
 	private static class RecordingScoringFunction implements ScoringFunction {
 
 		int tripCounter = 0;
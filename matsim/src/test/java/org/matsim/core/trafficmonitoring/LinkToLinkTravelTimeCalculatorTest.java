@@ -112,4 +112,37 @@ public class LinkToLinkTravelTimeCalculatorTest {
 		assertEquals( 1 * 60, ttcalc.getLinkToLinkTravelTimes().getLinkToLinkTravelTime(link1, link3, 7.0 * 3600 + 5 * 60 + 4*timeBinSize, null, null), MatsimTestUtils.EPSILON);  // linkTravelTime3 - 1*timeBinSize
 		assertEquals(10     , ttcalc.getLinkToLinkTravelTimes().getLinkToLinkTravelTime(link1, link3, 7.0 * 3600 + 5 * 60 + 5*timeBinSize, null, null), MatsimTestUtils.EPSILON);  // freespeedTravelTime > linkTravelTime2b - 2*timeBinSize
 	}
+
+	/**
+	 * Turns that were not part of the network when the calculator was created (and thus have no turn index)
+	 * must still be recorded.
+	 */
+	@Test
+	void testTurnNotInNetwork() {
+		MutableScenario scenario = (MutableScenario) ScenarioUtils.createScenario(utils.loadConfig((String)null));
+		scenario.getConfig().travelTimeCalculator().setCalculateLinkToLinkTravelTimes(true);
+		Network network = scenario.getNetwork();
+		Node node1 = NetworkUtils.createAndAddNode(network, Id.create(1, Node.class), new Coord(0, 0));
+		Node node2 = NetworkUtils.createAndAddNode(network, Id.create(2, Node.class), new Coord(1000, 0));
+		Node node3 = NetworkUtils.createAndAddNode(network, Id.create(3, Node.class), new Coord(2000, 0));
+		Node node4 = NetworkUtils.createAndAddNode(network, Id.create(4, Node.class), new Coord(3000, 0));
+		Link link1 = NetworkUtils.createAndAddLink(network, Id.create(1, Link.class), node1, node2, 1000.0, 100.0, 3600.0, 1.0);
+		Link link2 = NetworkUtils.createAndAddLink(network, Id.create(2, Link.class), node3, node4, 1000.0, 100.0, 3600.0, 1.0);
+
+		TravelTimeCalculator ttcalc = new TravelTimeCalculator(network, 900, 12 * 3600, scenario.getConfig().travelTimeCalculator());
+		Link link3 = NetworkUtils.createAndAddLink(network, Id.create("new", Link.class), node2, node3, 1000.0, 100.0, 3600.0, 1.0);
+
+		Id<Vehicle> vehId = Id.create(11, Vehicle.class);
+		// link1 -> link2 is not a turn of the network, link1 -> link3 was added later
+		ttcalc.handleEvent(new LinkEnterEvent(7 * 3600, vehId, link1.getId()));
+		ttcalc.handleEvent(new LinkLeaveEvent(7 * 3600 + 100, vehId, link1.getId()));
+		ttcalc.handleEvent(new LinkEnterEvent(7 * 3600 + 100, vehId, link2.getId()));
+		ttcalc.handleEvent(new LinkEnterEvent(8 * 3600, vehId, link1.getId()));
+		ttcalc.handleEvent(new LinkLeaveEvent(8 * 3600 + 200, vehId, link1.getId()));
+		ttcalc.handleEvent(new LinkEnterEvent(8 * 3600 + 200, vehId, link3.getId()));
+
+		assertEquals(100, ttcalc.getLinkToLinkTravelTimes().getLinkToLinkTravelTime(link1, link2, 7 * 3600, null, null), MatsimTestUtils.EPSILON);
+		assertEquals(200, ttcalc.getLinkToLinkTravelTimes().getLinkToLinkTravelTime(link1, link3, 8 * 3600, null, null), MatsimTestUtils.EPSILON);
+		assertEquals(10, ttcalc.getLinkToLinkTravelTimes().getLinkToLinkTravelTime(link1, link3, 7 * 3600, null, null), MatsimTestUtils.EPSILON);
+	}
 }
@@ -0,0 +1,120 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TravelTimeCalculatorFeedFromNetsimTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.mobsim.qsim.qnetsimengine.NetsimEventHandlers;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+
+public class TravelTimeCalculatorFeedFromNetsimTest {
+
+	@Test
+	void testSameTravelTimesAsFromEventsManager() {
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		config.plans().setInputFile("plans2000.xml.gz");
+		config.qsim().setNumberOfThreads(2);
+		config.qsim().setFlowCapFactor(0.2); // create some congestion
+		config.qsim().setStorageCapFactor(0.2);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		TravelTimeCalculator expected = new TravelTimeCalculator.Builder(scenario.getNetwork()).build();
+		runQSim(scenario, expected, null);
+
+		TravelTimeCalculator actual = new TravelTimeCalculator.Builder(scenario.getNetwork()).build();
+		NetsimEventHandlers netsimEventHandlers = new NetsimEventHandlers();
+		actual.feedFromNetsim(netsimEventHandlers);
+		runQSim(scenario, actual, netsimEventHandlers);
+		Assertions.assertTrue(netsimEventHandlers.isAttached());
+
+		TravelTime expectedTimes = expected.getLinkTravelTimes();
+		TravelTime actualTimes = actual.getLinkTravelTimes();
+		boolean congested = false;
+		for (Link link : scenario.getNetwork().getLinks().values()) {
+			double freespeedTime = link.getLength() / link.getFreespeed();
+			for (double time = 0; time < 30 * 3600; time += 900) {
+				double expectedTime = expectedTimes.getLinkTravelTime(link, time, null, null);
+				Assertions.assertEquals(expectedTime, actualTimes.getLinkTravelTime(link, time, null, null), "link " + link.getId() + " at " + time);
+				congested |= expectedTime > freespeedTime + 60;
+			}
+		}
+		Assertions.assertTrue(congested, "the test scenario should be congested");
+	}
+
+	@Test
+	void testNotFedFromNetsimWithUnsynchronizedEventsManager() {
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		TravelTimeCalculator expected = new TravelTimeCalculator.Builder(scenario.getNetwork()).build();
+		runQSim(scenario, expected, null, EventsUtils.createEventsManager());
+
+		TravelTimeCalculator actual = new TravelTimeCalculator.Builder(scenario.getNetwork()).build();
+		NetsimEventHandlers netsimEventHandlers = new NetsimEventHandlers();
+		actual.feedFromNetsim(netsimEventHandlers);
+		// the events may reach the handlers after the mobsim has moved on, so the netsim must not pass its events directly
+		runQSim(scenario, actual, netsimEventHandlers, EventsUtils.createParallelEventsManager());
+		Assertions.assertFalse(netsimEventHandlers.isAttached());
+
+		for (Link link : scenario.getNetwork().getLinks().values()) {
+			for (double time = 0; time < 30 * 3600; time += 900) {
+				Assertions.assertEquals(expected.getLinkTravelTimes().getLinkTravelTime(link, time, null, null),
+						actual.getLinkTravelTimes().getLinkTravelTime(link, time, null, null), "link " + link.getId() + " at " + time);
+			}
+		}
+	}
+
+	private static void runQSim(Scenario scenario, TravelTimeCalculator calculator, NetsimEventHandlers netsimEventHandlers) {
+		runQSim(scenario, calculator, netsimEventHandlers, EventsUtils.createEventsManager());
+	}
+
+	private static void runQSim(Scenario scenario, TravelTimeCalculator calculator, NetsimEventHandlers netsimEventHandlers, EventsManager events) {
+		MatsimRandom.reset();
+		events.addHandler(calculator);
+
+		QSimBuilder builder = new QSimBuilder(scenario.getConfig()).useDefaults();
+		if (netsimEventHandlers != null) {
+			builder.addOverridingModule(new AbstractModule() {
+				@Override
+				public void install() {
+					bind(NetsimEventHandlers.class).toInstance(netsimEventHandlers);
+				}
+			});
+		}
+		builder.build(scenario, events).run();
+	}
+
+}
@@ -0,0 +1,150 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CalendarQueueTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.collections;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CalendarQueueTest {
+
+	private record Entry(double time, int id) {
+	}
+
+	private static final Comparator<Entry> TIE_BREAKER = (e0, e1) -> Integer.compare(e1.id, e0.id);
+
+	@Test
+	void testSameOrderAsPriorityQueue() {
+		// only 64 buckets, so that many elements go through the overflow
+		CalendarQueue<Entry> calendarQueue = new CalendarQueue<>(Entry::time, TIE_BREAKER, 1.0, 64);
+		PriorityQueue<Entry> priorityQueue = new PriorityQueue<>(Comparator.comparingDouble(Entry::time).thenComparing(TIE_BREAKER));
+		Random random = new Random(4711);
+		int nextId = 0;
+		// like the first activities of all agents, added in random order before the simulation starts
+		for (int i = 0; i < 5000; i++) {
+			Entry e = new Entry(random.nextInt(1000) + (i % 2 == 0 ? 0 : random.nextDouble()), nextId++);
+			calendarQueue.add(e);
+			priorityQueue.add(e);
+		}
+		for (int now = 0; now < 2000; now++) {
+			int adds = random.nextInt(10);
+			for (int i = 0; i < adds; i++) {
+				// mostly whole seconds, some fractional ones, some already in the past, some beyond the horizon
+				double time = switch (random.nextInt(4)) {
+					case 0 -> now + random.nextInt(20);
+					case 1 -> now + random.nextInt(20) + random.nextDouble();
+					case 2 -> now - random.nextInt(5);
+					default -> now + random.nextInt(500);
+				};
+				Entry e = new Entry(time, nextId++);
+				calendarQueue.add(e);
+				priorityQueue.add(e);
+			}
+			Assertions.assertEquals(priorityQueue.size(), calendarQueue.size());
+			while (!priorityQueue.isEmpty() && priorityQueue.peek().time <= now) {
+				Assertions.assertSame(priorityQueue.peek(), calendarQueue.peek());
+				Assertions.assertSame(priorityQueue.poll(), calendarQueue.poll());
+			}
+			if (!priorityQueue.isEmpty()) {
+				Assertions.assertSame(priorityQueue.peek(), calendarQueue.peek());
+			}
+		}
+		while (!priorityQueue.isEmpty()) {
+			Assertions.assertSame(priorityQueue.poll(), calendarQueue.poll());
+		}
+		Assertions.assertTrue(calendarQueue.isEmpty());
+		Assertions.assertNull(calendarQueue.peek());
+		Assertions.assertNull(calendarQueue.poll());
+	}
+
+	@Test
+	void testRemove() {
+		CalendarQueue<Entry> calendarQueue = new CalendarQueue<>(Entry::time, TIE_BREAKER, 1.0, 16);
+		List<Entry> entries = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Entry e = new Entry(i * 0.7, i);
+			entries.add(e);
+			calendarQueue.add(e);
+		}
+		Assertions.assertTrue(calendarQueue.remove(entries.get(0)));
+		Assertions.assertTrue(calendarQueue.remove(entries.get(99))); // in the overflow
+		Assertions.assertFalse(calendarQueue.remove(entries.get(99)));
+		Assertions.assertFalse(calendarQueue.remove(new Entry(10.0, 1000)));
+
+		// remove every other element through the iterator, like the activity engine does when rescheduling
+		Iterator<Entry> iterator = calendarQueue.iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().id % 2 == 0) {
+				iterator.remove();
+			}
+		}
+		Assertions.assertEquals(49, calendarQueue.size());
+		for (int i = 1; i < 99; i += 2) {
+			Assertions.assertSame(entries.get(i), calendarQueue.poll());
+		}
+		Assertions.assertTrue(calendarQueue.isEmpty());
+	}
+
+	@Test
+	void testIterationInRemovalOrder() {
+		// only 16 buckets, so that some elements are in the overflow
+		CalendarQueue<Entry> calendarQueue = new CalendarQueue<>(Entry::time, TIE_BREAKER, 1.0, 16);
+		Random random = new Random(4711);
+		for (int i = 0; i < 200; i++) {
+			calendarQueue.add(new Entry(random.nextInt(40) + (i % 2 == 0 ? 0 : random.nextDouble()), i));
+		}
+		calendarQueue.poll();
+
+		List<Entry> iterated = new ArrayList<>();
+		calendarQueue.iterator().forEachRemaining(iterated::add);
+		Assertions.assertEquals(calendarQueue.size(), iterated.size());
+		for (Entry e : iterated) {
+			Assertions.assertSame(e, calendarQueue.poll());
+		}
+		Assertions.assertTrue(calendarQueue.isEmpty());
+	}
+
+	@Test
+	void testClearAndReuse() {
+		CalendarQueue<Entry> calendarQueue = new CalendarQueue<>(Entry::time, TIE_BREAKER);
+		calendarQueue.add(new Entry(25200, 1));
+		calendarQueue.add(new Entry(Double.POSITIVE_INFINITY, 2));
+		Assertions.assertEquals(2, calendarQueue.toArray().length);
+		calendarQueue.clear();
+		Assertions.assertTrue(calendarQueue.isEmpty());
+
+		// a new day may start earlier than where the previous one ended
+		Entry early = new Entry(100, 3);
+		Entry late = new Entry(200, 4);
+		calendarQueue.add(late);
+		calendarQueue.add(early);
+		Assertions.assertSame(early, calendarQueue.poll());
+		Assertions.assertSame(late, calendarQueue.poll());
+		Assertions.assertNull(calendarQueue.poll());
+	}
+
+}
@@ -0,0 +1,140 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PackedKdTreeTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+
+/**
+ * Test for {@link PackedKdTree}, mostly by comparing its results to the ones of a {@link QuadTree}.
+ */
+public class PackedKdTreeTest {
+
+	private final List<Coord> coords = new ArrayList<>();
+	private final QuadTree<Integer> quadTree = new QuadTree<>(0, 0, 1001, 1001);
+	private final PackedKdTree<Integer> kdTree;
+
+	public PackedKdTreeTest() {
+		Random random = new Random(4711);
+		List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < 20000; i++) {
+			// integer coordinates, so there are duplicates and objects on the borders of the queries
+			Coord coord = new Coord(random.nextInt(1000), random.nextInt(1000));
+			this.coords.add(coord);
+			this.quadTree.put(coord.getX(), coord.getY(), i);
+			ids.add(i);
+		}
+		this.kdTree = QuadTrees.createPackedKdTree(ids, this.coords::get);
+	}
+
+	private static List<Integer> sorted(Collection<Integer> values) {
+		List<Integer> list = new ArrayList<>(values);
+		Collections.sort(list);
+		return list;
+	}
+
+	private double distance(int id, double x, double y) {
+		Coord c = this.coords.get(id);
+		return Math.sqrt((c.getX() - x) * (c.getX() - x) + (c.getY() - y) * (c.getY() - y));
+	}
+
+	@Test
+	void testQueriesGiveSameResultsAsQuadTree() {
+		Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			double x = random.nextInt(1100) - 50;
+			double y = random.nextInt(1100) - 50;
+			double r = random.nextInt(100);
+
+			// ties may be resolved differently, so only the distance must be the same
+			assertEquals(distance(this.quadTree.getClosest(x, y), x, y), distance(this.kdTree.getClosest(x, y), x, y), 0.0);
+			assertEquals(sorted(this.quadTree.getDisk(x, y, r)), sorted(this.kdTree.getDisk(x, y, r)));
+			assertEquals(sorted(this.quadTree.getRing(x, y, r / 2, r)), sorted(this.kdTree.getRing(x, y, r / 2, r)));
+			assertEquals(sorted(this.quadTree.getRectangle(x, y, x + r, y + 2 * r, new ArrayList<>())),
+					sorted(this.kdTree.getRectangle(x, y, x + r, y + 2 * r, new ArrayList<>())));
+			assertEquals(sorted(this.quadTree.getElliptical(x, y, x + r, y - r, 2 * r)), sorted(this.kdTree.getElliptical(x, y, x + r, y - r, 2 * r)));
+
+			List<Integer> fromQuadTree = new ArrayList<>();
+			List<Integer> fromKdTree = new ArrayList<>();
+			int countQuadTree = this.quadTree.execute(x, y, x + r, y + r, (ex, ey, value) -> fromQuadTree.add(value));
+			int countKdTree = this.kdTree.execute(new QuadTree.Rect(x, y, x + r, y + r), (ex, ey, value) -> fromKdTree.add(value));
+			assertEquals(countQuadTree, countKdTree);
+			assertEquals(sorted(fromQuadTree), sorted(fromKdTree));
+		}
+		assertEquals(this.quadTree.size(), this.kdTree.size());
+		assertEquals(sorted(this.quadTree.values()), sorted(this.kdTree.values()));
+	}
+
+	@Test
+	void testKNearest() {
+		Random random = new Random(42);
+		for (int i = 0; i < 100; i++) {
+			double x = random.nextDouble() * 1000;
+			double y = random.nextDouble() * 1000;
+			int k = 1 + random.nextInt(50);
+			List<Integer> nearest = this.kdTree.getKNearest(x, y, k);
+			assertEquals(k, nearest.size());
+
+			List<Double> expected = new ArrayList<>();
+			for (int id = 0; id < this.coords.size(); id++) {
+				expected.add(distance(id, x, y));
+			}
+			Collections.sort(expected);
+			for (int j = 0; j < k; j++) {
+				assertEquals(expected.get(j), distance(nearest.get(j), x, y), 0.0, "the objects must be ordered by distance");
+			}
+		}
+		assertEquals(this.coords.size(), this.kdTree.getKNearest(0, 0, 1000000).size());
+	}
+
+	@Test
+	void testBatchClosest() {
+		Random random = new Random(42);
+		double[] x = new double[1000];
+		double[] y = new double[1000];
+		for (int i = 0; i < x.length; i++) {
+			x[i] = random.nextDouble() * 1000;
+			y[i] = random.nextDouble() * 1000;
+		}
+		List<Integer> closest = this.kdTree.getClosest(x, y);
+		for (int i = 0; i < x.length; i++) {
+			assertEquals(this.kdTree.getClosest(x[i], y[i]), closest.get(i));
+		}
+	}
+
+	@Test
+	void testEmptyTree() {
+		PackedKdTree<String> tree = QuadTrees.createPackedKdTree(Collections.<String>emptyList(), s -> new Coord(0, 0));
+		assertEquals(0, tree.size());
+		assertNull(tree.getClosest(1, 1));
+		assertTrue(tree.getKNearest(1, 1, 3).isEmpty());
+		assertTrue(tree.getDisk(1, 1, 100).isEmpty());
+	}
+
+}